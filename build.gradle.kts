@@ -6,6 +6,7 @@ plugins {
 	id("jacoco")
 	id("org.sonarqube") version "4.4.1.3373"
 	id("com.google.cloud.tools.jib") version "3.4.0"
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com"
@@ -27,14 +28,20 @@ ext {
 	set("testcontainersVersion", "1.19.1")
 	set("cucumberVersion", "7.14.0")
 	set("junitVersion", "5.10.0")
+	// 4.11 replaces the driver's synchronized blocks with locks, so blocking calls do not pin virtual threads
+	set("mongodb.version", "4.11.1")
 }
 
 dependencies {
 	// spring boot starters
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.boot:spring-boot-starter-data-mongodb")
+	implementation("org.springframework.boot:spring-boot-starter-webflux")
+	implementation("org.springframework.boot:spring-boot-starter-data-mongodb-reactive")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
 	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	// caching
+	implementation("com.github.ben-manes.caffeine:caffeine")
 	// documentation & api
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.2.0")
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-api:2.2.0")
@@ -52,6 +59,7 @@ dependencies {
 	testImplementation("io.cucumber:cucumber-java:${property("cucumberVersion")}")
 	testImplementation("io.cucumber:cucumber-junit:${property("cucumberVersion")}")
 	testImplementation("io.cucumber:cucumber-spring:${property("cucumberVersion")}")
+	testImplementation("io.projectreactor:reactor-test")
 	testImplementation("org.mockito:mockito-junit-jupiter")
 	testImplementation("org.assertj:assertj-core")
 	testImplementation("com.github.tomakehurst:wiremock-jre8:2.35.0")
@@ -59,6 +67,8 @@ dependencies {
 	testImplementation("io.rest-assured:rest-assured:5.3.2")
 	testImplementation("io.rest-assured:json-path:5.3.2")
 	testImplementation("io.rest-assured:xml-path:5.3.2")
+	// the store and layout benchmarks run against a Testcontainers MongoDB
+	jmh("org.testcontainers:mongodb")
 }
 
 dependencyManagement {
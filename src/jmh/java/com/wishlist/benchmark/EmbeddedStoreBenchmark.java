@@ -0,0 +1,142 @@
+package com.wishlist.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.repository.RemoveProductResult;
+import com.wishlist.domain.repository.WishlistRepository;
+import com.wishlist.infrastructure.config.MongoConfig;
+import com.wishlist.infrastructure.repository.EmbeddedWishlistLog;
+import com.wishlist.infrastructure.repository.EmbeddedWishlistRepository;
+import com.wishlist.infrastructure.repository.InMemoryWishlistRepository;
+import com.wishlist.infrastructure.repository.WishlistBulkWriter;
+import com.wishlist.infrastructure.repository.WishlistRepositoryImpl;
+import com.wishlist.infrastructure.repository.WishlistStorageLayout;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+
+// Point reads and add+remove round trips against each store, sampled so the percentiles are reported.
+// IN_MEMORY is the floor any store can be held against; MONGODB starts a container, so it needs Docker.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmbeddedStoreBenchmark {
+    private static final int CUSTOMERS = 20_000;
+    private static final int STORED_PRODUCTS = 5;
+    @Param({"IN_MEMORY", "EMBEDDED", "MONGODB"})
+    private String store;
+    private WishlistRepository repository;
+    private EmbeddedWishlistRepository embedded;
+    private Path directory;
+    private MongoDBContainer container;
+    private MongoClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        repository = switch (store) {
+            case "IN_MEMORY" -> new InMemoryWishlistRepository(new SimpleMeterRegistry());
+            case "EMBEDDED" -> startEmbedded();
+            case "MONGODB" -> startMongo();
+            default -> throw new IllegalArgumentException("Unknown store " + store);
+        };
+        for (int customer = 0; customer < CUSTOMERS; customer++) {
+            final Wishlist wishlist = new Wishlist("customer-" + customer);
+            for (int product = 0; product < STORED_PRODUCTS; product++) {
+                wishlist.addProduct("product-" + product);
+            }
+            repository.save(wishlist);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (embedded != null) {
+            embedded.stop();
+        }
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+        if (client != null) {
+            client.close();
+        }
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Benchmark
+    public Optional<Wishlist> findByCustomerId() {
+        return repository.findByCustomerId(randomCustomer());
+    }
+
+    // Removing what was added keeps every wishlist at its stored size across iterations
+    @Benchmark
+    public RemoveProductResult addAndRemoveProduct() {
+        final String customerId = randomCustomer();
+        final String productId = "product-" + ThreadLocalRandom.current().nextInt(STORED_PRODUCTS, Wishlist.MAX_PRODUCTS);
+        repository.addProduct(customerId, productId, Wishlist.MAX_PRODUCTS);
+        return repository.removeProduct(customerId, productId);
+    }
+
+    private WishlistRepository startEmbedded() throws IOException {
+        directory = Files.createTempDirectory("wishlist-embedded-benchmark");
+        embedded = new EmbeddedWishlistRepository(
+            new EmbeddedWishlistLog(directory, 64 * 1024 * 1024, false),
+            Duration.ofMinutes(1),
+            0.5,
+            new SimpleMeterRegistry()
+        );
+        embedded.start();
+        return embedded;
+    }
+
+    private WishlistRepository startMongo() {
+        container = new MongoDBContainer("mongo:7.0");
+        container.start();
+        client = MongoClients.create(container.getReplicaSetUrl());
+        final MongoTemplate mongoTemplate = new MongoTemplate(client, "wishlist_benchmark_db");
+        MongoConfig.ensureWishlistIndexes(mongoTemplate);
+        return new WishlistRepositoryImpl(
+            mongoTemplate,
+            new StaticListableBeanFactory().getBeanProvider(WishlistBulkWriter.class),
+            WishlistStorageLayout.OBJECT_ID,
+            100,
+            Duration.ofSeconds(2)
+        );
+    }
+
+    private static String randomCustomer() {
+        return "customer-" + ThreadLocalRandom.current().nextInt(CUSTOMERS);
+    }
+}
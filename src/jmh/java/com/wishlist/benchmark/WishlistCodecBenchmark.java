@@ -0,0 +1,111 @@
+package com.wishlist.benchmark;
+
+import com.mongodb.MongoClientSettings;
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.infrastructure.repository.WishlistCodec;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+// Both paths start and end at raw BSON bytes, as they do behind the driver:
+// the converter path goes through an intermediate Document, the codec path does not.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WishlistCodecBenchmark {
+    @Param({"1", "20"})
+    private int products;
+    private final Codec<Document> documentCodec = MongoClientSettings
+        .getDefaultCodecRegistry()
+        .get(Document.class);
+    private final WishlistCodec wishlistCodec = new WishlistCodec();
+    private MappingMongoConverter converter;
+    private Wishlist wishlist;
+    private byte[] bson;
+
+    @Setup
+    public void setUp() {
+        final MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        final MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        final LocalDateTime now = LocalDateTime.now();
+        wishlist = Wishlist.restore(
+            new ObjectId().toHexString(),
+            "customer123",
+            new ArrayList<>(IntStream
+                .range(0, products)
+                .mapToObj(i -> new WishlistProduct("product-" + i, now))
+                .toList()),
+            now,
+            now,
+            7L
+        );
+        bson = encodeWithCodec();
+    }
+
+    @Benchmark
+    public Wishlist decodeWithConverter() {
+        final Document document = documentCodec.decode(reader(), DecoderContext.builder().build());
+        return converter.read(Wishlist.class, document);
+    }
+
+    @Benchmark
+    public Wishlist decodeWithCodec() {
+        return wishlistCodec.decode(reader(), DecoderContext.builder().build());
+    }
+
+    @Benchmark
+    public byte[] encodeWithConverter() {
+        final Document document = new Document();
+        converter.write(wishlist, document);
+        final BasicOutputBuffer buffer = new BasicOutputBuffer();
+        documentCodec.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeWithCodec() {
+        final BasicOutputBuffer buffer = new BasicOutputBuffer();
+        wishlistCodec.encode(new BsonBinaryWriter(buffer), wishlist, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+
+    private BsonBinaryReader reader() {
+        return new BsonBinaryReader(ByteBuffer.wrap(bson));
+    }
+}
@@ -0,0 +1,96 @@
+package com.wishlist.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.infrastructure.config.MongoConfig;
+import com.wishlist.infrastructure.repository.WishlistBulkWriter;
+import com.wishlist.infrastructure.repository.WishlistRepositoryImpl;
+import com.wishlist.infrastructure.repository.WishlistStorageLayout;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+
+// Point reads by customer in each storage layout, sampled so the percentiles are reported.
+// Starts a MongoDB container per layout, so it needs Docker.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WishlistLayoutBenchmark {
+    private static final int CUSTOMERS = 20_000;
+    private static final int STORED_PRODUCTS = 5;
+    @Param({"OBJECT_ID", "CUSTOMER_KEY"})
+    private WishlistStorageLayout layout;
+    private WishlistRepositoryImpl repository;
+    private MongoDBContainer container;
+    private MongoClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        container = new MongoDBContainer("mongo:7.0");
+        container.start();
+        client = MongoClients.create(container.getReplicaSetUrl());
+        final MongoTemplate mongoTemplate = new MongoTemplate(client, "wishlist_benchmark_db");
+        if (layout.isCustomerKeyed()) {
+            MongoConfig.ensureCustomerKeyedCollection(mongoTemplate, true);
+        } else {
+            MongoConfig.ensureWishlistIndexes(mongoTemplate);
+        }
+        repository = new WishlistRepositoryImpl(
+            mongoTemplate,
+            new StaticListableBeanFactory().getBeanProvider(WishlistBulkWriter.class),
+            layout,
+            100,
+            Duration.ofSeconds(2)
+        );
+        final List<Wishlist> wishlists = IntStream
+            .range(0, CUSTOMERS)
+            .mapToObj(customer -> {
+                final Wishlist wishlist = new Wishlist("customer-" + customer);
+                if (layout.isCustomerKeyed()) {
+                    wishlist.setId(wishlist.getCustomerId());
+                }
+                IntStream.range(0, STORED_PRODUCTS).forEach(product -> wishlist.addProduct("product-" + product));
+                return wishlist;
+            })
+            .toList();
+        mongoTemplate.insert(wishlists, layout.collectionName());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Benchmark
+    public Optional<Wishlist> findByCustomerId() {
+        return repository.findByCustomerId("customer-" + ThreadLocalRandom.current().nextInt(CUSTOMERS));
+    }
+}
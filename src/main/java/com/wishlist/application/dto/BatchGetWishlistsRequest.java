@@ -0,0 +1,14 @@
+package com.wishlist.application.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BatchGetWishlistsRequest(
+    @NotNull
+    @Size(max = 1000)
+    List<@NotBlank @Pattern(regexp = "^[a-zA-Z0-9-_]{1,50}$", message = "Invalid customer ID format") String> customerIds
+) {
+}
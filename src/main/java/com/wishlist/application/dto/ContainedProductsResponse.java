@@ -0,0 +1,9 @@
+package com.wishlist.application.dto;
+
+import java.util.List;
+
+public record ContainedProductsResponse(
+    String customerId,
+    List<ProductResponse> products
+) {
+}
@@ -0,0 +1,9 @@
+package com.wishlist.application.dto;
+
+import com.wishlist.domain.repository.WishlistRevision;
+
+public record Revisioned<T>(
+    T body,
+    WishlistRevision revision
+) {
+}
@@ -2,8 +2,12 @@ package com.wishlist.application.exception;
 
 import jakarta.validation.ConstraintViolationException;
 import java.time.LocalDateTime;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -11,6 +15,7 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 @RestControllerAdvice
+@Profile("!reactive")
 public class GlobalExceptionHandler {
     @ExceptionHandler(WishlistLimitExceededException.class)
     public ResponseEntity<ApiErrorResponse> handleWishlistLimitExceeded(
@@ -96,6 +101,54 @@ public class GlobalExceptionHandler {
             .body(error);
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiErrorResponse> handleConcurrentModification(
+        OptimisticLockingFailureException exception,
+        WebRequest request
+    ) {
+        final ApiErrorResponse error = ApiErrorResponse.builder()
+            .code("CONCURRENT_MODIFICATION")
+            .message("Wishlist was modified concurrently. Please try again.")
+            .timestamp(LocalDateTime.now())
+            .path(getRequestPath(request))
+            .build();
+        return ResponseEntity
+            .status(HttpStatus.CONFLICT)
+            .body(error);
+    }
+
+    @ExceptionHandler(WishlistPreconditionFailedException.class)
+    public ResponseEntity<ApiErrorResponse> handlePreconditionFailed(
+        WishlistPreconditionFailedException exception,
+        WebRequest request
+    ) {
+        final ApiErrorResponse error = ApiErrorResponse.builder()
+            .code("PRECONDITION_FAILED")
+            .message(exception.getMessage())
+            .timestamp(LocalDateTime.now())
+            .path(getRequestPath(request))
+            .build();
+        return ResponseEntity
+            .status(HttpStatus.PRECONDITION_FAILED)
+            .body(error);
+    }
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<ApiErrorResponse> handleQueryTimeout(
+        QueryTimeoutException exception,
+        WebRequest request
+    ) {
+        final ApiErrorResponse error = ApiErrorResponse.builder()
+            .code("DEADLINE_EXCEEDED")
+            .message(exception.getMessage())
+            .timestamp(LocalDateTime.now())
+            .path(getRequestPath(request))
+            .build();
+        return ResponseEntity
+            .status(HttpStatus.GATEWAY_TIMEOUT)
+            .body(error);
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ApiErrorResponse> handleConstraintViolation(
         ConstraintViolationException exception,
@@ -139,6 +192,22 @@ public class GlobalExceptionHandler {
             .body(error);
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiErrorResponse> handleMessageNotReadable(
+        HttpMessageNotReadableException exception,
+        WebRequest request
+    ) {
+        final ApiErrorResponse error = ApiErrorResponse.builder()
+            .code("VALIDATION_ERROR")
+            .message("Request body is missing or malformed")
+            .timestamp(LocalDateTime.now())
+            .path(getRequestPath(request))
+            .build();
+        return ResponseEntity
+            .status(HttpStatus.BAD_REQUEST)
+            .body(error);
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<ApiErrorResponse> handleMethodArgumentTypeMismatch(
         MethodArgumentTypeMismatchException exception,
@@ -0,0 +1,160 @@
+package com.wishlist.application.exception;
+
+import jakarta.validation.ConstraintViolationException;
+import java.time.LocalDateTime;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+
+@RestControllerAdvice
+@Profile("reactive")
+public class ReactiveGlobalExceptionHandler {
+    @ExceptionHandler(WishlistLimitExceededException.class)
+    public ResponseEntity<ApiErrorResponse> handleWishlistLimitExceeded(
+        WishlistLimitExceededException exception,
+        ServerWebExchange exchange
+    ) {
+        return buildError(HttpStatus.BAD_REQUEST, "WISHLIST_LIMIT_EXCEEDED", exception.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(ProductAlreadyExistsException.class)
+    public ResponseEntity<ApiErrorResponse> handleProductAlreadyExists(
+        ProductAlreadyExistsException exception,
+        ServerWebExchange exchange
+    ) {
+        return buildError(HttpStatus.CONFLICT, "PRODUCT_ALREADY_EXISTS", exception.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(ProductNotFoundException.class)
+    public ResponseEntity<ApiErrorResponse> handleProductNotFound(
+        ProductNotFoundException exception,
+        ServerWebExchange exchange
+    ) {
+        return buildError(HttpStatus.NOT_FOUND, "PRODUCT_NOT_FOUND", exception.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(CustomerNotFoundException.class)
+    public ResponseEntity<ApiErrorResponse> handleCustomerNotFound(
+        CustomerNotFoundException exception,
+        ServerWebExchange exchange
+    ) {
+        return buildError(HttpStatus.NOT_FOUND, "CUSTOMER_NOT_FOUND", exception.getMessage(), exchange);
+    }
+
+    @ExceptionHandler({InvalidCustomerIdException.class, InvalidProductIdException.class})
+    public ResponseEntity<ApiErrorResponse> handleInvalidIds(
+        RuntimeException exception,
+        ServerWebExchange exchange
+    ) {
+        final String errorCode = exception instanceof InvalidCustomerIdException ?
+            "INVALID_CUSTOMER_ID" : "INVALID_PRODUCT_ID";
+        return buildError(HttpStatus.BAD_REQUEST, errorCode, exception.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiErrorResponse> handleConcurrentModification(
+        OptimisticLockingFailureException exception,
+        ServerWebExchange exchange
+    ) {
+        return buildError(
+            HttpStatus.CONFLICT,
+            "CONCURRENT_MODIFICATION",
+            "Wishlist was modified concurrently. Please try again.",
+            exchange
+        );
+    }
+
+    @ExceptionHandler(WishlistPreconditionFailedException.class)
+    public ResponseEntity<ApiErrorResponse> handlePreconditionFailed(
+        WishlistPreconditionFailedException exception,
+        ServerWebExchange exchange
+    ) {
+        return buildError(HttpStatus.PRECONDITION_FAILED, "PRECONDITION_FAILED", exception.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<ApiErrorResponse> handleQueryTimeout(
+        QueryTimeoutException exception,
+        ServerWebExchange exchange
+    ) {
+        return buildError(HttpStatus.GATEWAY_TIMEOUT, "DEADLINE_EXCEEDED", exception.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ApiErrorResponse> handleConstraintViolation(
+        ConstraintViolationException exception,
+        ServerWebExchange exchange
+    ) {
+        return buildError(
+            HttpStatus.BAD_REQUEST,
+            "VALIDATION_ERROR",
+            "Invalid input parameters: " + exception.getMessage(),
+            exchange
+        );
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiErrorResponse> handleWebExchangeBind(
+        WebExchangeBindException exception,
+        ServerWebExchange exchange
+    ) {
+        StringBuilder message = new StringBuilder("Validation failed: ");
+        exception
+            .getBindingResult()
+            .getFieldErrors()
+            .forEach(error ->
+                message
+                    .append(error.getField())
+                    .append(" ")
+                    .append(error.getDefaultMessage())
+                    .append("; ")
+            );
+        return buildError(HttpStatus.BAD_REQUEST, "VALIDATION_ERROR", message.toString(), exchange);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ApiErrorResponse> handleServerWebInput(
+        ServerWebInputException exception,
+        ServerWebExchange exchange
+    ) {
+        return buildError(HttpStatus.BAD_REQUEST, "INVALID_PARAMETER_TYPE", exception.getReason(), exchange);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ApiErrorResponse> handleGenericException(
+        Exception exception,
+        ServerWebExchange exchange
+    ) {
+        return buildError(
+            HttpStatus.INTERNAL_SERVER_ERROR,
+            "INTERNAL_SERVER_ERROR",
+            "An unexpected error occurred. Please try again later.",
+            exchange
+        );
+    }
+
+    private ResponseEntity<ApiErrorResponse> buildError(
+        HttpStatus status,
+        String code,
+        String message,
+        ServerWebExchange exchange
+    ) {
+        final ApiErrorResponse error = ApiErrorResponse
+            .builder()
+            .code(code)
+            .message(message)
+            .timestamp(LocalDateTime.now())
+            .path(exchange.getRequest().getPath().value())
+            .build();
+        return ResponseEntity
+            .status(status)
+            .body(error);
+    }
+}
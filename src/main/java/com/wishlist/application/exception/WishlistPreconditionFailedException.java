@@ -0,0 +1,7 @@
+package com.wishlist.application.exception;
+
+public class WishlistPreconditionFailedException extends RuntimeException {
+    public WishlistPreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,196 @@
+package com.wishlist.application.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Bloom filter of the customers that have a wishlist. A negative answer is definite, so reads for
+// customers who never added a product skip the database. Until the first rebuild completes every
+// customer might exist, and deleted wishlists stay in the filter until the next rebuild. Wishlists
+// created by other instances only reach the filter through add, so it must be suspended whenever
+// that feed may have missed some.
+public class KnownCustomerFilter {
+    private final double falsePositiveRate;
+    private final LongAdder skippedLookups = new LongAdder();
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private long suspensions;
+    private volatile Bits current;
+    private volatile Bits building;
+
+    public KnownCustomerFilter(double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public boolean mightExist(String customerId) {
+        final Bits bits = current;
+        if (bits == null || bits.mightContain(customerId)) {
+            return true;
+        }
+        skippedLookups.increment();
+        return false;
+    }
+
+    // Called once the wishlist is stored. A rebuild in progress gets the customer too, so a scan that
+    // started before the write cannot drop it when the new filter replaces the current one.
+    public void add(String customerId) {
+        final Bits pending = building;
+        final Bits bits = current;
+        if (pending != null) {
+            pending.put(customerId);
+        }
+        if (bits != null) {
+            bits.put(customerId);
+        }
+    }
+
+    // Every customer might exist again until a rebuild that started after this call completes
+    public void suspend() {
+        publishLock.lock();
+        try {
+            suspensions++;
+            current = null;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    // The scan is handed a sink for every stored customerId. Only one rebuild may run at a time.
+    // Returns false when the filter was suspended during the scan, which then may have missed customers.
+    public boolean rebuild(long expectedCustomers, Consumer<Consumer<String>> scan) {
+        final long started = suspensions();
+        final Bits bits = new Bits(Math.max(expectedCustomers, 1), falsePositiveRate);
+        building = bits;
+        try {
+            scan.accept(bits::put);
+            publishLock.lock();
+            try {
+                if (suspensions != started) {
+                    return false;
+                }
+                current = bits;
+                return true;
+            } finally {
+                publishLock.unlock();
+            }
+        } finally {
+            building = null;
+        }
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    // Estimated from the share of bits set, so it rises above the target when more customers than
+    // expected were added since the last rebuild
+    public double falsePositiveRate() {
+        final Bits bits = current;
+        return bits == null ? 1.0 : bits.falsePositiveRate();
+    }
+
+    public long sizeInBytes() {
+        final Bits bits = current;
+        final Bits pending = building;
+        return (bits == null ? 0 : bits.sizeInBytes()) + (pending == null ? 0 : pending.sizeInBytes());
+    }
+
+    public long skippedLookups() {
+        return skippedLookups.sum();
+    }
+
+    private long suspensions() {
+        publishLock.lock();
+        try {
+            return suspensions;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private static final class Bits {
+        private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+        private static final long FNV_PRIME = 0x100000001b3L;
+        private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+        private final LongAdder bitsSet = new LongAdder();
+
+        Bits(long expectedInsertions, double falsePositiveRate) {
+            final double ln2 = Math.log(2);
+            final long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+            final int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+            this.words = new AtomicLongArray(wordCount);
+            this.bitCount = wordCount * 64L;
+            this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedInsertions * ln2));
+        }
+
+        void put(String customerId) {
+            final long hash = fnv1a(customerId);
+            final long first = mix(hash);
+            final long second = mix(hash ^ GOLDEN_GAMMA) | 1;
+            for (int index = 0; index < hashCount; index++) {
+                final long bit = Long.remainderUnsigned(first + index * second, bitCount);
+                if (set(bit)) {
+                    bitsSet.increment();
+                }
+            }
+        }
+
+        boolean mightContain(String customerId) {
+            final long hash = fnv1a(customerId);
+            final long first = mix(hash);
+            final long second = mix(hash ^ GOLDEN_GAMMA) | 1;
+            for (int index = 0; index < hashCount; index++) {
+                final long bit = Long.remainderUnsigned(first + index * second, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double falsePositiveRate() {
+            return Math.pow((double) bitsSet.sum() / bitCount, hashCount);
+        }
+
+        long sizeInBytes() {
+            return bitCount / 8;
+        }
+
+        private boolean set(long bit) {
+            final int word = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+            long value = words.get(word);
+            while ((value & mask) == 0) {
+                final long witness = words.compareAndExchange(word, value, value | mask);
+                if (witness == value) {
+                    return true;
+                }
+                value = witness;
+            }
+            return false;
+        }
+
+        private static long fnv1a(String value) {
+            long hash = FNV_OFFSET_BASIS;
+            for (byte current : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= current & 0xFF;
+                hash *= FNV_PRIME;
+            }
+            return hash;
+        }
+
+        // splitmix64 finalizer, spreads FNV's weak low bits across the whole word
+        private static long mix(long value) {
+            value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+            value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+            return value ^ (value >>> 31);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.wishlist.application.service;
+
+import com.wishlist.application.dto.AddProductResponse;
+import com.wishlist.application.dto.ContainedProductsResponse;
+import com.wishlist.application.dto.ProductExistsResponse;
+import com.wishlist.application.dto.ProductResponse;
+import com.wishlist.application.dto.Revisioned;
+import com.wishlist.application.dto.WishlistResponse;
+import com.wishlist.application.exception.CustomerNotFoundException;
+import com.wishlist.application.exception.InvalidCustomerIdException;
+import com.wishlist.application.exception.InvalidProductIdException;
+import com.wishlist.application.exception.ProductAlreadyExistsException;
+import com.wishlist.application.exception.ProductNotFoundException;
+import com.wishlist.application.exception.WishlistLimitExceededException;
+import com.wishlist.application.exception.WishlistPreconditionFailedException;
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.ReactiveWishlistRepository;
+import com.wishlist.domain.repository.RemoveProductResult;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.usecase.ReactiveWishlistUseCase;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactiveWishlistService implements ReactiveWishlistUseCase {
+    private final ReactiveWishlistRepository wishlistRepository;
+
+    public ReactiveWishlistService(ReactiveWishlistRepository wishlistRepository) {
+        this.wishlistRepository = wishlistRepository;
+    }
+
+    @Override
+    public Mono<WishlistResponse> getWishlist(String customerId) {
+        return getRevisionedWishlist(customerId).map(Revisioned::body);
+    }
+
+    // The revision is null for customers without a stored wishlist: an empty one has nothing to revalidate
+    @Override
+    public Mono<Revisioned<WishlistResponse>> getRevisionedWishlist(String customerId) {
+        return Mono.defer(() -> {
+            validateCustomerId(customerId);
+            return wishlistRepository
+                .findByCustomerId(customerId)
+                .map(wishlist -> revisioned(customerId, wishlist))
+                .defaultIfEmpty(new Revisioned<>(mapToWishlistResponse(customerId, new Wishlist(customerId)), null));
+        });
+    }
+
+    @Override
+    public Mono<WishlistRevision> getWishlistRevision(String customerId) {
+        return Mono.defer(() -> {
+            validateCustomerId(customerId);
+            return wishlistRepository.findRevisionByCustomerId(customerId);
+        });
+    }
+
+    @Override
+    public Mono<AddProductResponse> addProduct(
+        String customerId,
+        String productId
+    ) {
+        return Mono.defer(() -> {
+            validateCustomerId(customerId);
+            validateProductId(productId);
+            return wishlistRepository
+                .addProduct(customerId, productId, Wishlist.MAX_PRODUCTS)
+                .flatMap(result -> rejectFailedAdd(result).then(Mono.fromSupplier(() -> addedResponse(customerId, productId))));
+        });
+    }
+
+    // No retry here: a conflicting write means the client's revision is stale, which it has to resolve
+    @Override
+    public Mono<Revisioned<AddProductResponse>> addProduct(
+        String customerId,
+        String productId,
+        WishlistRevision expectedRevision
+    ) {
+        return Mono.defer(() -> {
+            validateCustomerId(customerId);
+            validateProductId(productId);
+            return wishlistRepository
+                .addProduct(customerId, productId, Wishlist.MAX_PRODUCTS, expectedRevision)
+                .flatMap(result -> rejectFailedAdd(result.outcome()).then(Mono.fromSupplier(() ->
+                    new Revisioned<>(addedResponse(customerId, productId), result.revision())
+                )));
+        });
+    }
+
+    @Override
+    public Mono<Revisioned<WishlistResponse>> addProductAndGet(
+        String customerId,
+        String productId
+    ) {
+        return Mono.defer(() -> {
+            validateCustomerId(customerId);
+            validateProductId(productId);
+            return wishlistRepository
+                .addProductAndGet(customerId, productId, Wishlist.MAX_PRODUCTS)
+                .flatMap(result -> rejectFailedAdd(result.outcome()).then(Mono.fromSupplier(() ->
+                    revisioned(customerId, result.wishlist())
+                )));
+        });
+    }
+
+    @Override
+    public Mono<Void> removeProduct(
+        String customerId,
+        String productId
+    ) {
+        return Mono.defer(() -> {
+            validateCustomerId(customerId);
+            validateProductId(productId);
+            return wishlistRepository
+                .removeProduct(customerId, productId)
+                .flatMap(this::rejectFailedRemove);
+        });
+    }
+
+    @Override
+    public Mono<Revisioned<WishlistResponse>> removeProductAndGet(
+        String customerId,
+        String productId
+    ) {
+        return Mono.defer(() -> {
+            validateCustomerId(customerId);
+            validateProductId(productId);
+            return wishlistRepository
+                .removeProductAndGet(customerId, productId)
+                .flatMap(result -> rejectFailedRemove(result.outcome()).then(Mono.fromSupplier(() ->
+                    revisioned(customerId, result.wishlist())
+                )));
+        });
+    }
+
+    @Override
+    public Mono<WishlistRevision> removeProduct(
+        String customerId,
+        String productId,
+        WishlistRevision expectedRevision
+    ) {
+        return Mono.defer(() -> {
+            validateCustomerId(customerId);
+            validateProductId(productId);
+            return wishlistRepository
+                .removeProduct(customerId, productId, expectedRevision)
+                .flatMap(result -> rejectFailedRemove(result.outcome()).then(Mono.fromSupplier(result::revision)));
+        });
+    }
+
+    @Override
+    public Mono<ProductExistsResponse> checkProductExists(
+        String customerId,
+        String productId
+    ) {
+        return Mono.defer(() -> {
+            validateCustomerId(customerId);
+            validateProductId(productId);
+            return wishlistRepository
+                .findProduct(customerId, productId)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException("Product not found in wishlist")))
+                .map(product -> new ProductExistsResponse(
+                    customerId,
+                    productId,
+                    true,
+                    product.addedAt()
+                ));
+        });
+    }
+
+    @Override
+    public Mono<ContainedProductsResponse> findContainedProducts(
+        String customerId,
+        List<String> productIds
+    ) {
+        return Mono.defer(() -> {
+            validateCustomerId(customerId);
+            productIds.forEach(this::validateProductId);
+            return wishlistRepository
+                .findProducts(customerId, Set.copyOf(productIds))
+                .map(this::mapToProductResponse)
+                .collectList()
+                .map(products -> new ContainedProductsResponse(customerId, products));
+        });
+    }
+
+    @Override
+    public Mono<Void> clearWishlist(String customerId) {
+        return Mono.defer(() -> {
+            validateCustomerId(customerId);
+            return wishlistRepository
+                .deleteByCustomerId(customerId)
+                .<Void>flatMap(deleted -> deleted ?
+                    Mono.empty() :
+                    Mono.error(new CustomerNotFoundException("Customer not found"))
+                );
+        });
+    }
+
+    private Mono<Void> rejectFailedAdd(AddProductResult result) {
+        if (result == AddProductResult.REVISION_MISMATCH) {
+            return Mono.error(new WishlistPreconditionFailedException("Wishlist was modified since the given revision"));
+        }
+        if (result == AddProductResult.LIMIT_EXCEEDED) {
+            return Mono.error(new WishlistLimitExceededException("Wishlist cannot exceed 20 products"));
+        }
+        if (result == AddProductResult.ALREADY_EXISTS) {
+            return Mono.error(new ProductAlreadyExistsException("Product already exists in wishlist"));
+        }
+        return Mono.empty();
+    }
+
+    private Mono<Void> rejectFailedRemove(RemoveProductResult result) {
+        if (result == RemoveProductResult.REVISION_MISMATCH) {
+            return Mono.error(new WishlistPreconditionFailedException("Wishlist was modified since the given revision"));
+        }
+        if (result == RemoveProductResult.CUSTOMER_NOT_FOUND) {
+            return Mono.error(new CustomerNotFoundException("Customer not found"));
+        }
+        if (result == RemoveProductResult.PRODUCT_NOT_FOUND) {
+            return Mono.error(new ProductNotFoundException("Product not found in wishlist"));
+        }
+        return Mono.empty();
+    }
+
+    private AddProductResponse addedResponse(String customerId, String productId) {
+        return new AddProductResponse(
+            "Product added to wishlist successfully",
+            customerId,
+            productId,
+            LocalDateTime.now()
+        );
+    }
+
+    private void validateCustomerId(String customerId) {
+        if (customerId == null || customerId.trim().isEmpty()) {
+            throw new InvalidCustomerIdException("Customer ID cannot be null or empty");
+        }
+    }
+
+    private void validateProductId(String productId) {
+        if (productId == null || productId.trim().isEmpty()) {
+            throw new InvalidProductIdException("Product ID cannot be null or empty");
+        }
+    }
+
+    private Revisioned<WishlistResponse> revisioned(String customerId, Wishlist wishlist) {
+        return new Revisioned<>(mapToWishlistResponse(customerId, wishlist), WishlistRevision.of(wishlist));
+    }
+
+    private WishlistResponse mapToWishlistResponse(String customerId, Wishlist wishlist) {
+        final List<ProductResponse> products = wishlist
+            .getProducts()
+            .stream()
+            .map(this::mapToProductResponse)
+            .toList();
+        return new WishlistResponse(
+            customerId,
+            products,
+            wishlist.getProductCount(),
+            Wishlist.MAX_PRODUCTS
+        );
+    }
+
+    private ProductResponse mapToProductResponse(WishlistProduct product) {
+        return new ProductResponse(product.productId(), product.addedAt());
+    }
+}
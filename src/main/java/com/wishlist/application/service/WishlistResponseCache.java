@@ -0,0 +1,90 @@
+package com.wishlist.application.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import com.wishlist.domain.repository.WishlistRevision;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+public class WishlistResponseCache {
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private final Cache<String, SerializedWishlist> cache;
+    private final StatsCounter stats = new ConcurrentStatsCounter();
+    private final boolean gzip;
+
+    public WishlistResponseCache(long maximumBytes, Duration expireAfterAccess, boolean gzip) {
+        this.gzip = gzip;
+        this.cache = Caffeine
+            .newBuilder()
+            .maximumWeight(maximumBytes)
+            .weigher((String customerId, SerializedWishlist entry) -> entry.weight() + customerId.length())
+            .expireAfterAccess(expireAfterAccess)
+            .recordStats(() -> stats)
+            .build();
+    }
+
+    public Cache<String, SerializedWishlist> getCache() {
+        return cache;
+    }
+
+    public long weightedSize() {
+        return cache
+            .policy()
+            .eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0L))
+            .orElse(0L);
+    }
+
+    // An entry only counts as a hit when it was serialized from the revision that is current now
+    public Optional<SerializedWishlist> get(String customerId, WishlistRevision revision) {
+        final SerializedWishlist entry = cache
+            .asMap()
+            .get(customerId);
+        if (entry != null && entry.revision().equals(revision)) {
+            stats.recordHits(1);
+            return Optional.of(entry);
+        }
+        stats.recordMisses(1);
+        return Optional.empty();
+    }
+
+    // The newest put always wins: versions restart when a deleted wishlist is recreated, so they cannot
+    // order entries. A late put of an older revision only costs a miss, as get() checks the whole revision.
+    public SerializedWishlist put(String customerId, WishlistRevision revision, byte[] json) {
+        final SerializedWishlist entry = new SerializedWishlist(revision, json, gzip ? gzip(json) : null);
+        cache.put(customerId, entry);
+        return entry;
+    }
+
+    public void invalidate(String customerId) {
+        if (customerId != null) {
+            cache.invalidate(customerId);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 2 + 32);
+        try (GZIPOutputStream output = new GZIPOutputStream(compressed)) {
+            output.write(json);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return compressed.toByteArray();
+    }
+
+    public record SerializedWishlist(
+        WishlistRevision revision,
+        byte[] json,
+        byte[] gzipped
+    ) {
+        int weight() {
+            return ENTRY_OVERHEAD_BYTES + json.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+}
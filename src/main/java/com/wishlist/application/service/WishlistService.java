@@ -1,8 +1,10 @@
 package com.wishlist.application.service;
 
 import com.wishlist.application.dto.AddProductResponse;
+import com.wishlist.application.dto.ContainedProductsResponse;
 import com.wishlist.application.dto.ProductExistsResponse;
 import com.wishlist.application.dto.ProductResponse;
+import com.wishlist.application.dto.Revisioned;
 import com.wishlist.application.dto.WishlistResponse;
 import com.wishlist.application.exception.CustomerNotFoundException;
 import com.wishlist.application.exception.InvalidCustomerIdException;
@@ -10,42 +12,122 @@ import com.wishlist.application.exception.InvalidProductIdException;
 import com.wishlist.application.exception.ProductAlreadyExistsException;
 import com.wishlist.application.exception.ProductNotFoundException;
 import com.wishlist.application.exception.WishlistLimitExceededException;
+import com.wishlist.application.exception.WishlistPreconditionFailedException;
 import com.wishlist.domain.entity.Wishlist;
 import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.ConditionalWriteResult;
+import com.wishlist.domain.repository.RemoveProductResult;
 import com.wishlist.domain.repository.WishlistRepository;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.repository.WishlistWriteResult;
 import com.wishlist.domain.usecase.WishlistUseCase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class WishlistService implements WishlistUseCase {
+    private static final int MAX_WRITE_ATTEMPTS = 4;
+    private static final long RETRY_BASE_DELAY_MILLIS = 5;
     private final WishlistRepository wishlistRepository;
+    private final WishlistResponseCache responseCache;
+    private final KnownCustomerFilter knownCustomers;
+    private final WishlistStreamingService rawReads;
+    private final Counter writeConflicts;
+    private final Counter writeRetries;
+    private final Counter coalescedReads;
+    private final ConcurrentMap<String, CompletableFuture<Optional<Wishlist>>> inFlightReads = new ConcurrentHashMap<>();
 
-    public WishlistService(WishlistRepository wishlistRepository) {
+    public WishlistService(
+        WishlistRepository wishlistRepository,
+        MeterRegistry meterRegistry,
+        @Nullable WishlistResponseCache responseCache,
+        @Nullable KnownCustomerFilter knownCustomers,
+        @Nullable WishlistStreamingService rawReads
+    ) {
         this.wishlistRepository = wishlistRepository;
+        this.responseCache = responseCache;
+        this.knownCustomers = knownCustomers;
+        this.rawReads = rawReads;
+        this.writeConflicts = Counter
+            .builder("wishlist.write.conflicts")
+            .description("Wishlist writes rejected by a concurrent modification")
+            .register(meterRegistry);
+        this.writeRetries = Counter
+            .builder("wishlist.write.retries")
+            .description("Wishlist writes retried after a concurrent modification")
+            .register(meterRegistry);
+        this.coalescedReads = Counter
+            .builder("wishlist.read.coalesced")
+            .description("Wishlist reads answered by joining an identical read already in flight")
+            .register(meterRegistry);
     }
 
     @Override
     @Transactional(readOnly = true)
     public WishlistResponse getWishlist(String customerId) {
+        return getRevisionedWishlist(customerId).body();
+    }
+
+    // The revision is null for customers without a stored wishlist: an empty one has nothing to revalidate
+    @Override
+    @Transactional(readOnly = true)
+    public Revisioned<WishlistResponse> getRevisionedWishlist(String customerId) {
         validateCustomerId(customerId);
-        final Wishlist wishlist = wishlistRepository
-            .findByCustomerId(customerId)
-            .orElse(new Wishlist(customerId));
-        final List<ProductResponse> products = wishlist
-            .getProducts()
+        final Optional<Wishlist> stored = mightExist(customerId) ? findWishlistOnce(customerId) : Optional.empty();
+        return stored
+            .map(wishlist -> revisioned(customerId, wishlist))
+            .orElseGet(() -> new Revisioned<>(mapToWishlistResponse(customerId, new Wishlist(customerId)), null));
+    }
+
+    // Stored wishlists go out as their chunks arrive, customers without one follow as empty wishlists
+    @Override
+    @Transactional(readOnly = true)
+    public void getWishlists(
+        List<String> customerIds,
+        Consumer<WishlistResponse> consumer
+    ) {
+        customerIds.forEach(this::validateCustomerId);
+        final Set<String> pending = new LinkedHashSet<>(customerIds);
+        final List<String> stored = pending
             .stream()
-            .map(this::mapToProductResponse)
-            .collect(Collectors.toList());
-        return new WishlistResponse(
-            customerId,
-            products,
-            wishlist.getProductCount(),
-            20
-        );
+            .filter(this::mightExist)
+            .toList();
+        if (!stored.isEmpty()) {
+            wishlistRepository.findByCustomerIds(stored, wishlist -> {
+                if (pending.remove(wishlist.getCustomerId())) {
+                    consumer.accept(mapToWishlistResponse(wishlist.getCustomerId(), wishlist));
+                }
+            });
+        }
+        pending.forEach(customerId -> consumer.accept(mapToWishlistResponse(customerId, new Wishlist(customerId))));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<WishlistRevision> getWishlistRevision(String customerId) {
+        validateCustomerId(customerId);
+        if (!mightExist(customerId)) {
+            return Optional.empty();
+        }
+        return wishlistRepository.findRevisionByCustomerId(customerId);
     }
 
     @Override
@@ -55,17 +137,12 @@ public class WishlistService implements WishlistUseCase {
     ) {
         validateCustomerId(customerId);
         validateProductId(productId);
-        Wishlist wishlist = wishlistRepository
-            .findByCustomerId(customerId)
-            .orElse(new Wishlist(customerId));
-        if (wishlist.cannotAddProduct()) {
-            throw new WishlistLimitExceededException("Wishlist cannot exceed 20 products");
-        }
-        if (wishlist.hasProduct(productId)) {
-            throw new ProductAlreadyExistsException("Product already exists in wishlist");
-        }
-        wishlist.addProduct(productId);
-        wishlistRepository.save(wishlist);
+        final AddProductResult result = invalidatingResponse(
+            customerId,
+            () -> retryOnConflict(() -> wishlistRepository.addProduct(customerId, productId, Wishlist.MAX_PRODUCTS))
+        );
+        rememberCustomer(customerId);
+        rejectFailedAdd(result);
         return new AddProductResponse(
             "Product added to wishlist successfully",
             customerId,
@@ -74,6 +151,46 @@ public class WishlistService implements WishlistUseCase {
         );
     }
 
+    @Override
+    public Revisioned<WishlistResponse> addProductAndGet(
+        String customerId,
+        String productId
+    ) {
+        validateCustomerId(customerId);
+        validateProductId(productId);
+        final WishlistWriteResult<AddProductResult> result = invalidatingResponse(
+            customerId,
+            () -> retryOnConflict(() -> wishlistRepository.addProductAndGet(customerId, productId, Wishlist.MAX_PRODUCTS))
+        );
+        rememberCustomer(customerId);
+        rejectFailedAdd(result.outcome());
+        return revisioned(customerId, result.wishlist());
+    }
+
+    // No retry here: a conflicting write means the client's revision is stale, which it has to resolve
+    @Override
+    public Revisioned<AddProductResponse> addProduct(
+        String customerId,
+        String productId,
+        WishlistRevision expectedRevision
+    ) {
+        validateCustomerId(customerId);
+        validateProductId(productId);
+        final ConditionalWriteResult<AddProductResult> result = invalidatingResponse(
+            customerId,
+            () -> wishlistRepository.addProduct(customerId, productId, Wishlist.MAX_PRODUCTS, expectedRevision)
+        );
+        rememberCustomer(customerId);
+        rejectFailedAdd(result.outcome());
+        final AddProductResponse response = new AddProductResponse(
+            "Product added to wishlist successfully",
+            customerId,
+            productId,
+            LocalDateTime.now()
+        );
+        return new Revisioned<>(response, result.revision());
+    }
+
     @Override
     public void removeProduct(
         String customerId,
@@ -81,14 +198,42 @@ public class WishlistService implements WishlistUseCase {
     ) {
         validateCustomerId(customerId);
         validateProductId(productId);
-        Wishlist wishlist = wishlistRepository
-            .findByCustomerId(customerId)
-            .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
-        boolean removed = wishlist.removeProduct(productId);
-        if (!removed) {
-            throw new ProductNotFoundException("Product not found in wishlist");
-        }
-        wishlistRepository.save(wishlist);
+        final RemoveProductResult result = invalidatingResponse(
+            customerId,
+            () -> retryOnConflict(() -> wishlistRepository.removeProduct(customerId, productId))
+        );
+        rejectFailedRemove(result);
+    }
+
+    @Override
+    public Revisioned<WishlistResponse> removeProductAndGet(
+        String customerId,
+        String productId
+    ) {
+        validateCustomerId(customerId);
+        validateProductId(productId);
+        final WishlistWriteResult<RemoveProductResult> result = invalidatingResponse(
+            customerId,
+            () -> retryOnConflict(() -> wishlistRepository.removeProductAndGet(customerId, productId))
+        );
+        rejectFailedRemove(result.outcome());
+        return revisioned(customerId, result.wishlist());
+    }
+
+    @Override
+    public WishlistRevision removeProduct(
+        String customerId,
+        String productId,
+        WishlistRevision expectedRevision
+    ) {
+        validateCustomerId(customerId);
+        validateProductId(productId);
+        final ConditionalWriteResult<RemoveProductResult> result = invalidatingResponse(
+            customerId,
+            () -> wishlistRepository.removeProduct(customerId, productId, expectedRevision)
+        );
+        rejectFailedRemove(result.outcome());
+        return result.revision();
     }
 
     @Override
@@ -99,18 +244,12 @@ public class WishlistService implements WishlistUseCase {
     ) {
         validateCustomerId(customerId);
         validateProductId(productId);
-        Wishlist wishlist = wishlistRepository
-            .findByCustomerId(customerId)
-            .orElse(new Wishlist(customerId));
-        WishlistProduct product = wishlist
-            .getProducts()
-            .stream()
-            .filter(p -> p.productId().equals(productId))
-            .findFirst()
-            .orElse(null);
-        if (product == null) {
+        if (!mightExist(customerId)) {
             throw new ProductNotFoundException("Product not found in wishlist");
         }
+        final WishlistProduct product = wishlistRepository
+            .findProduct(customerId, productId)
+            .orElseThrow(() -> new ProductNotFoundException("Product not found in wishlist"));
         return new ProductExistsResponse(
             customerId,
             productId,
@@ -119,13 +258,138 @@ public class WishlistService implements WishlistUseCase {
         );
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ContainedProductsResponse findContainedProducts(
+        String customerId,
+        List<String> productIds
+    ) {
+        validateCustomerId(customerId);
+        productIds.forEach(this::validateProductId);
+        if (!mightExist(customerId)) {
+            return new ContainedProductsResponse(customerId, List.of());
+        }
+        final List<ProductResponse> products = wishlistRepository
+            .findProducts(customerId, Set.copyOf(productIds))
+            .stream()
+            .map(this::mapToProductResponse)
+            .collect(Collectors.toList());
+        return new ContainedProductsResponse(customerId, products);
+    }
+
     @Override
     public void clearWishlist(String customerId) {
         validateCustomerId(customerId);
-        if (!wishlistRepository.existsByCustomerId(customerId)) {
+        if (!invalidatingResponse(customerId, () -> wishlistRepository.deleteByCustomerId(customerId))) {
+            throw new CustomerNotFoundException("Customer not found");
+        }
+    }
+
+    private void rejectFailedAdd(AddProductResult result) {
+        if (result == AddProductResult.REVISION_MISMATCH) {
+            throw new WishlistPreconditionFailedException("Wishlist was modified since the given revision");
+        }
+        if (result == AddProductResult.LIMIT_EXCEEDED) {
+            throw new WishlistLimitExceededException("Wishlist cannot exceed 20 products");
+        }
+        if (result == AddProductResult.ALREADY_EXISTS) {
+            throw new ProductAlreadyExistsException("Product already exists in wishlist");
+        }
+    }
+
+    private void rejectFailedRemove(RemoveProductResult result) {
+        if (result == RemoveProductResult.REVISION_MISMATCH) {
+            throw new WishlistPreconditionFailedException("Wishlist was modified since the given revision");
+        }
+        if (result == RemoveProductResult.CUSTOMER_NOT_FOUND) {
             throw new CustomerNotFoundException("Customer not found");
         }
-        wishlistRepository.deleteByCustomerId(customerId);
+        if (result == RemoveProductResult.PRODUCT_NOT_FOUND) {
+            throw new ProductNotFoundException("Product not found in wishlist");
+        }
+    }
+
+    private boolean mightExist(String customerId) {
+        return knownCustomers == null || knownCustomers.mightExist(customerId);
+    }
+
+    // Recorded whatever the outcome: a customer added without a stored wishlist only costs a false positive
+    private void rememberCustomer(String customerId) {
+        if (knownCustomers != null) {
+            knownCustomers.add(customerId);
+        }
+    }
+
+    // Concurrent reads of one customer share a single query. A write drops the shared read, so a
+    // caller that reads after its own write never joins a query that started before it. The loader only
+    // merges reads arriving within its window; this also covers those arriving while the query runs.
+    // Any failure, Errors included, completes the flight so no joiner is left waiting on it.
+    private Optional<Wishlist> findWishlistOnce(String customerId) {
+        final CompletableFuture<Optional<Wishlist>> flight = new CompletableFuture<>();
+        final CompletableFuture<Optional<Wishlist>> inFlight = inFlightReads.putIfAbsent(customerId, flight);
+        if (inFlight != null) {
+            coalescedReads.increment();
+            try {
+                return inFlight.join();
+            } catch (CompletionException exception) {
+                if (exception.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (exception.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw exception;
+            }
+        }
+        try {
+            final Optional<Wishlist> wishlist = wishlistRepository.findByCustomerId(customerId);
+            flight.complete(wishlist);
+            return wishlist;
+        } catch (Throwable failure) {
+            flight.completeExceptionally(failure);
+            throw failure;
+        } finally {
+            inFlightReads.remove(customerId, flight);
+        }
+    }
+
+    private <T> T invalidatingResponse(String customerId, Supplier<T> write) {
+        try {
+            return write.get();
+        } finally {
+            inFlightReads.remove(customerId);
+            if (rawReads != null) {
+                rawReads.forget(customerId);
+            }
+            if (responseCache != null) {
+                responseCache.invalidate(customerId);
+            }
+        }
+    }
+
+    private <T> T retryOnConflict(Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.get();
+            } catch (OptimisticLockingFailureException exception) {
+                writeConflicts.increment();
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    throw exception;
+                }
+                writeRetries.increment();
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        final long maxDelay = RETRY_BASE_DELAY_MILLIS << attempt;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelay + 1));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockingFailureException("Interrupted while retrying wishlist write", exception);
+        }
     }
 
     private void validateCustomerId(String customerId) {
@@ -140,6 +404,24 @@ public class WishlistService implements WishlistUseCase {
         }
     }
 
+    private Revisioned<WishlistResponse> revisioned(String customerId, Wishlist wishlist) {
+        return new Revisioned<>(mapToWishlistResponse(customerId, wishlist), WishlistRevision.of(wishlist));
+    }
+
+    private WishlistResponse mapToWishlistResponse(String customerId, Wishlist wishlist) {
+        final List<ProductResponse> products = wishlist
+            .getProducts()
+            .stream()
+            .map(this::mapToProductResponse)
+            .collect(Collectors.toList());
+        return new WishlistResponse(
+            customerId,
+            products,
+            wishlist.getProductCount(),
+            20
+        );
+    }
+
     private ProductResponse mapToProductResponse(WishlistProduct product) {
         return new ProductResponse(product.productId(), product.addedAt());
     }
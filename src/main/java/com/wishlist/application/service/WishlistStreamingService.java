@@ -0,0 +1,136 @@
+package com.wishlist.application.service;
+
+import com.wishlist.application.exception.InvalidCustomerIdException;
+import com.wishlist.application.service.WishlistResponseCache.SerializedWishlist;
+import com.wishlist.domain.repository.RawWishlist;
+import com.wishlist.domain.repository.RawWishlistJsonWriter;
+import com.wishlist.domain.repository.RawWishlistRepository;
+import com.wishlist.domain.repository.WishlistRevision;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+@Service
+@Profile("!reactive")
+// Raw documents come straight from Mongo, which lags behind the in-memory copies in write-behind mode
+@ConditionalOnExpression("${wishlist.read.raw-json-enabled:false} and !${wishlist.write-behind.enabled:false}")
+public class WishlistStreamingService {
+    private static final int INITIAL_BUFFER_BYTES = 2048;
+    private final RawWishlistRepository rawWishlistRepository;
+    private final WishlistResponseCache responseCache;
+    private final KnownCustomerFilter knownCustomers;
+    private final RawWishlistJsonWriter jsonWriter;
+    private final ConcurrentMap<String, CompletableFuture<Optional<RawWishlist>>> inFlightReads = new ConcurrentHashMap<>();
+
+    public WishlistStreamingService(
+        RawWishlistRepository rawWishlistRepository,
+        RawWishlistJsonWriter jsonWriter,
+        @Nullable WishlistResponseCache responseCache,
+        @Nullable KnownCustomerFilter knownCustomers
+    ) {
+        this.rawWishlistRepository = rawWishlistRepository;
+        this.jsonWriter = jsonWriter;
+        this.responseCache = responseCache;
+        this.knownCustomers = knownCustomers;
+    }
+
+    public boolean isCaching() {
+        return responseCache != null;
+    }
+
+    public Optional<WishlistRevision> currentRevision(String customerId) {
+        validateCustomerId(customerId);
+        if (!mightExist(customerId)) {
+            return Optional.empty();
+        }
+        return rawWishlistRepository.findRevisionByCustomerId(customerId);
+    }
+
+    public Optional<RawWishlist> findRawWishlist(String customerId) {
+        validateCustomerId(customerId);
+        if (!mightExist(customerId)) {
+            return Optional.empty();
+        }
+        return findRawWishlistOnce(customerId);
+    }
+
+    // Called by writes, so a caller that reads after its own write never joins a read that started before it
+    public void forget(String customerId) {
+        inFlightReads.remove(customerId);
+    }
+
+    public void writeWishlist(String customerId, RawWishlist document, OutputStream output) throws IOException {
+        jsonWriter.write(customerId, document, output);
+    }
+
+    public void writeEmptyWishlist(String customerId, OutputStream output) throws IOException {
+        jsonWriter.writeEmpty(customerId, output);
+    }
+
+    // Empty when the wishlist was deleted after its revision was read
+    public Optional<SerializedWishlist> serializedWishlist(
+        String customerId,
+        WishlistRevision revision
+    ) throws IOException {
+        final Optional<SerializedWishlist> cached = responseCache.get(customerId, revision);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        final Optional<RawWishlist> document = findRawWishlist(customerId);
+        if (document.isEmpty()) {
+            return Optional.empty();
+        }
+        final ByteArrayOutputStream json = new ByteArrayOutputStream(INITIAL_BUFFER_BYTES);
+        jsonWriter.write(customerId, document.get(), json);
+        return Optional.of(responseCache.put(customerId, document.get().revision(), json.toByteArray()));
+    }
+
+    // Concurrent reads of one customer share a single query, the same way WishlistService shares entity reads.
+    // Joiners share the buffer too, which is safe because the JSON writer only reads through a duplicate of it
+    private Optional<RawWishlist> findRawWishlistOnce(String customerId) {
+        final CompletableFuture<Optional<RawWishlist>> flight = new CompletableFuture<>();
+        final CompletableFuture<Optional<RawWishlist>> inFlight = inFlightReads.putIfAbsent(customerId, flight);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException exception) {
+                if (exception.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (exception.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw exception;
+            }
+        }
+        try {
+            final Optional<RawWishlist> document = rawWishlistRepository.findRawByCustomerId(customerId);
+            flight.complete(document);
+            return document;
+        } catch (Throwable failure) {
+            flight.completeExceptionally(failure);
+            throw failure;
+        } finally {
+            inFlightReads.remove(customerId, flight);
+        }
+    }
+
+    private boolean mightExist(String customerId) {
+        return knownCustomers == null || knownCustomers.mightExist(customerId);
+    }
+
+    private void validateCustomerId(String customerId) {
+        if (customerId == null || customerId.trim().isEmpty()) {
+            throw new InvalidCustomerIdException("Customer ID cannot be null or empty");
+        }
+    }
+}
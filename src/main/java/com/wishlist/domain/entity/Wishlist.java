@@ -2,6 +2,7 @@ package com.wishlist.domain.entity;
 
 import jakarta.validation.constraints.Size;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 import java.time.LocalDateTime;
@@ -10,6 +11,7 @@ import java.util.List;
 
 @Document(collection = "wishlists")
 public class Wishlist {
+    public static final int MAX_PRODUCTS = 20;
     @Id
     private String id;
     @Indexed(unique = true)
@@ -18,6 +20,8 @@ public class Wishlist {
     private List<WishlistProduct> products = new ArrayList<>();
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    @Version
+    private Long version;
 
     public Wishlist(String customerId) {
         this.customerId = customerId;
@@ -25,10 +29,31 @@ public class Wishlist {
         this.updatedAt = LocalDateTime.now();
     }
 
+    public static Wishlist restore(
+        String id,
+        String customerId,
+        List<WishlistProduct> products,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long version
+    ) {
+        final Wishlist wishlist = new Wishlist(customerId);
+        wishlist.id = id;
+        wishlist.products = products;
+        wishlist.createdAt = createdAt;
+        wishlist.updatedAt = updatedAt;
+        wishlist.version = version;
+        return wishlist;
+    }
+
     public String getId() {
         return id;
     }
 
+    public void setId(String id) {
+        this.id = id;
+    }
+
     public List<WishlistProduct> getProducts() {
         return products;
     }
@@ -44,7 +69,7 @@ public class Wishlist {
     }
 
     public boolean cannotAddProduct() {
-        return products.size() >= 20;
+        return products.size() >= MAX_PRODUCTS;
     }
 
     public void addProduct(String productId) {
@@ -81,4 +106,12 @@ public class Wishlist {
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,8 @@
+package com.wishlist.domain.repository;
+
+public enum AddProductResult {
+    ADDED,
+    ALREADY_EXISTS,
+    LIMIT_EXCEEDED,
+    REVISION_MISMATCH
+}
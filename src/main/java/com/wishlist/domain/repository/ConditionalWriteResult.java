@@ -0,0 +1,8 @@
+package com.wishlist.domain.repository;
+
+// revision is the one written by the update, or null when nothing was applied
+public record ConditionalWriteResult<T>(
+    T outcome,
+    WishlistRevision revision
+) {
+}
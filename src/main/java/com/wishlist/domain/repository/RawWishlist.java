@@ -0,0 +1,9 @@
+package com.wishlist.domain.repository;
+
+import java.nio.ByteBuffer;
+
+public record RawWishlist(
+    WishlistRevision revision,
+    ByteBuffer bson
+) {
+}
@@ -0,0 +1,10 @@
+package com.wishlist.domain.repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface RawWishlistJsonWriter {
+    void write(String customerId, RawWishlist wishlist, OutputStream output) throws IOException;
+
+    void writeEmpty(String customerId, OutputStream output) throws IOException;
+}
@@ -0,0 +1,9 @@
+package com.wishlist.domain.repository;
+
+import java.util.Optional;
+
+public interface RawWishlistRepository {
+    Optional<RawWishlist> findRawByCustomerId(String customerId);
+
+    Optional<WishlistRevision> findRevisionByCustomerId(String customerId);
+}
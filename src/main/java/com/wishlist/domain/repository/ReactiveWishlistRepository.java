@@ -0,0 +1,44 @@
+package com.wishlist.domain.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import java.util.Set;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveWishlistRepository {
+    Mono<Wishlist> findByCustomerId(String customerId);
+
+    Mono<Wishlist> save(Wishlist wishlist);
+
+    Mono<Boolean> deleteByCustomerId(String customerId);
+
+    Mono<Boolean> existsByCustomerId(String customerId);
+
+    Mono<AddProductResult> addProduct(String customerId, String productId, int maxProducts);
+
+    Mono<RemoveProductResult> removeProduct(String customerId, String productId);
+
+    Mono<WishlistProduct> findProduct(String customerId, String productId);
+
+    Flux<WishlistProduct> findProducts(String customerId, Set<String> productIds);
+
+    Mono<WishlistRevision> findRevisionByCustomerId(String customerId);
+
+    Mono<WishlistWriteResult<AddProductResult>> addProductAndGet(String customerId, String productId, int maxProducts);
+
+    Mono<WishlistWriteResult<RemoveProductResult>> removeProductAndGet(String customerId, String productId);
+
+    Mono<ConditionalWriteResult<AddProductResult>> addProduct(
+        String customerId,
+        String productId,
+        int maxProducts,
+        WishlistRevision expectedRevision
+    );
+
+    Mono<ConditionalWriteResult<RemoveProductResult>> removeProduct(
+        String customerId,
+        String productId,
+        WishlistRevision expectedRevision
+    );
+}
@@ -0,0 +1,8 @@
+package com.wishlist.domain.repository;
+
+public enum RemoveProductResult {
+    REMOVED,
+    PRODUCT_NOT_FOUND,
+    CUSTOMER_NOT_FOUND,
+    REVISION_MISMATCH
+}
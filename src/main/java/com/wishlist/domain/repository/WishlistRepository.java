@@ -1,14 +1,49 @@
 package com.wishlist.domain.repository;
 
 import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface WishlistRepository {
     Optional<Wishlist> findByCustomerId(String customerId);
 
+    // Hands each stored wishlist to the consumer on the calling thread, in no particular order
+    void findByCustomerIds(Collection<String> customerIds, Consumer<Wishlist> consumer);
+
     Wishlist save(Wishlist wishlist);
 
-    void deleteByCustomerId(String customerId);
+    boolean deleteByCustomerId(String customerId);
 
     boolean existsByCustomerId(String customerId);
+
+    AddProductResult addProduct(String customerId, String productId, int maxProducts);
+
+    RemoveProductResult removeProduct(String customerId, String productId);
+
+    Optional<WishlistProduct> findProduct(String customerId, String productId);
+
+    List<WishlistProduct> findProducts(String customerId, Set<String> productIds);
+
+    Optional<WishlistRevision> findRevisionByCustomerId(String customerId);
+
+    WishlistWriteResult<AddProductResult> addProductAndGet(String customerId, String productId, int maxProducts);
+
+    WishlistWriteResult<RemoveProductResult> removeProductAndGet(String customerId, String productId);
+
+    ConditionalWriteResult<AddProductResult> addProduct(
+        String customerId,
+        String productId,
+        int maxProducts,
+        WishlistRevision expectedRevision
+    );
+
+    ConditionalWriteResult<RemoveProductResult> removeProduct(
+        String customerId,
+        String productId,
+        WishlistRevision expectedRevision
+    );
 }
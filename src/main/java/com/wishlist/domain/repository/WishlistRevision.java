@@ -0,0 +1,43 @@
+package com.wishlist.domain.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import java.time.ZoneId;
+import java.util.Optional;
+
+public record WishlistRevision(
+    long version,
+    long updatedAtMillis
+) {
+    public static WishlistRevision of(Wishlist wishlist) {
+        final long updatedAtMillis = wishlist.getUpdatedAt() == null ? 0L : wishlist
+            .getUpdatedAt()
+            .atZone(ZoneId.systemDefault())
+            .toInstant()
+            .toEpochMilli();
+        return new WishlistRevision(
+            wishlist.getVersion() == null ? 0L : wishlist.getVersion(),
+            updatedAtMillis
+        );
+    }
+
+    // Parses the value of tag(), without the surrounding quotes of an ETag
+    public static Optional<WishlistRevision> parseTag(String tag) {
+        final int separator = tag.indexOf('-');
+        if (separator <= 0) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new WishlistRevision(
+                Long.parseLong(tag.substring(0, separator)),
+                Long.parseUnsignedLong(tag.substring(separator + 1), 16)
+            ));
+        } catch (NumberFormatException exception) {
+            return Optional.empty();
+        }
+    }
+
+    // updatedAt keeps the tag unique when a deleted wishlist is recreated and reaches the same version
+    public String tag() {
+        return version + "-" + Long.toHexString(updatedAtMillis);
+    }
+}
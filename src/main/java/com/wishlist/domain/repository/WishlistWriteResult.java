@@ -0,0 +1,10 @@
+package com.wishlist.domain.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+
+// wishlist is the document as stored by the update, or null when nothing was applied
+public record WishlistWriteResult<T>(
+    T outcome,
+    Wishlist wishlist
+) {
+}
@@ -0,0 +1,36 @@
+package com.wishlist.domain.usecase;
+
+import com.wishlist.application.dto.AddProductResponse;
+import com.wishlist.application.dto.ContainedProductsResponse;
+import com.wishlist.application.dto.ProductExistsResponse;
+import com.wishlist.application.dto.Revisioned;
+import com.wishlist.application.dto.WishlistResponse;
+import com.wishlist.domain.repository.WishlistRevision;
+import java.util.List;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveWishlistUseCase {
+    Mono<WishlistResponse> getWishlist(String customerId);
+
+    Mono<Revisioned<WishlistResponse>> getRevisionedWishlist(String customerId);
+
+    Mono<WishlistRevision> getWishlistRevision(String customerId);
+
+    Mono<AddProductResponse> addProduct(String customerId, String productId);
+
+    Mono<Revisioned<AddProductResponse>> addProduct(String customerId, String productId, WishlistRevision expectedRevision);
+
+    Mono<Revisioned<WishlistResponse>> addProductAndGet(String customerId, String productId);
+
+    Mono<Void> removeProduct(String customerId, String productId);
+
+    Mono<Revisioned<WishlistResponse>> removeProductAndGet(String customerId, String productId);
+
+    Mono<WishlistRevision> removeProduct(String customerId, String productId, WishlistRevision expectedRevision);
+
+    Mono<ProductExistsResponse> checkProductExists(String customerId, String productId);
+
+    Mono<ContainedProductsResponse> findContainedProducts(String customerId, List<String> productIds);
+
+    Mono<Void> clearWishlist(String customerId);
+}
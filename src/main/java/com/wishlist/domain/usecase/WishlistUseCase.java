@@ -1,17 +1,39 @@
 package com.wishlist.domain.usecase;
 
 import com.wishlist.application.dto.AddProductResponse;
+import com.wishlist.application.dto.ContainedProductsResponse;
 import com.wishlist.application.dto.ProductExistsResponse;
+import com.wishlist.application.dto.Revisioned;
 import com.wishlist.application.dto.WishlistResponse;
+import com.wishlist.domain.repository.WishlistRevision;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface WishlistUseCase {
     WishlistResponse getWishlist(String customerId);
 
+    Revisioned<WishlistResponse> getRevisionedWishlist(String customerId);
+
+    void getWishlists(List<String> customerIds, Consumer<WishlistResponse> consumer);
+
+    Optional<WishlistRevision> getWishlistRevision(String customerId);
+
     AddProductResponse addProduct(String customerId, String productId);
 
+    Revisioned<AddProductResponse> addProduct(String customerId, String productId, WishlistRevision expectedRevision);
+
+    Revisioned<WishlistResponse> addProductAndGet(String customerId, String productId);
+
     void removeProduct(String customerId, String productId);
 
+    Revisioned<WishlistResponse> removeProductAndGet(String customerId, String productId);
+
+    WishlistRevision removeProduct(String customerId, String productId, WishlistRevision expectedRevision);
+
     ProductExistsResponse checkProductExists(String customerId, String productId);
 
+    ContainedProductsResponse findContainedProducts(String customerId, List<String> productIds);
+
     void clearWishlist(String customerId);
 }
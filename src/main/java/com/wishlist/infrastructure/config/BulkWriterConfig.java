@@ -0,0 +1,33 @@
+package com.wishlist.infrastructure.config;
+
+import com.wishlist.infrastructure.repository.WishlistBulkWriter;
+import com.wishlist.infrastructure.repository.WishlistStorageLayout;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@Configuration
+@EnableConfigurationProperties(WishlistBulkWriterProperties.class)
+public class BulkWriterConfig {
+    @Bean
+    @ConditionalOnProperty(prefix = "wishlist.bulk-writer", name = "enabled", havingValue = "true")
+    public WishlistBulkWriter wishlistBulkWriter(
+        MongoTemplate mongoTemplate,
+        @Value("${wishlist.storage.layout:OBJECT_ID}") WishlistStorageLayout layout,
+        WishlistBulkWriterProperties properties,
+        @Value("${wishlist.virtual-threads.enabled:false}") boolean virtualThreads,
+        MeterRegistry meterRegistry
+    ) {
+        return new WishlistBulkWriter(
+            mongoTemplate,
+            layout.collectionName(),
+            properties,
+            virtualThreads,
+            meterRegistry
+        );
+    }
+}
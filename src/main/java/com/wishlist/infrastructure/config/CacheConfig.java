@@ -0,0 +1,56 @@
+package com.wishlist.infrastructure.config;
+
+import com.wishlist.domain.repository.WishlistRepository;
+import com.wishlist.infrastructure.repository.BatchingWishlistRepository;
+import com.wishlist.infrastructure.repository.CachingWishlistRepository;
+import com.wishlist.infrastructure.repository.WishlistChangeStreamListener;
+import com.wishlist.infrastructure.repository.WishlistRepositoryImpl;
+import com.wishlist.infrastructure.repository.WishlistStorageLayout;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@Configuration
+@EnableConfigurationProperties({WishlistCacheProperties.class, WishlistLoaderProperties.class})
+public class CacheConfig {
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "wishlist.cache", name = "enabled", havingValue = "true")
+    public CachingWishlistRepository cachingWishlistRepository(
+        WishlistRepositoryImpl wishlistRepositoryImpl,
+        WishlistCacheProperties properties,
+        WishlistLoaderProperties loaderProperties,
+        MeterRegistry meterRegistry
+    ) {
+        final WishlistRepository delegate = loaderProperties.enabled() ?
+            new BatchingWishlistRepository(wishlistRepositoryImpl, loaderProperties, meterRegistry) :
+            wishlistRepositoryImpl;
+        final CachingWishlistRepository repository = new CachingWishlistRepository(
+            delegate,
+            properties
+        );
+        CaffeineCacheMetrics.monitor(meterRegistry, repository.getCache(), "wishlists");
+        return repository;
+    }
+
+    @Bean
+    @ConditionalOnProperty(
+        prefix = "wishlist.cache",
+        name = {"enabled", "change-stream-enabled"},
+        havingValue = "true"
+    )
+    public WishlistChangeStreamListener wishlistChangeStreamListener(
+        MongoTemplate mongoTemplate,
+        @Value("${wishlist.storage.layout:OBJECT_ID}") WishlistStorageLayout layout,
+        CachingWishlistRepository cachingWishlistRepository,
+        MeterRegistry meterRegistry
+    ) {
+        return new WishlistChangeStreamListener(mongoTemplate, layout, cachingWishlistRepository, meterRegistry);
+    }
+}
@@ -0,0 +1,57 @@
+package com.wishlist.infrastructure.config;
+
+import com.wishlist.application.service.KnownCustomerFilter;
+import com.wishlist.infrastructure.repository.KnownCustomerFilterRebuilder;
+import com.wishlist.infrastructure.repository.WishlistStorageLayout;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@Configuration
+@EnableConfigurationProperties(WishlistCustomerFilterProperties.class)
+@ConditionalOnProperty(prefix = "wishlist.customer-filter", name = "enabled", havingValue = "true")
+public class CustomerFilterConfig {
+    @Bean
+    public KnownCustomerFilter knownCustomerFilter(
+        WishlistCustomerFilterProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        final KnownCustomerFilter filter = new KnownCustomerFilter(properties.falsePositiveRate());
+        Gauge
+            .builder("wishlist.customer.filter.false.positive.rate", filter, KnownCustomerFilter::falsePositiveRate)
+            .description("Estimated chance that a customer without a wishlist still costs a database read")
+            .register(meterRegistry);
+        Gauge
+            .builder("wishlist.customer.filter.bytes", filter, KnownCustomerFilter::sizeInBytes)
+            .description("Memory held by the known customer filter, including a rebuild in progress")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        FunctionCounter
+            .builder("wishlist.customer.filter.skipped", filter, KnownCustomerFilter::skippedLookups)
+            .description("Wishlist reads answered as empty without a database read")
+            .register(meterRegistry);
+        return filter;
+    }
+
+    @Bean
+    public KnownCustomerFilterRebuilder knownCustomerFilterRebuilder(
+        MongoTemplate mongoTemplate,
+        @Value("${wishlist.storage.layout:OBJECT_ID}") WishlistStorageLayout layout,
+        KnownCustomerFilter knownCustomerFilter,
+        WishlistCustomerFilterProperties properties
+    ) {
+        return new KnownCustomerFilterRebuilder(
+            mongoTemplate,
+            layout,
+            knownCustomerFilter,
+            properties.expectedCustomers(),
+            properties.rebuildInterval()
+        );
+    }
+}
@@ -0,0 +1,33 @@
+package com.wishlist.infrastructure.config;
+
+import com.wishlist.infrastructure.repository.EmbeddedWishlistLog;
+import com.wishlist.infrastructure.repository.EmbeddedWishlistRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// Replaces MongoConfig and WishlistRepositoryImpl through the standalone profile group, whose
+// application-standalone.yml turns off the Mongo auto-configuration and every feature that reads Mongo directly
+@Configuration
+@Profile("embedded")
+@EnableConfigurationProperties(WishlistEmbeddedStoreProperties.class)
+public class EmbeddedStoreConfig {
+    @Bean
+    public EmbeddedWishlistRepository embeddedWishlistRepository(
+        WishlistEmbeddedStoreProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        return new EmbeddedWishlistRepository(
+            new EmbeddedWishlistLog(
+                properties.directory(),
+                (int) properties.segmentSize().toBytes(),
+                properties.syncOnWrite()
+            ),
+            properties.maintenanceInterval(),
+            properties.compactionThreshold(),
+            meterRegistry
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package com.wishlist.infrastructure.config;
+
+import com.wishlist.infrastructure.repository.InMemoryWishlistRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// Part of the standalone profile group like EmbeddedStoreConfig; every wishlist is lost on restart
+@Configuration
+@Profile("in-memory")
+public class InMemoryStoreConfig {
+    @Bean
+    public InMemoryWishlistRepository inMemoryWishlistRepository(MeterRegistry meterRegistry) {
+        return new InMemoryWishlistRepository(meterRegistry);
+    }
+}
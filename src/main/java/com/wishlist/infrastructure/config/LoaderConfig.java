@@ -0,0 +1,26 @@
+package com.wishlist.infrastructure.config;
+
+import com.wishlist.infrastructure.repository.BatchingWishlistRepository;
+import com.wishlist.infrastructure.repository.WishlistRepositoryImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+@EnableConfigurationProperties(WishlistLoaderProperties.class)
+public class LoaderConfig {
+    // With the near cache on, CacheConfig puts the loader behind the cache so only misses are batched
+    @Bean
+    @Primary
+    @ConditionalOnExpression("${wishlist.loader.enabled:false} and !${wishlist.cache.enabled:false}")
+    public BatchingWishlistRepository batchingWishlistRepository(
+        WishlistRepositoryImpl wishlistRepositoryImpl,
+        WishlistLoaderProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        return new BatchingWishlistRepository(wishlistRepositoryImpl, properties, meterRegistry);
+    }
+}
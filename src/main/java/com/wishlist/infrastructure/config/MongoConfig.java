@@ -1,14 +1,35 @@
 package com.wishlist.infrastructure.config;
 
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.ClusteredIndexOptions;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.wishlist.infrastructure.repository.WishlistLayoutMigration;
+import com.wishlist.infrastructure.repository.WishlistMigrations;
+import com.wishlist.infrastructure.repository.WishlistStorageLayout;
+import org.bson.Document;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.context.annotation.Bean;
 import com.mongodb.client.MongoClient;
 import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 @Configuration
+@Profile("!standalone")
+@EnableConfigurationProperties(WishlistStorageProperties.class)
 public class MongoConfig extends AbstractMongoClientConfiguration {
+    private static final String COLLECTION_NAME = WishlistStorageLayout.OBJECT_ID.collectionName();
+    private static final int NAMESPACE_EXISTS = 48;
+
     @Override
     protected String getDatabaseName() {
         return "wishlist_db";
@@ -21,4 +42,73 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     ) {
         return new MongoTemplate(mongoClient, getDatabaseName());
     }
+
+    @Bean
+    public ApplicationRunner wishlistIndexInitializer(
+        MongoTemplate mongoTemplate,
+        WishlistStorageProperties properties
+    ) {
+        return args -> {
+            final String collectionName = properties.layout().collectionName();
+            if (properties.layout().isCustomerKeyed()) {
+                ensureCustomerKeyedCollection(mongoTemplate, properties.clustered());
+                if (properties.migrateOnStartup()) {
+                    new WishlistLayoutMigration(mongoTemplate).migrate();
+                }
+                if (properties.cutoverOnStartup()) {
+                    new WishlistLayoutMigration(mongoTemplate).cutover();
+                }
+            } else {
+                ensureWishlistIndexes(mongoTemplate);
+            }
+            new WishlistMigrations(mongoTemplate).runOnce(
+                "backfill-wishlist-versions:" + collectionName,
+                () -> backfillWishlistVersions(mongoTemplate, collectionName)
+            );
+        };
+    }
+
+    // _id is the customerId, so no secondary index is needed for any wishlist query
+    public static void ensureCustomerKeyedCollection(MongoTemplate mongoTemplate, boolean clustered) {
+        final String collectionName = WishlistStorageLayout.CUSTOMER_KEY.collectionName();
+        if (mongoTemplate.collectionExists(collectionName)) {
+            return;
+        }
+        final CreateCollectionOptions options = new CreateCollectionOptions();
+        if (clustered) {
+            options.clusteredIndexOptions(new ClusteredIndexOptions(new Document("_id", 1), true));
+        }
+        try {
+            mongoTemplate
+                .getDb()
+                .createCollection(collectionName, options);
+        } catch (MongoCommandException exception) {
+            if (exception.getErrorCode() != NAMESPACE_EXISTS) {
+                throw exception;
+            }
+        }
+    }
+
+    public static void ensureWishlistIndexes(MongoTemplate mongoTemplate) {
+        final IndexOperations indexOperations = mongoTemplate.indexOps(COLLECTION_NAME);
+        indexOperations.ensureIndex(
+            new Index()
+                .on("customerId", Sort.Direction.ASC)
+                .unique()
+        );
+        indexOperations.ensureIndex(
+            new Index()
+                .on("customerId", Sort.Direction.ASC)
+                .on("products.productId", Sort.Direction.ASC)
+        );
+    }
+
+    // Every write sets version, so only documents from before versioning lack it; run once per collection
+    public static void backfillWishlistVersions(MongoTemplate mongoTemplate, String collectionName) {
+        mongoTemplate.updateMulti(
+            new Query(Criteria.where("version").exists(false)),
+            new Update().set("version", 0L),
+            collectionName
+        );
+    }
 }
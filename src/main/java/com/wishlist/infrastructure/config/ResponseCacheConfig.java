@@ -0,0 +1,34 @@
+package com.wishlist.infrastructure.config;
+
+import com.wishlist.application.service.WishlistResponseCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(WishlistResponseCacheProperties.class)
+public class ResponseCacheConfig {
+    @Bean
+    @ConditionalOnProperty(prefix = "wishlist.response-cache", name = "enabled", havingValue = "true")
+    public WishlistResponseCache wishlistResponseCache(
+        WishlistResponseCacheProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        final WishlistResponseCache responseCache = new WishlistResponseCache(
+            properties.maximumSize().toBytes(),
+            properties.expireAfterAccess(),
+            properties.gzip()
+        );
+        CaffeineCacheMetrics.monitor(meterRegistry, responseCache.getCache(), "wishlistResponses");
+        Gauge
+            .builder("wishlist.response.cache.bytes", responseCache, WishlistResponseCache::weightedSize)
+            .description("Approximate memory held by cached serialized wishlist responses")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        return responseCache;
+    }
+}
@@ -0,0 +1,89 @@
+package com.wishlist.infrastructure.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private final Duration threshold;
+    private final Counter pinnedCount;
+    private final Timer pinnedDuration;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(
+        Duration threshold,
+        MeterRegistry meterRegistry
+    ) {
+        this.threshold = threshold;
+        this.pinnedCount = Counter
+            .builder("wishlist.virtual.threads.pinned")
+            .description("Virtual threads that blocked while pinned to their carrier")
+            .register(meterRegistry);
+        this.pinnedDuration = Timer
+            .builder("wishlist.virtual.threads.pinned.duration")
+            .description("Time virtual threads spent blocked while pinned")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream
+            .enable(PINNED_EVENT)
+            .withThreshold(threshold)
+            .withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+    }
+
+    @Override
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCount.increment();
+        pinnedDuration.record(event.getDuration());
+        if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn("Virtual thread pinned for {} at {}", event.getDuration(), topFrame(event));
+        }
+    }
+
+    private String topFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown frame";
+        }
+        return event
+            .getStackTrace()
+            .getFrames()
+            .stream()
+            .filter(RecordedFrame::isJavaFrame)
+            .filter(frame -> !isPlatformFrame(frame))
+            .findFirst()
+            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber())
+            .orElse("platform frame");
+    }
+
+    private boolean isPlatformFrame(RecordedFrame frame) {
+        final String typeName = frame.getMethod().getType().getName();
+        return typeName.startsWith("java.") || typeName.startsWith("jdk.") || typeName.startsWith("sun.");
+    }
+}
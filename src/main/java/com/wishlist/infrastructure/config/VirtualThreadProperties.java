@@ -0,0 +1,14 @@
+package com.wishlist.infrastructure.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "wishlist.virtual-threads")
+public record VirtualThreadProperties(
+    @DefaultValue("false")
+    boolean enabled,
+    @DefaultValue("20ms")
+    Duration pinningThreshold
+) {
+}
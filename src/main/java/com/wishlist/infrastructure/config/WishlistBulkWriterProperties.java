@@ -0,0 +1,20 @@
+package com.wishlist.infrastructure.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "wishlist.bulk-writer")
+public record WishlistBulkWriterProperties(
+    @DefaultValue("false")
+    boolean enabled,
+    @DefaultValue("100")
+    int batchSize,
+    @DefaultValue("2ms")
+    Duration linger,
+    @DefaultValue("4")
+    int maxInFlight,
+    @DefaultValue("5s")
+    Duration timeout
+) {
+}
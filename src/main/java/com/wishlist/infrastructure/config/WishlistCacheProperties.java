@@ -0,0 +1,22 @@
+package com.wishlist.infrastructure.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "wishlist.cache")
+public record WishlistCacheProperties(
+    @DefaultValue("false")
+    boolean enabled,
+    @DefaultValue("100000")
+    long maximumSize,
+    @DefaultValue("5m")
+    Duration expireAfterWrite,
+    @DefaultValue("1m")
+    Duration refreshAfterWrite,
+    @DefaultValue("true")
+    boolean changeStreamEnabled,
+    @DefaultValue("10s")
+    Duration fallbackExpireAfterWrite
+) {
+}
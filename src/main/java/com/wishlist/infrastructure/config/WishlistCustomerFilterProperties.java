@@ -0,0 +1,18 @@
+package com.wishlist.infrastructure.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "wishlist.customer-filter")
+public record WishlistCustomerFilterProperties(
+    @DefaultValue("false")
+    boolean enabled,
+    @DefaultValue("1000000")
+    long expectedCustomers,
+    @DefaultValue("0.01")
+    double falsePositiveRate,
+    @DefaultValue("1h")
+    Duration rebuildInterval
+) {
+}
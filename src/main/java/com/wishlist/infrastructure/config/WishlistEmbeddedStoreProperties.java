@@ -0,0 +1,22 @@
+package com.wishlist.infrastructure.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "wishlist.embedded")
+public record WishlistEmbeddedStoreProperties(
+    @DefaultValue("data/embedded")
+    Path directory,
+    @DefaultValue("64MB")
+    DataSize segmentSize,
+    @DefaultValue("false")
+    boolean syncOnWrite,
+    @DefaultValue("1m")
+    Duration maintenanceInterval,
+    @DefaultValue("0.5")
+    double compactionThreshold
+) {
+}
@@ -0,0 +1,16 @@
+package com.wishlist.infrastructure.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "wishlist.loader")
+public record WishlistLoaderProperties(
+    @DefaultValue("false")
+    boolean enabled,
+    @DefaultValue("1ms")
+    Duration window,
+    @DefaultValue("100")
+    int maxBatchSize
+) {
+}
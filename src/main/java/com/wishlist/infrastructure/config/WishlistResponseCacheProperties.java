@@ -0,0 +1,19 @@
+package com.wishlist.infrastructure.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "wishlist.response-cache")
+public record WishlistResponseCacheProperties(
+    @DefaultValue("false")
+    boolean enabled,
+    @DefaultValue("64MB")
+    DataSize maximumSize,
+    @DefaultValue("10m")
+    Duration expireAfterAccess,
+    @DefaultValue("true")
+    boolean gzip
+) {
+}
@@ -0,0 +1,18 @@
+package com.wishlist.infrastructure.config;
+
+import com.wishlist.infrastructure.repository.WishlistStorageLayout;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "wishlist.storage")
+public record WishlistStorageProperties(
+    @DefaultValue("OBJECT_ID")
+    WishlistStorageLayout layout,
+    @DefaultValue("true")
+    boolean clustered,
+    @DefaultValue("false")
+    boolean migrateOnStartup,
+    @DefaultValue("false")
+    boolean cutoverOnStartup
+) {
+}
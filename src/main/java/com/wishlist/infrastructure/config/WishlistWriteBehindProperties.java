@@ -0,0 +1,28 @@
+package com.wishlist.infrastructure.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "wishlist.write-behind")
+public record WishlistWriteBehindProperties(
+    @DefaultValue("false")
+    boolean enabled,
+    @DefaultValue("data/wal")
+    Path directory,
+    @DefaultValue("64MB")
+    DataSize segmentSize,
+    @DefaultValue("false")
+    boolean syncOnAppend,
+    @DefaultValue("100ms")
+    Duration flushInterval,
+    @DefaultValue("500")
+    int flushBatchSize,
+    @DefaultValue("100000")
+    int residentMaxSize,
+    @DefaultValue("1m")
+    Duration residentTtl
+) {
+}
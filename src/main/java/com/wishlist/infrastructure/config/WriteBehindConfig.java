@@ -0,0 +1,42 @@
+package com.wishlist.infrastructure.config;
+
+import com.wishlist.infrastructure.repository.WishlistRepositoryImpl;
+import com.wishlist.infrastructure.repository.WishlistWriteAheadLog;
+import com.wishlist.infrastructure.repository.WriteBehindWishlistRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+@EnableConfigurationProperties(WishlistWriteBehindProperties.class)
+public class WriteBehindConfig {
+    // The in-memory copies already are the near cache for written customers, so neither the cache nor
+    // the loader is stacked on top
+    @Bean
+    @Primary
+    @ConditionalOnExpression(
+        "${wishlist.write-behind.enabled:false} and !${wishlist.cache.enabled:false} and !${wishlist.loader.enabled:false}"
+    )
+    public WriteBehindWishlistRepository writeBehindWishlistRepository(
+        WishlistRepositoryImpl wishlistRepositoryImpl,
+        WishlistWriteBehindProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        return new WriteBehindWishlistRepository(
+            wishlistRepositoryImpl,
+            new WishlistWriteAheadLog(
+                properties.directory(),
+                (int) properties.segmentSize().toBytes(),
+                properties.syncOnAppend()
+            ),
+            properties.flushInterval(),
+            properties.flushBatchSize(),
+            properties.residentMaxSize(),
+            properties.residentTtl(),
+            meterRegistry
+        );
+    }
+}
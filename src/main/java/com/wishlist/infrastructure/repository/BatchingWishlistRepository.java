@@ -0,0 +1,250 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.ConditionalWriteResult;
+import com.wishlist.domain.repository.RemoveProductResult;
+import com.wishlist.domain.repository.WishlistRepository;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.repository.WishlistWriteResult;
+import com.wishlist.infrastructure.config.WishlistLoaderProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Coalesces concurrent findByCustomerId calls into one findByCustomerIds query. The first caller of a
+// window waits it out and then loads the batch for everyone; whoever fills the batch loads it early.
+// There is no dispatcher thread, so an idle pod pays nothing and a lone caller only pays the window.
+// Batches are read through findByCustomerIds, so even a single-key read is bounded by wishlist.batch.deadline
+// and fails with a QueryTimeoutException (504) past it, where an unbatched read would keep waiting.
+public class BatchingWishlistRepository implements WishlistRepository {
+    private final WishlistRepository delegate;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private PendingBatch open;
+
+    public BatchingWishlistRepository(
+        WishlistRepository delegate,
+        WishlistLoaderProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        this.windowNanos = properties.window().toNanos();
+        this.maxBatchSize = properties.maxBatchSize();
+        this.batchSizes = DistributionSummary
+            .builder("wishlist.loader.batch.size")
+            .description("Distinct customers loaded per coalesced findByCustomerId batch")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<Wishlist> findByCustomerId(String customerId) {
+        if (customerId == null) {
+            return delegate.findByCustomerId(null);
+        }
+        final PendingBatch batch;
+        final CompletableFuture<Optional<Wishlist>> result;
+        final boolean leader;
+        boolean full = false;
+        lock.lock();
+        try {
+            leader = open == null;
+            if (leader) {
+                open = new PendingBatch();
+            }
+            batch = open;
+            result = batch.results().computeIfAbsent(customerId, key -> new CompletableFuture<>());
+            if (batch.results().size() >= maxBatchSize) {
+                open = null;
+                full = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full) {
+            load(batch);
+        } else if (leader) {
+            final boolean interrupted = awaitWindow(result);
+            try {
+                if (close(batch)) {
+                    load(batch);
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        return await(result);
+    }
+
+    @Override
+    public void findByCustomerIds(Collection<String> customerIds, Consumer<Wishlist> consumer) {
+        delegate.findByCustomerIds(customerIds, consumer);
+    }
+
+    @Override
+    public Wishlist save(Wishlist wishlist) {
+        return delegate.save(wishlist);
+    }
+
+    @Override
+    public boolean deleteByCustomerId(String customerId) {
+        return delegate.deleteByCustomerId(customerId);
+    }
+
+    @Override
+    public boolean existsByCustomerId(String customerId) {
+        return delegate.existsByCustomerId(customerId);
+    }
+
+    @Override
+    public AddProductResult addProduct(String customerId, String productId, int maxProducts) {
+        return delegate.addProduct(customerId, productId, maxProducts);
+    }
+
+    @Override
+    public RemoveProductResult removeProduct(String customerId, String productId) {
+        return delegate.removeProduct(customerId, productId);
+    }
+
+    @Override
+    public Optional<WishlistProduct> findProduct(String customerId, String productId) {
+        return delegate.findProduct(customerId, productId);
+    }
+
+    @Override
+    public List<WishlistProduct> findProducts(String customerId, Set<String> productIds) {
+        return delegate.findProducts(customerId, productIds);
+    }
+
+    @Override
+    public Optional<WishlistRevision> findRevisionByCustomerId(String customerId) {
+        return delegate.findRevisionByCustomerId(customerId);
+    }
+
+    @Override
+    public WishlistWriteResult<AddProductResult> addProductAndGet(String customerId, String productId, int maxProducts) {
+        return delegate.addProductAndGet(customerId, productId, maxProducts);
+    }
+
+    @Override
+    public WishlistWriteResult<RemoveProductResult> removeProductAndGet(String customerId, String productId) {
+        return delegate.removeProductAndGet(customerId, productId);
+    }
+
+    @Override
+    public ConditionalWriteResult<AddProductResult> addProduct(
+        String customerId,
+        String productId,
+        int maxProducts,
+        WishlistRevision expectedRevision
+    ) {
+        return delegate.addProduct(customerId, productId, maxProducts, expectedRevision);
+    }
+
+    @Override
+    public ConditionalWriteResult<RemoveProductResult> removeProduct(
+        String customerId,
+        String productId,
+        WishlistRevision expectedRevision
+    ) {
+        return delegate.removeProduct(customerId, productId, expectedRevision);
+    }
+
+    // Returns early when a caller that filled the batch has already loaded it. An interrupt only cuts the
+    // window short: it is reported instead of restored, so the load the followers wait on is not failed by
+    // the driver seeing the flag, and the caller restores it afterwards.
+    private boolean awaitWindow(CompletableFuture<Optional<Wishlist>> result) {
+        try {
+            result.get(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException exception) {
+            // the window is over, or the load failed and await reports it
+        } catch (InterruptedException exception) {
+            return true;
+        }
+        return false;
+    }
+
+    private boolean close(PendingBatch batch) {
+        lock.lock();
+        try {
+            if (open != batch) {
+                return false;
+            }
+            open = null;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The batch is closed, so its results map is no longer written and can be read without the lock.
+    // Any failure, Errors included, completes every future, so no follower is left waiting.
+    private void load(PendingBatch batch) {
+        final Map<String, CompletableFuture<Optional<Wishlist>>> results = batch.results();
+        batchSizes.record(results.size());
+        try {
+            delegate.findByCustomerIds(results.keySet(), wishlist -> {
+                final CompletableFuture<Optional<Wishlist>> result = results.get(wishlist.getCustomerId());
+                if (result != null) {
+                    result.complete(Optional.of(wishlist));
+                }
+            });
+            results.values().forEach(result -> result.complete(Optional.empty()));
+        } catch (Throwable failure) {
+            results.values().forEach(result -> result.completeExceptionally(failure));
+        }
+    }
+
+    // Callers of the same customer share one future, so each gets its own copy of the mutable Wishlist
+    private Optional<Wishlist> await(CompletableFuture<Optional<Wishlist>> result) {
+        try {
+            return result
+                .join()
+                .map(BatchingWishlistRepository::copyOf);
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (exception.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+
+    private static Wishlist copyOf(Wishlist wishlist) {
+        return Wishlist.restore(
+            wishlist.getId(),
+            wishlist.getCustomerId(),
+            new ArrayList<>(wishlist.getProducts()),
+            wishlist.getCreatedAt(),
+            wishlist.getUpdatedAt(),
+            wishlist.getVersion()
+        );
+    }
+
+    private record PendingBatch(Map<String, CompletableFuture<Optional<Wishlist>>> results) {
+        PendingBatch() {
+            this(new LinkedHashMap<>());
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.wishlist.infrastructure.repository;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.ConditionalWriteResult;
+import com.wishlist.domain.repository.RemoveProductResult;
+import com.wishlist.domain.repository.WishlistRepository;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.repository.WishlistWriteResult;
+import com.wishlist.infrastructure.config.WishlistCacheProperties;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+public class CachingWishlistRepository implements WishlistRepository {
+    private final WishlistRepository delegate;
+    private final LoadingCache<String, Optional<Wishlist>> cache;
+    private final WishlistCacheProperties properties;
+    // Change events only carry the document id: this finds the cached customer without scanning the cache.
+    // Entries are added by the loader and dropped together with the cache entry, both atomically per customer
+    private final ConcurrentMap<String, String> customerIdsByWishlistId = new ConcurrentHashMap<>();
+
+    public CachingWishlistRepository(
+        WishlistRepository delegate,
+        WishlistCacheProperties properties
+    ) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.cache = Caffeine
+            .newBuilder()
+            .maximumSize(properties.maximumSize())
+            .expireAfterWrite(properties.expireAfterWrite())
+            .refreshAfterWrite(properties.refreshAfterWrite())
+            .recordStats()
+            .evictionListener((String customerId, Optional<Wishlist> cached, RemovalCause cause) -> forget(customerId, cached))
+            .build(this::load);
+    }
+
+    public LoadingCache<String, Optional<Wishlist>> getCache() {
+        return cache;
+    }
+
+    @Override
+    public Optional<Wishlist> findByCustomerId(String customerId) {
+        if (customerId == null) {
+            return delegate.findByCustomerId(null);
+        }
+        return cache
+            .get(customerId)
+            .map(CachingWishlistRepository::copyOf);
+    }
+
+    // Cached entries answer with a copy; only the misses reach the delegate, and they are not cached
+    @Override
+    public void findByCustomerIds(Collection<String> customerIds, Consumer<Wishlist> consumer) {
+        final List<String> misses = new ArrayList<>();
+        for (String customerId : new LinkedHashSet<>(customerIds)) {
+            final Optional<Wishlist> cached = cache.getIfPresent(customerId);
+            if (cached == null) {
+                misses.add(customerId);
+            } else {
+                cached
+                    .map(CachingWishlistRepository::copyOf)
+                    .ifPresent(consumer);
+            }
+        }
+        if (!misses.isEmpty()) {
+            delegate.findByCustomerIds(misses, consumer);
+        }
+    }
+
+    @Override
+    public Wishlist save(Wishlist wishlist) {
+        try {
+            return delegate.save(wishlist);
+        } finally {
+            invalidate(wishlist.getCustomerId());
+        }
+    }
+
+    @Override
+    public boolean deleteByCustomerId(String customerId) {
+        try {
+            return delegate.deleteByCustomerId(customerId);
+        } finally {
+            invalidate(customerId);
+        }
+    }
+
+    @Override
+    public boolean existsByCustomerId(String customerId) {
+        final Optional<Wishlist> cached = getIfPresent(customerId);
+        if (cached != null) {
+            return cached.isPresent();
+        }
+        return delegate.existsByCustomerId(customerId);
+    }
+
+    @Override
+    public AddProductResult addProduct(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        try {
+            return delegate.addProduct(customerId, productId, maxProducts);
+        } finally {
+            invalidate(customerId);
+        }
+    }
+
+    @Override
+    public RemoveProductResult removeProduct(
+        String customerId,
+        String productId
+    ) {
+        try {
+            return delegate.removeProduct(customerId, productId);
+        } finally {
+            invalidate(customerId);
+        }
+    }
+
+    @Override
+    public List<WishlistProduct> findProducts(String customerId, Set<String> productIds) {
+        return findByCustomerId(customerId)
+            .map(wishlist -> wishlist
+                .getProducts()
+                .stream()
+                .filter(product -> productIds.contains(product.productId()))
+                .toList()
+            )
+            .orElse(List.of());
+    }
+
+    @Override
+    public WishlistWriteResult<AddProductResult> addProductAndGet(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        try {
+            return delegate.addProductAndGet(customerId, productId, maxProducts);
+        } finally {
+            invalidate(customerId);
+        }
+    }
+
+    @Override
+    public WishlistWriteResult<RemoveProductResult> removeProductAndGet(
+        String customerId,
+        String productId
+    ) {
+        try {
+            return delegate.removeProductAndGet(customerId, productId);
+        } finally {
+            invalidate(customerId);
+        }
+    }
+
+    @Override
+    public ConditionalWriteResult<AddProductResult> addProduct(
+        String customerId,
+        String productId,
+        int maxProducts,
+        WishlistRevision expectedRevision
+    ) {
+        try {
+            return delegate.addProduct(customerId, productId, maxProducts, expectedRevision);
+        } finally {
+            invalidate(customerId);
+        }
+    }
+
+    @Override
+    public ConditionalWriteResult<RemoveProductResult> removeProduct(
+        String customerId,
+        String productId,
+        WishlistRevision expectedRevision
+    ) {
+        try {
+            return delegate.removeProduct(customerId, productId, expectedRevision);
+        } finally {
+            invalidate(customerId);
+        }
+    }
+
+    @Override
+    public Optional<WishlistProduct> findProduct(
+        String customerId,
+        String productId
+    ) {
+        final Optional<Wishlist> cached = getIfPresent(customerId);
+        if (cached != null) {
+            return cached.flatMap(wishlist -> wishlist
+                .getProducts()
+                .stream()
+                .filter(product -> product.productId().equals(productId))
+                .findFirst()
+            );
+        }
+        return delegate.findProduct(customerId, productId);
+    }
+
+    // Answered from the cached entry when there is one, so the revision matches the body served from it
+    @Override
+    public Optional<WishlistRevision> findRevisionByCustomerId(String customerId) {
+        final Optional<Wishlist> cached = getIfPresent(customerId);
+        if (cached != null) {
+            return cached.map(WishlistRevision::of);
+        }
+        return delegate.findRevisionByCustomerId(customerId);
+    }
+
+    public void invalidate(String customerId) {
+        if (customerId != null) {
+            cache
+                .asMap()
+                .computeIfPresent(customerId, (key, cached) -> {
+                    forget(key, cached);
+                    return null;
+                });
+        }
+    }
+
+    public void invalidateByWishlistId(String wishlistId) {
+        final String customerId = customerIdsByWishlistId.remove(wishlistId);
+        if (customerId != null) {
+            invalidate(customerId);
+        }
+    }
+
+    public void invalidateAll() {
+        cache
+            .asMap()
+            .keySet()
+            .forEach(this::invalidate);
+    }
+
+    public void useFallbackExpiry() {
+        setExpiry(properties.fallbackExpireAfterWrite(), properties.fallbackExpireAfterWrite());
+    }
+
+    public void useConfiguredExpiry() {
+        setExpiry(properties.expireAfterWrite(), properties.refreshAfterWrite());
+    }
+
+    private void setExpiry(Duration expireAfterWrite, Duration refreshAfterWrite) {
+        cache
+            .policy()
+            .expireAfterWrite()
+            .ifPresent(expiration -> expiration.setExpiresAfter(expireAfterWrite));
+        cache
+            .policy()
+            .refreshAfterWrite()
+            .ifPresent(refresh -> refresh.setRefreshesAfter(refreshAfterWrite));
+    }
+
+    private Optional<Wishlist> load(String customerId) {
+        final Optional<Wishlist> loaded = delegate.findByCustomerId(customerId);
+        loaded
+            .map(Wishlist::getId)
+            .ifPresent(wishlistId -> customerIdsByWishlistId.put(wishlistId, customerId));
+        return loaded;
+    }
+
+    private void forget(String customerId, Optional<Wishlist> cached) {
+        if (cached != null) {
+            cached
+                .map(Wishlist::getId)
+                .ifPresent(wishlistId -> customerIdsByWishlistId.remove(wishlistId, customerId));
+        }
+    }
+
+    private Optional<Wishlist> getIfPresent(String customerId) {
+        return customerId == null ? null : cache.getIfPresent(customerId);
+    }
+
+    // Every caller gets its own Wishlist: it is mutable and the cached one is shared by all readers
+    private static Wishlist copyOf(Wishlist wishlist) {
+        return Wishlist.restore(
+            wishlist.getId(),
+            wishlist.getCustomerId(),
+            new ArrayList<>(wishlist.getProducts()),
+            wishlist.getCreatedAt(),
+            wishlist.getUpdatedAt(),
+            wishlist.getVersion()
+        );
+    }
+}
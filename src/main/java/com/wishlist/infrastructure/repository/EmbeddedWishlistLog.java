@@ -0,0 +1,519 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Whole wishlists and tombstones appended to memory-mapped segment files, framed like the write-ahead
+// log: [payload length][CRC32C of payload][payload] with the length written last. Records are never
+// changed in place. The index snapshot names the log position it covers, so a restart loads it and
+// replays only what was appended after that position.
+public class EmbeddedWishlistLog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmbeddedWishlistLog.class);
+    private static final String SEGMENT_PREFIX = "data-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_FILE = "index.snapshot";
+    private static final String SNAPSHOT_TEMPORARY_FILE = "index.snapshot.tmp";
+    private static final int SNAPSHOT_MAGIC = 0x57495348;
+    private static final int HEADER_BYTES = 8;
+    private static final byte PUT = 0;
+    private static final byte TOMBSTONE = 1;
+    private static final short NO_ID = -1;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean syncOnWrite;
+    private final ZoneId zone;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private volatile Segment active;
+
+    public EmbeddedWishlistLog(Path directory, int segmentBytes, boolean syncOnWrite) {
+        this(directory, segmentBytes, syncOnWrite, ZoneId.systemDefault());
+    }
+
+    EmbeddedWishlistLog(Path directory, int segmentBytes, boolean syncOnWrite, ZoneId zone) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncOnWrite = syncOnWrite;
+        this.zone = zone;
+    }
+
+    // The segment is held by the location, so a reader racing compaction still reads from its mapping
+    // after the file was deleted
+    public record Location(
+        Segment segment,
+        int offset,
+        int length
+    ) {
+    }
+
+    // A position in the log: every record before it is covered by a snapshot taken there
+    public record Mark(
+        int segmentId,
+        int offset
+    ) {
+    }
+
+    // Loads the snapshot, then hands every later record to the consumer in log order, with a null
+    // location for a tombstone. Appends go to a fresh segment so they never follow a torn record.
+    public void open(BiConsumer<String, Location> replay) {
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            for (Path path : segmentPaths()) {
+                final Segment segment = Segment.map(path, Files.size(path));
+                segments.put(segment.id(), segment);
+            }
+            final Mark mark = readSnapshot(replay);
+            for (Segment segment : segments.values()) {
+                if (segment.id() < mark.segmentId()) {
+                    segment.position = end(segment);
+                } else {
+                    final int from = segment.id() == mark.segmentId() ? mark.offset() : 0;
+                    segment.position = readSegment(segment, from, replay);
+                }
+            }
+            active = newSegment(segments.isEmpty() ? 1 : segments.lastKey() + 1);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Cannot open embedded wishlist store in " + directory, exception);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public byte[] encode(Wishlist wishlist) {
+        final byte[] customer = bytes(wishlist.getCustomerId());
+        final byte[] id = wishlist.getId() == null ? null : bytes(wishlist.getId());
+        final List<byte[]> productIds = wishlist
+            .getProducts()
+            .stream()
+            .map(product -> bytes(product.productId()))
+            .toList();
+        int payloadBytes = 1 + 2 + customer.length + 2 + (id == null ? 0 : id.length) + 8 + 8 + 8 + 2;
+        for (byte[] productId : productIds) {
+            payloadBytes += 2 + productId.length + 8;
+        }
+        final ByteBuffer payload = ByteBuffer
+            .allocate(payloadBytes)
+            .put(PUT)
+            .putShort((short) customer.length)
+            .put(customer);
+        if (id == null) {
+            payload.putShort(NO_ID);
+        } else {
+            payload.putShort((short) id.length).put(id);
+        }
+        payload
+            .putLong(millis(wishlist.getCreatedAt()))
+            .putLong(millis(wishlist.getUpdatedAt()))
+            .putLong(wishlist.getVersion() == null ? 0L : wishlist.getVersion())
+            .putShort((short) productIds.size());
+        for (int index = 0; index < productIds.size(); index++) {
+            payload
+                .putShort((short) productIds.get(index).length)
+                .put(productIds.get(index))
+                .putLong(millis(wishlist.getProducts().get(index).addedAt()));
+        }
+        return payload.array();
+    }
+
+    public byte[] encodeTombstone(String customerId) {
+        final byte[] customer = bytes(customerId);
+        return ByteBuffer
+            .allocate(1 + 2 + customer.length)
+            .put(TOMBSTONE)
+            .putShort((short) customer.length)
+            .put(customer)
+            .array();
+    }
+
+    public Location append(byte[] payload) {
+        if (HEADER_BYTES + payload.length + 4 > segmentBytes) {
+            throw new IllegalArgumentException("Wishlist record of " + payload.length + " bytes does not fit in a segment");
+        }
+        lock.lock();
+        try {
+            if (active == null) {
+                throw new IllegalStateException("Embedded wishlist store is not open");
+            }
+            if (active.remaining() < HEADER_BYTES + payload.length + 4) {
+                roll();
+            }
+            final Segment segment = active;
+            final MappedByteBuffer buffer = segment.buffer();
+            final int start = segment.position;
+            buffer.put(start + HEADER_BYTES, payload);
+            final CRC32C checksum = new CRC32C();
+            checksum.update(payload);
+            buffer.putInt(start + 4, (int) checksum.getValue());
+            buffer.putInt(start, payload.length);
+            if (syncOnWrite) {
+                buffer.force(start, HEADER_BYTES + payload.length);
+            }
+            segment.position = start + HEADER_BYTES + payload.length;
+            return new Location(segment, start, HEADER_BYTES + payload.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Wishlist read(Location location) {
+        final ByteBuffer payload = location
+            .segment()
+            .buffer()
+            .slice(location.offset() + HEADER_BYTES, location.length() - HEADER_BYTES);
+        payload.get();
+        final String customerId = string(payload);
+        final String id = payload.getShort(payload.position()) == NO_ID ? null : string(payload);
+        if (id == null) {
+            payload.getShort();
+        }
+        final LocalDateTime createdAt = dateTime(payload.getLong());
+        final LocalDateTime updatedAt = dateTime(payload.getLong());
+        final long version = payload.getLong();
+        final int productCount = payload.getShort();
+        final List<WishlistProduct> products = new ArrayList<>(productCount);
+        for (int index = 0; index < productCount; index++) {
+            final String productId = string(payload);
+            products.add(new WishlistProduct(productId, dateTime(payload.getLong())));
+        }
+        return Wishlist.restore(id, customerId, products, createdAt, updatedAt, version);
+    }
+
+    // The payload as appended, for compaction to append it again
+    public byte[] payload(Location location) {
+        final byte[] payload = new byte[location.length() - HEADER_BYTES];
+        location
+            .segment()
+            .buffer()
+            .get(location.offset() + HEADER_BYTES, payload);
+        return payload;
+    }
+
+    // Records of a full segment in log order, with a null location for a tombstone
+    public void scan(Segment segment, BiConsumer<String, Location> consumer) {
+        readSegment(segment, 0, consumer);
+    }
+
+    public List<Segment> fullSegments() {
+        final Segment current = active;
+        return current == null ? List.of() : List.copyOf(segments.headMap(current.id()).values());
+    }
+
+    // Taken while no append is between the log and the index, so every record before it is indexed
+    public Mark mark() {
+        lock.lock();
+        try {
+            return new Mark(active.id(), active.position);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Writes the index entries that precede the mark and atomically replaces the previous snapshot.
+    // Entries past the mark are skipped, the replay after a restart indexes them again.
+    public void writeSnapshot(Mark mark, Map<String, Location> index) {
+        force();
+        final Path temporary = directory.resolve(SNAPSHOT_TEMPORARY_FILE);
+        try (FileChannel channel = FileChannel.open(
+            temporary,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            final CRC32C checksum = new CRC32C();
+            final DataOutputStream output = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel)),
+                checksum
+            ));
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeInt(mark.segmentId());
+            output.writeInt(mark.offset());
+            for (Map.Entry<String, Location> entry : index.entrySet()) {
+                final Location location = entry.getValue();
+                if (precedes(location, mark)) {
+                    output.writeBoolean(true);
+                    output.writeUTF(entry.getKey());
+                    output.writeInt(location.segment().id());
+                    output.writeInt(location.offset());
+                    output.writeInt(location.length());
+                }
+            }
+            output.writeBoolean(false);
+            output.writeLong(checksum.getValue());
+            output.flush();
+            channel.force(true);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Cannot write embedded wishlist index snapshot", exception);
+        }
+        try {
+            Files.move(
+                temporary,
+                directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING
+            );
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Cannot replace embedded wishlist index snapshot", exception);
+        }
+    }
+
+    // Only for segments before the latest snapshot mark that no index entry points to
+    public void delete(Segment segment) {
+        segments.remove(segment.id(), segment);
+        try {
+            Files.deleteIfExists(segment.path());
+        } catch (IOException exception) {
+            LOGGER.warn("Cannot delete embedded wishlist segment {}", segment.path(), exception);
+        }
+    }
+
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (Segment segment : segments.values()) {
+            bytes += segment.position;
+        }
+        return bytes;
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            if (active != null) {
+                active
+                    .buffer()
+                    .force();
+                active = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static boolean precedes(Location location, Mark mark) {
+        final int segmentId = location.segment().id();
+        return segmentId < mark.segmentId() || segmentId == mark.segmentId() && location.offset() < mark.offset();
+    }
+
+    private void force() {
+        final Segment current = active;
+        if (current != null) {
+            current
+                .buffer()
+                .force();
+        }
+    }
+
+    private void roll() {
+        active
+            .buffer()
+            .force();
+        active = newSegment(active.id() + 1);
+    }
+
+    private Segment newSegment(int id) {
+        final Path path = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        try {
+            Files.deleteIfExists(path);
+            final Segment segment = Segment.map(path, segmentBytes);
+            segments.put(id, segment);
+            return segment;
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Cannot create embedded wishlist segment " + path, exception);
+        }
+    }
+
+    private Mark readSnapshot(BiConsumer<String, Location> replay) throws IOException {
+        final Path path = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(path)) {
+            return new Mark(0, 0);
+        }
+        try (InputStream file = Files.newInputStream(path)) {
+            final CRC32C checksum = new CRC32C();
+            final DataInputStream input = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(file),
+                checksum
+            ));
+            if (input.readInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("Embedded wishlist index snapshot " + path + " is not a snapshot");
+            }
+            final Mark mark = new Mark(input.readInt(), input.readInt());
+            final List<Map.Entry<String, Location>> entries = new ArrayList<>();
+            while (input.readBoolean()) {
+                final String customerId = input.readUTF();
+                final Segment segment = segments.get(input.readInt());
+                if (segment == null) {
+                    throw new IllegalStateException("Embedded wishlist index snapshot refers to a missing segment");
+                }
+                entries.add(Map.entry(customerId, new Location(segment, input.readInt(), input.readInt())));
+            }
+            final long expected = checksum.getValue();
+            if (input.readLong() != expected) {
+                throw new IllegalStateException("Embedded wishlist index snapshot " + path + " is corrupt");
+            }
+            entries.forEach(entry -> replay.accept(entry.getKey(), entry.getValue()));
+            return mark;
+        }
+    }
+
+    private int readSegment(Segment segment, int from, BiConsumer<String, Location> consumer) {
+        final MappedByteBuffer buffer = segment.buffer();
+        int position = from;
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            final int payloadBytes = buffer.getInt(position);
+            if (payloadBytes <= 0 || position + HEADER_BYTES + payloadBytes > buffer.capacity()) {
+                break;
+            }
+            final ByteBuffer payload = buffer.slice(position + HEADER_BYTES, payloadBytes);
+            final CRC32C checksum = new CRC32C();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != buffer.getInt(position + 4)) {
+                LOGGER.warn("Ignoring torn embedded wishlist record at {} of {}", position, segment.path());
+                break;
+            }
+            final byte kind = payload.get();
+            final String customerId = string(payload);
+            consumer.accept(customerId, kind == TOMBSTONE ? null : new Location(segment, position, HEADER_BYTES + payloadBytes));
+            position += HEADER_BYTES + payloadBytes;
+        }
+        return position;
+    }
+
+    // Segments before the snapshot mark were verified when they were replayed the first time
+    private int end(Segment segment) {
+        final MappedByteBuffer buffer = segment.buffer();
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            final int payloadBytes = buffer.getInt(position);
+            if (payloadBytes <= 0 || position + HEADER_BYTES + payloadBytes > buffer.capacity()) {
+                break;
+            }
+            position += HEADER_BYTES + payloadBytes;
+        }
+        return position;
+    }
+
+    private List<Path> segmentPaths() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private long millis(LocalDateTime value) {
+        return value == null ? NO_DATE : value.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime dateTime(long millis) {
+        return millis == NO_DATE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+    }
+
+    private static byte[] bytes(String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Wishlist field of " + bytes.length + " bytes is too long to store");
+        }
+        return bytes;
+    }
+
+    private static String string(ByteBuffer payload) {
+        final byte[] bytes = new byte[payload.getShort()];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static final class Segment {
+        private final Path path;
+        private final int id;
+        private final MappedByteBuffer buffer;
+        private final AtomicLong liveBytes = new AtomicLong();
+        private volatile int position;
+
+        private Segment(Path path, int id, MappedByteBuffer buffer) {
+            this.path = path;
+            this.id = id;
+            this.buffer = buffer;
+        }
+
+        // The mapping stays valid after the channel is closed and after the file is deleted
+        static Segment map(Path path, long size) throws IOException {
+            final String name = path.getFileName().toString();
+            final int id = Integer.parseInt(
+                name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())
+            );
+            try (FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+            )) {
+                return new Segment(path, id, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        public int id() {
+            return id;
+        }
+
+        Path path() {
+            return path;
+        }
+
+        MappedByteBuffer buffer() {
+            return buffer;
+        }
+
+        int remaining() {
+            return buffer.capacity() - position;
+        }
+
+        public void addLiveBytes(long bytes) {
+            liveBytes.addAndGet(bytes);
+        }
+
+        public long liveBytes() {
+            return liveBytes.get();
+        }
+
+        // Share of the written bytes that no index entry points to any more
+        public double garbageRatio() {
+            final int written = position;
+            return written == 0 ? 1.0 : 1.0 - (double) liveBytes.get() / written;
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.ConditionalWriteResult;
+import com.wishlist.domain.repository.RemoveProductResult;
+import com.wishlist.domain.repository.WishlistRepository;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.repository.WishlistWriteResult;
+import com.wishlist.infrastructure.repository.EmbeddedWishlistLog.Location;
+import com.wishlist.infrastructure.repository.EmbeddedWishlistLog.Mark;
+import com.wishlist.infrastructure.repository.EmbeddedWishlistLog.Segment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+// Single-node store for deployments without a Mongo replica set. A write appends the whole wishlist to
+// the embedded log and points the in-memory index at the record; a read decodes the record the index
+// points to straight from the mapped segment. A maintenance thread appends the live records of mostly
+// dead segments again, snapshots the index and deletes the segments nothing points to any more.
+public class EmbeddedWishlistRepository implements WishlistRepository, SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmbeddedWishlistRepository.class);
+    // Below the web server's graceful shutdown, so requests finish before the last snapshot
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final int LOCK_STRIPES = 256;
+    private static final Duration STOP_TIMEOUT = Duration.ofMinutes(1);
+    private final EmbeddedWishlistLog log;
+    private final Duration maintenanceInterval;
+    private final double compactionThreshold;
+    private final ConcurrentMap<String, Location> index = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    // Writers share it from appending a record to indexing it; the snapshot mark is taken exclusively
+    private final ReentrantReadWriteLock indexing = new ReentrantReadWriteLock();
+    private final ReentrantLock maintenance = new ReentrantLock();
+    private final Counter compactedSegments;
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+    private Mark snapshotMark;
+
+    public EmbeddedWishlistRepository(
+        EmbeddedWishlistLog log,
+        Duration maintenanceInterval,
+        double compactionThreshold,
+        MeterRegistry meterRegistry
+    ) {
+        this.log = log;
+        this.maintenanceInterval = maintenanceInterval;
+        this.compactionThreshold = compactionThreshold;
+        for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+            locks[stripe] = new ReentrantLock();
+        }
+        this.compactedSegments = Counter
+            .builder("wishlist.embedded.compacted.segments")
+            .description("Embedded store segments whose live records were appended again")
+            .register(meterRegistry);
+        Gauge
+            .builder("wishlist.embedded.customers", index, ConcurrentMap::size)
+            .description("Wishlists in the embedded store")
+            .register(meterRegistry);
+        Gauge
+            .builder("wishlist.embedded.log.bytes", log, EmbeddedWishlistLog::sizeInBytes)
+            .description("Embedded store records kept on local disk, live or not")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    // Rebuilds the index from the snapshot and the records after it before any request is served
+    @Override
+    public void start() {
+        log.open(this::index);
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "wishlist-embedded-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(
+            this::maintain,
+            maintenanceInterval.toMillis(),
+            maintenanceInterval.toMillis(),
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    // Not interrupted: an interrupt would close the snapshot file's channel halfway through
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        maintenance.lock();
+        try {
+            snapshot();
+        } finally {
+            maintenance.unlock();
+        }
+        log.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    @Override
+    public Optional<Wishlist> findByCustomerId(String customerId) {
+        return Optional.ofNullable(current(customerId));
+    }
+
+    @Override
+    public void findByCustomerIds(
+        Collection<String> customerIds,
+        Consumer<Wishlist> consumer
+    ) {
+        for (String customerId : customerIds) {
+            final Wishlist wishlist = current(customerId);
+            if (wishlist != null) {
+                consumer.accept(wishlist);
+            }
+        }
+    }
+
+    @Override
+    public Wishlist save(Wishlist wishlist) {
+        return locked(wishlist.getCustomerId(), () -> {
+            final Wishlist current = current(wishlist.getCustomerId());
+            if (wishlist.getVersion() == null) {
+                if (current != null) {
+                    throw new DuplicateKeyException("Wishlist of customer " + wishlist.getCustomerId() + " already exists");
+                }
+                if (wishlist.getId() == null) {
+                    wishlist.setId(new ObjectId().toHexString());
+                }
+            } else if (current == null || !wishlist.getVersion().equals(current.getVersion())) {
+                throw new OptimisticLockingFailureException(
+                    "Cannot save wishlist of customer " + wishlist.getCustomerId() + " with version "
+                        + wishlist.getVersion() + "; has it been modified meanwhile?"
+                );
+            }
+            wishlist.setUpdatedAt(LocalDateTime.now());
+            wishlist.setVersion(wishlist.getVersion() == null ? 0L : wishlist.getVersion() + 1);
+            return store(wishlist);
+        });
+    }
+
+    @Override
+    public boolean deleteByCustomerId(String customerId) {
+        return locked(customerId, () -> {
+            if (!index.containsKey(customerId)) {
+                return false;
+            }
+            final byte[] tombstone = log.encodeTombstone(customerId);
+            indexing.readLock().lock();
+            try {
+                log.append(tombstone);
+                index(customerId, null);
+            } finally {
+                indexing.readLock().unlock();
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public boolean existsByCustomerId(String customerId) {
+        ensureRunning();
+        return customerId != null && index.containsKey(customerId);
+    }
+
+    @Override
+    public AddProductResult addProduct(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        return locked(customerId, () -> add(customerId, current(customerId), productId, maxProducts)).outcome();
+    }
+
+    @Override
+    public RemoveProductResult removeProduct(
+        String customerId,
+        String productId
+    ) {
+        return locked(customerId, () -> remove(current(customerId), productId)).outcome();
+    }
+
+    @Override
+    public Optional<WishlistProduct> findProduct(
+        String customerId,
+        String productId
+    ) {
+        return productsOf(current(customerId))
+            .stream()
+            .filter(product -> product.productId().equals(productId))
+            .findFirst();
+    }
+
+    @Override
+    public List<WishlistProduct> findProducts(
+        String customerId,
+        Set<String> productIds
+    ) {
+        return productsOf(current(customerId))
+            .stream()
+            .filter(product -> productIds.contains(product.productId()))
+            .toList();
+    }
+
+    @Override
+    public Optional<WishlistRevision> findRevisionByCustomerId(String customerId) {
+        return findByCustomerId(customerId).map(WishlistRevision::of);
+    }
+
+    @Override
+    public WishlistWriteResult<AddProductResult> addProductAndGet(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        return locked(customerId, () -> add(customerId, current(customerId), productId, maxProducts));
+    }
+
+    @Override
+    public WishlistWriteResult<RemoveProductResult> removeProductAndGet(
+        String customerId,
+        String productId
+    ) {
+        return locked(customerId, () -> remove(current(customerId), productId));
+    }
+
+    @Override
+    public ConditionalWriteResult<AddProductResult> addProduct(
+        String customerId,
+        String productId,
+        int maxProducts,
+        WishlistRevision expectedRevision
+    ) {
+        return locked(customerId, () -> {
+            final Wishlist current = current(customerId);
+            if (current == null || !WishlistRevision.of(current).equals(expectedRevision)) {
+                return new ConditionalWriteResult<>(AddProductResult.REVISION_MISMATCH, null);
+            }
+            final WishlistWriteResult<AddProductResult> result = add(customerId, current, productId, maxProducts);
+            return new ConditionalWriteResult<>(result.outcome(), revisionOf(result.wishlist()));
+        });
+    }
+
+    @Override
+    public ConditionalWriteResult<RemoveProductResult> removeProduct(
+        String customerId,
+        String productId,
+        WishlistRevision expectedRevision
+    ) {
+        return locked(customerId, () -> {
+            final Wishlist current = current(customerId);
+            if (current == null || !WishlistRevision.of(current).equals(expectedRevision)) {
+                return new ConditionalWriteResult<>(RemoveProductResult.REVISION_MISMATCH, null);
+            }
+            final WishlistWriteResult<RemoveProductResult> result = remove(current, productId);
+            return new ConditionalWriteResult<>(result.outcome(), revisionOf(result.wishlist()));
+        });
+    }
+
+    // A new wishlist starts at version 1, as the upsert of WishlistRepositoryImpl increments it from nothing
+    private WishlistWriteResult<AddProductResult> add(
+        String customerId,
+        Wishlist current,
+        String productId,
+        int maxProducts
+    ) {
+        final List<WishlistProduct> products = productsOf(current);
+        if (products.stream().anyMatch(product -> product.productId().equals(productId))) {
+            return new WishlistWriteResult<>(AddProductResult.ALREADY_EXISTS, null);
+        }
+        if (products.size() >= maxProducts) {
+            return new WishlistWriteResult<>(AddProductResult.LIMIT_EXCEEDED, null);
+        }
+        final LocalDateTime now = now();
+        final List<WishlistProduct> added = new ArrayList<>(products);
+        added.add(new WishlistProduct(productId, now));
+        final Wishlist wishlist = current == null ?
+            Wishlist.restore(new ObjectId().toHexString(), customerId, added, now, now, 1L) :
+            Wishlist.restore(current.getId(), customerId, added, current.getCreatedAt(), now, versionOf(current) + 1);
+        return new WishlistWriteResult<>(AddProductResult.ADDED, store(wishlist));
+    }
+
+    private WishlistWriteResult<RemoveProductResult> remove(Wishlist current, String productId) {
+        if (current == null) {
+            return new WishlistWriteResult<>(RemoveProductResult.CUSTOMER_NOT_FOUND, null);
+        }
+        final List<WishlistProduct> remaining = new ArrayList<>(current.getProducts());
+        if (!remaining.removeIf(product -> product.productId().equals(productId))) {
+            return new WishlistWriteResult<>(RemoveProductResult.PRODUCT_NOT_FOUND, null);
+        }
+        final Wishlist wishlist = Wishlist.restore(
+            current.getId(),
+            current.getCustomerId(),
+            remaining,
+            current.getCreatedAt(),
+            now(),
+            versionOf(current) + 1
+        );
+        return new WishlistWriteResult<>(RemoveProductResult.REMOVED, store(wishlist));
+    }
+
+    private Wishlist current(String customerId) {
+        ensureRunning();
+        if (customerId == null) {
+            return null;
+        }
+        final Location location = index.get(customerId);
+        return location == null ? null : log.read(location);
+    }
+
+    private Wishlist store(Wishlist wishlist) {
+        final byte[] record = log.encode(wishlist);
+        indexing.readLock().lock();
+        try {
+            index(wishlist.getCustomerId(), log.append(record));
+        } finally {
+            indexing.readLock().unlock();
+        }
+        return wishlist;
+    }
+
+    // A null location removes the customer. The old record only becomes garbage once the index no longer
+    // points to it, so a segment without live bytes has no index entry left.
+    private void index(String customerId, Location location) {
+        final Location previous = location == null ? index.remove(customerId) : index.put(customerId, location);
+        if (location != null) {
+            location
+                .segment()
+                .addLiveBytes(location.length());
+        }
+        if (previous != null) {
+            previous
+                .segment()
+                .addLiveBytes(-previous.length());
+        }
+    }
+
+    private <T> T locked(String customerId, Supplier<T> action) {
+        ensureRunning();
+        final ReentrantLock lock = lockOf(customerId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockOf(String customerId) {
+        return locks[Math.floorMod(customerId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private void ensureRunning() {
+        if (!running) {
+            throw new IllegalStateException("Embedded wishlist store is not running");
+        }
+    }
+
+    void maintain() {
+        maintenance.lock();
+        try {
+            compact();
+            snapshot();
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Embedded wishlist store maintenance failed, retrying on the next run", exception);
+        } finally {
+            maintenance.unlock();
+        }
+    }
+
+    private void compact() {
+        for (Segment segment : log.fullSegments()) {
+            if (segment.liveBytes() > 0 && segment.garbageRatio() >= compactionThreshold) {
+                log.scan(segment, (customerId, location) -> {
+                    if (location != null) {
+                        relocate(customerId, location);
+                    }
+                });
+                compactedSegments.increment();
+            }
+        }
+    }
+
+    // Skipped when the customer was written since the scan, the newer record is already live elsewhere
+    private void relocate(String customerId, Location location) {
+        final ReentrantLock lock = lockOf(customerId);
+        lock.lock();
+        try {
+            if (!location.equals(index.get(customerId))) {
+                return;
+            }
+            final byte[] record = log.payload(location);
+            indexing.readLock().lock();
+            try {
+                index(customerId, log.append(record));
+            } finally {
+                indexing.readLock().unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Segments without live bytes are picked before the snapshot is written, so it cannot point into them
+    private void snapshot() {
+        final Mark mark;
+        indexing.writeLock().lock();
+        try {
+            mark = log.mark();
+        } finally {
+            indexing.writeLock().unlock();
+        }
+        if (mark.equals(snapshotMark)) {
+            return;
+        }
+        final List<Segment> unused = log
+            .fullSegments()
+            .stream()
+            .filter(segment -> segment.id() < mark.segmentId() && segment.liveBytes() == 0)
+            .toList();
+        log.writeSnapshot(mark, index);
+        snapshotMark = mark;
+        unused.forEach(log::delete);
+    }
+
+    private static WishlistRevision revisionOf(Wishlist wishlist) {
+        return wishlist == null ? null : WishlistRevision.of(wishlist);
+    }
+
+    private static long versionOf(Wishlist wishlist) {
+        return wishlist == null || wishlist.getVersion() == null ? 0L : wishlist.getVersion();
+    }
+
+    private static List<WishlistProduct> productsOf(Wishlist wishlist) {
+        return wishlist == null ? List.of() : wishlist.getProducts();
+    }
+
+    // Records keep dates in millis, truncating here keeps the returned revision equal to the stored one
+    private static LocalDateTime now() {
+        return LocalDateTime
+            .now()
+            .truncatedTo(ChronoUnit.MILLIS);
+    }
+}
@@ -0,0 +1,310 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.ConditionalWriteResult;
+import com.wishlist.domain.repository.RemoveProductResult;
+import com.wishlist.domain.repository.WishlistRepository;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.repository.WishlistWriteResult;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+// Wishlists held in process, for edge nodes that may lose them on restart and as a baseline in load tests.
+// Each customer maps to a snapshot that is never changed once published: a write builds the next snapshot
+// from the current one and installs it with a compare-and-set on the map entry, retrying when another
+// write to the same customer got there first. Readers never wait and always get a copy.
+public class InMemoryWishlistRepository implements WishlistRepository {
+    private final ConcurrentMap<String, Wishlist> wishlists = new ConcurrentHashMap<>();
+    private final LongAdder retries = new LongAdder();
+
+    public InMemoryWishlistRepository(MeterRegistry meterRegistry) {
+        FunctionCounter
+            .builder("wishlist.in.memory.write.retries", retries, LongAdder::sum)
+            .description("Writes computed again because another write to the same wishlist was installed first")
+            .register(meterRegistry);
+        Gauge
+            .builder("wishlist.in.memory.customers", wishlists, ConcurrentMap::size)
+            .description("Wishlists held in memory")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<Wishlist> findByCustomerId(String customerId) {
+        return Optional
+            .ofNullable(snapshot(customerId))
+            .map(InMemoryWishlistRepository::copyOf);
+    }
+
+    @Override
+    public void findByCustomerIds(
+        Collection<String> customerIds,
+        Consumer<Wishlist> consumer
+    ) {
+        for (String customerId : customerIds) {
+            final Wishlist wishlist = snapshot(customerId);
+            if (wishlist != null) {
+                consumer.accept(copyOf(wishlist));
+            }
+        }
+    }
+
+    // The argument is only updated once its snapshot is installed, a retried attempt leaves no trace on it
+    @Override
+    public Wishlist save(Wishlist wishlist) {
+        final Wishlist saved = write(wishlist.getCustomerId(), current -> {
+            if (wishlist.getVersion() == null && current != null) {
+                throw new DuplicateKeyException("Wishlist of customer " + wishlist.getCustomerId() + " already exists");
+            }
+            if (wishlist.getVersion() != null && (current == null || !wishlist.getVersion().equals(current.getVersion()))) {
+                throw new OptimisticLockingFailureException(
+                    "Cannot save wishlist of customer " + wishlist.getCustomerId() + " with version "
+                        + wishlist.getVersion() + "; has it been modified meanwhile?"
+                );
+            }
+            final Wishlist next = Wishlist.restore(
+                wishlist.getId() == null ? new ObjectId().toHexString() : wishlist.getId(),
+                wishlist.getCustomerId(),
+                List.copyOf(wishlist.getProducts()),
+                wishlist.getCreatedAt(),
+                LocalDateTime.now(),
+                wishlist.getVersion() == null ? 0L : wishlist.getVersion() + 1
+            );
+            return Write.of(next, next);
+        });
+        wishlist.setId(saved.getId());
+        wishlist.setUpdatedAt(saved.getUpdatedAt());
+        wishlist.setVersion(saved.getVersion());
+        return wishlist;
+    }
+
+    @Override
+    public boolean deleteByCustomerId(String customerId) {
+        return write(customerId, current -> current == null ? Write.none(false) : Write.of(true, null));
+    }
+
+    @Override
+    public boolean existsByCustomerId(String customerId) {
+        return snapshot(customerId) != null;
+    }
+
+    @Override
+    public AddProductResult addProduct(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        return write(customerId, current -> add(customerId, current, productId, maxProducts)).outcome();
+    }
+
+    @Override
+    public RemoveProductResult removeProduct(
+        String customerId,
+        String productId
+    ) {
+        return write(customerId, current -> remove(current, productId)).outcome();
+    }
+
+    @Override
+    public Optional<WishlistProduct> findProduct(
+        String customerId,
+        String productId
+    ) {
+        return productsOf(snapshot(customerId))
+            .stream()
+            .filter(product -> product.productId().equals(productId))
+            .findFirst();
+    }
+
+    @Override
+    public List<WishlistProduct> findProducts(
+        String customerId,
+        Set<String> productIds
+    ) {
+        return productsOf(snapshot(customerId))
+            .stream()
+            .filter(product -> productIds.contains(product.productId()))
+            .toList();
+    }
+
+    @Override
+    public Optional<WishlistRevision> findRevisionByCustomerId(String customerId) {
+        return Optional
+            .ofNullable(snapshot(customerId))
+            .map(WishlistRevision::of);
+    }
+
+    @Override
+    public WishlistWriteResult<AddProductResult> addProductAndGet(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        return write(customerId, current -> add(customerId, current, productId, maxProducts));
+    }
+
+    @Override
+    public WishlistWriteResult<RemoveProductResult> removeProductAndGet(
+        String customerId,
+        String productId
+    ) {
+        return write(customerId, current -> remove(current, productId));
+    }
+
+    @Override
+    public ConditionalWriteResult<AddProductResult> addProduct(
+        String customerId,
+        String productId,
+        int maxProducts,
+        WishlistRevision expectedRevision
+    ) {
+        return write(customerId, current -> {
+            if (current == null || !WishlistRevision.of(current).equals(expectedRevision)) {
+                return Write.none(new ConditionalWriteResult<>(AddProductResult.REVISION_MISMATCH, null));
+            }
+            final Write<WishlistWriteResult<AddProductResult>> write = add(customerId, current, productId, maxProducts);
+            return write.with(new ConditionalWriteResult<>(write.result().outcome(), revisionOf(write.next())));
+        });
+    }
+
+    @Override
+    public ConditionalWriteResult<RemoveProductResult> removeProduct(
+        String customerId,
+        String productId,
+        WishlistRevision expectedRevision
+    ) {
+        return write(customerId, current -> {
+            if (current == null || !WishlistRevision.of(current).equals(expectedRevision)) {
+                return Write.none(new ConditionalWriteResult<>(RemoveProductResult.REVISION_MISMATCH, null));
+            }
+            final Write<WishlistWriteResult<RemoveProductResult>> write = remove(current, productId);
+            return write.with(new ConditionalWriteResult<>(write.result().outcome(), revisionOf(write.next())));
+        });
+    }
+
+    // A new wishlist starts at version 1, as the upsert of WishlistRepositoryImpl increments it from nothing
+    private Write<WishlistWriteResult<AddProductResult>> add(
+        String customerId,
+        Wishlist current,
+        String productId,
+        int maxProducts
+    ) {
+        final List<WishlistProduct> products = productsOf(current);
+        if (products.stream().anyMatch(product -> product.productId().equals(productId))) {
+            return Write.none(new WishlistWriteResult<>(AddProductResult.ALREADY_EXISTS, null));
+        }
+        if (products.size() >= maxProducts) {
+            return Write.none(new WishlistWriteResult<>(AddProductResult.LIMIT_EXCEEDED, null));
+        }
+        final LocalDateTime now = LocalDateTime.now();
+        final List<WishlistProduct> added = new ArrayList<>(products.size() + 1);
+        added.addAll(products);
+        added.add(new WishlistProduct(productId, now));
+        final Wishlist next = current == null ?
+            Wishlist.restore(new ObjectId().toHexString(), customerId, List.copyOf(added), now, now, 1L) :
+            Wishlist.restore(current.getId(), customerId, List.copyOf(added), current.getCreatedAt(), now, current.getVersion() + 1);
+        return Write.of(new WishlistWriteResult<>(AddProductResult.ADDED, copyOf(next)), next);
+    }
+
+    private Write<WishlistWriteResult<RemoveProductResult>> remove(Wishlist current, String productId) {
+        if (current == null) {
+            return Write.none(new WishlistWriteResult<>(RemoveProductResult.CUSTOMER_NOT_FOUND, null));
+        }
+        final List<WishlistProduct> remaining = current
+            .getProducts()
+            .stream()
+            .filter(product -> !product.productId().equals(productId))
+            .toList();
+        if (remaining.size() == current.getProductCount()) {
+            return Write.none(new WishlistWriteResult<>(RemoveProductResult.PRODUCT_NOT_FOUND, null));
+        }
+        final Wishlist next = Wishlist.restore(
+            current.getId(),
+            current.getCustomerId(),
+            remaining,
+            current.getCreatedAt(),
+            LocalDateTime.now(),
+            current.getVersion() + 1
+        );
+        return Write.of(new WishlistWriteResult<>(RemoveProductResult.REMOVED, copyOf(next)), next);
+    }
+
+    // The step is computed from the snapshot it is handed and may run again against a newer one, so it
+    // must have no side effects. Wishlist keeps identity equality, so replace and remove compare snapshots
+    // by reference and a write installs only over the exact snapshot it was computed from.
+    private <T> T write(String customerId, Function<Wishlist, Write<T>> step) {
+        while (true) {
+            final Wishlist current = wishlists.get(customerId);
+            final Write<T> write = step.apply(current);
+            if (!write.changes() || install(customerId, current, write.next())) {
+                return write.result();
+            }
+            retries.increment();
+        }
+    }
+
+    private boolean install(String customerId, Wishlist current, Wishlist next) {
+        if (current == null) {
+            return wishlists.putIfAbsent(customerId, next) == null;
+        }
+        return next == null ? wishlists.remove(customerId, current) : wishlists.replace(customerId, current, next);
+    }
+
+    private Wishlist snapshot(String customerId) {
+        return customerId == null ? null : wishlists.get(customerId);
+    }
+
+    private static WishlistRevision revisionOf(Wishlist wishlist) {
+        return wishlist == null ? null : WishlistRevision.of(wishlist);
+    }
+
+    private static List<WishlistProduct> productsOf(Wishlist wishlist) {
+        return wishlist == null ? List.of() : wishlist.getProducts();
+    }
+
+    private static Wishlist copyOf(Wishlist wishlist) {
+        return Wishlist.restore(
+            wishlist.getId(),
+            wishlist.getCustomerId(),
+            new ArrayList<>(wishlist.getProducts()),
+            wishlist.getCreatedAt(),
+            wishlist.getUpdatedAt(),
+            wishlist.getVersion()
+        );
+    }
+
+    // next is the snapshot to install, null to remove the customer; changes is false when nothing is written
+    private record Write<T>(
+        T result,
+        boolean changes,
+        Wishlist next
+    ) {
+        static <T> Write<T> of(T result, Wishlist next) {
+            return new Write<>(result, true, next);
+        }
+
+        static <T> Write<T> none(T result) {
+            return new Write<>(result, false, null);
+        }
+
+        <R> Write<R> with(R otherResult) {
+            return new Write<>(otherResult, changes, next);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.wishlist.infrastructure.repository;
+
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.wishlist.application.service.KnownCustomerFilter;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+// Wishlists created by other instances reach the filter through a change stream of inserts. While that
+// stream is down the filter is suspended, and every (re)opened stream triggers a rebuild, so a customer
+// is only ever reported absent by a filter whose scan started while its inserts were being followed.
+// A reopened stream needs no resume token for that reason. Both read customerId rather than the layout key:
+// it is a string in every layout, while a customer-keyed _id is stored as an ObjectId for 24-hex ids.
+public class KnownCustomerFilterRebuilder implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(KnownCustomerFilterRebuilder.class);
+    private static final int SCAN_BATCH_SIZE = 10_000;
+    private static final Duration MAX_AWAIT_TIME = Duration.ofSeconds(1);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+    private static final String CUSTOMER_ID_FIELD = "customerId";
+    private final MongoTemplate mongoTemplate;
+    private final WishlistStorageLayout layout;
+    private final KnownCustomerFilter filter;
+    private final long expectedCustomers;
+    private final Duration rebuildInterval;
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+    private Thread feed;
+
+    public KnownCustomerFilterRebuilder(
+        MongoTemplate mongoTemplate,
+        WishlistStorageLayout layout,
+        KnownCustomerFilter filter,
+        long expectedCustomers,
+        Duration rebuildInterval
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.layout = layout;
+        this.filter = filter;
+        this.expectedCustomers = expectedCustomers;
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    // The first rebuild is left to the feed: one started before the stream opened could miss inserts
+    @Override
+    public void start() {
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "wishlist-customer-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(
+            this::rebuild,
+            rebuildInterval.toMillis(),
+            rebuildInterval.toMillis(),
+            TimeUnit.MILLISECONDS
+        );
+        feed = new Thread(this::follow, "wishlist-customer-filter-feed");
+        feed.setDaemon(true);
+        feed.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (feed != null) {
+            feed.interrupt();
+            feed = null;
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Sized for twice the stored customers so first adds until the next rebuild keep the rate near its target
+    void rebuild() {
+        try {
+            final MongoCollection<Document> collection = mongoTemplate.getCollection(layout.collectionName());
+            final long storedCustomers = collection.estimatedDocumentCount();
+            final boolean published = filter.rebuild(Math.max(expectedCustomers, storedCustomers * 2), sink -> collection
+                .find()
+                .projection(Projections.include(CUSTOMER_ID_FIELD))
+                .batchSize(SCAN_BATCH_SIZE)
+                .forEach(document -> {
+                    if (document.get(CUSTOMER_ID_FIELD) instanceof String customerId) {
+                        sink.accept(customerId);
+                    }
+                })
+            );
+            if (published) {
+                LOGGER.info("Rebuilt known customer filter from {}", layout.collectionName());
+            } else {
+                LOGGER.info("Discarded known customer filter rebuild, the insert feed was interrupted during the scan");
+            }
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Known customer filter rebuild failed, keeping the previous filter", exception);
+        }
+    }
+
+    private void follow() {
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = openInserts()) {
+                filter.suspend();
+                scheduler.execute(this::rebuild);
+                LOGGER.info("Following {} inserts for the known customer filter", layout.collectionName());
+                while (running) {
+                    final ChangeStreamDocument<Document> event = cursor.tryNext();
+                    if (event != null) {
+                        add(event);
+                    }
+                }
+            } catch (RuntimeException exception) {
+                if (!running) {
+                    return;
+                }
+                LOGGER.warn("Known customer filter insert feed unavailable, reading every customer from the database", exception);
+                filter.suspend();
+                pause();
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openInserts() {
+        return mongoTemplate
+            .getCollection(layout.collectionName())
+            .watch(List.of(Aggregates.match(Filters.eq("operationType", OperationType.INSERT.getValue()))))
+            .maxAwaitTime(MAX_AWAIT_TIME.toMillis(), TimeUnit.MILLISECONDS)
+            .cursor();
+    }
+
+    private void add(ChangeStreamDocument<Document> event) {
+        final Document inserted = event.getFullDocument();
+        if (inserted != null && inserted.get(CUSTOMER_ID_FIELD) instanceof String customerId) {
+            filter.add(customerId);
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RETRY_DELAY.toMillis());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.ConditionalWriteResult;
+import com.wishlist.domain.repository.ReactiveWishlistRepository;
+import com.wishlist.domain.repository.RemoveProductResult;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.repository.WishlistWriteResult;
+import com.wishlist.infrastructure.repository.WishlistQueries.ProductMatch;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Set;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+@Profile("reactive")
+public class ReactiveWishlistRepositoryImpl implements ReactiveWishlistRepository {
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final WishlistStorageLayout layout;
+    private final WishlistQueries queries;
+    private final String collectionName;
+
+    public ReactiveWishlistRepositoryImpl(
+        ReactiveMongoTemplate mongoTemplate,
+        @Value("${wishlist.storage.layout:OBJECT_ID}") WishlistStorageLayout layout
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.layout = layout;
+        this.queries = new WishlistQueries(layout);
+        this.collectionName = layout.collectionName();
+    }
+
+    @Override
+    public Mono<Wishlist> findByCustomerId(String customerId) {
+        return mongoTemplate.findOne(queries.byCustomerId(customerId), Wishlist.class, collectionName);
+    }
+
+    @Override
+    public Mono<Wishlist> save(Wishlist wishlist) {
+        if (layout.isCustomerKeyed() && wishlist.getId() == null) {
+            wishlist.setId(wishlist.getCustomerId());
+        }
+        wishlist.setUpdatedAt(LocalDateTime.now());
+        return mongoTemplate.save(wishlist, collectionName);
+    }
+
+    // A plain delete: findAndRemove would read the whole document back only to throw it away.
+    // The unique customer index keeps it to the one document the blocking repository's deleteOne removes
+    @Override
+    public Mono<Boolean> deleteByCustomerId(String customerId) {
+        return mongoTemplate
+            .remove(queries.byCustomerId(customerId), collectionName)
+            .map(result -> result.getDeletedCount() > 0);
+    }
+
+    @Override
+    public Mono<Boolean> existsByCustomerId(String customerId) {
+        return mongoTemplate.exists(queries.byCustomerId(customerId), Wishlist.class, collectionName);
+    }
+
+    @Override
+    public Mono<AddProductResult> addProduct(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        return attemptAdd(customerId, productId, maxProducts)
+            .switchIfEmpty(Mono.defer(() -> attemptAdd(customerId, productId, maxProducts)))
+            .switchIfEmpty(Mono.error(() ->
+                new OptimisticLockingFailureException("Concurrent modification of wishlist of customer " + customerId)
+            ));
+    }
+
+    @Override
+    public Mono<RemoveProductResult> removeProduct(
+        String customerId,
+        String productId
+    ) {
+        return mongoTemplate
+            .updateFirst(
+                queries.withProduct(customerId, productId),
+                queries.removeProductUpdate(productId),
+                Wishlist.class,
+                collectionName
+            )
+            .flatMap(result -> result.getModifiedCount() > 0 ?
+                Mono.just(RemoveProductResult.REMOVED) :
+                existsByCustomerId(customerId).map(exists -> exists ?
+                    RemoveProductResult.PRODUCT_NOT_FOUND : RemoveProductResult.CUSTOMER_NOT_FOUND
+                )
+            );
+    }
+
+    @Override
+    public Mono<WishlistProduct> findProduct(
+        String customerId,
+        String productId
+    ) {
+        return mongoTemplate
+            .findOne(queries.matchedProduct(customerId, productId), ProductMatch.class, collectionName)
+            .filter(match -> match.products() != null && !match.products().isEmpty())
+            .map(match -> match.products().get(0));
+    }
+
+    // At most MAX_PRODUCTS entries come back, so the membership test stays in memory
+    @Override
+    public Flux<WishlistProduct> findProducts(
+        String customerId,
+        Set<String> productIds
+    ) {
+        if (productIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return mongoTemplate
+            .findOne(queries.productsAmong(customerId, productIds), ProductMatch.class, collectionName)
+            .filter(match -> match.products() != null)
+            .flatMapIterable(ProductMatch::products)
+            .filter(product -> productIds.contains(product.productId()));
+    }
+
+    @Override
+    public Mono<WishlistRevision> findRevisionByCustomerId(String customerId) {
+        final Query query = queries.byCustomerId(customerId);
+        query
+            .fields()
+            .exclude("_id")
+            .include("version")
+            .include("updatedAt");
+        return mongoTemplate
+            .findOne(query, Document.class, collectionName)
+            .map(ReactiveWishlistRepositoryImpl::revisionOf);
+    }
+
+    @Override
+    public Mono<WishlistWriteResult<AddProductResult>> addProductAndGet(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        return attemptAddAndGet(customerId, productId, maxProducts)
+            .switchIfEmpty(Mono.defer(() -> attemptAddAndGet(customerId, productId, maxProducts)))
+            .switchIfEmpty(Mono.error(() ->
+                new OptimisticLockingFailureException("Concurrent modification of wishlist of customer " + customerId)
+            ));
+    }
+
+    @Override
+    public Mono<WishlistWriteResult<RemoveProductResult>> removeProductAndGet(
+        String customerId,
+        String productId
+    ) {
+        return mongoTemplate
+            .findAndModify(
+                queries.withProduct(customerId, productId),
+                queries.removeProductUpdate(productId),
+                FindAndModifyOptions.options().returnNew(true),
+                Wishlist.class,
+                collectionName
+            )
+            .map(wishlist -> new WishlistWriteResult<>(RemoveProductResult.REMOVED, wishlist))
+            .switchIfEmpty(Mono.defer(() -> existsByCustomerId(customerId).map(exists -> new WishlistWriteResult<>(
+                exists ? RemoveProductResult.PRODUCT_NOT_FOUND : RemoveProductResult.CUSTOMER_NOT_FOUND,
+                null
+            ))));
+    }
+
+    // The updated document comes back with the write, so its revision needs no second read
+    @Override
+    public Mono<ConditionalWriteResult<AddProductResult>> addProduct(
+        String customerId,
+        String productId,
+        int maxProducts,
+        WishlistRevision expectedRevision
+    ) {
+        return mongoTemplate
+            .findAndModify(
+                queries.atRevision(queries.addProductGuard(customerId, productId, maxProducts), expectedRevision),
+                queries.addProductUpdate(customerId, productId),
+                FindAndModifyOptions.options().returnNew(true),
+                Wishlist.class,
+                collectionName
+            )
+            .map(wishlist -> new ConditionalWriteResult<>(AddProductResult.ADDED, WishlistRevision.of(wishlist)))
+            .switchIfEmpty(Mono.defer(() -> isCurrentRevision(customerId, expectedRevision).flatMap(current -> current ?
+                classifyRejectedAdd(customerId, productId, maxProducts).defaultIfEmpty(AddProductResult.REVISION_MISMATCH) :
+                Mono.just(AddProductResult.REVISION_MISMATCH)
+            ).map(outcome -> new ConditionalWriteResult<>(outcome, null))));
+    }
+
+    @Override
+    public Mono<ConditionalWriteResult<RemoveProductResult>> removeProduct(
+        String customerId,
+        String productId,
+        WishlistRevision expectedRevision
+    ) {
+        return mongoTemplate
+            .findAndModify(
+                queries.atRevision(queries.withProduct(customerId, productId), expectedRevision),
+                queries.removeProductUpdate(productId),
+                FindAndModifyOptions.options().returnNew(true),
+                Wishlist.class,
+                collectionName
+            )
+            .map(wishlist -> new ConditionalWriteResult<>(RemoveProductResult.REMOVED, WishlistRevision.of(wishlist)))
+            .switchIfEmpty(Mono.defer(() -> isCurrentRevision(customerId, expectedRevision).map(current -> new ConditionalWriteResult<>(
+                current ? RemoveProductResult.PRODUCT_NOT_FOUND : RemoveProductResult.REVISION_MISMATCH,
+                null
+            ))));
+    }
+
+    // Only read after a conditional update missed, to tell a stale revision from a rejected mutation
+    private Mono<Boolean> isCurrentRevision(String customerId, WishlistRevision expectedRevision) {
+        return findRevisionByCustomerId(customerId)
+            .map(expectedRevision::equals)
+            .defaultIfEmpty(false);
+    }
+
+    private Mono<WishlistWriteResult<AddProductResult>> attemptAddAndGet(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        return mongoTemplate
+            .findAndModify(
+                queries.addProductGuard(customerId, productId, maxProducts),
+                queries.addProductUpdate(customerId, productId),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Wishlist.class,
+                collectionName
+            )
+            .map(wishlist -> new WishlistWriteResult<>(AddProductResult.ADDED, wishlist))
+            // The guard rejected an existing document, so the upsert collided with the customerId index
+            .onErrorResume(DuplicateKeyException.class, exception -> Mono.empty())
+            .switchIfEmpty(Mono.defer(() -> classifyRejectedAdd(customerId, productId, maxProducts)
+                .map(outcome -> new WishlistWriteResult<>(outcome, null))
+            ));
+    }
+
+    private Mono<AddProductResult> attemptAdd(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        return mongoTemplate
+            .upsert(
+                queries.addProductGuard(customerId, productId, maxProducts),
+                queries.addProductUpdate(customerId, productId),
+                Wishlist.class,
+                collectionName
+            )
+            .map(result -> result.getUpsertedId() != null || result.getModifiedCount() > 0)
+            // The guard rejected an existing document, so the upsert collided with the customerId index
+            .onErrorReturn(DuplicateKeyException.class, false)
+            .flatMap(applied -> applied ?
+                Mono.just(AddProductResult.ADDED) :
+                classifyRejectedAdd(customerId, productId, maxProducts)
+            );
+    }
+
+    private Mono<AddProductResult> classifyRejectedAdd(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        final Mono<AddProductResult> limitExceeded = mongoTemplate
+            .exists(queries.isFull(customerId, maxProducts), Wishlist.class, collectionName)
+            .filter(Boolean::booleanValue)
+            .map(full -> AddProductResult.LIMIT_EXCEEDED);
+        final Mono<AddProductResult> alreadyExists = mongoTemplate
+            .exists(queries.withProduct(customerId, productId), Wishlist.class, collectionName)
+            .filter(Boolean::booleanValue)
+            .map(exists -> AddProductResult.ALREADY_EXISTS);
+        return limitExceeded.switchIfEmpty(alreadyExists);
+    }
+
+    private static WishlistRevision revisionOf(Document document) {
+        return new WishlistRevision(
+            document.get("version") instanceof Number version ? version.longValue() : 0L,
+            document.get("updatedAt") instanceof Date updatedAt ? updatedAt.getTime() : 0L
+        );
+    }
+}
@@ -0,0 +1,215 @@
+package com.wishlist.infrastructure.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.infrastructure.config.WishlistBulkWriterProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class WishlistBulkWriter implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WishlistBulkWriter.class);
+    private static final int DUPLICATE_KEY = 11000;
+    private final MongoTemplate mongoTemplate;
+    private final String collectionName;
+    private final WishlistBulkWriterProperties properties;
+    private final BlockingQueue<PendingUpsert> queue = new LinkedBlockingQueue<>();
+    private final Semaphore inFlight;
+    private final ExecutorService flushers;
+    private final DistributionSummary batchSizes;
+    private final Lock accepting = new ReentrantLock();
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    public WishlistBulkWriter(
+        MongoTemplate mongoTemplate,
+        String collectionName,
+        WishlistBulkWriterProperties properties,
+        boolean virtualThreads,
+        MeterRegistry meterRegistry
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.collectionName = collectionName;
+        this.properties = properties;
+        this.inFlight = new Semaphore(properties.maxInFlight());
+        this.flushers = flushExecutor(virtualThreads, properties.maxInFlight());
+        this.batchSizes = DistributionSummary
+            .builder("wishlist.bulk.batch.size")
+            .description("Number of operations shipped per bulkWrite")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    // Checked and enqueued under the lock stop() takes to clear running, so once stop() holds it no upsert
+    // can slip in behind the dispatcher's last drain. The timeout bounds callers if a flush never completes.
+    public CompletableFuture<Boolean> upsert(Query query, Update update) {
+        final PendingUpsert pending = new PendingUpsert(query, update, new CompletableFuture<>());
+        accepting.lock();
+        try {
+            if (!running) {
+                pending.result().completeExceptionally(notRunning());
+                return pending.result();
+            }
+            queue.add(pending);
+        } finally {
+            accepting.unlock();
+        }
+        return pending.result().orTimeout(properties.timeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        dispatcher = new Thread(this::dispatch, "wishlist-bulk-writer");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @Override
+    public void stop() {
+        accepting.lock();
+        try {
+            running = false;
+        } finally {
+            accepting.unlock();
+        }
+        try {
+            dispatcher.join();
+            flushers.shutdown();
+            flushers.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Only left behind when the dispatcher died early; nothing can be added any more
+            PendingUpsert pending;
+            while ((pending = queue.poll()) != null) {
+                pending.result().completeExceptionally(notRunning());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void dispatch() {
+        try {
+            while (running || !queue.isEmpty()) {
+                final List<PendingUpsert> batch = nextBatch();
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                inFlight.acquire();
+                flushers.execute(() -> {
+                    try {
+                        flush(batch);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<PendingUpsert> nextBatch() throws InterruptedException {
+        final List<PendingUpsert> batch = new ArrayList<>(properties.batchSize());
+        final PendingUpsert first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        final long deadline = System.nanoTime() + properties.linger().toNanos();
+        while (batch.size() < properties.batchSize()) {
+            final long remaining = deadline - System.nanoTime();
+            final PendingUpsert next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void flush(List<PendingUpsert> batch) {
+        batchSizes.record(batch.size());
+        final BulkOperations operations = mongoTemplate.bulkOps(
+            BulkOperations.BulkMode.UNORDERED,
+            Wishlist.class,
+            collectionName
+        );
+        batch.forEach(pending -> operations.upsert(pending.query(), pending.update()));
+        try {
+            operations.execute();
+            batch.forEach(pending -> pending.result().complete(true));
+        } catch (BulkOperationException exception) {
+            final Map<Integer, BulkWriteError> errors = new HashMap<>();
+            exception
+                .getErrors()
+                .forEach(error -> errors.put(error.getIndex(), error));
+            for (int index = 0; index < batch.size(); index++) {
+                completeFromError(batch.get(index), errors.get(index));
+            }
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Bulk write of {} operations failed", batch.size(), exception);
+            batch.forEach(pending -> pending.result().completeExceptionally(exception));
+        }
+    }
+
+    private void completeFromError(PendingUpsert pending, BulkWriteError error) {
+        if (error == null) {
+            pending.result().complete(true);
+        } else if (error.getCode() == DUPLICATE_KEY) {
+            pending.result().complete(false);
+        } else {
+            pending.result().completeExceptionally(new UncategorizedMongoDbException(error.getMessage(), null));
+        }
+    }
+
+    // Either way at most max-in-flight flushes run at once: the semaphore bounds the virtual threads too
+    private static ExecutorService flushExecutor(boolean virtualThreads, int maxInFlight) {
+        if (!virtualThreads) {
+            return Executors.newFixedThreadPool(maxInFlight);
+        }
+        return Executors.newThreadPerTaskExecutor(
+            Thread
+                .ofVirtual()
+                .name("wishlist-bulk-flush-", 0)
+                .factory()
+        );
+    }
+
+    private static IllegalStateException notRunning() {
+        return new IllegalStateException("Bulk writer is not running");
+    }
+
+    private record PendingUpsert(
+        Query query,
+        Update update,
+        CompletableFuture<Boolean> result
+    ) {
+    }
+}
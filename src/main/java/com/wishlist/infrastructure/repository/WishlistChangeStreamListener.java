@@ -0,0 +1,183 @@
+package com.wishlist.infrastructure.repository;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+public class WishlistChangeStreamListener implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WishlistChangeStreamListener.class);
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final Duration MAX_AWAIT_TIME = Duration.ofSeconds(1);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+    private final MongoTemplate mongoTemplate;
+    private final WishlistStorageLayout layout;
+    private final CachingWishlistRepository cachingRepository;
+    private final Duration retryDelay;
+    private volatile boolean running;
+    private volatile boolean listening;
+    private volatile BsonDocument resumeToken;
+    private Thread worker;
+
+    public WishlistChangeStreamListener(
+        MongoTemplate mongoTemplate,
+        WishlistStorageLayout layout,
+        CachingWishlistRepository cachingRepository,
+        MeterRegistry meterRegistry
+    ) {
+        this(mongoTemplate, layout, cachingRepository, meterRegistry, RETRY_DELAY);
+    }
+
+    WishlistChangeStreamListener(
+        MongoTemplate mongoTemplate,
+        WishlistStorageLayout layout,
+        CachingWishlistRepository cachingRepository,
+        MeterRegistry meterRegistry,
+        Duration retryDelay
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.layout = layout;
+        this.cachingRepository = cachingRepository;
+        this.retryDelay = retryDelay;
+        Gauge
+            .builder("wishlist.cache.change.stream.listening", this, listener -> listener.isListening() ? 1 : 0)
+            .description("1 while the change stream is open and invalidating the near cache, 0 while on fallback expiry")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::listen, "wishlist-change-stream");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isListening() {
+        return listening;
+    }
+
+    // Any failure, not only a MongoException, falls back to short expiry and reopens the stream: a dead
+    // listener would otherwise leave the near cache serving stale entries with nothing to show for it
+    private void listen() {
+        try {
+            while (running) {
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = openStream().cursor()) {
+                    cachingRepository.useConfiguredExpiry();
+                    listening = true;
+                    LOGGER.info("Listening to {} change stream", layout.collectionName());
+                    while (running) {
+                        final ChangeStreamDocument<Document> event = cursor.tryNext();
+                        if (event != null) {
+                            handle(event);
+                        }
+                        if (cursor.getResumeToken() != null) {
+                            resumeToken = cursor.getResumeToken();
+                        }
+                    }
+                } catch (RuntimeException exception) {
+                    listening = false;
+                    if (!running) {
+                        return;
+                    }
+                    onStreamUnavailable(exception);
+                    pause();
+                }
+            }
+        } finally {
+            listening = false;
+        }
+    }
+
+    private ChangeStreamIterable<Document> openStream() {
+        final ChangeStreamIterable<Document> stream = mongoTemplate
+            .getCollection(layout.collectionName())
+            .watch()
+            .fullDocument(FullDocument.UPDATE_LOOKUP)
+            .maxAwaitTime(MAX_AWAIT_TIME.toMillis(), TimeUnit.MILLISECONDS);
+        return resumeToken == null ? stream : stream.resumeAfter(resumeToken);
+    }
+
+    private void handle(ChangeStreamDocument<Document> event) {
+        final OperationType operationType = event.getOperationType();
+        if (operationType == OperationType.INVALIDATE || operationType == OperationType.DROP) {
+            cachingRepository.invalidateAll();
+            return;
+        }
+        final Document fullDocument = event.getFullDocument();
+        if (fullDocument != null && fullDocument.getString("customerId") != null) {
+            cachingRepository.invalidate(fullDocument.getString("customerId"));
+            return;
+        }
+        final String wishlistId = wishlistId(event.getDocumentKey());
+        if (wishlistId != null && layout.isCustomerKeyed()) {
+            cachingRepository.invalidate(wishlistId);
+        } else if (wishlistId != null) {
+            cachingRepository.invalidateByWishlistId(wishlistId);
+        } else {
+            cachingRepository.invalidateAll();
+        }
+    }
+
+    private String wishlistId(BsonDocument documentKey) {
+        if (documentKey == null) {
+            return null;
+        }
+        final BsonValue id = documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : null;
+    }
+
+    // Everything is invalidated below, so restarting from now instead of the resume token loses nothing.
+    // That is done whenever the failure was not Mongo's, as resuming could replay the event that broke us.
+    private void onStreamUnavailable(RuntimeException exception) {
+        LOGGER.warn("Wishlist change stream unavailable, falling back to short cache expiry", exception);
+        if (!(exception instanceof MongoException)
+            || exception instanceof MongoCommandException commandException
+            && commandException.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+            resumeToken = null;
+        }
+        cachingRepository.useFallbackExpiry();
+        cachingRepository.invalidateAll();
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryDelay.toMillis());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+
+// Wire-compatible with MappingMongoConverter: String ids that are valid ObjectIds are stored as ObjectIds,
+// LocalDateTime is stored as a UTC date in the system zone and null fields are omitted.
+public class WishlistCodec implements Codec<Wishlist> {
+    static final String TYPE_KEY = "_class";
+    private static final String TYPE_ALIAS = Wishlist.class.getName();
+    private final ZoneId zone;
+
+    public WishlistCodec() {
+        this(ZoneId.systemDefault());
+    }
+
+    public WishlistCodec(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    public static CodecRegistry registry(CodecRegistry fallback) {
+        return CodecRegistries.fromRegistries(
+            CodecRegistries.fromCodecs(new WishlistCodec()),
+            fallback
+        );
+    }
+
+    public static Object idValue(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    @Override
+    public Class<Wishlist> getEncoderClass() {
+        return Wishlist.class;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Wishlist wishlist, EncoderContext context) {
+        writer.writeStartDocument();
+        if (wishlist.getId() != null) {
+            writer.writeName("_id");
+            if (ObjectId.isValid(wishlist.getId())) {
+                writer.writeObjectId(new ObjectId(wishlist.getId()));
+            } else {
+                writer.writeString(wishlist.getId());
+            }
+        }
+        if (wishlist.getCustomerId() != null) {
+            writer.writeString("customerId", wishlist.getCustomerId());
+        }
+        writer.writeStartArray("products");
+        for (WishlistProduct product : wishlist.getProducts()) {
+            encodeProduct(writer, product);
+        }
+        writer.writeEndArray();
+        writeDate(writer, "createdAt", wishlist.getCreatedAt());
+        writeDate(writer, "updatedAt", wishlist.getUpdatedAt());
+        if (wishlist.getVersion() != null) {
+            writer.writeInt64("version", wishlist.getVersion());
+        }
+        writer.writeString(TYPE_KEY, TYPE_ALIAS);
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Wishlist decode(BsonReader reader, DecoderContext context) {
+        String id = null;
+        String customerId = null;
+        List<WishlistProduct> products = new ArrayList<>();
+        LocalDateTime createdAt = null;
+        LocalDateTime updatedAt = null;
+        Long version = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            final String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case "_id" -> id = readId(reader);
+                case "customerId" -> customerId = reader.readString();
+                case "products" -> products = decodeProducts(reader);
+                case "createdAt" -> createdAt = readDate(reader);
+                case "updatedAt" -> updatedAt = readDate(reader);
+                case "version" -> version = readLong(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return Wishlist.restore(id, customerId, products, createdAt, updatedAt, version);
+    }
+
+    private void encodeProduct(BsonWriter writer, WishlistProduct product) {
+        writer.writeStartDocument();
+        if (product.productId() != null) {
+            writer.writeString("productId", product.productId());
+        }
+        writeDate(writer, "addedAt", product.addedAt());
+        writer.writeEndDocument();
+    }
+
+    private List<WishlistProduct> decodeProducts(BsonReader reader) {
+        final List<WishlistProduct> products = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            products.add(decodeProduct(reader));
+        }
+        reader.readEndArray();
+        return products;
+    }
+
+    private WishlistProduct decodeProduct(BsonReader reader) {
+        String productId = null;
+        LocalDateTime addedAt = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            final String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+            } else if (name.equals("productId")) {
+                productId = reader.readString();
+            } else if (name.equals("addedAt")) {
+                addedAt = readDate(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new WishlistProduct(productId, addedAt);
+    }
+
+    private String readId(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case OBJECT_ID -> reader.readObjectId().toHexString();
+            case STRING -> reader.readString();
+            default -> throw new IllegalStateException("Unsupported wishlist _id type " + reader.getCurrentBsonType());
+        };
+    }
+
+    // Atomic updates $inc a missing version into an int32, while saves write an int64
+    private Long readLong(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> (long) reader.readInt32();
+            case INT64 -> reader.readInt64();
+            case DOUBLE -> (long) reader.readDouble();
+            default -> throw new IllegalStateException("Unsupported wishlist version type " + reader.getCurrentBsonType());
+        };
+    }
+
+    private LocalDateTime readDate(BsonReader reader) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(reader.readDateTime()), zone);
+    }
+
+    private void writeDate(BsonWriter writer, String name, LocalDateTime value) {
+        if (value != null) {
+            writer.writeDateTime(name, value.atZone(zone).toInstant().toEpochMilli());
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.repository.RawWishlist;
+import com.wishlist.domain.repository.RawWishlistJsonWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import org.springframework.stereotype.Component;
+
+// Transcodes a stored wishlist BSON document into the WishlistResponse JSON shape without decoding it.
+// Only the products array is read; strings are copied byte for byte and dates are formatted from the
+// epoch millis like @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'") does for the LocalDateTime.
+@Component
+public class WishlistJsonWriter implements RawWishlistJsonWriter {
+    private static final byte[] PRODUCTS = ascii("products");
+    private static final byte[] PRODUCT_ID = ascii("productId");
+    private static final byte[] ADDED_AT = ascii("addedAt");
+    private static final byte[] CUSTOMER_ID_FIELD = ascii("{\"customerId\":");
+    private static final byte[] PRODUCTS_FIELD = ascii(",\"products\":[");
+    private static final byte[] PRODUCT_ID_FIELD = ascii("{\"productId\":");
+    private static final byte[] ADDED_AT_FIELD = ascii(",\"addedAt\":");
+    private static final byte[] TOTAL_ITEMS_FIELD = ascii("],\"totalItems\":");
+    private static final byte[] MAX_ITEMS_FIELD = ascii(",\"maxItems\":");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+    private static final byte STRING = 0x02;
+    private static final byte DOCUMENT = 0x03;
+    private static final byte ARRAY = 0x04;
+    private static final byte DATE_TIME = 0x09;
+    private static final int SECONDS_PER_DAY = 86_400;
+    private final ZoneRules zoneRules;
+    private final int fixedOffsetSeconds;
+
+    public WishlistJsonWriter() {
+        this(ZoneId.systemDefault());
+    }
+
+    WishlistJsonWriter(ZoneId zone) {
+        this.zoneRules = zone.getRules();
+        this.fixedOffsetSeconds = zoneRules.isFixedOffset() ?
+            zoneRules.getOffset(Instant.EPOCH).getTotalSeconds() : Integer.MIN_VALUE;
+    }
+
+    @Override
+    public void write(String customerId, RawWishlist wishlist, OutputStream output) throws IOException {
+        write(customerId, wishlist.bson(), output);
+    }
+
+    void write(String customerId, ByteBuffer bson, OutputStream output) throws IOException {
+        final ByteBuffer document = bson
+            .duplicate()
+            .order(ByteOrder.LITTLE_ENDIAN);
+        final byte[] scratch = new byte[20];
+        writeHeader(customerId, output);
+        int productCount = 0;
+        final int start = document.position();
+        final int end = start + document.getInt(start) - 1;
+        int position = start + 4;
+        while (position < end) {
+            final byte type = document.get(position++);
+            final int nameStart = position;
+            position = skipCString(document, position);
+            if (type == ARRAY && nameEquals(document, nameStart, PRODUCTS)) {
+                productCount = writeProducts(document, position, output, scratch);
+            }
+            position = skipValue(document, type, position);
+        }
+        writeFooter(productCount, output, scratch);
+    }
+
+    @Override
+    public void writeEmpty(String customerId, OutputStream output) throws IOException {
+        writeHeader(customerId, output);
+        writeFooter(0, output, new byte[20]);
+    }
+
+    private void writeHeader(String customerId, OutputStream output) throws IOException {
+        output.write(CUSTOMER_ID_FIELD);
+        if (customerId == null) {
+            output.write(NULL);
+        } else {
+            final byte[] customerIdBytes = customerId.getBytes(StandardCharsets.UTF_8);
+            writeJsonString(ByteBuffer.wrap(customerIdBytes), 0, customerIdBytes.length, output);
+        }
+        output.write(PRODUCTS_FIELD);
+    }
+
+    private void writeFooter(int productCount, OutputStream output, byte[] scratch) throws IOException {
+        output.write(TOTAL_ITEMS_FIELD);
+        writeInt(productCount, output, scratch);
+        output.write(MAX_ITEMS_FIELD);
+        writeInt(Wishlist.MAX_PRODUCTS, output, scratch);
+        output.write('}');
+    }
+
+    private int writeProducts(ByteBuffer document, int arrayStart, OutputStream output, byte[] scratch) throws IOException {
+        final int end = arrayStart + document.getInt(arrayStart) - 1;
+        int position = arrayStart + 4;
+        int count = 0;
+        while (position < end) {
+            final byte type = document.get(position++);
+            position = skipCString(document, position);
+            if (type == DOCUMENT) {
+                if (count > 0) {
+                    output.write(',');
+                }
+                writeProduct(document, position, output, scratch);
+                count++;
+            }
+            position = skipValue(document, type, position);
+        }
+        return count;
+    }
+
+    private void writeProduct(ByteBuffer document, int productStart, OutputStream output, byte[] scratch) throws IOException {
+        final int end = productStart + document.getInt(productStart) - 1;
+        int position = productStart + 4;
+        int productId = -1;
+        int addedAt = -1;
+        while (position < end) {
+            final byte type = document.get(position++);
+            final int nameStart = position;
+            position = skipCString(document, position);
+            if (type == STRING && nameEquals(document, nameStart, PRODUCT_ID)) {
+                productId = position;
+            } else if (type == DATE_TIME && nameEquals(document, nameStart, ADDED_AT)) {
+                addedAt = position;
+            }
+            position = skipValue(document, type, position);
+        }
+        output.write(PRODUCT_ID_FIELD);
+        if (productId < 0) {
+            output.write(NULL);
+        } else {
+            writeJsonString(document, productId + 4, document.getInt(productId) - 1, output);
+        }
+        output.write(ADDED_AT_FIELD);
+        if (addedAt < 0) {
+            output.write(NULL);
+        } else {
+            writeDate(document.getLong(addedAt), output, scratch);
+        }
+        output.write('}');
+    }
+
+    private void writeJsonString(ByteBuffer source, int offset, int length, OutputStream output) throws IOException {
+        final int end = offset + length;
+        output.write('"');
+        int runStart = offset;
+        for (int position = offset; position < end; position++) {
+            final int current = source.get(position) & 0xFF;
+            if (current >= 0x20 && current != '"' && current != '\\') {
+                continue;
+            }
+            writeRun(source, runStart, position, output);
+            output.write('\\');
+            switch (current) {
+                case '"', '\\' -> output.write(current);
+                case '\n' -> output.write('n');
+                case '\r' -> output.write('r');
+                case '\t' -> output.write('t');
+                case '\b' -> output.write('b');
+                case '\f' -> output.write('f');
+                default -> {
+                    output.write('u');
+                    output.write('0');
+                    output.write('0');
+                    output.write(HEX[current >> 4]);
+                    output.write(HEX[current & 0xF]);
+                }
+            }
+            runStart = position + 1;
+        }
+        writeRun(source, runStart, end, output);
+        output.write('"');
+    }
+
+    private void writeRun(ByteBuffer source, int from, int to, OutputStream output) throws IOException {
+        if (from >= to) {
+            return;
+        }
+        if (source.hasArray()) {
+            output.write(source.array(), source.arrayOffset() + from, to - from);
+            return;
+        }
+        for (int position = from; position < to; position++) {
+            output.write(source.get(position));
+        }
+    }
+
+    private void writeDate(long epochMillis, OutputStream output, byte[] scratch) throws IOException {
+        final long localSeconds = Math.floorDiv(epochMillis, 1000L) + offsetSeconds(epochMillis);
+        final long epochDay = Math.floorDiv(localSeconds, SECONDS_PER_DAY);
+        final int secondOfDay = (int) Math.floorMod(localSeconds, SECONDS_PER_DAY);
+        // days-from-civil inverse, see http://howardhinnant.github.io/date_algorithms.html#civil_from_days
+        final long shifted = epochDay + 719_468;
+        final long era = Math.floorDiv(shifted, 146_097);
+        final int dayOfEra = (int) (shifted - era * 146_097);
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int monthIndex = (5 * dayOfYear + 2) / 153;
+        final int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        final int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        scratch[0] = '"';
+        putDigits(scratch, 1, (int) year, 4);
+        scratch[5] = '-';
+        putDigits(scratch, 6, month, 2);
+        scratch[8] = '-';
+        putDigits(scratch, 9, day, 2);
+        scratch[11] = 'T';
+        putDigits(scratch, 12, secondOfDay / 3600, 2);
+        scratch[14] = ':';
+        putDigits(scratch, 15, secondOfDay / 60 % 60, 2);
+        scratch[17] = ':';
+        putDigits(scratch, 18, secondOfDay % 60, 2);
+        output.write(scratch, 0, 20);
+        output.write('Z');
+        output.write('"');
+    }
+
+    private int offsetSeconds(long epochMillis) {
+        if (fixedOffsetSeconds != Integer.MIN_VALUE) {
+            return fixedOffsetSeconds;
+        }
+        return zoneRules
+            .getOffset(Instant.ofEpochMilli(epochMillis))
+            .getTotalSeconds();
+    }
+
+    private void writeInt(int value, OutputStream output, byte[] scratch) throws IOException {
+        int digits = 1;
+        for (int remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        putDigits(scratch, 0, value, digits);
+        output.write(scratch, 0, digits);
+    }
+
+    private void putDigits(byte[] target, int offset, int value, int width) {
+        for (int index = offset + width - 1; index >= offset; index--) {
+            target[index] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private boolean nameEquals(ByteBuffer document, int nameStart, byte[] name) {
+        for (int index = 0; index < name.length; index++) {
+            if (document.get(nameStart + index) != name[index]) {
+                return false;
+            }
+        }
+        return document.get(nameStart + name.length) == 0;
+    }
+
+    private int skipCString(ByteBuffer document, int position) {
+        while (document.get(position) != 0) {
+            position++;
+        }
+        return position + 1;
+    }
+
+    private int skipValue(ByteBuffer document, byte type, int position) {
+        return switch (type) {
+            case 0x06, 0x0A, 0x7F, (byte) 0xFF -> position;
+            case 0x08 -> position + 1;
+            case 0x10 -> position + 4;
+            case 0x01, 0x09, 0x11, 0x12 -> position + 8;
+            case 0x07 -> position + 12;
+            case 0x13 -> position + 16;
+            case 0x02, 0x0D, 0x0E -> position + 4 + document.getInt(position);
+            case 0x03, 0x04, 0x0F -> position + document.getInt(position);
+            case 0x05 -> position + 5 + document.getInt(position);
+            case 0x0B -> skipCString(document, skipCString(document, position));
+            case 0x0C -> position + 4 + document.getInt(position) + 12;
+            default -> throw new IllegalStateException("Unsupported BSON type " + type + " in wishlist document");
+        };
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
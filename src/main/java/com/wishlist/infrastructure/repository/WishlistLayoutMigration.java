@@ -0,0 +1,114 @@
+package com.wishlist.infrastructure.repository;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+// Instances are switched to the customer-keyed layout one at a time, and those still on the ObjectId
+// layout keep writing the legacy collection meanwhile. The copy is therefore re-run on every start of a
+// customer-keyed instance, picking up what changed since the previous copy, and the legacy collection is
+// only renamed aside by cutover(), once no instance writes it any more.
+public class WishlistLayoutMigration {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WishlistLayoutMigration.class);
+    private static final String CUTOVER = "cutover-wishlists-to-customer-key";
+    private static final String SYNC = "sync-wishlists-to-customer-key";
+    private static final String BACKUP = "wishlists_before_customer_key";
+    private static final String OBJECT_ID_PATTERN = "^[0-9a-fA-F]{24}$";
+    // Covers clock skew between instances stamping updatedAt and the one recording the watermark
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+    private final MongoTemplate mongoTemplate;
+
+    public WishlistLayoutMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Server-side copy of the wishlists updated since the previous copy, the newest one winning. Only those,
+    // so a wishlist deleted from the customer-keyed collection is not copied back while its legacy copy is
+    // unchanged. Deletes made by ObjectId-layout instances are not carried over.
+    public long migrate() {
+        final String source = WishlistStorageLayout.OBJECT_ID.collectionName();
+        final String target = WishlistStorageLayout.CUSTOMER_KEY.collectionName();
+        if (new WishlistMigrations(mongoTemplate).isCompleted(CUTOVER) || !mongoTemplate.collectionExists(source)) {
+            return 0;
+        }
+        final Instant startedAt = Instant.now();
+        final Document match = new Document("customerId", new Document("$type", "string"));
+        syncedUntil().ifPresent(since -> match.append("updatedAt", new Document("$gte", Date.from(since))));
+        mongoTemplate
+            .getCollection(source)
+            .aggregate(List.of(
+                new Document("$match", match),
+                new Document("$set", new Document("_id", customerKey())
+                    .append("version", new Document("$ifNull", List.of("$version", 0L)))),
+                new Document("$merge", new Document("into", target)
+                    .append("on", "_id")
+                    .append("whenMatched", List.of(new Document("$replaceWith", newestOf("$$new", "$$ROOT"))))
+                    .append("whenNotMatched", "insert"))
+            ))
+            .allowDiskUse(true)
+            .toCollection();
+        mongoTemplate.upsert(
+            new Query(Criteria.where("_id").is(SYNC)),
+            new Update().set("syncedUntil", Date.from(startedAt.minus(SYNC_OVERLAP))),
+            WishlistMigrations.COLLECTION_NAME
+        );
+        final long migrated = mongoTemplate.getCollection(target).estimatedDocumentCount();
+        LOGGER.info("Copied wishlists from {} to {}, {} documents in target", source, target, migrated);
+        return migrated;
+    }
+
+    // Only once every instance runs the customer-keyed layout: one still on the ObjectId layout would
+    // recreate the legacy collection, and its writes would never reach the customer-keyed one
+    public void cutover() {
+        final String source = WishlistStorageLayout.OBJECT_ID.collectionName();
+        new WishlistMigrations(mongoTemplate).runOnce(CUTOVER, () -> {
+            if (!mongoTemplate.collectionExists(source)) {
+                return;
+            }
+            migrate();
+            mongoTemplate
+                .getCollection(source)
+                .renameCollection(
+                    new MongoNamespace(mongoTemplate.getDb().getName(), BACKUP),
+                    new RenameCollectionOptions().dropTarget(true)
+                );
+            LOGGER.info("Cut over to {}, legacy wishlists kept as {}",
+                WishlistStorageLayout.CUSTOMER_KEY.collectionName(), BACKUP);
+        });
+    }
+
+    private Optional<Instant> syncedUntil() {
+        return Optional
+            .ofNullable(mongoTemplate.findById(SYNC, Document.class, WishlistMigrations.COLLECTION_NAME))
+            .map(sync -> sync.getDate("syncedUntil"))
+            .map(Date::toInstant);
+    }
+
+    // Same _id the repository queries with: the mapper turns a 24-hex customerId into an ObjectId
+    private static Document customerKey() {
+        return new Document("$cond", List.of(
+            new Document("$regexMatch", new Document("input", "$customerId").append("regex", OBJECT_ID_PATTERN)),
+            new Document("$toObjectId", "$customerId"),
+            "$customerId"
+        ));
+    }
+
+    private static Document newestOf(String incoming, String existing) {
+        return new Document("$cond", List.of(
+            new Document("$gt", List.of(incoming + ".updatedAt", "$updatedAt")),
+            incoming,
+            existing
+        ));
+    }
+}
@@ -0,0 +1,43 @@
+package com.wishlist.infrastructure.repository;
+
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class WishlistMigrations {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WishlistMigrations.class);
+    public static final String COLLECTION_NAME = "wishlist_migrations";
+    private final MongoTemplate mongoTemplate;
+
+    public WishlistMigrations(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // The marker is written only after the migration returns, so a crash in between runs it again on the
+    // next start: migrations passed here must be safe to repeat until they have completed once
+    public boolean runOnce(String name, Runnable migration) {
+        if (isCompleted(name)) {
+            return false;
+        }
+        migration.run();
+        mongoTemplate.upsert(
+            byName(name),
+            new Update().setOnInsert("completedAt", Instant.now()),
+            COLLECTION_NAME
+        );
+        LOGGER.info("Migration {} completed", name);
+        return true;
+    }
+
+    public boolean isCompleted(String name) {
+        return mongoTemplate.exists(byName(name), COLLECTION_NAME);
+    }
+
+    private static Query byName(String name) {
+        return new Query(Criteria.where("_id").is(name));
+    }
+}
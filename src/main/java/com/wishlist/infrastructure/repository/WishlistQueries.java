@@ -0,0 +1,140 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.WishlistRevision;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+final class WishlistQueries {
+    static final Document REVISION_FIELDS = new Document("_id", 0)
+        .append("version", 1)
+        .append("updatedAt", 1);
+    private final WishlistStorageLayout layout;
+
+    WishlistQueries(WishlistStorageLayout layout) {
+        this.layout = layout;
+    }
+
+    String collectionName() {
+        return layout.collectionName();
+    }
+
+    Query byCustomerId(String customerId) {
+        return new Query(
+            Criteria
+                .where(layout.keyField())
+                .is(customerId)
+        );
+    }
+
+    Query byCustomerIds(Collection<String> customerIds) {
+        return new Query(
+            Criteria
+                .where(layout.keyField())
+                .in(customerIds)
+        );
+    }
+
+    Query withProduct(String customerId, String productId) {
+        return new Query(
+            Criteria
+                .where(layout.keyField())
+                .is(customerId)
+                .and("products.productId")
+                .is(productId)
+        );
+    }
+
+    Query matchedProduct(String customerId, String productId) {
+        final Query query = withProduct(customerId, productId);
+        query
+            .fields()
+            .exclude("_id")
+            .position("products", 1);
+        return query;
+    }
+
+    Query productsAmong(String customerId, Collection<String> productIds) {
+        final Query query = new Query(
+            Criteria
+                .where(layout.keyField())
+                .is(customerId)
+                .and("products.productId")
+                .in(productIds)
+        );
+        query
+            .fields()
+            .exclude("_id")
+            .include("products");
+        return query;
+    }
+
+    // "products.<max - 1>" missing is the index-friendly form of $size < max
+    Query addProductGuard(String customerId, String productId, int maxProducts) {
+        return new Query(
+            Criteria
+                .where(layout.keyField())
+                .is(customerId)
+                .and("products.productId")
+                .ne(productId)
+                .and("products." + (maxProducts - 1))
+                .exists(false)
+        );
+    }
+
+    Query isFull(String customerId, int maxProducts) {
+        return new Query(
+            Criteria
+                .where(layout.keyField())
+                .is(customerId)
+                .and("products." + (maxProducts - 1))
+                .exists(true)
+        );
+    }
+
+    Query atRevision(Query query, WishlistRevision revision) {
+        return query
+            .addCriteria(Criteria.where("version").is(revision.version()))
+            .addCriteria(Criteria.where("updatedAt").is(new Date(revision.updatedAtMillis())));
+    }
+
+    Query atVersion(Query query, long version) {
+        return query.addCriteria(Criteria.where("version").is(version));
+    }
+
+    Update addProductUpdate(String customerId, String productId) {
+        return addProductUpdate(customerId, productId, LocalDateTime.now());
+    }
+
+    Update addProductUpdate(String customerId, String productId, LocalDateTime now) {
+        final Update update = new Update()
+            .push("products", new WishlistProduct(productId, now))
+            .set("updatedAt", now)
+            .inc("version", 1)
+            .setOnInsert("createdAt", now);
+        if (layout.isCustomerKeyed()) {
+            update.setOnInsert("customerId", customerId);
+        }
+        return update;
+    }
+
+    Update removeProductUpdate(String productId) {
+        return removeProductUpdate(productId, LocalDateTime.now());
+    }
+
+    Update removeProductUpdate(String productId, LocalDateTime now) {
+        return new Update()
+            .pull("products", new Document("productId", productId))
+            .set("updatedAt", now)
+            .inc("version", 1);
+    }
+
+    record ProductMatch(List<WishlistProduct> products) {
+    }
+}
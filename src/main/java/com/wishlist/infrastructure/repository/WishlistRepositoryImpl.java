@@ -1,61 +1,633 @@
 package com.wishlist.infrastructure.repository;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
 import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.ConditionalWriteResult;
+import com.wishlist.domain.repository.RawWishlist;
+import com.wishlist.domain.repository.RawWishlistRepository;
+import com.wishlist.domain.repository.RemoveProductResult;
 import com.wishlist.domain.repository.WishlistRepository;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.repository.WishlistWriteResult;
+import com.wishlist.infrastructure.repository.WishlistQueries.ProductMatch;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public class WishlistRepositoryImpl implements WishlistRepository {
+@Profile("!standalone")
+public class WishlistRepositoryImpl implements WishlistRepository, RawWishlistRepository {
     private final MongoTemplate mongoTemplate;
-    private static final String COLLECTION_NAME = "wishlists";
+    private final WishlistBulkWriter bulkWriter;
+    private final WishlistStorageLayout layout;
+    private final WishlistQueries queries;
+    private final String collectionName;
+    private final QueryMapper queryMapper;
+    private final UpdateMapper updateMapper;
+    private final MongoPersistentEntity<?> wishlistEntity;
+    private final int batchChunkSize;
+    private final Duration batchDeadline;
+    private static final int MAX_ADD_ATTEMPTS = 2;
+    private static final CodecRegistry CODEC_REGISTRY = WishlistCodec.registry(
+        MongoClientSettings.getDefaultCodecRegistry()
+    );
 
-    public WishlistRepositoryImpl(MongoTemplate mongoTemplate) {
+    public WishlistRepositoryImpl(
+        MongoTemplate mongoTemplate,
+        ObjectProvider<WishlistBulkWriter> bulkWriter,
+        @Value("${wishlist.storage.layout:OBJECT_ID}") WishlistStorageLayout layout,
+        @Value("${wishlist.batch.chunk-size:100}") int batchChunkSize,
+        @Value("${wishlist.batch.deadline:2s}") Duration batchDeadline
+    ) {
         this.mongoTemplate = mongoTemplate;
+        this.bulkWriter = bulkWriter.getIfAvailable();
+        this.layout = layout;
+        this.queries = new WishlistQueries(layout);
+        this.collectionName = layout.collectionName();
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        this.updateMapper = new UpdateMapper(mongoTemplate.getConverter());
+        this.wishlistEntity = mongoTemplate
+            .getConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(Wishlist.class);
+        this.batchChunkSize = batchChunkSize;
+        this.batchDeadline = batchDeadline;
     }
 
     @Override
     public Optional<Wishlist> findByCustomerId(String customerId) {
-        final Query query = new Query(
-            Criteria
-                .where("customerId")
-                .is(customerId)
-        );
-        final Wishlist wishlist = mongoTemplate.findOne(
-            query,
-            Wishlist.class,
-            COLLECTION_NAME
+        final Document filter = mappedFilter(queries.byCustomerId(customerId));
+        final Wishlist wishlist = mongoTemplate.execute(collectionName, collection ->
+            wishlists(collection)
+                .find(filter)
+                .first()
         );
         return Optional.ofNullable(wishlist);
     }
 
+    // Chunks run on their own virtual threads and never outlive the call: on the deadline the
+    // remaining ones are interrupted and each query carries the time left as its maxTimeMS
+    @Override
+    public void findByCustomerIds(
+        Collection<String> customerIds,
+        Consumer<Wishlist> consumer
+    ) {
+        final List<List<String>> chunks = chunks(customerIds);
+        final long deadline = System.nanoTime() + batchDeadline.toNanos();
+        if (chunks.size() <= 1) {
+            chunks.forEach(chunk -> findChunk(chunk, deadline).forEach(consumer));
+            return;
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final CompletionService<List<Wishlist>> completed = new ExecutorCompletionService<>(executor);
+            chunks.forEach(chunk -> completed.submit(() -> findChunk(chunk, deadline)));
+            try {
+                for (int remaining = chunks.size(); remaining > 0; remaining--) {
+                    final Future<List<Wishlist>> chunk = completed.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (chunk == null) {
+                        throw batchTimeout(customerIds.size());
+                    }
+                    chunk.get().forEach(consumer);
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new QueryTimeoutException("Interrupted while reading wishlists", exception);
+            } catch (ExecutionException exception) {
+                if (exception.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new UncategorizedMongoDbException("Reading wishlists failed", exception.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Override
+    public Optional<RawWishlist> findRawByCustomerId(String customerId) {
+        final Document filter = mappedFilter(queries.byCustomerId(customerId));
+        final RawBsonDocument document = mongoTemplate.execute(collectionName, collection ->
+            collection
+                .withDocumentClass(RawBsonDocument.class)
+                .find(filter)
+                .first()
+        );
+        return Optional
+            .ofNullable(document)
+            .map(raw -> new RawWishlist(revisionOf(raw), raw.getByteBuffer().asNIO()));
+    }
+
+    @Override
+    public Optional<WishlistRevision> findRevisionByCustomerId(String customerId) {
+        final Document filter = mappedFilter(queries.byCustomerId(customerId));
+        final RawBsonDocument document = mongoTemplate.execute(collectionName, collection ->
+            collection
+                .withDocumentClass(RawBsonDocument.class)
+                .find(filter)
+                .projection(WishlistQueries.REVISION_FIELDS)
+                .first()
+        );
+        return Optional
+            .ofNullable(document)
+            .map(this::revisionOf);
+    }
+
     @Override
     public Wishlist save(Wishlist wishlist) {
+        if (layout.isCustomerKeyed() && wishlist.getId() == null) {
+            wishlist.setId(wishlist.getCustomerId());
+        }
         wishlist.setUpdatedAt(LocalDateTime.now());
-        return mongoTemplate.save(wishlist, COLLECTION_NAME);
+        return mongoTemplate.execute(collectionName, collection -> {
+            if (wishlist.getVersion() == null) {
+                insert(wishlists(collection), wishlist);
+            } else {
+                replace(wishlists(collection), wishlist);
+            }
+            return wishlist;
+        });
     }
 
+    // deleteOne rather than MongoTemplate.remove, which deletes every match: a customer owns one document
     @Override
-    public void deleteByCustomerId(String customerId) {
-        final Query query = new Query(
-            Criteria
-                .where("customerId")
-                .is(customerId)
+    public boolean deleteByCustomerId(String customerId) {
+        final Document filter = mappedFilter(queries.byCustomerId(customerId));
+        final DeleteResult result = mongoTemplate.execute(collectionName, collection ->
+            collection.deleteOne(filter)
         );
-        mongoTemplate.remove(query, Wishlist.class, COLLECTION_NAME);
+        return result.getDeletedCount() > 0;
+    }
+
+    // Each wishlist is written wholesale, but only over the version it was based on: one that another writer
+    // changed meanwhile is left as it is and its customer returned, for the caller to reload. One unordered
+    // bulk write; replaying it after a failure reports nothing for the writes that had been applied.
+    public Set<String> writeSnapshots(Collection<SnapshotWrite> snapshots) {
+        final List<WriteModel<Wishlist>> writes = new ArrayList<>(snapshots.size());
+        for (SnapshotWrite snapshot : snapshots) {
+            snapshotWrite(snapshot).ifPresent(writes::add);
+        }
+        if (writes.isEmpty()) {
+            return Set.of();
+        }
+        final BulkWriteResult result = mongoTemplate.execute(collectionName, collection -> {
+            try {
+                return wishlists(collection).bulkWrite(writes, new BulkWriteOptions().ordered(false));
+            } catch (MongoBulkWriteException exception) {
+                if (exception.getWriteConcernError() != null || exception
+                    .getWriteErrors()
+                    .stream()
+                    .anyMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY)) {
+                    throw exception;
+                }
+                // A duplicate key is an insert racing another writer's, the writes around it were applied
+                return exception.getWriteResult();
+            }
+        });
+        final int applied = result.getMatchedCount() + result.getInsertedCount() + result.getDeletedCount();
+        return applied == writes.size() ? Set.of() : conflicting(snapshots);
+    }
+
+    private Optional<WriteModel<Wishlist>> snapshotWrite(SnapshotWrite snapshot) {
+        final Long basedOn = snapshot.basedOnVersion();
+        if (snapshot.wishlist() == null) {
+            return basedOn == null ? Optional.empty() : Optional.of(new DeleteOneModel<>(versionFilter(snapshot.customerId(), basedOn)));
+        }
+        final Wishlist wishlist = layout.isCustomerKeyed() ? keyedByCustomer(snapshot.wishlist()) : snapshot.wishlist();
+        if (basedOn == null) {
+            return Optional.of(new InsertOneModel<>(wishlist));
+        }
+        return Optional.of(new ReplaceOneModel<>(versionFilter(snapshot.customerId(), basedOn), wishlist));
+    }
+
+    private Document versionFilter(String customerId, long version) {
+        return mappedFilter(queries.atVersion(queries.byCustomerId(customerId), version));
+    }
+
+    // A write that did not apply either found its snapshot already stored, by an earlier attempt, or lost.
+    // Revisions tell the two apart: another writer reaching the same version stamps a different updatedAt.
+    private Set<String> conflicting(Collection<SnapshotWrite> snapshots) {
+        final Document filter = mappedFilter(queries.byCustomerIds(
+            snapshots.stream().map(SnapshotWrite::customerId).toList()
+        ));
+        final Map<String, WishlistRevision> storedRevisions = new HashMap<>();
+        mongoTemplate.execute(collectionName, collection -> collection
+            .find(filter)
+            .projection(new Document(layout.keyField(), 1).append("version", 1).append("updatedAt", 1))
+            .into(new ArrayList<>())
+        ).forEach(document -> {
+            final Object key = document.get(layout.keyField());
+            storedRevisions.put(key instanceof ObjectId id ? id.toHexString() : String.valueOf(key), revisionOf(document));
+        });
+        final Set<String> conflicts = new LinkedHashSet<>();
+        for (SnapshotWrite snapshot : snapshots) {
+            final WishlistRevision expected = snapshot.wishlist() == null ? null : WishlistRevision.of(snapshot.wishlist());
+            if (!Objects.equals(storedRevisions.get(snapshot.customerId()), expected)) {
+                conflicts.add(snapshot.customerId());
+            }
+        }
+        return conflicts;
     }
 
     @Override
     public boolean existsByCustomerId(String customerId) {
-        final Query query = new Query(
-            Criteria
-                .where("customerId")
-                .is(customerId)
+        return mongoTemplate.exists(queries.byCustomerId(customerId), Wishlist.class, collectionName);
+    }
+
+    @Override
+    public AddProductResult addProduct(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        for (int attempt = 1; attempt <= MAX_ADD_ATTEMPTS; attempt++) {
+            if (upsertProduct(customerId, productId, maxProducts)) {
+                return AddProductResult.ADDED;
+            }
+            final Optional<AddProductResult> rejection = classifyRejectedAdd(customerId, productId, maxProducts);
+            if (rejection.isPresent()) {
+                return rejection.get();
+            }
+        }
+        throw new OptimisticLockingFailureException("Concurrent modification of wishlist of customer " + customerId);
+    }
+
+    @Override
+    public RemoveProductResult removeProduct(
+        String customerId,
+        String productId
+    ) {
+        final UpdateResult result = mongoTemplate.updateFirst(
+            queries.withProduct(customerId, productId),
+            queries.removeProductUpdate(productId),
+            Wishlist.class,
+            collectionName
+        );
+        if (result.getModifiedCount() > 0) {
+            return RemoveProductResult.REMOVED;
+        }
+        return existsByCustomerId(customerId) ?
+            RemoveProductResult.PRODUCT_NOT_FOUND : RemoveProductResult.CUSTOMER_NOT_FOUND;
+    }
+
+    // Always a direct findOneAndUpdate: the bulk writer cannot hand back the updated document
+    @Override
+    public WishlistWriteResult<AddProductResult> addProductAndGet(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        final Document filter = mappedFilter(queries.addProductGuard(customerId, productId, maxProducts));
+        for (int attempt = 1; attempt <= MAX_ADD_ATTEMPTS; attempt++) {
+            final Document update = mappedUpdate(queries.addProductUpdate(customerId, productId));
+            final Optional<Wishlist> updated = findAndUpdate(filter, update, true);
+            if (updated.isPresent()) {
+                return new WishlistWriteResult<>(AddProductResult.ADDED, updated.get());
+            }
+            final Optional<AddProductResult> rejection = classifyRejectedAdd(customerId, productId, maxProducts);
+            if (rejection.isPresent()) {
+                return new WishlistWriteResult<>(rejection.get(), null);
+            }
+        }
+        throw new OptimisticLockingFailureException("Concurrent modification of wishlist of customer " + customerId);
+    }
+
+    @Override
+    public WishlistWriteResult<RemoveProductResult> removeProductAndGet(
+        String customerId,
+        String productId
+    ) {
+        final Optional<Wishlist> updated = findAndUpdate(
+            mappedFilter(queries.withProduct(customerId, productId)),
+            mappedUpdate(queries.removeProductUpdate(productId)),
+            false
+        );
+        if (updated.isPresent()) {
+            return new WishlistWriteResult<>(RemoveProductResult.REMOVED, updated.get());
+        }
+        final RemoveProductResult outcome = existsByCustomerId(customerId) ?
+            RemoveProductResult.PRODUCT_NOT_FOUND : RemoveProductResult.CUSTOMER_NOT_FOUND;
+        return new WishlistWriteResult<>(outcome, null);
+    }
+
+    @Override
+    public ConditionalWriteResult<AddProductResult> addProduct(
+        String customerId,
+        String productId,
+        int maxProducts,
+        WishlistRevision expectedRevision
+    ) {
+        final LocalDateTime now = LocalDateTime.now();
+        final UpdateResult result = mongoTemplate.updateFirst(
+            queries.atRevision(queries.addProductGuard(customerId, productId, maxProducts), expectedRevision),
+            queries.addProductUpdate(customerId, productId, now),
+            Wishlist.class,
+            collectionName
+        );
+        if (result.getModifiedCount() > 0) {
+            return new ConditionalWriteResult<>(AddProductResult.ADDED, nextRevision(expectedRevision, now));
+        }
+        if (!isCurrentRevision(customerId, expectedRevision)) {
+            return new ConditionalWriteResult<>(AddProductResult.REVISION_MISMATCH, null);
+        }
+        return new ConditionalWriteResult<>(
+            classifyRejectedAdd(customerId, productId, maxProducts).orElse(AddProductResult.REVISION_MISMATCH),
+            null
+        );
+    }
+
+    @Override
+    public ConditionalWriteResult<RemoveProductResult> removeProduct(
+        String customerId,
+        String productId,
+        WishlistRevision expectedRevision
+    ) {
+        final LocalDateTime now = LocalDateTime.now();
+        final UpdateResult result = mongoTemplate.updateFirst(
+            queries.atRevision(queries.withProduct(customerId, productId), expectedRevision),
+            queries.removeProductUpdate(productId, now),
+            Wishlist.class,
+            collectionName
+        );
+        if (result.getModifiedCount() > 0) {
+            return new ConditionalWriteResult<>(RemoveProductResult.REMOVED, nextRevision(expectedRevision, now));
+        }
+        final RemoveProductResult outcome = isCurrentRevision(customerId, expectedRevision) ?
+            RemoveProductResult.PRODUCT_NOT_FOUND : RemoveProductResult.REVISION_MISMATCH;
+        return new ConditionalWriteResult<>(outcome, null);
+    }
+
+    @Override
+    public Optional<WishlistProduct> findProduct(
+        String customerId,
+        String productId
+    ) {
+        final ProductMatch match = mongoTemplate.findOne(
+            queries.matchedProduct(customerId, productId),
+            ProductMatch.class,
+            collectionName
+        );
+        if (match == null || match.products() == null) {
+            return Optional.empty();
+        }
+        return match
+            .products()
+            .stream()
+            .findFirst();
+    }
+
+    // At most MAX_PRODUCTS entries come back, so the membership test stays in memory
+    @Override
+    public List<WishlistProduct> findProducts(
+        String customerId,
+        Set<String> productIds
+    ) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        final ProductMatch match = mongoTemplate.findOne(
+            queries.productsAmong(customerId, productIds),
+            ProductMatch.class,
+            collectionName
+        );
+        if (match == null || match.products() == null) {
+            return List.of();
+        }
+        return match
+            .products()
+            .stream()
+            .filter(product -> productIds.contains(product.productId()))
+            .toList();
+    }
+
+    // Only read after a conditional update missed, to tell a stale revision from a rejected mutation
+    private boolean isCurrentRevision(String customerId, WishlistRevision expectedRevision) {
+        return findRevisionByCustomerId(customerId)
+            .map(expectedRevision::equals)
+            .orElse(false);
+    }
+
+    private WishlistRevision nextRevision(WishlistRevision expectedRevision, LocalDateTime updatedAt) {
+        return new WishlistRevision(
+            expectedRevision.version() + 1,
+            updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+        );
+    }
+
+    private WishlistRevision revisionOf(RawBsonDocument document) {
+        final BsonValue version = document.get("version");
+        final BsonValue updatedAt = document.get("updatedAt");
+        return new WishlistRevision(
+            version != null && version.isNumber() ? version.asNumber().longValue() : 0L,
+            updatedAt != null && updatedAt.isDateTime() ? updatedAt.asDateTime().getValue() : 0L
+        );
+    }
+
+    private List<List<String>> chunks(Collection<String> customerIds) {
+        final List<String> distinct = List.copyOf(new LinkedHashSet<>(customerIds));
+        final List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += batchChunkSize) {
+            chunks.add(distinct.subList(from, Math.min(from + batchChunkSize, distinct.size())));
+        }
+        return chunks;
+    }
+
+    private List<Wishlist> findChunk(List<String> customerIds, long deadline) {
+        final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+            throw batchTimeout(customerIds.size());
+        }
+        final Document filter = mappedFilter(queries.byCustomerIds(customerIds));
+        return mongoTemplate.execute(collectionName, collection ->
+            wishlists(collection)
+                .find(filter)
+                .maxTime(remainingMillis, TimeUnit.MILLISECONDS)
+                .into(new ArrayList<>(customerIds.size()))
+        );
+    }
+
+    private QueryTimeoutException batchTimeout(int customers) {
+        return new QueryTimeoutException(
+            "Reading " + customers + " wishlists exceeded the " + batchDeadline.toMillis() + "ms deadline"
+        );
+    }
+
+    private MongoCollection<Wishlist> wishlists(MongoCollection<Document> collection) {
+        return collection
+            .withCodecRegistry(CODEC_REGISTRY)
+            .withDocumentClass(Wishlist.class);
+    }
+
+    private Document mappedFilter(Query query) {
+        return queryMapper.getMappedObject(query.getQueryObject(), wishlistEntity);
+    }
+
+    private static WishlistRevision revisionOf(Document document) {
+        return new WishlistRevision(
+            document.get("version") instanceof Number version ? version.longValue() : 0L,
+            document.get("updatedAt") instanceof Date updatedAt ? updatedAt.getTime() : 0L
+        );
+    }
+
+    private Document mappedUpdate(Update update) {
+        return updateMapper.getMappedObject(update.getUpdateObject(), wishlistEntity);
+    }
+
+    private Optional<Wishlist> findAndUpdate(Document filter, Document update, boolean upsert) {
+        final FindOneAndUpdateOptions options = new FindOneAndUpdateOptions()
+            .upsert(upsert)
+            .returnDocument(ReturnDocument.AFTER);
+        try {
+            return Optional.ofNullable(mongoTemplate.execute(collectionName, collection ->
+                wishlists(collection).findOneAndUpdate(filter, update, options)
+            ));
+        } catch (DuplicateKeyException exception) {
+            // The guard rejected an existing document, so the upsert collided with the unique customer key
+            return Optional.empty();
+        }
+    }
+
+    private Wishlist keyedByCustomer(Wishlist wishlist) {
+        return Wishlist.restore(
+            wishlist.getCustomerId(),
+            wishlist.getCustomerId(),
+            wishlist.getProducts(),
+            wishlist.getCreatedAt(),
+            wishlist.getUpdatedAt(),
+            wishlist.getVersion()
         );
-        return mongoTemplate.exists(query, Wishlist.class, COLLECTION_NAME);
+    }
+
+    private void insert(MongoCollection<Wishlist> wishlists, Wishlist wishlist) {
+        if (wishlist.getId() == null) {
+            wishlist.setId(new ObjectId().toHexString());
+        }
+        wishlist.setVersion(0L);
+        wishlists.insertOne(wishlist);
+    }
+
+    // Same contract as MongoTemplate.save for @Version entities: replace only the version that was read
+    private void replace(MongoCollection<Wishlist> wishlists, Wishlist wishlist) {
+        final long currentVersion = wishlist.getVersion();
+        wishlist.setVersion(currentVersion + 1);
+        final Document filter = new Document("_id", WishlistCodec.idValue(wishlist.getId()))
+            .append("version", currentVersion);
+        if (wishlists.replaceOne(filter, wishlist).getMatchedCount() == 0) {
+            wishlist.setVersion(currentVersion);
+            throw new OptimisticLockingFailureException(
+                "Cannot save wishlist " + wishlist.getId() + " with version " + currentVersion
+                    + " to collection " + collectionName + "; has it been modified meanwhile?"
+            );
+        }
+    }
+
+    private boolean upsertProduct(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        final Query query = queries.addProductGuard(customerId, productId, maxProducts);
+        final Update update = queries.addProductUpdate(customerId, productId);
+        if (bulkWriter != null) {
+            return awaitBulkUpsert(bulkWriter.upsert(query, update));
+        }
+        try {
+            final UpdateResult result = mongoTemplate.upsert(query, update, Wishlist.class, collectionName);
+            return result.getUpsertedId() != null || result.getModifiedCount() > 0;
+        } catch (DuplicateKeyException exception) {
+            // The guard rejected an existing document, so the upsert collided with the unique customer key
+            return false;
+        }
+    }
+
+    // The writer bounds the future with its timeout; the upsert may still be applied by a later flush
+    private boolean awaitBulkUpsert(CompletableFuture<Boolean> applied) {
+        try {
+            return applied.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof TimeoutException) {
+                throw new QueryTimeoutException("Bulk upsert was not acknowledged in time", exception.getCause());
+            }
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+
+    private Optional<AddProductResult> classifyRejectedAdd(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        if (mongoTemplate.exists(queries.isFull(customerId, maxProducts), Wishlist.class, collectionName)) {
+            return Optional.of(AddProductResult.LIMIT_EXCEEDED);
+        }
+        if (mongoTemplate.exists(queries.withProduct(customerId, productId), Wishlist.class, collectionName)) {
+            return Optional.of(AddProductResult.ALREADY_EXISTS);
+        }
+        return Optional.empty();
+    }
+
+    // A null wishlist deletes the stored one, a null version means none was stored when the snapshot was based
+    public record SnapshotWrite(
+        String customerId,
+        Wishlist wishlist,
+        Long basedOnVersion
+    ) {
     }
 }
@@ -0,0 +1,26 @@
+package com.wishlist.infrastructure.repository;
+
+public enum WishlistStorageLayout {
+    OBJECT_ID("wishlists", "customerId"),
+    CUSTOMER_KEY("wishlists_by_customer", "_id");
+
+    private final String collectionName;
+    private final String keyField;
+
+    WishlistStorageLayout(String collectionName, String keyField) {
+        this.collectionName = collectionName;
+        this.keyField = keyField;
+    }
+
+    public String collectionName() {
+        return collectionName;
+    }
+
+    public String keyField() {
+        return keyField;
+    }
+
+    public boolean isCustomerKeyed() {
+        return this == CUSTOMER_KEY;
+    }
+}
@@ -0,0 +1,365 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.WishlistProduct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Wishlist mutations in memory-mapped segment files named after their first sequence. A record is
+// [payload length][CRC32C of payload][payload] and its length is written last, so a zero length ends
+// a segment and a record torn by a crash fails its checksum. Mapped pages survive a process crash;
+// syncOnAppend forces every record to the device to survive losing the host as well.
+public class WishlistWriteAheadLog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WishlistWriteAheadLog.class);
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean syncOnAppend;
+    private final ZoneId zone;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Segment> closedSegments = new ArrayList<>();
+    private Segment active;
+    private long nextSequence = 1;
+    private long checkpoint;
+
+    public WishlistWriteAheadLog(Path directory, int segmentBytes, boolean syncOnAppend) {
+        this(directory, segmentBytes, syncOnAppend, ZoneId.systemDefault());
+    }
+
+    WishlistWriteAheadLog(Path directory, int segmentBytes, boolean syncOnAppend, ZoneId zone) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncOnAppend = syncOnAppend;
+        this.zone = zone;
+    }
+
+    public enum Kind {
+        ADD,
+        REMOVE,
+        CLEAR,
+        SAVE
+    }
+
+    // ADD and REMOVE carry the one product they touch, SAVE the whole list and CLEAR none
+    public record Mutation(
+        long sequence,
+        Kind kind,
+        String customerId,
+        List<WishlistProduct> products,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        long version
+    ) {
+    }
+
+    // Hands every intact record to the consumer in sequence order, then starts a fresh segment so
+    // new records never follow a torn one
+    public void open(Consumer<Mutation> replay) {
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            for (Path path : segmentPaths()) {
+                final Segment segment = Segment.map(path, Files.size(path));
+                if (readSegment(segment, replay) < segment.firstSequence()) {
+                    delete(segment);
+                    continue;
+                }
+                nextSequence = Math.max(nextSequence, segment.lastSequence() + 1);
+                closedSegments.add(segment);
+            }
+            active = newSegment();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Cannot open write-ahead log in " + directory, exception);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long append(
+        Kind kind,
+        String customerId,
+        List<WishlistProduct> products,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        long version
+    ) {
+        final byte[] customer = customerId.getBytes(StandardCharsets.UTF_8);
+        final List<byte[]> productIds = products
+            .stream()
+            .map(product -> product.productId().getBytes(StandardCharsets.UTF_8))
+            .toList();
+        int payloadBytes = 8 + 1 + 2 + customer.length + 8 + 8 + 8 + 2;
+        for (byte[] productId : productIds) {
+            payloadBytes += 2 + productId.length + 8;
+        }
+        if (HEADER_BYTES + payloadBytes + 4 > segmentBytes) {
+            throw new IllegalArgumentException("Mutation of customer " + customerId + " does not fit in a segment");
+        }
+        lock.lock();
+        try {
+            if (active == null) {
+                throw new IllegalStateException("Write-ahead log is not open");
+            }
+            if (active.remaining() < HEADER_BYTES + payloadBytes + 4) {
+                roll();
+            }
+            final long sequence = nextSequence++;
+            final MappedByteBuffer buffer = active.buffer();
+            final int start = active.position();
+            final ByteBuffer payload = buffer.slice(start + HEADER_BYTES, payloadBytes);
+            payload
+                .putLong(sequence)
+                .put((byte) kind.ordinal())
+                .putShort((short) customer.length)
+                .put(customer)
+                .putLong(millis(createdAt))
+                .putLong(millis(updatedAt))
+                .putLong(version)
+                .putShort((short) productIds.size());
+            for (int index = 0; index < productIds.size(); index++) {
+                payload
+                    .putShort((short) productIds.get(index).length)
+                    .put(productIds.get(index))
+                    .putLong(millis(products.get(index).addedAt()));
+            }
+            final CRC32C checksum = new CRC32C();
+            checksum.update(payload.flip());
+            buffer.putInt(start + 4, (int) checksum.getValue());
+            buffer.putInt(start, payloadBytes);
+            if (syncOnAppend) {
+                buffer.force(start, HEADER_BYTES + payloadBytes);
+            }
+            active.advance(HEADER_BYTES + payloadBytes, sequence);
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Deletes the segments whose records all precede the sequence, which must already be in Mongo
+    public void truncateBefore(long sequence) {
+        lock.lock();
+        try {
+            checkpoint = Math.max(checkpoint, sequence);
+            while (!closedSegments.isEmpty() && closedSegments.get(0).lastSequence() < checkpoint) {
+                delete(closedSegments.remove(0));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long nextSequence() {
+        lock.lock();
+        try {
+            return nextSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long sizeInBytes() {
+        lock.lock();
+        try {
+            long bytes = active == null ? 0 : active.position();
+            for (Segment segment : closedSegments) {
+                bytes += segment.position();
+            }
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes the active segment too once everything in it was truncated, so a drained log replays nothing
+    public void close() {
+        lock.lock();
+        try {
+            if (active == null) {
+                return;
+            }
+            active
+                .buffer()
+                .force();
+            if (checkpoint >= nextSequence) {
+                closedSegments.forEach(this::delete);
+                closedSegments.clear();
+                delete(active);
+            }
+            active = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll() {
+        active
+            .buffer()
+            .force();
+        closedSegments.add(active);
+        active = newSegment();
+    }
+
+    private Segment newSegment() {
+        final Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+        try {
+            Files.deleteIfExists(path);
+            return Segment.map(path, segmentBytes);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Cannot create write-ahead log segment " + path, exception);
+        }
+    }
+
+    private long readSegment(Segment segment, Consumer<Mutation> replay) {
+        final MappedByteBuffer buffer = segment.buffer();
+        long lastSequence = segment.firstSequence() - 1;
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            final int payloadBytes = buffer.getInt(position);
+            if (payloadBytes <= 0 || position + HEADER_BYTES + payloadBytes > buffer.capacity()) {
+                break;
+            }
+            final ByteBuffer payload = buffer.slice(position + HEADER_BYTES, payloadBytes);
+            final CRC32C checksum = new CRC32C();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != buffer.getInt(position + 4)) {
+                LOGGER.warn("Ignoring torn write-ahead log record at {} of {}", position, segment.path());
+                break;
+            }
+            final Mutation mutation = decode(payload);
+            replay.accept(mutation);
+            lastSequence = mutation.sequence();
+            position += HEADER_BYTES + payloadBytes;
+        }
+        segment.advance(position, lastSequence);
+        return lastSequence;
+    }
+
+    private Mutation decode(ByteBuffer payload) {
+        final long sequence = payload.getLong();
+        final Kind kind = Kind.values()[payload.get()];
+        final String customerId = string(payload);
+        final LocalDateTime createdAt = dateTime(payload.getLong());
+        final LocalDateTime updatedAt = dateTime(payload.getLong());
+        final long version = payload.getLong();
+        final int productCount = payload.getShort();
+        final List<WishlistProduct> products = new ArrayList<>(productCount);
+        for (int index = 0; index < productCount; index++) {
+            final String productId = string(payload);
+            products.add(new WishlistProduct(productId, dateTime(payload.getLong())));
+        }
+        return new Mutation(sequence, kind, customerId, products, createdAt, updatedAt, version);
+    }
+
+    private List<Path> segmentPaths() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private void delete(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.path());
+        } catch (IOException exception) {
+            LOGGER.warn("Cannot delete write-ahead log segment {}", segment.path(), exception);
+        }
+    }
+
+    private long millis(LocalDateTime value) {
+        return value == null ? NO_DATE : value.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime dateTime(long millis) {
+        return millis == NO_DATE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+    }
+
+    private static String string(ByteBuffer payload) {
+        final byte[] bytes = new byte[payload.getShort()];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final long firstSequence;
+        private int position;
+        private long lastSequence;
+
+        private Segment(Path path, MappedByteBuffer buffer, long firstSequence) {
+            this.path = path;
+            this.buffer = buffer;
+            this.firstSequence = firstSequence;
+            this.lastSequence = firstSequence - 1;
+        }
+
+        // The mapping stays valid after the channel is closed
+        static Segment map(Path path, long size) throws IOException {
+            final String name = path.getFileName().toString();
+            final long firstSequence = Long.parseLong(
+                name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())
+            );
+            try (FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+            )) {
+                return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), firstSequence);
+            }
+        }
+
+        Path path() {
+            return path;
+        }
+
+        MappedByteBuffer buffer() {
+            return buffer;
+        }
+
+        long firstSequence() {
+            return firstSequence;
+        }
+
+        long lastSequence() {
+            return lastSequence;
+        }
+
+        int position() {
+            return position;
+        }
+
+        int remaining() {
+            return buffer.capacity() - position;
+        }
+
+        void advance(int bytes, long sequence) {
+            position += bytes;
+            lastSequence = sequence;
+        }
+    }
+}
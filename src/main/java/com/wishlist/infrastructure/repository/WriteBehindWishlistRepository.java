@@ -0,0 +1,736 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.ConditionalWriteResult;
+import com.wishlist.domain.repository.RemoveProductResult;
+import com.wishlist.domain.repository.WishlistRepository;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.repository.WishlistWriteResult;
+import com.wishlist.infrastructure.repository.WishlistRepositoryImpl.SnapshotWrite;
+import com.wishlist.infrastructure.repository.WishlistWriteAheadLog.Kind;
+import com.wishlist.infrastructure.repository.WishlistWriteAheadLog.Mutation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+// Mutations are applied to an in-memory copy of the customer's wishlist and appended to the write-ahead
+// log before they are acknowledged. A flusher writes each dirty wishlist to Mongo as one snapshot, however
+// many mutations it took, and the log is truncated behind the oldest mutation that is not in Mongo yet.
+// Flushed wishlists stay resident, so the next write does not wait on a Mongo read. Each snapshot only
+// replaces the version it was based on: when another writer got there first, the wishlist is reloaded and
+// this instance's unflushed mutations are rebased onto it, the way a restart replays them, then flushed
+// again. Resident wishlists are dropped after residentTtl without a flush, which bounds how long they can
+// miss another writer's changes.
+public class WriteBehindWishlistRepository implements WishlistRepository, SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindWishlistRepository.class);
+    // Below the web server's graceful shutdown, so requests finish before the log is drained
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final int MAX_DRAIN_ATTEMPTS = 5;
+    private final WishlistRepositoryImpl delegate;
+    private final WishlistWriteAheadLog writeAheadLog;
+    private final Duration flushInterval;
+    private final int flushBatchSize;
+    private final int residentMaxSize;
+    private final Duration residentTtl;
+    private final ConcurrentMap<String, Slot> slots = new ConcurrentHashMap<>();
+    private final Set<String> dirtyCustomers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong pendingCustomers = new AtomicLong();
+    private final DistributionSummary flushSizes;
+    private final Counter conflicts;
+    private volatile long oldestPendingNanos = Long.MAX_VALUE;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public WriteBehindWishlistRepository(
+        WishlistRepositoryImpl delegate,
+        WishlistWriteAheadLog writeAheadLog,
+        Duration flushInterval,
+        int flushBatchSize,
+        int residentMaxSize,
+        Duration residentTtl,
+        MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        this.writeAheadLog = writeAheadLog;
+        this.flushInterval = flushInterval;
+        this.flushBatchSize = flushBatchSize;
+        this.residentMaxSize = residentMaxSize;
+        this.residentTtl = residentTtl;
+        this.flushSizes = DistributionSummary
+            .builder("wishlist.write.behind.flush.size")
+            .description("Wishlists written to Mongo per flush")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.conflicts = Counter
+            .builder("wishlist.write.behind.conflicts")
+            .description("Wishlists changed by another writer before their snapshot was flushed")
+            .register(meterRegistry);
+        Gauge
+            .builder("wishlist.write.behind.backlog", pendingCustomers, AtomicLong::get)
+            .description("Wishlists with acknowledged mutations that are not in Mongo yet")
+            .register(meterRegistry);
+        Gauge
+            .builder("wishlist.write.behind.lag", this, repository -> repository.lag().toMillis())
+            .description("Age of the oldest acknowledged mutation that is not in Mongo yet")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+        Gauge
+            .builder("wishlist.write.behind.log.bytes", writeAheadLog, WishlistWriteAheadLog::sizeInBytes)
+            .description("Write-ahead log records kept on local disk")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    // Replays what a crash left in the log before any request is served
+    @Override
+    public void start() {
+        writeAheadLog.open(this::replay);
+        running = true;
+        flusher = new Thread(this::flushContinuously, "wishlist-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher == null) {
+            return;
+        }
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        writeAheadLog.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    public Duration lag() {
+        final long oldest = oldestPendingNanos;
+        return oldest == Long.MAX_VALUE ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - oldest);
+    }
+
+    @Override
+    public Optional<Wishlist> findByCustomerId(String customerId) {
+        final Slot slot = loadedSlot(customerId);
+        if (slot == null) {
+            return delegate.findByCustomerId(customerId);
+        }
+        return Optional
+            .ofNullable(slot.wishlist)
+            .map(WriteBehindWishlistRepository::copyOf);
+    }
+
+    @Override
+    public void findByCustomerIds(
+        Collection<String> customerIds,
+        Consumer<Wishlist> consumer
+    ) {
+        final List<String> stored = new ArrayList<>(customerIds.size());
+        for (String customerId : customerIds) {
+            final Slot slot = loadedSlot(customerId);
+            if (slot == null) {
+                stored.add(customerId);
+            } else if (slot.wishlist != null) {
+                consumer.accept(copyOf(slot.wishlist));
+            }
+        }
+        if (!stored.isEmpty()) {
+            delegate.findByCustomerIds(stored, consumer);
+        }
+    }
+
+    @Override
+    public Wishlist save(Wishlist wishlist) {
+        return mutate(wishlist.getCustomerId(), slot -> {
+            if (wishlist.getVersion() == null && slot.wishlist != null) {
+                throw new DuplicateKeyException("Wishlist of customer " + wishlist.getCustomerId() + " already exists");
+            }
+            if (wishlist.getVersion() != null
+                && (slot.wishlist == null || !wishlist.getVersion().equals(versionOf(slot.wishlist)))) {
+                throw new OptimisticLockingFailureException(
+                    "Cannot save wishlist of customer " + wishlist.getCustomerId() + " with version "
+                        + wishlist.getVersion() + "; has it been modified meanwhile?"
+                );
+            }
+            final long version = wishlist.getVersion() == null ? 0L : wishlist.getVersion() + 1;
+            record(slot, Kind.SAVE, List.copyOf(wishlist.getProducts()), wishlist.getCreatedAt(), version);
+            wishlist.setUpdatedAt(slot.wishlist.getUpdatedAt());
+            wishlist.setVersion(version);
+            return wishlist;
+        });
+    }
+
+    @Override
+    public boolean deleteByCustomerId(String customerId) {
+        return mutate(customerId, slot -> {
+            if (slot.wishlist == null) {
+                return false;
+            }
+            record(slot, Kind.CLEAR, List.of(), null, 0L);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean existsByCustomerId(String customerId) {
+        final Slot slot = loadedSlot(customerId);
+        return slot == null ? delegate.existsByCustomerId(customerId) : slot.wishlist != null;
+    }
+
+    @Override
+    public AddProductResult addProduct(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        return mutate(customerId, slot -> add(slot, productId, maxProducts));
+    }
+
+    @Override
+    public RemoveProductResult removeProduct(
+        String customerId,
+        String productId
+    ) {
+        return mutate(customerId, slot -> remove(slot, productId));
+    }
+
+    @Override
+    public Optional<WishlistProduct> findProduct(
+        String customerId,
+        String productId
+    ) {
+        final Slot slot = loadedSlot(customerId);
+        if (slot == null) {
+            return delegate.findProduct(customerId, productId);
+        }
+        return productsOf(slot.wishlist)
+            .stream()
+            .filter(product -> product.productId().equals(productId))
+            .findFirst();
+    }
+
+    @Override
+    public List<WishlistProduct> findProducts(
+        String customerId,
+        Set<String> productIds
+    ) {
+        final Slot slot = loadedSlot(customerId);
+        if (slot == null) {
+            return delegate.findProducts(customerId, productIds);
+        }
+        return productsOf(slot.wishlist)
+            .stream()
+            .filter(product -> productIds.contains(product.productId()))
+            .toList();
+    }
+
+    @Override
+    public Optional<WishlistRevision> findRevisionByCustomerId(String customerId) {
+        final Slot slot = loadedSlot(customerId);
+        if (slot == null) {
+            return delegate.findRevisionByCustomerId(customerId);
+        }
+        return Optional
+            .ofNullable(slot.wishlist)
+            .map(WishlistRevision::of);
+    }
+
+    @Override
+    public WishlistWriteResult<AddProductResult> addProductAndGet(
+        String customerId,
+        String productId,
+        int maxProducts
+    ) {
+        return mutate(customerId, slot -> {
+            final AddProductResult outcome = add(slot, productId, maxProducts);
+            return new WishlistWriteResult<>(outcome, outcome == AddProductResult.ADDED ? copyOf(slot.wishlist) : null);
+        });
+    }
+
+    @Override
+    public WishlistWriteResult<RemoveProductResult> removeProductAndGet(
+        String customerId,
+        String productId
+    ) {
+        return mutate(customerId, slot -> {
+            final RemoveProductResult outcome = remove(slot, productId);
+            return new WishlistWriteResult<>(outcome, outcome == RemoveProductResult.REMOVED ? copyOf(slot.wishlist) : null);
+        });
+    }
+
+    @Override
+    public ConditionalWriteResult<AddProductResult> addProduct(
+        String customerId,
+        String productId,
+        int maxProducts,
+        WishlistRevision expectedRevision
+    ) {
+        return mutate(customerId, slot -> {
+            if (slot.wishlist == null || !WishlistRevision.of(slot.wishlist).equals(expectedRevision)) {
+                return new ConditionalWriteResult<>(AddProductResult.REVISION_MISMATCH, null);
+            }
+            final AddProductResult outcome = add(slot, productId, maxProducts);
+            return new ConditionalWriteResult<>(
+                outcome,
+                outcome == AddProductResult.ADDED ? WishlistRevision.of(slot.wishlist) : null
+            );
+        });
+    }
+
+    @Override
+    public ConditionalWriteResult<RemoveProductResult> removeProduct(
+        String customerId,
+        String productId,
+        WishlistRevision expectedRevision
+    ) {
+        return mutate(customerId, slot -> {
+            if (slot.wishlist == null || !WishlistRevision.of(slot.wishlist).equals(expectedRevision)) {
+                return new ConditionalWriteResult<>(RemoveProductResult.REVISION_MISMATCH, null);
+            }
+            final RemoveProductResult outcome = remove(slot, productId);
+            return new ConditionalWriteResult<>(
+                outcome,
+                outcome == RemoveProductResult.REMOVED ? WishlistRevision.of(slot.wishlist) : null
+            );
+        });
+    }
+
+    private AddProductResult add(Slot slot, String productId, int maxProducts) {
+        final List<WishlistProduct> products = productsOf(slot.wishlist);
+        if (products.stream().anyMatch(product -> product.productId().equals(productId))) {
+            return AddProductResult.ALREADY_EXISTS;
+        }
+        if (products.size() >= maxProducts) {
+            return AddProductResult.LIMIT_EXCEEDED;
+        }
+        final LocalDateTime now = now();
+        record(slot, Kind.ADD, List.of(new WishlistProduct(productId, now)), now, versionOf(slot.wishlist) + 1);
+        return AddProductResult.ADDED;
+    }
+
+    private RemoveProductResult remove(Slot slot, String productId) {
+        if (slot.wishlist == null) {
+            return RemoveProductResult.CUSTOMER_NOT_FOUND;
+        }
+        if (!slot.wishlist.hasProduct(productId)) {
+            return RemoveProductResult.PRODUCT_NOT_FOUND;
+        }
+        record(slot, Kind.REMOVE, List.of(new WishlistProduct(productId, null)), null, versionOf(slot.wishlist) + 1);
+        return RemoveProductResult.REMOVED;
+    }
+
+    // Logged before it is applied, so nothing is acknowledged that a restart could not replay
+    private void record(
+        Slot slot,
+        Kind kind,
+        List<WishlistProduct> products,
+        LocalDateTime createdAt,
+        long version
+    ) {
+        final LocalDateTime updatedAt = now();
+        final LocalDateTime created = slot.wishlist == null || kind == Kind.SAVE ?
+            (createdAt == null ? updatedAt : createdAt) : slot.wishlist.getCreatedAt();
+        final long sequence = writeAheadLog.append(kind, slot.customerId, products, created, updatedAt, version);
+        apply(slot, new Mutation(sequence, kind, slot.customerId, products, created, updatedAt, version));
+    }
+
+    private void apply(Slot slot, Mutation mutation) {
+        slot.wishlist = applied(slot.wishlist, mutation);
+        slot.unflushed.add(mutation);
+        if (slot.pendingSince == 0) {
+            slot.pendingSince = mutation.sequence();
+            slot.pendingSinceNanos = System.nanoTime();
+            pendingCustomers.incrementAndGet();
+        }
+        slot.appliedSequence = mutation.sequence();
+        dirtyCustomers.add(slot.customerId);
+    }
+
+    // Replayed records were all acknowledged, so they are applied without re-checking limits: the last
+    // mutation of each product decides whether it is in the wishlist, as it did before the crash
+    private void replay(Mutation mutation) {
+        final Slot slot = slots.computeIfAbsent(mutation.customerId(), Slot::new);
+        slot.lock.lock();
+        try {
+            slot.load(delegate);
+            apply(slot, mutation);
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    // Mutations were numbered from the stale copy, so each is renumbered from the wishlist it now lands on
+    private static Wishlist rebased(Wishlist stored, List<Mutation> mutations) {
+        Wishlist current = stored;
+        for (Mutation mutation : mutations) {
+            current = applied(current, new Mutation(
+                mutation.sequence(),
+                mutation.kind(),
+                mutation.customerId(),
+                mutation.products(),
+                current == null || mutation.kind() == Kind.SAVE ? mutation.createdAt() : current.getCreatedAt(),
+                mutation.updatedAt(),
+                current == null ? mutation.version() : versionOf(current) + 1
+            ));
+        }
+        return current;
+    }
+
+    private static Wishlist applied(Wishlist current, Mutation mutation) {
+        final String id = current == null ? null : current.getId();
+        final List<WishlistProduct> products = new ArrayList<>(productsOf(current));
+        switch (mutation.kind()) {
+            case CLEAR -> {
+                return null;
+            }
+            case SAVE -> {
+                products.clear();
+                products.addAll(mutation.products());
+            }
+            case ADD -> mutation
+                .products()
+                .stream()
+                .filter(product -> products.stream().noneMatch(product::equals))
+                .forEach(products::add);
+            case REMOVE -> {
+                if (current == null) {
+                    return null;
+                }
+                products.removeAll(mutation.products());
+            }
+        }
+        return Wishlist.restore(
+            id,
+            mutation.customerId(),
+            products,
+            mutation.createdAt(),
+            mutation.updatedAt(),
+            mutation.version()
+        );
+    }
+
+    private <T> T mutate(String customerId, Function<Slot, T> mutation) {
+        if (!running) {
+            throw new IllegalStateException("Write-behind repository is not running");
+        }
+        while (true) {
+            final Slot slot = slots.computeIfAbsent(customerId, Slot::new);
+            slot.lock.lock();
+            try {
+                if (slot.retired) {
+                    continue;
+                }
+                slot.load(delegate);
+                slot.lastAccessNanos = System.nanoTime();
+                return mutation.apply(slot);
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+    }
+
+    private Slot loadedSlot(String customerId) {
+        final Slot slot = slots.get(customerId);
+        if (slot == null || !slot.loaded) {
+            return null;
+        }
+        slot.lastAccessNanos = System.nanoTime();
+        return slot;
+    }
+
+    private void retire(Slot slot) {
+        slot.retired = true;
+        slots.remove(slot.customerId, slot);
+    }
+
+    private void flushContinuously() {
+        while (running) {
+            LockSupport.parkNanos(flushInterval.toNanos());
+            if (running) {
+                flushPending();
+            }
+        }
+        drain();
+    }
+
+    // Stops early when Mongo keeps failing; whatever is left stays in the log for the next start
+    private void drain() {
+        for (int attempt = 1; pendingCustomers.get() > 0 && attempt <= MAX_DRAIN_ATTEMPTS; attempt++) {
+            flushPending();
+        }
+        if (pendingCustomers.get() > 0) {
+            LOGGER.warn("Stopped with {} wishlists not in Mongo, they will be replayed on start", pendingCustomers.get());
+        }
+    }
+
+    void flushPending() {
+        final Iterator<String> customers = dirtyCustomers.iterator();
+        while (customers.hasNext()) {
+            final List<String> batch = new ArrayList<>(flushBatchSize);
+            while (customers.hasNext() && batch.size() < flushBatchSize) {
+                batch.add(customers.next());
+                customers.remove();
+            }
+            if (!flush(batch)) {
+                dirtyCustomers.addAll(batch);
+                break;
+            }
+        }
+        checkpoint();
+        evictResident();
+    }
+
+    private boolean flush(List<String> customers) {
+        final List<Snapshot> snapshots = new ArrayList<>(customers.size());
+        for (String customerId : customers) {
+            final Slot slot = slots.get(customerId);
+            if (slot == null) {
+                continue;
+            }
+            slot.lock.lock();
+            try {
+                if (!slot.retired && slot.pendingSince > 0) {
+                    snapshots.add(new Snapshot(slot, slot.wishlist, slot.storedVersion, slot.appliedSequence, System.nanoTime()));
+                }
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+        if (snapshots.isEmpty()) {
+            return true;
+        }
+        final Set<String> conflicting;
+        try {
+            conflicting = delegate.writeSnapshots(snapshots
+                .stream()
+                .map(snapshot -> new SnapshotWrite(snapshot.slot().customerId, snapshot.wishlist(), snapshot.basedOnVersion()))
+                .toList()
+            );
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Writing {} wishlists behind failed, retrying on the next flush", snapshots.size(), exception);
+            return false;
+        }
+        flushSizes.record(snapshots.size());
+        for (Snapshot snapshot : snapshots) {
+            if (conflicting.contains(snapshot.slot().customerId)) {
+                conflicted(snapshot.slot());
+            } else {
+                flushed(snapshot);
+            }
+        }
+        return true;
+    }
+
+    private void flushed(Snapshot snapshot) {
+        final Slot slot = snapshot.slot();
+        slot.lock.lock();
+        try {
+            slot.storedVersion = snapshot.wishlist() == null ? null : snapshot.wishlist().getVersion();
+            slot.unflushed.removeIf(mutation -> mutation.sequence() <= snapshot.sequence());
+            if (slot.appliedSequence == snapshot.sequence()) {
+                slot.pendingSince = 0;
+                slot.syncedNanos = System.nanoTime();
+                pendingCustomers.decrementAndGet();
+            } else {
+                slot.pendingSince = snapshot.sequence() + 1;
+                slot.pendingSinceNanos = snapshot.takenNanos();
+                dirtyCustomers.add(slot.customerId);
+            }
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    // Mutations applied after the snapshot was taken were based on the same stale copy, so they are rebased
+    // too. A failed reload leaves the slot stale, and the next flush conflicts and reloads again.
+    private void conflicted(Slot slot) {
+        slot.lock.lock();
+        try {
+            LOGGER.warn(
+                "Wishlist of customer {} was changed by another writer, rebasing {} mutations onto it",
+                slot.customerId,
+                slot.unflushed.size()
+            );
+            conflicts.increment();
+            final Wishlist stored = delegate
+                .findByCustomerId(slot.customerId)
+                .orElse(null);
+            slot.wishlist = rebased(stored, slot.unflushed);
+            slot.storedVersion = stored == null ? null : versionOf(stored);
+            slot.syncedNanos = System.nanoTime();
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Reloading wishlist of customer {} failed, retrying on the next flush", slot.customerId, exception);
+        } finally {
+            dirtyCustomers.add(slot.customerId);
+            slot.lock.unlock();
+        }
+    }
+
+    // Clean wishlists not flushed for residentTtl are dropped, then the least recently used ones above
+    // residentMaxSize. Access times are copied under the lock so sorting does not see them change.
+    private void evictResident() {
+        final long now = System.nanoTime();
+        final List<Resident> clean = new ArrayList<>();
+        for (Slot slot : slots.values()) {
+            slot.lock.lock();
+            try {
+                if (slot.retired || slot.pendingSince > 0) {
+                    continue;
+                }
+                if (now - slot.syncedNanos > residentTtl.toNanos()) {
+                    retire(slot);
+                } else {
+                    clean.add(new Resident(slot, slot.lastAccessNanos));
+                }
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+        if (clean.size() > residentMaxSize) {
+            clean.sort(Comparator.comparingLong(Resident::lastAccessNanos));
+            clean
+                .subList(0, clean.size() - residentMaxSize)
+                .forEach(resident -> evict(resident.slot()));
+        }
+    }
+
+    private void evict(Slot slot) {
+        slot.lock.lock();
+        try {
+            if (!slot.retired && slot.pendingSince == 0) {
+                retire(slot);
+            }
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    // The bound is read first: a mutation logged before it has marked its slot by the time the slot lock is free
+    private void checkpoint() {
+        long checkpoint = writeAheadLog.nextSequence();
+        long oldestNanos = Long.MAX_VALUE;
+        for (Slot slot : slots.values()) {
+            slot.lock.lock();
+            try {
+                if (slot.pendingSince > 0) {
+                    checkpoint = Math.min(checkpoint, slot.pendingSince);
+                    oldestNanos = Math.min(oldestNanos, slot.pendingSinceNanos);
+                }
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+        oldestPendingNanos = oldestNanos;
+        writeAheadLog.truncateBefore(checkpoint);
+    }
+
+    private static long versionOf(Wishlist wishlist) {
+        return wishlist == null || wishlist.getVersion() == null ? 0L : wishlist.getVersion();
+    }
+
+    private static List<WishlistProduct> productsOf(Wishlist wishlist) {
+        return wishlist == null ? List.of() : wishlist.getProducts();
+    }
+
+    private static Wishlist copyOf(Wishlist wishlist) {
+        return Wishlist.restore(
+            wishlist.getId(),
+            wishlist.getCustomerId(),
+            new ArrayList<>(wishlist.getProducts()),
+            wishlist.getCreatedAt(),
+            wishlist.getUpdatedAt(),
+            wishlist.getVersion()
+        );
+    }
+
+    // Mongo keeps dates in millis, truncating here keeps revisions equal once the snapshot is read back
+    private static LocalDateTime now() {
+        return LocalDateTime
+            .now()
+            .truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    // The wishlist is replaced on every mutation and never changed in place, so readers need no lock.
+    // Reads stamp lastAccessNanos without it; everything else below is guarded by the lock.
+    private static final class Slot {
+        private final String customerId;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<Mutation> unflushed = new ArrayList<>();
+        private volatile Wishlist wishlist;
+        private volatile boolean loaded;
+        private volatile long lastAccessNanos;
+        private long syncedNanos;
+        private boolean retired;
+        private Long storedVersion;
+        private long appliedSequence;
+        private long pendingSince;
+        private long pendingSinceNanos;
+
+        Slot(String customerId) {
+            this.customerId = customerId;
+        }
+
+        void load(WishlistRepository store) {
+            if (!loaded) {
+                wishlist = store
+                    .findByCustomerId(customerId)
+                    .orElse(null);
+                storedVersion = wishlist == null ? null : versionOf(wishlist);
+                syncedNanos = System.nanoTime();
+                loaded = true;
+            }
+        }
+    }
+
+    private record Snapshot(
+        Slot slot,
+        Wishlist wishlist,
+        Long basedOnVersion,
+        long sequence,
+        long takenNanos
+    ) {
+    }
+
+    private record Resident(
+        Slot slot,
+        long lastAccessNanos
+    ) {
+    }
+}
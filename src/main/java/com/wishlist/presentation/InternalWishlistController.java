@@ -0,0 +1,110 @@
+package com.wishlist.presentation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.wishlist.application.dto.BatchGetWishlistsRequest;
+import com.wishlist.application.exception.ApiErrorResponse;
+import com.wishlist.domain.usecase.WishlistUseCase;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Validated
+@Profile("!reactive")
+@RequestMapping("/internal/v1")
+@Tag(name = "Internal", description = "Endpoints for internal consumers")
+public class InternalWishlistController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InternalWishlistController.class);
+    private final WishlistUseCase wishlistUseCase;
+    private final ObjectMapper objectMapper;
+
+    public InternalWishlistController(
+        WishlistUseCase wishlistUseCase,
+        ObjectMapper objectMapper
+    ) {
+        this.wishlistUseCase = wishlistUseCase;
+        this.objectMapper = objectMapper;
+    }
+
+    @Operation(
+        summary = "Get wishlists of many customers",
+        description = "Stream one wishlist per line for each requested customer, in no particular order"
+    )
+    @ApiResponses(
+        value = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "One wishlist per requested customer as newline-delimited JSON; "
+                    + "a failure after streaming started ends the stream with an error line"
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid customer IDs"),
+            @ApiResponse(responseCode = "504", description = "Batch deadline exceeded before any wishlist was read")
+        }
+    )
+    @PostMapping("/wishlists:batchGet")
+    public void getWishlists(
+        @Valid
+        @RequestBody
+        BatchGetWishlistsRequest request,
+        @Parameter(hidden = true)
+        HttpServletRequest servletRequest,
+        @Parameter(hidden = true)
+        HttpServletResponse response
+    ) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        final SequenceWriter lines = objectMapper
+            .writer()
+            .withRootValueSeparator("\n")
+            .writeValues(response.getOutputStream());
+        // Each line is flushed as written. Before the first one the exception handlers still own the
+        // response; after it the 200 is committed, so a failure ends the stream with an error line instead
+        try {
+            wishlistUseCase.getWishlists(request.customerIds(), wishlist -> {
+                try {
+                    lines.write(wishlist);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        } catch (RuntimeException exception) {
+            if (!response.isCommitted() || exception instanceof UncheckedIOException) {
+                throw exception;
+            }
+            LOGGER.warn("Batch get of {} wishlists failed mid-stream", request.customerIds().size(), exception);
+            lines.write(streamError(exception, servletRequest));
+        }
+        lines.close();
+    }
+
+    private ApiErrorResponse streamError(RuntimeException exception, HttpServletRequest request) {
+        final boolean deadline = exception instanceof QueryTimeoutException;
+        return ApiErrorResponse
+            .builder()
+            .code(deadline ? "DEADLINE_EXCEEDED" : "INTERNAL_SERVER_ERROR")
+            .message(deadline ? exception.getMessage() : "An unexpected error occurred. Please try again later.")
+            .timestamp(LocalDateTime.now())
+            .path(request.getRequestURI())
+            .build();
+    }
+}
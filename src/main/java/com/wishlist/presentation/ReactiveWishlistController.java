@@ -0,0 +1,263 @@
+package com.wishlist.presentation;
+
+import com.wishlist.application.dto.ContainedProductsResponse;
+import com.wishlist.application.dto.ContainsProductsRequest;
+import com.wishlist.application.dto.ProductExistsResponse;
+import com.wishlist.application.dto.WishlistResponse;
+import com.wishlist.application.exception.WishlistPreconditionFailedException;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.usecase.ReactiveWishlistUseCase;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+@RestController
+@Validated
+@Profile("reactive")
+@RequestMapping("/api/v1/customers/{customerId}/wishlist")
+public class ReactiveWishlistController {
+    private final ReactiveWishlistUseCase wishlistUseCase;
+    private static final String REGEX_PATTERN_COSTUMER_ID = "^[a-zA-Z0-9-_]{1,50}$";
+    private static final String REGEX_PATTERN_PRODUCT_ID = "^[a-zA-Z0-9-_]{1,100}$";
+    private static final String MESSAGE_VALIDATION_ID = "Invalid product ID format";
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RETURN_REPRESENTATION = "return=representation";
+
+    public ReactiveWishlistController(ReactiveWishlistUseCase wishlistUseCase) {
+        this.wishlistUseCase = wishlistUseCase;
+    }
+
+    // Only a conditional request pays for the revision lookup, as in the MVC controller
+    @GetMapping
+    public Mono<ResponseEntity<WishlistResponse>> getWishlist(
+        @PathVariable
+        @NotBlank
+        @Pattern(regexp = REGEX_PATTERN_COSTUMER_ID, message = MESSAGE_VALIDATION_ID)
+        String customerId,
+        ServerWebExchange exchange
+    ) {
+        if (exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH) != null) {
+            return wishlistUseCase
+                .getWishlistRevision(customerId)
+                .filter(revision -> exchange.checkNotModified(etag(revision)))
+                .map(revision -> ResponseEntity
+                    .status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag(revision))
+                    .<WishlistResponse>build()
+                )
+                .switchIfEmpty(Mono.defer(() -> wishlistUseCase
+                    .getWishlist(customerId)
+                    .map(ResponseEntity::ok)
+                ));
+        }
+        return wishlistUseCase
+            .getRevisionedWishlist(customerId)
+            .map(wishlist -> wishlist.revision() == null ?
+                ResponseEntity.ok(wishlist.body()) :
+                ResponseEntity
+                    .ok()
+                    .eTag(etag(wishlist.revision()))
+                    .body(wishlist.body())
+            );
+    }
+
+    @PostMapping("/products/{productId}")
+    public Mono<ResponseEntity<?>> addProduct(
+        @PathVariable
+        @NotBlank
+        @Pattern(regexp = REGEX_PATTERN_COSTUMER_ID, message = MESSAGE_VALIDATION_ID)
+        String customerId,
+        @PathVariable
+        @NotBlank
+        @Pattern(regexp = REGEX_PATTERN_PRODUCT_ID, message = MESSAGE_VALIDATION_ID)
+        String productId,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+        String ifMatch,
+        @RequestParam(value = "return", required = false)
+        String returnPreference,
+        @RequestHeader(value = PREFER, required = false)
+        String prefer
+    ) {
+        return expectedRevision(customerId, ifMatch).flatMap(expectedRevision -> {
+            if (expectedRevision.isPresent()) {
+                return wishlistUseCase
+                    .addProduct(customerId, productId, expectedRevision.get())
+                    .map(added -> ResponseEntity
+                        .status(HttpStatus.CREATED)
+                        .eTag(etag(added.revision()))
+                        .body(added.body())
+                    );
+            }
+            if (wantsRepresentation(returnPreference, prefer)) {
+                return wishlistUseCase
+                    .addProductAndGet(customerId, productId)
+                    .map(wishlist -> ResponseEntity
+                        .status(HttpStatus.CREATED)
+                        .header(PREFERENCE_APPLIED, RETURN_REPRESENTATION)
+                        .eTag(etag(wishlist.revision()))
+                        .body(wishlist.body())
+                    );
+            }
+            return wishlistUseCase
+                .addProduct(customerId, productId)
+                .map(response -> ResponseEntity
+                    .status(HttpStatus.CREATED)
+                    .body(response)
+                );
+        });
+    }
+
+    @DeleteMapping("/products/{productId}")
+    public Mono<ResponseEntity<?>> removeProduct(
+        @PathVariable
+        @NotBlank
+        @Pattern(regexp = REGEX_PATTERN_COSTUMER_ID, message = MESSAGE_VALIDATION_ID)
+        String customerId,
+        @PathVariable
+        @NotBlank
+        @Pattern(regexp = REGEX_PATTERN_PRODUCT_ID, message = MESSAGE_VALIDATION_ID)
+        String productId,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+        String ifMatch,
+        @RequestParam(value = "return", required = false)
+        String returnPreference,
+        @RequestHeader(value = PREFER, required = false)
+        String prefer
+    ) {
+        return expectedRevision(customerId, ifMatch).flatMap(expectedRevision -> {
+            if (expectedRevision.isPresent()) {
+                return wishlistUseCase
+                    .removeProduct(customerId, productId, expectedRevision.get())
+                    .map(revision -> ResponseEntity
+                        .noContent()
+                        .eTag(etag(revision))
+                        .build()
+                    );
+            }
+            if (wantsRepresentation(returnPreference, prefer)) {
+                return wishlistUseCase
+                    .removeProductAndGet(customerId, productId)
+                    .map(wishlist -> ResponseEntity
+                        .ok()
+                        .header(PREFERENCE_APPLIED, RETURN_REPRESENTATION)
+                        .eTag(etag(wishlist.revision()))
+                        .body(wishlist.body())
+                    );
+            }
+            return wishlistUseCase
+                .removeProduct(customerId, productId)
+                .then(Mono.fromSupplier(() -> ResponseEntity
+                    .noContent()
+                    .build()
+                ));
+        });
+    }
+
+    @GetMapping("/products/{productId}")
+    public Mono<ResponseEntity<ProductExistsResponse>> checkProductExists(
+        @PathVariable
+        @NotBlank
+        @Pattern(regexp = REGEX_PATTERN_COSTUMER_ID, message = MESSAGE_VALIDATION_ID)
+        String customerId,
+        @PathVariable
+        @NotBlank
+        @Pattern(regexp = REGEX_PATTERN_PRODUCT_ID, message = MESSAGE_VALIDATION_ID)
+        String productId
+    ) {
+        return wishlistUseCase
+            .checkProductExists(customerId, productId)
+            .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/products:contains")
+    public Mono<ResponseEntity<ContainedProductsResponse>> findContainedProducts(
+        @PathVariable
+        @NotBlank
+        @Pattern(regexp = REGEX_PATTERN_COSTUMER_ID, message = MESSAGE_VALIDATION_ID)
+        String customerId,
+        @Valid
+        @RequestBody
+        ContainsProductsRequest request
+    ) {
+        return wishlistUseCase
+            .findContainedProducts(customerId, request.productIds())
+            .map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping
+    public Mono<ResponseEntity<Void>> clearWishlist(
+        @PathVariable
+        @NotBlank @Pattern(regexp = REGEX_PATTERN_COSTUMER_ID, message = MESSAGE_VALIDATION_ID)
+        String customerId
+    ) {
+        return wishlistUseCase
+            .clearWishlist(customerId)
+            .then(Mono.fromSupplier(() -> ResponseEntity
+                .noContent()
+                .<Void>build()
+            ));
+    }
+
+    // Honoured only for unconditional writes; with If-Match the client already knows what it is changing
+    private boolean wantsRepresentation(String returnPreference, String prefer) {
+        if ("representation".equalsIgnoreCase(returnPreference)) {
+            return true;
+        }
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            final int parameters = preference.indexOf(';');
+            final String token = parameters < 0 ? preference : preference.substring(0, parameters);
+            if (token.trim().equalsIgnoreCase(RETURN_REPRESENTATION)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Same If-Match rules as the MVC controller; an empty Optional means the write is unconditional
+    private Mono<Optional<WishlistRevision>> expectedRevision(String customerId, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return Mono.just(Optional.empty());
+        }
+        final List<WishlistRevision> candidates = new ArrayList<>();
+        for (String tag : ifMatch.split(",")) {
+            strongRevision(tag.trim()).ifPresent(candidates::add);
+        }
+        if (candidates.isEmpty()) {
+            return Mono.error(new WishlistPreconditionFailedException("If-Match must list a strong wishlist ETag"));
+        }
+        if (candidates.size() == 1) {
+            return Mono.just(Optional.of(candidates.get(0)));
+        }
+        return wishlistUseCase
+            .getWishlistRevision(customerId)
+            .filter(candidates::contains)
+            .map(Optional::of)
+            .switchIfEmpty(Mono.error(() -> new WishlistPreconditionFailedException("If-Match does not match the wishlist")));
+    }
+
+    private Optional<WishlistRevision> strongRevision(String tag) {
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return Optional.empty();
+        }
+        return WishlistRevision.parseTag(tag.substring(1, tag.length() - 1));
+    }
+
+    private String etag(WishlistRevision revision) {
+        return "\"" + revision.tag() + "\"";
+    }
+}
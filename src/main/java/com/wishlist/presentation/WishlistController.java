@@ -1,33 +1,62 @@
 package com.wishlist.presentation;
 
 import com.wishlist.application.dto.AddProductResponse;
+import com.wishlist.application.dto.ContainedProductsResponse;
+import com.wishlist.application.dto.ContainsProductsRequest;
 import com.wishlist.application.dto.ProductExistsResponse;
+import com.wishlist.application.dto.Revisioned;
 import com.wishlist.application.dto.WishlistResponse;
+import com.wishlist.application.exception.WishlistPreconditionFailedException;
+import com.wishlist.application.service.WishlistResponseCache.SerializedWishlist;
+import com.wishlist.application.service.WishlistStreamingService;
+import com.wishlist.domain.repository.RawWishlist;
+import com.wishlist.domain.repository.WishlistRevision;
 import com.wishlist.domain.usecase.WishlistUseCase;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @Validated
+@Profile("!reactive")
 @RequestMapping("/api/v1/customers/{customerId}/wishlist")
 @Tag(name = "Wishlist", description = "Wishlist management endpoints")
 public class WishlistController {
     private final WishlistUseCase wishlistUseCase;
+    private final WishlistStreamingService streamingService;
     private static final String REGEX_PATTERN_COSTUMER_ID = "^[a-zA-Z0-9-_]{1,50}$";
     private static final String REGEX_PATTERN_PRODUCT_ID = "^[a-zA-Z0-9-_]{1,100}$";
     private static final String MESSAGE_VALIDATION_ID = "Invalid product ID format";
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RETURN_REPRESENTATION = "return=representation";
 
-    public WishlistController(WishlistUseCase wishlistUseCase) {
+    public WishlistController(
+        WishlistUseCase wishlistUseCase,
+        ObjectProvider<WishlistStreamingService> streamingService
+    ) {
         this.wishlistUseCase = wishlistUseCase;
+        this.streamingService = streamingService.getIfAvailable();
     }
 
     @Operation(
@@ -37,6 +66,7 @@ public class WishlistController {
     @ApiResponses(
         value = {
             @ApiResponse(responseCode = "200", description = "Wishlist retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Wishlist unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "400", description = "Invalid customer ID"),
             @ApiResponse(responseCode = "404", description = "Customer not found")
         }
@@ -47,11 +77,38 @@ public class WishlistController {
         @PathVariable
         @NotBlank
         @Pattern(regexp = REGEX_PATTERN_COSTUMER_ID, message = MESSAGE_VALIDATION_ID)
-        String customerId
-    ) {
+        String customerId,
+        @Parameter(hidden = true)
+        HttpServletRequest request,
+        @Parameter(hidden = true)
+        HttpServletResponse response
+    ) throws IOException {
+        final ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        if (streamingService != null) {
+            writeRawWishlist(customerId, webRequest);
+            return null;
+        }
+        // Only a conditional request pays for the revision lookup. It is read before the body, so the
+        // ETag checkNotModified sets is never newer than the representation that follows it.
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            final Optional<WishlistRevision> revision = wishlistUseCase.getWishlistRevision(customerId);
+            if (revision.isPresent() && webRequest.checkNotModified(etag(revision.get()))) {
+                return null;
+            }
+            return ResponseEntity
+                .ok()
+                .body(wishlistUseCase.getWishlist(customerId));
+        }
+        final Revisioned<WishlistResponse> wishlist = wishlistUseCase.getRevisionedWishlist(customerId);
+        if (wishlist.revision() == null) {
+            return ResponseEntity
+                .ok()
+                .body(wishlist.body());
+        }
         return ResponseEntity
             .ok()
-            .body(wishlistUseCase.getWishlist(customerId));
+            .eTag(etag(wishlist.revision()))
+            .body(wishlist.body());
     }
 
     @Operation(
@@ -60,13 +117,14 @@ public class WishlistController {
     )
     @ApiResponses(
         value = {
-            @ApiResponse(responseCode = "201", description = "Product added successfully"),
+            @ApiResponse(responseCode = "201", description = "Product added successfully, with the updated wishlist when requested"),
             @ApiResponse(responseCode = "400", description = "Invalid request or wishlist limit exceeded"),
-            @ApiResponse(responseCode = "409", description = "Product already exists in wishlist")
+            @ApiResponse(responseCode = "409", description = "Product already exists in wishlist"),
+            @ApiResponse(responseCode = "412", description = "Wishlist changed since the ETag in If-Match")
         }
     )
     @PostMapping("/products/{productId}")
-    public ResponseEntity<AddProductResponse> addProduct(
+    public ResponseEntity<?> addProduct(
         @Parameter(description = "Customer unique identifier", required = true)
         @PathVariable
         @NotBlank
@@ -76,8 +134,37 @@ public class WishlistController {
         @PathVariable
         @NotBlank
         @Pattern(regexp = REGEX_PATTERN_PRODUCT_ID, message = MESSAGE_VALIDATION_ID)
-        String productId
+        String productId,
+        @Parameter(description = "ETag of the wishlist the change is based on")
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+        String ifMatch,
+        @Parameter(description = "Set to \"representation\" to receive the updated wishlist")
+        @RequestParam(value = "return", required = false)
+        String returnPreference,
+        @Parameter(description = "return=representation to receive the updated wishlist")
+        @RequestHeader(value = PREFER, required = false)
+        String prefer
     ) {
+        final Optional<WishlistRevision> expectedRevision = expectedRevision(customerId, ifMatch);
+        if (expectedRevision.isPresent()) {
+            final Revisioned<AddProductResponse> added = wishlistUseCase.addProduct(
+                customerId,
+                productId,
+                expectedRevision.get()
+            );
+            return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .eTag(etag(added.revision()))
+                .body(added.body());
+        }
+        if (wantsRepresentation(returnPreference, prefer)) {
+            final Revisioned<WishlistResponse> wishlist = wishlistUseCase.addProductAndGet(customerId, productId);
+            return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .header(PREFERENCE_APPLIED, RETURN_REPRESENTATION)
+                .eTag(etag(wishlist.revision()))
+                .body(wishlist.body());
+        }
         return ResponseEntity
             .status(HttpStatus.CREATED)
             .body(wishlistUseCase.addProduct(customerId, productId));
@@ -89,12 +176,14 @@ public class WishlistController {
     )
     @ApiResponses(
         value = {
+            @ApiResponse(responseCode = "200", description = "Product removed successfully, with the updated wishlist as requested"),
             @ApiResponse(responseCode = "204", description = "Product removed successfully"),
-            @ApiResponse(responseCode = "404", description = "Product not found in wishlist or customer not found")
+            @ApiResponse(responseCode = "404", description = "Product not found in wishlist or customer not found"),
+            @ApiResponse(responseCode = "412", description = "Wishlist changed since the ETag in If-Match")
         }
     )
     @DeleteMapping("/products/{productId}")
-    public ResponseEntity<Void> removeProduct(
+    public ResponseEntity<?> removeProduct(
         @Parameter(description = "Customer unique identifier", required = true)
         @PathVariable
         @NotBlank
@@ -104,8 +193,33 @@ public class WishlistController {
         @PathVariable
         @NotBlank
         @Pattern(regexp = REGEX_PATTERN_PRODUCT_ID, message = MESSAGE_VALIDATION_ID)
-        String productId
+        String productId,
+        @Parameter(description = "ETag of the wishlist the change is based on")
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+        String ifMatch,
+        @Parameter(description = "Set to \"representation\" to receive the updated wishlist")
+        @RequestParam(value = "return", required = false)
+        String returnPreference,
+        @Parameter(description = "return=representation to receive the updated wishlist")
+        @RequestHeader(value = PREFER, required = false)
+        String prefer
     ) {
+        final Optional<WishlistRevision> expectedRevision = expectedRevision(customerId, ifMatch);
+        if (expectedRevision.isPresent()) {
+            final WishlistRevision revision = wishlistUseCase.removeProduct(customerId, productId, expectedRevision.get());
+            return ResponseEntity
+                .noContent()
+                .eTag(etag(revision))
+                .build();
+        }
+        if (wantsRepresentation(returnPreference, prefer)) {
+            final Revisioned<WishlistResponse> wishlist = wishlistUseCase.removeProductAndGet(customerId, productId);
+            return ResponseEntity
+                .ok()
+                .header(PREFERENCE_APPLIED, RETURN_REPRESENTATION)
+                .eTag(etag(wishlist.revision()))
+                .body(wishlist.body());
+        }
         wishlistUseCase.removeProduct(customerId, productId);
         return ResponseEntity
             .noContent()
@@ -138,6 +252,30 @@ public class WishlistController {
         return ResponseEntity.ok(wishlistUseCase.checkProductExists(customerId, productId));
     }
 
+    @Operation(
+        summary = "Check which products are in wishlist",
+        description = "Return the subset of the given products that are in customer's wishlist"
+    )
+    @ApiResponses(
+        value = {
+            @ApiResponse(responseCode = "200", description = "Products found in wishlist, possibly none"),
+            @ApiResponse(responseCode = "400", description = "Invalid customer ID or product IDs")
+        }
+    )
+    @PostMapping("/products:contains")
+    public ResponseEntity<ContainedProductsResponse> findContainedProducts(
+        @Parameter(description = "Customer unique identifier", required = true)
+        @PathVariable
+        @NotBlank
+        @Pattern(regexp = REGEX_PATTERN_COSTUMER_ID, message = MESSAGE_VALIDATION_ID)
+        String customerId,
+        @Valid
+        @RequestBody
+        ContainsProductsRequest request
+    ) {
+        return ResponseEntity.ok(wishlistUseCase.findContainedProducts(customerId, request.productIds()));
+    }
+
     @Operation(
         summary = "Clear customer wishlist",
         description = "Remove all products from customer's wishlist"
@@ -160,4 +298,125 @@ public class WishlistController {
             .noContent()
             .build();
     }
+
+    private void writeRawWishlist(
+        String customerId,
+        ServletWebRequest webRequest
+    ) throws IOException {
+        final HttpServletResponse response = webRequest.getResponse();
+        final boolean conditional = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+        if (conditional || streamingService.isCaching()) {
+            final Optional<WishlistRevision> revision = streamingService.currentRevision(customerId);
+            if (revision.isEmpty()) {
+                startJsonResponse(response);
+                streamingService.writeEmptyWishlist(customerId, response.getOutputStream());
+                return;
+            }
+            if (webRequest.checkNotModified(etag(revision.get()))) {
+                return;
+            }
+            if (streamingService.isCaching()) {
+                writeSerializedWishlist(customerId, revision.get(), webRequest);
+                return;
+            }
+        }
+        final Optional<RawWishlist> document = streamingService.findRawWishlist(customerId);
+        startJsonResponse(response);
+        if (document.isEmpty()) {
+            streamingService.writeEmptyWishlist(customerId, response.getOutputStream());
+            return;
+        }
+        response.setHeader(HttpHeaders.ETAG, etag(document.get().revision()));
+        streamingService.writeWishlist(customerId, document.get(), response.getOutputStream());
+    }
+
+    private void writeSerializedWishlist(
+        String customerId,
+        WishlistRevision revision,
+        ServletWebRequest webRequest
+    ) throws IOException {
+        final HttpServletResponse response = webRequest.getResponse();
+        final Optional<SerializedWishlist> serialized = streamingService.serializedWishlist(customerId, revision);
+        startJsonResponse(response);
+        if (serialized.isEmpty()) {
+            streamingService.writeEmptyWishlist(customerId, response.getOutputStream());
+            return;
+        }
+        final SerializedWishlist body = serialized.get();
+        response.setHeader(HttpHeaders.ETAG, etag(body.revision()));
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (body.gzipped() != null && acceptsGzip(webRequest)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setContentLength(body.gzipped().length);
+            response.getOutputStream().write(body.gzipped());
+        } else {
+            response.setContentLength(body.json().length);
+            response.getOutputStream().write(body.json());
+        }
+    }
+
+    private void startJsonResponse(HttpServletResponse response) {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private boolean acceptsGzip(ServletWebRequest webRequest) {
+        final String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    // Honoured only for unconditional writes; with If-Match the client already knows what it is changing
+    private boolean wantsRepresentation(String returnPreference, String prefer) {
+        if ("representation".equalsIgnoreCase(returnPreference)) {
+            return true;
+        }
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            final int parameters = preference.indexOf(';');
+            final String token = parameters < 0 ? preference : preference.substring(0, parameters);
+            if (token.trim().equalsIgnoreCase(RETURN_REPRESENTATION)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "*" matches any current representation, which the unconditional write already handles. Otherwise
+    // any listed tag may match (RFC 9110); weak and malformed tags never do under strong comparison.
+    // With several candidates the current one is picked here and the write still checks it atomically.
+    private Optional<WishlistRevision> expectedRevision(String customerId, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return Optional.empty();
+        }
+        final List<WishlistRevision> candidates = new ArrayList<>();
+        for (String tag : ifMatch.split(",")) {
+            strongRevision(tag.trim()).ifPresent(candidates::add);
+        }
+        if (candidates.isEmpty()) {
+            throw new WishlistPreconditionFailedException("If-Match must list a strong wishlist ETag");
+        }
+        if (candidates.size() == 1) {
+            return Optional.of(candidates.get(0));
+        }
+        final Optional<WishlistRevision> current = wishlistUseCase
+            .getWishlistRevision(customerId)
+            .filter(candidates::contains);
+        if (current.isEmpty()) {
+            throw new WishlistPreconditionFailedException("If-Match does not match the wishlist");
+        }
+        return current;
+    }
+
+    private Optional<WishlistRevision> strongRevision(String tag) {
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return Optional.empty();
+        }
+        return WishlistRevision.parseTag(tag.substring(1, tag.length() - 1));
+    }
+
+    private String etag(WishlistRevision revision) {
+        return "\"" + revision.tag() + "\"";
+    }
 }
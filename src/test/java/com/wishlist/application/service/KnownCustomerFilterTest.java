@@ -0,0 +1,124 @@
+package com.wishlist.application.service;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Known customer filter - Definite answers for customers without a wishlist")
+public class KnownCustomerFilterTest {
+    private final KnownCustomerFilter filter = new KnownCustomerFilter(0.01);
+
+    @Nested
+    @DisplayName("Given the filter was never built")
+    class GivenFilterNeverBuilt {
+
+        @Test
+        @DisplayName("When any customer is looked up, Then it might exist")
+        void whenAnyCustomerLookedUp_thenItMightExist() {
+            filter.add("customer1");
+
+            assertThat(filter.isReady()).isFalse();
+            assertThat(filter.mightExist("customer2")).isTrue();
+            assertThat(filter.skippedLookups()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Given the filter was rebuilt from stored customers")
+    class GivenFilterRebuilt {
+
+        @Test
+        @DisplayName("When stored customers are looked up, Then none is reported absent")
+        void whenStoredCustomersLookedUp_thenNoneIsReportedAbsent() {
+            final List<String> stored = customers("stored", 10_000);
+
+            filter.rebuild(stored.size(), sink -> stored.forEach(sink));
+
+            assertThat(stored).allMatch(filter::mightExist);
+        }
+
+        @Test
+        @DisplayName("When unknown customers are looked up, Then most skip the database near the target rate")
+        void whenUnknownCustomersLookedUp_thenMostSkipTheDatabase() {
+            final List<String> stored = customers("stored", 10_000);
+            filter.rebuild(stored.size(), sink -> stored.forEach(sink));
+
+            final long falsePositives = customers("unknown", 10_000)
+                .stream()
+                .filter(filter::mightExist)
+                .count();
+
+            assertThat(falsePositives).isLessThan(300);
+            assertThat(filter.skippedLookups()).isEqualTo(10_000 - falsePositives);
+            assertThat(filter.falsePositiveRate()).isBetween(0.001, 0.03);
+            assertThat(filter.sizeInBytes()).isPositive();
+        }
+
+        @Test
+        @DisplayName("When a customer adds a first product, Then it might exist")
+        void whenCustomerAddsFirstProduct_thenItMightExist() {
+            filter.rebuild(100, sink -> sink.accept("stored"));
+
+            filter.add("newcomer");
+
+            assertThat(filter.mightExist("newcomer")).isTrue();
+        }
+
+        @Test
+        @DisplayName("When a customer is added while a rebuild scans, Then the rebuilt filter keeps it")
+        void whenCustomerAddedDuringRebuild_thenRebuiltFilterKeepsIt() {
+            filter.rebuild(100, sink -> sink.accept("stored"));
+
+            filter.rebuild(100, sink -> {
+                sink.accept("stored");
+                filter.add("newcomer");
+            });
+
+            assertThat(filter.mightExist("newcomer")).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("Given the filter was suspended")
+    class GivenFilterSuspended {
+
+        @Test
+        @DisplayName("When unknown customers are looked up, Then they might exist until the next rebuild")
+        void whenUnknownCustomersLookedUp_thenTheyMightExistUntilNextRebuild() {
+            filter.rebuild(100, sink -> sink.accept("stored"));
+
+            filter.suspend();
+
+            assertThat(filter.isReady()).isFalse();
+            assertThat(filter.mightExist("unknown")).isTrue();
+            assertThat(filter.rebuild(100, sink -> sink.accept("stored"))).isTrue();
+            assertThat(filter.mightExist("unknown")).isFalse();
+        }
+
+        @Test
+        @DisplayName("When the suspension happens while a rebuild scans, Then the rebuilt filter is discarded")
+        void whenSuspendedDuringRebuild_thenRebuiltFilterIsDiscarded() {
+            filter.rebuild(100, sink -> sink.accept("stored"));
+
+            final boolean published = filter.rebuild(100, sink -> {
+                sink.accept("stored");
+                filter.suspend();
+            });
+
+            assertThat(published).isFalse();
+            assertThat(filter.isReady()).isFalse();
+            assertThat(filter.mightExist("unknown")).isTrue();
+        }
+    }
+
+    private static List<String> customers(String prefix, int count) {
+        return IntStream
+            .range(0, count)
+            .mapToObj(index -> prefix + index)
+            .toList();
+    }
+}
@@ -0,0 +1,184 @@
+package com.wishlist.application.service;
+
+import com.wishlist.application.exception.CustomerNotFoundException;
+import com.wishlist.application.exception.InvalidCustomerIdException;
+import com.wishlist.application.exception.ProductAlreadyExistsException;
+import com.wishlist.application.exception.ProductNotFoundException;
+import com.wishlist.application.exception.WishlistLimitExceededException;
+import com.wishlist.application.exception.WishlistPreconditionFailedException;
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.ConditionalWriteResult;
+import com.wishlist.domain.repository.ReactiveWishlistRepository;
+import com.wishlist.domain.repository.RemoveProductResult;
+import com.wishlist.domain.repository.WishlistRevision;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Reactive Wishlist Service - Customer Wishlist Management Use Cases")
+public class ReactiveWishlistServiceTest {
+    @Mock
+    private ReactiveWishlistRepository wishlistRepository;
+    @InjectMocks
+    private ReactiveWishlistService wishlistService;
+    private final String VALID_CUSTOMER_ID = "customer123";
+    private final String VALID_PRODUCT_ID = "product456";
+
+    @Nested
+    @DisplayName("Feature: Add product to wishlist")
+    class AddProductToWishlistFeature {
+
+        @Test
+        @DisplayName("Given product can be added, When I add product, Then should emit success response")
+        void givenProductCanBeAdded_whenAddProduct_thenShouldEmitSuccessResponse() {
+            given(wishlistRepository.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, Wishlist.MAX_PRODUCTS))
+                .willReturn(Mono.just(AddProductResult.ADDED));
+
+            StepVerifier
+                .create(wishlistService.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .expectNextMatches(response -> response.productId().equals(VALID_PRODUCT_ID))
+                .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Given wishlist is full, When I add product, Then should emit limit exceeded error")
+        void givenWishlistIsFull_whenAddProduct_thenShouldEmitLimitExceededError() {
+            given(wishlistRepository.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, Wishlist.MAX_PRODUCTS))
+                .willReturn(Mono.just(AddProductResult.LIMIT_EXCEEDED));
+
+            StepVerifier
+                .create(wishlistService.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .verifyError(WishlistLimitExceededException.class);
+        }
+
+        @Test
+        @DisplayName("Given product already exists, When I add product, Then should emit already exists error")
+        void givenProductAlreadyExists_whenAddProduct_thenShouldEmitAlreadyExistsError() {
+            given(wishlistRepository.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, Wishlist.MAX_PRODUCTS))
+                .willReturn(Mono.just(AddProductResult.ALREADY_EXISTS));
+
+            StepVerifier
+                .create(wishlistService.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .verifyError(ProductAlreadyExistsException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Feature: Conditional writes")
+    class ConditionalWritesFeature {
+        private final WishlistRevision revision = new WishlistRevision(3L, 1_724_927_400_000L);
+
+        @Test
+        @DisplayName("Given the wishlist changed since the revision, When I add product, Then should emit precondition failed error")
+        void givenWishlistChanged_whenAddProduct_thenShouldEmitPreconditionFailedError() {
+            given(wishlistRepository.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, Wishlist.MAX_PRODUCTS, revision))
+                .willReturn(Mono.just(new ConditionalWriteResult<>(AddProductResult.REVISION_MISMATCH, null)));
+
+            StepVerifier
+                .create(wishlistService.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, revision))
+                .verifyError(WishlistPreconditionFailedException.class);
+        }
+
+        @Test
+        @DisplayName("Given the revision is current, When I remove product, Then should emit the new revision")
+        void givenRevisionIsCurrent_whenRemoveProduct_thenShouldEmitNewRevision() {
+            final WishlistRevision next = new WishlistRevision(4L, 1_724_927_500_000L);
+            given(wishlistRepository.removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, revision))
+                .willReturn(Mono.just(new ConditionalWriteResult<>(RemoveProductResult.REMOVED, next)));
+
+            StepVerifier
+                .create(wishlistService.removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, revision))
+                .expectNext(next)
+                .verifyComplete();
+        }
+    }
+
+    @Nested
+    @DisplayName("Feature: Query wishlist")
+    class QueryWishlistFeature {
+
+        @Test
+        @DisplayName("Given customer has no wishlist, When I query wishlist, Then should emit empty wishlist")
+        void givenCustomerHasNoWishlist_whenQueryWishlist_thenShouldEmitEmptyWishlist() {
+            given(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID)).willReturn(Mono.empty());
+
+            StepVerifier
+                .create(wishlistService.getWishlist(VALID_CUSTOMER_ID))
+                .expectNextMatches(response -> response.totalItems() == 0 && response.maxItems() == 20)
+                .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Given product is in wishlist, When I check product, Then should emit its timestamp")
+        void givenProductIsInWishlist_whenCheckProduct_thenShouldEmitItsTimestamp() {
+            given(wishlistRepository.findProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .willReturn(Mono.just(new WishlistProduct(VALID_PRODUCT_ID)));
+
+            StepVerifier
+                .create(wishlistService.checkProductExists(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .expectNextMatches(response -> response.exists() && response.addedAt() != null)
+                .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Given some products are in wishlist, When I check several products, Then should emit only those")
+        void givenSomeProductsInWishlist_whenCheckSeveralProducts_thenShouldEmitOnlyThose() {
+            given(wishlistRepository.findProducts(VALID_CUSTOMER_ID, Set.of("product1", "product2")))
+                .willReturn(Flux.just(new WishlistProduct("product1")));
+
+            StepVerifier
+                .create(wishlistService.findContainedProducts(VALID_CUSTOMER_ID, List.of("product1", "product2")))
+                .expectNextMatches(response -> response.products().size() == 1
+                    && response.products().get(0).productId().equals("product1"))
+                .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Given invalid customer ID, When I query wishlist, Then should emit invalid customer ID error")
+        void givenInvalidCustomerId_whenQueryWishlist_thenShouldEmitInvalidCustomerIdError() {
+            StepVerifier
+                .create(wishlistService.getWishlist(" "))
+                .verifyError(InvalidCustomerIdException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Feature: Remove and clear")
+    class RemoveAndClearFeature {
+
+        @Test
+        @DisplayName("Given product is missing, When I remove product, Then should emit product not found error")
+        void givenProductIsMissing_whenRemoveProduct_thenShouldEmitProductNotFoundError() {
+            given(wishlistRepository.removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .willReturn(Mono.just(RemoveProductResult.PRODUCT_NOT_FOUND));
+
+            StepVerifier
+                .create(wishlistService.removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .verifyError(ProductNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("Given customer has no wishlist, When I clear wishlist, Then should emit customer not found error")
+        void givenCustomerHasNoWishlist_whenClearWishlist_thenShouldEmitCustomerNotFoundError() {
+            given(wishlistRepository.deleteByCustomerId(VALID_CUSTOMER_ID)).willReturn(Mono.just(false));
+
+            StepVerifier
+                .create(wishlistService.clearWishlist(VALID_CUSTOMER_ID))
+                .verifyError(CustomerNotFoundException.class);
+        }
+    }
+}
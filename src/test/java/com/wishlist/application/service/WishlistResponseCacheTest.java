@@ -0,0 +1,86 @@
+package com.wishlist.application.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.wishlist.application.service.WishlistResponseCache.SerializedWishlist;
+import com.wishlist.domain.repository.WishlistRevision;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Response cache - Serialized wishlists keyed by revision")
+public class WishlistResponseCacheTest {
+    private static final String CUSTOMER_ID = "customer123";
+    private static final byte[] JSON = "{\"customerId\":\"customer123\"}".getBytes(StandardCharsets.UTF_8);
+    private final WishlistRevision revision = new WishlistRevision(3, 1_700_000_000_000L);
+    private WishlistResponseCache responseCache;
+
+    @BeforeEach
+    void setUp() {
+        responseCache = new WishlistResponseCache(1024 * 1024, Duration.ofMinutes(10), true);
+    }
+
+    @Nested
+    @DisplayName("Given a cached response")
+    class GivenCachedResponse {
+
+        @Test
+        @DisplayName("When the same revision is requested, Then the bytes are a hit")
+        void whenSameRevision_thenHit() throws IOException {
+            responseCache.put(CUSTOMER_ID, revision, JSON);
+
+            final SerializedWishlist cached = responseCache.get(CUSTOMER_ID, revision).orElseThrow();
+
+            assertThat(cached.json()).isEqualTo(JSON);
+            assertThat(new GZIPInputStream(new ByteArrayInputStream(cached.gzipped())).readAllBytes()).isEqualTo(JSON);
+            assertThat(responseCache.getCache().stats().hitCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("When the document moved to a new revision, Then it is a miss")
+        void whenNewRevision_thenMiss() {
+            responseCache.put(CUSTOMER_ID, revision, JSON);
+
+            assertThat(responseCache.get(CUSTOMER_ID, new WishlistRevision(4, 1_700_000_000_500L))).isEmpty();
+            final CacheStats stats = responseCache.getCache().stats();
+            assertThat(stats.hitCount()).isZero();
+            assertThat(stats.missCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("When the customer is invalidated, Then the entry and its bytes are released")
+        void whenInvalidated_thenReleased() {
+            responseCache.put(CUSTOMER_ID, revision, JSON);
+            responseCache.getCache().cleanUp();
+            assertThat(responseCache.weightedSize()).isGreaterThan(JSON.length);
+
+            responseCache.invalidate(CUSTOMER_ID);
+            responseCache.getCache().cleanUp();
+
+            assertThat(responseCache.get(CUSTOMER_ID, revision)).isEmpty();
+            assertThat(responseCache.weightedSize()).isZero();
+        }
+
+        @Test
+        @DisplayName("When the wishlist was deleted and recreated at a lower version, Then the new entry replaces the old")
+        void whenRecreatedAtLowerVersion_thenNewEntryReplacesOld() {
+            final WishlistRevision recreated = new WishlistRevision(1, 1_700_000_900_000L);
+            final byte[] recreatedJson = "{\"customerId\":\"customer123\",\"totalItems\":1}"
+                .getBytes(StandardCharsets.UTF_8);
+            responseCache.put(CUSTOMER_ID, revision, JSON);
+
+            responseCache.put(CUSTOMER_ID, recreated, recreatedJson);
+
+            assertThat(responseCache.get(CUSTOMER_ID, recreated))
+                .hasValueSatisfying(cached -> assertThat(cached.json()).isEqualTo(recreatedJson));
+            assertThat(responseCache.get(CUSTOMER_ID, revision)).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.wishlist.application.service;
+
+import com.wishlist.application.exception.WishlistLimitExceededException;
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.infrastructure.config.MongoConfig;
+import com.wishlist.infrastructure.repository.WishlistRepositoryImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@Testcontainers
+@Import(WishlistRepositoryImpl.class)
+@DisplayName("Wishlist Service - Concurrent writes on a hot customer")
+public class WishlistServiceConcurrencyTest {
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0")
+        .withExposedPorts(27017);
+    @Autowired
+    private WishlistRepositoryImpl wishlistRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    private WishlistService wishlistService;
+    private final String HOT_CUSTOMER_ID = "hotCustomer";
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+        registry.add("spring.data.mongodb.database", () -> "wishlist_test_db");
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection("wishlists");
+        MongoConfig.ensureWishlistIndexes(mongoTemplate);
+        wishlistService = new WishlistService(wishlistRepository, new SimpleMeterRegistry(), null, null, null);
+    }
+
+    @Test
+    @DisplayName("Given many threads add different products, Then exactly the limit is stored and nothing is lost")
+    void givenManyThreadsAddDifferentProducts_thenExactlyTheLimitIsStoredAndNothingIsLost() throws Exception {
+        final int threads = 64;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Boolean>> outcomes = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final String productId = "product" + String.format("%03d", i);
+            outcomes.add(executor.submit(() -> {
+                start.await();
+                try {
+                    wishlistService.addProduct(HOT_CUSTOMER_ID, productId);
+                    return true;
+                } catch (WishlistLimitExceededException exception) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int added = 0;
+        for (Future<Boolean> outcome : outcomes) {
+            if (outcome.get(30, TimeUnit.SECONDS)) {
+                added++;
+            }
+        }
+        executor.shutdown();
+
+        final Wishlist wishlist = wishlistRepository.findByCustomerId(HOT_CUSTOMER_ID).orElseThrow();
+        assertThat(added).isEqualTo(Wishlist.MAX_PRODUCTS);
+        assertThat(wishlist.getProductCount()).isEqualTo(Wishlist.MAX_PRODUCTS);
+        assertThat(wishlist.getVersion()).isEqualTo((long) Wishlist.MAX_PRODUCTS);
+    }
+}
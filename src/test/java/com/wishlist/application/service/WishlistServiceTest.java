@@ -1,7 +1,10 @@
 package com.wishlist.application.service;
 
 import com.wishlist.application.dto.AddProductResponse;
+import com.wishlist.application.dto.ContainedProductsResponse;
 import com.wishlist.application.dto.ProductExistsResponse;
+import com.wishlist.application.dto.ProductResponse;
+import com.wishlist.application.dto.Revisioned;
 import com.wishlist.application.dto.WishlistResponse;
 import com.wishlist.application.exception.CustomerNotFoundException;
 import com.wishlist.application.exception.InvalidCustomerIdException;
@@ -9,26 +12,50 @@ import com.wishlist.application.exception.InvalidProductIdException;
 import com.wishlist.application.exception.ProductAlreadyExistsException;
 import com.wishlist.application.exception.ProductNotFoundException;
 import com.wishlist.application.exception.WishlistLimitExceededException;
+import com.wishlist.application.exception.WishlistPreconditionFailedException;
 import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.ConditionalWriteResult;
+import com.wishlist.domain.repository.RemoveProductResult;
 import com.wishlist.domain.repository.WishlistRepository;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.repository.WishlistWriteResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.stream.IntStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatNoException;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 
@@ -37,6 +64,8 @@ import static org.mockito.Mockito.times;
 public class WishlistServiceTest {
     @Mock
     private WishlistRepository wishlistRepository;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
     @InjectMocks
     private WishlistService wishlistService;
     private final String VALID_CUSTOMER_ID = "customer123";
@@ -53,10 +82,8 @@ public class WishlistServiceTest {
             @Test
             @DisplayName("Given customer has empty wishlist, When I add product, Then product should be added successfully")
             void givenEmptyWishlist_whenAddProduct_thenProductShouldBeAddedSuccessfully() {
-                given(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID))
-                    .willReturn(Optional.empty());
-                given(wishlistRepository.save(any(Wishlist.class)))
-                    .willAnswer(invocation -> invocation.getArgument(0));
+                given(wishlistRepository.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, Wishlist.MAX_PRODUCTS))
+                    .willReturn(AddProductResult.ADDED);
 
                 final AddProductResponse response = wishlistService.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID);
 
@@ -67,14 +94,11 @@ public class WishlistServiceTest {
                 assertThat(response.addedAt()).isNotNull();
 
                 then(wishlistRepository)
-                    .should()
-                    .save(
-                        argThat(wishlist ->
-                            wishlist.getCustomerId().equals(VALID_CUSTOMER_ID) &&
-                                wishlist.getProductCount() == 1 &&
-                                wishlist.hasProduct(VALID_PRODUCT_ID)
-                        )
-                    );
+                    .should(never())
+                    .findByCustomerId(any());
+                then(wishlistRepository)
+                    .should(never())
+                    .save(any());
             }
         }
 
@@ -85,13 +109,8 @@ public class WishlistServiceTest {
             @Test
             @DisplayName("Given empty wishlist, When I add multiple products, Then all products should be present")
             void givenEmptyWishlist_whenAddMultipleProducts_thenAllProductsShouldBePresent() {
-                given(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID))
-                    .willReturn(Optional.empty())
-                    .willReturn(Optional.of(createWishlistWithProducts("product001")))
-                    .willReturn(Optional.of(createWishlistWithProducts("product001", "product002")));
-
-                given(wishlistRepository.save(any(Wishlist.class)))
-                    .willAnswer(invocation -> invocation.getArgument(0));
+                given(wishlistRepository.addProduct(eq(VALID_CUSTOMER_ID), any(), eq(Wishlist.MAX_PRODUCTS)))
+                    .willReturn(AddProductResult.ADDED);
 
                 wishlistService.addProduct(VALID_CUSTOMER_ID, "product001");
                 wishlistService.addProduct(VALID_CUSTOMER_ID, "product002");
@@ -99,7 +118,7 @@ public class WishlistServiceTest {
 
                 then(wishlistRepository)
                     .should(times(3))
-                    .save(any(Wishlist.class));
+                    .addProduct(eq(VALID_CUSTOMER_ID), any(), eq(Wishlist.MAX_PRODUCTS));
             }
         }
 
@@ -113,9 +132,8 @@ public class WishlistServiceTest {
                     "When I try to add same product again, Then should return product already exists error"
             )
             void givenWishlistContainsProduct_whenTryToAddSameProductAgain_thenShouldReturnProductAlreadyExistsError() {
-                final Wishlist existingWishlist = createWishlistWithProducts(VALID_PRODUCT_ID);
-                given(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID))
-                    .willReturn(Optional.of(existingWishlist));
+                given(wishlistRepository.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, Wishlist.MAX_PRODUCTS))
+                    .willReturn(AddProductResult.ALREADY_EXISTS);
 
                 assertThatThrownBy(() -> wishlistService.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
                     .isInstanceOf(ProductAlreadyExistsException.class)
@@ -137,9 +155,8 @@ public class WishlistServiceTest {
                     " Then should return wishlist limit exceeded error"
             )
             void givenWishlistHas20Products_whenTryToAddProduct_thenShouldReturnWishlistLimitExceededError() {
-                final Wishlist fullWishlist = createFullWishlist();
-                given(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID))
-                    .willReturn(Optional.of(fullWishlist));
+                given(wishlistRepository.addProduct(VALID_CUSTOMER_ID, "product999", Wishlist.MAX_PRODUCTS))
+                    .willReturn(AddProductResult.LIMIT_EXCEEDED);
 
                 assertThatThrownBy(() -> wishlistService.addProduct(VALID_CUSTOMER_ID, "product999"))
                     .isInstanceOf(WishlistLimitExceededException.class)
@@ -152,6 +169,122 @@ public class WishlistServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Feature: Retry conflicting writes")
+    class RetryConflictingWritesFeature {
+
+        @Test
+        @DisplayName("Given a concurrent modification, When I add product, Then should retry and succeed")
+        void givenConcurrentModification_whenAddProduct_thenShouldRetryAndSucceed() {
+            given(wishlistRepository.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, Wishlist.MAX_PRODUCTS))
+                .willThrow(new OptimisticLockingFailureException("conflict"))
+                .willReturn(AddProductResult.ADDED);
+
+            final AddProductResponse response = wishlistService.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID);
+
+            assertThat(response.productId()).isEqualTo(VALID_PRODUCT_ID);
+            assertThat(meterRegistry.get("wishlist.write.conflicts").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("wishlist.write.retries").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Given conflicts keep happening, When I add product, Then should give up after bounded attempts")
+        void givenConflictsKeepHappening_whenAddProduct_thenShouldGiveUpAfterBoundedAttempts() {
+            given(wishlistRepository.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, Wishlist.MAX_PRODUCTS))
+                .willThrow(new OptimisticLockingFailureException("conflict"));
+
+            assertThatThrownBy(() -> wishlistService.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+            then(wishlistRepository)
+                .should(times(4))
+                .addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, Wishlist.MAX_PRODUCTS);
+        }
+    }
+
+    @Nested
+    @DisplayName("Feature: Return the updated wishlist from writes")
+    class ReturnUpdatedWishlistFeature {
+
+        @Test
+        @DisplayName("Given the product is added, When I ask for the wishlist, Then should map the stored document without reading it again")
+        void givenProductAdded_whenAskForWishlist_thenShouldMapStoredDocument() {
+            final Wishlist stored = new Wishlist(VALID_CUSTOMER_ID);
+            stored.addProduct("existing");
+            stored.addProduct(VALID_PRODUCT_ID);
+            stored.setVersion(2L);
+            given(wishlistRepository.addProductAndGet(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, Wishlist.MAX_PRODUCTS))
+                .willReturn(new WishlistWriteResult<>(AddProductResult.ADDED, stored));
+
+            final Revisioned<WishlistResponse> response = wishlistService.addProductAndGet(VALID_CUSTOMER_ID, VALID_PRODUCT_ID);
+
+            assertThat(response.body().totalItems()).isEqualTo(2);
+            assertThat(response.body().products())
+                .extracting(ProductResponse::productId)
+                .containsExactly("existing", VALID_PRODUCT_ID);
+            assertThat(response.revision()).isEqualTo(WishlistRevision.of(stored));
+            then(wishlistRepository).should(never()).findByCustomerId(any());
+        }
+
+        @Test
+        @DisplayName("Given the product is missing, When I remove it and ask for the wishlist, Then should return product not found error")
+        void givenProductMissing_whenRemoveAndAskForWishlist_thenShouldReturnProductNotFound() {
+            given(wishlistRepository.removeProductAndGet(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .willReturn(new WishlistWriteResult<>(RemoveProductResult.PRODUCT_NOT_FOUND, null));
+
+            assertThatThrownBy(() -> wishlistService.removeProductAndGet(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .isInstanceOf(ProductNotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Feature: Conditional writes against a known revision")
+    class ConditionalWritesFeature {
+        private final WishlistRevision revision = new WishlistRevision(3, 1_700_000_000_000L);
+        private final WishlistRevision nextRevision = new WishlistRevision(4, 1_700_000_000_500L);
+
+        @Test
+        @DisplayName("Given the revision is current, When I add product, Then should return the new revision")
+        void givenCurrentRevision_whenAddProduct_thenShouldReturnNewRevision() {
+            given(wishlistRepository.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, Wishlist.MAX_PRODUCTS, revision))
+                .willReturn(new ConditionalWriteResult<>(AddProductResult.ADDED, nextRevision));
+
+            final Revisioned<AddProductResponse> response = wishlistService.addProduct(
+                VALID_CUSTOMER_ID,
+                VALID_PRODUCT_ID,
+                revision
+            );
+
+            assertThat(response.body().productId()).isEqualTo(VALID_PRODUCT_ID);
+            assertThat(response.revision()).isEqualTo(nextRevision);
+            then(wishlistRepository).should(never()).findByCustomerId(any());
+        }
+
+        @Test
+        @DisplayName("Given the wishlist changed, When I remove product, Then should fail the precondition without retrying")
+        void givenStaleRevision_whenRemoveProduct_thenShouldFailPreconditionWithoutRetrying() {
+            given(wishlistRepository.removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, revision))
+                .willReturn(new ConditionalWriteResult<>(RemoveProductResult.REVISION_MISMATCH, null));
+
+            assertThatThrownBy(() -> wishlistService.removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, revision))
+                .isInstanceOf(WishlistPreconditionFailedException.class);
+
+            then(wishlistRepository)
+                .should(times(1))
+                .removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, revision);
+        }
+
+        @Test
+        @DisplayName("Given the revision is current but the product is listed, When I add product, Then should report the duplicate")
+        void givenCurrentRevisionAndDuplicate_whenAddProduct_thenShouldReportDuplicate() {
+            given(wishlistRepository.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, Wishlist.MAX_PRODUCTS, revision))
+                .willReturn(new ConditionalWriteResult<>(AddProductResult.ALREADY_EXISTS, null));
+
+            assertThatThrownBy(() -> wishlistService.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, revision))
+                .isInstanceOf(ProductAlreadyExistsException.class);
+        }
+    }
+
     @Nested
     @DisplayName("Feature: Remove product from wishlist")
     class RemoveProductFromWishlistFeature {
@@ -166,27 +299,18 @@ public class WishlistServiceTest {
                     "Then product should be removed successfully"
             )
             void givenWishlistContainsProducts_whenRemoveExistingProduct_thenProductShouldBeRemovedSuccessfully() {
-                final Wishlist existingWishlist = createWishlistWithProducts(
-                    "product001",
-                    "product002",
-                    "product003"
-                );
-                given(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID))
-                    .willReturn(Optional.of(existingWishlist));
-                given(wishlistRepository.save(any(Wishlist.class)))
-                    .willAnswer(invocation -> invocation.getArgument(0));
+                given(wishlistRepository.removeProduct(VALID_CUSTOMER_ID, "product002"))
+                    .willReturn(RemoveProductResult.REMOVED);
 
                 assertThatNoException()
                     .isThrownBy(() -> wishlistService.removeProduct(VALID_CUSTOMER_ID, "product002"));
 
                 then(wishlistRepository)
-                    .should()
-                    .save(argThat(wishlist ->
-                        wishlist.getProductCount() == 2 &&
-                            !wishlist.hasProduct("product002") &&
-                            wishlist.hasProduct("product001") &&
-                            wishlist.hasProduct("product003")
-                    ));
+                    .should(never())
+                    .findByCustomerId(any());
+                then(wishlistRepository)
+                    .should(never())
+                    .save(any());
             }
         }
 
@@ -197,17 +321,23 @@ public class WishlistServiceTest {
             @Test
             @DisplayName("Given wishlist contains product, When I try to remove non-existent product, Then should return product not found error")
             void givenWishlistContainsProduct_whenTryToRemoveNonExistentProduct_thenShouldReturnProductNotFoundError() {
-                final Wishlist existingWishlist = createWishlistWithProducts(VALID_PRODUCT_ID);
-                given(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID))
-                    .willReturn(Optional.of(existingWishlist));
+                given(wishlistRepository.removeProduct(VALID_CUSTOMER_ID, "product999"))
+                    .willReturn(RemoveProductResult.PRODUCT_NOT_FOUND);
 
                 assertThatThrownBy(() -> wishlistService.removeProduct(VALID_CUSTOMER_ID, "product999"))
                     .isInstanceOf(ProductNotFoundException.class)
                     .hasMessageContaining("not found in wishlist");
+            }
 
-                then(wishlistRepository)
-                    .should(never())
-                    .save(any());
+            @Test
+            @DisplayName("Given customer has no wishlist, When I try to remove product, Then should return customer not found error")
+            void givenCustomerHasNoWishlist_whenTryToRemoveProduct_thenShouldReturnCustomerNotFoundError() {
+                given(wishlistRepository.removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                    .willReturn(RemoveProductResult.CUSTOMER_NOT_FOUND);
+
+                assertThatThrownBy(() -> wishlistService.removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                    .isInstanceOf(CustomerNotFoundException.class)
+                    .hasMessageContaining("Customer not found");
             }
         }
     }
@@ -246,6 +376,23 @@ public class WishlistServiceTest {
                     .extracting("productId")
                     .containsExactlyInAnyOrder("product001", "product002", "product003");
             }
+
+            @Test
+            @DisplayName(
+                "Given wishlist contains products, When I query it with its revision, " +
+                    "Then the revision should come from the same loaded wishlist"
+            )
+            void givenWishlistContainsProducts_whenQueryWithRevision_thenRevisionComesFromLoadedWishlist() {
+                final Wishlist existingWishlist = createWishlistWithProducts("product001");
+                given(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID))
+                    .willReturn(Optional.of(existingWishlist));
+
+                final Revisioned<WishlistResponse> response = wishlistService.getRevisionedWishlist(VALID_CUSTOMER_ID);
+
+                assertThat(response.body().totalItems()).isEqualTo(1);
+                assertThat(response.revision()).isEqualTo(WishlistRevision.of(existingWishlist));
+                then(wishlistRepository).should(never()).findRevisionByCustomerId(VALID_CUSTOMER_ID);
+            }
         }
 
         @Nested
@@ -268,6 +415,199 @@ public class WishlistServiceTest {
                 assertThat(response.products()).isEmpty();
                 assertThat(response.maxItems()).isEqualTo(20);
             }
+
+            @Test
+            @DisplayName(
+                "Given customer has no stored wishlist, When I query it with its revision, Then there is no revision"
+            )
+            void givenNoStoredWishlist_whenQueryWithRevision_thenNoRevision() {
+                given(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID))
+                    .willReturn(Optional.empty());
+
+                final Revisioned<WishlistResponse> response = wishlistService.getRevisionedWishlist(VALID_CUSTOMER_ID);
+
+                assertThat(response.body().totalItems()).isZero();
+                assertThat(response.revision()).isNull();
+            }
+        }
+
+        @Nested
+        @DisplayName("Scenario: Query the same wishlist concurrently")
+        class QueryTheSameWishlistConcurrently {
+
+            @Test
+            @DisplayName(
+                "Given a read is in flight, When more callers query the same wishlist, " +
+                    "Then should share its result and count the deduplicated callers"
+            )
+            void givenReadInFlight_whenMoreCallersQuery_thenShouldShareItsResult() throws Exception {
+                final CountDownLatch release = new CountDownLatch(1);
+                willAnswer(invocation -> {
+                    release.await();
+                    return Optional.of(createWishlistWithProducts("product001"));
+                })
+                    .given(wishlistRepository)
+                    .findByCustomerId(VALID_CUSTOMER_ID);
+
+                final List<Future<WishlistResponse>> responses = new ArrayList<>();
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    for (int caller = 0; caller < 5; caller++) {
+                        responses.add(executor.submit(() -> wishlistService.getWishlist(VALID_CUSTOMER_ID)));
+                    }
+                    await()
+                        .atMost(Duration.ofSeconds(10))
+                        .until(() -> meterRegistry.get("wishlist.read.coalesced").counter().count() == 4);
+                    release.countDown();
+                    for (Future<WishlistResponse> response : responses) {
+                        assertThat(response.get().totalItems()).isEqualTo(1);
+                    }
+                }
+
+                then(wishlistRepository)
+                    .should(times(1))
+                    .findByCustomerId(VALID_CUSTOMER_ID);
+            }
+
+            @Test
+            @DisplayName("Given a read has completed, When I query again, Then should read the wishlist again")
+            void givenReadCompleted_whenQueryAgain_thenShouldReadTheWishlistAgain() {
+                given(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID))
+                    .willReturn(Optional.empty())
+                    .willReturn(Optional.of(createWishlistWithProducts("product001")));
+
+                wishlistService.getWishlist(VALID_CUSTOMER_ID);
+                final WishlistResponse response = wishlistService.getWishlist(VALID_CUSTOMER_ID);
+
+                assertThat(response.totalItems()).isEqualTo(1);
+                assertThat(meterRegistry.get("wishlist.read.coalesced").counter().count()).isZero();
+            }
+
+            @Test
+            @DisplayName(
+                "Given the shared read fails with an Error, When callers joined it, " +
+                    "Then should rethrow the Error to each of them and read again afterwards"
+            )
+            void givenSharedReadFailsWithError_whenCallersJoined_thenShouldRethrowToEach() throws Exception {
+                final CountDownLatch release = new CountDownLatch(1);
+                willAnswer(invocation -> {
+                    release.await();
+                    throw new LinkageError("Codec missing");
+                })
+                    .willReturn(Optional.of(createWishlistWithProducts("product001")))
+                    .given(wishlistRepository)
+                    .findByCustomerId(VALID_CUSTOMER_ID);
+
+                final List<Future<WishlistResponse>> responses = new ArrayList<>();
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    for (int caller = 0; caller < 3; caller++) {
+                        responses.add(executor.submit(() -> wishlistService.getWishlist(VALID_CUSTOMER_ID)));
+                    }
+                    await()
+                        .atMost(Duration.ofSeconds(10))
+                        .until(() -> meterRegistry.get("wishlist.read.coalesced").counter().count() == 2);
+                    release.countDown();
+                    for (Future<WishlistResponse> response : responses) {
+                        assertThatThrownBy(response::get).hasCauseInstanceOf(LinkageError.class);
+                    }
+                }
+
+                assertThat(wishlistService.getWishlist(VALID_CUSTOMER_ID).totalItems()).isEqualTo(1);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Feature: Query the wishlists of many customers")
+    class QueryManyWishlistsFeature {
+
+        @Test
+        @DisplayName("Given some customers have no wishlist, When I query a batch, Then should return one wishlist per distinct customer")
+        void givenSomeCustomersHaveNoWishlist_whenQueryBatch_thenShouldReturnOnePerDistinctCustomer() {
+            final Wishlist stored = new Wishlist(VALID_CUSTOMER_ID);
+            stored.addProduct(VALID_PRODUCT_ID);
+            willAnswer(invocation -> {
+                invocation.<Consumer<Wishlist>>getArgument(1).accept(stored);
+                return null;
+            })
+                .given(wishlistRepository)
+                .findByCustomerIds(any(), any());
+            final List<WishlistResponse> responses = new ArrayList<>();
+
+            wishlistService.getWishlists(
+                Arrays.asList(VALID_CUSTOMER_ID, "customer789", VALID_CUSTOMER_ID),
+                responses::add
+            );
+
+            assertThat(responses)
+                .extracting(WishlistResponse::customerId)
+                .containsExactly(VALID_CUSTOMER_ID, "customer789");
+            assertThat(responses.get(0).totalItems()).isEqualTo(1);
+            assertThat(responses.get(1).products()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Given an invalid customer ID in the batch, When I query it, Then should reject it without querying")
+        void givenInvalidCustomerId_whenQueryBatch_thenShouldRejectWithoutQuerying() {
+            assertThatThrownBy(() -> wishlistService.getWishlists(Arrays.asList(VALID_CUSTOMER_ID, ""), response -> {
+            }))
+                .isInstanceOf(InvalidCustomerIdException.class);
+
+            then(wishlistRepository).should(never()).findByCustomerIds(any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Feature: Skip reads for customers without a wishlist")
+    class SkipReadsForUnknownCustomersFeature {
+        private final KnownCustomerFilter knownCustomers = new KnownCustomerFilter(0.01);
+        private WishlistService filteredService;
+
+        @BeforeEach
+        void setUp() {
+            knownCustomers.rebuild(100, sink -> sink.accept(VALID_CUSTOMER_ID));
+            filteredService = new WishlistService(wishlistRepository, meterRegistry, null, knownCustomers, null);
+        }
+
+        @Test
+        @DisplayName("Given the customer never added a product, When I query the wishlist, Then should return it empty without querying")
+        void givenCustomerNeverAddedProduct_whenQueryWishlist_thenShouldReturnEmptyWithoutQuerying() {
+            final WishlistResponse response = filteredService.getWishlist("customer789");
+
+            assertThat(response.products()).isEmpty();
+            assertThatThrownBy(() -> filteredService.checkProductExists("customer789", VALID_PRODUCT_ID))
+                .isInstanceOf(ProductNotFoundException.class);
+            then(wishlistRepository).shouldHaveNoInteractions();
+        }
+
+        @Test
+        @DisplayName("Given the customer adds a first product, When I query the wishlist, Then should read it")
+        void givenCustomerAddsFirstProduct_whenQueryWishlist_thenShouldReadIt() {
+            given(wishlistRepository.addProduct("customer789", VALID_PRODUCT_ID, Wishlist.MAX_PRODUCTS))
+                .willReturn(AddProductResult.ADDED);
+            final Wishlist stored = new Wishlist("customer789");
+            stored.addProduct(VALID_PRODUCT_ID);
+            given(wishlistRepository.findByCustomerId("customer789"))
+                .willReturn(Optional.of(stored));
+
+            filteredService.addProduct("customer789", VALID_PRODUCT_ID);
+            final WishlistResponse response = filteredService.getWishlist("customer789");
+
+            assertThat(response.totalItems()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Given a batch mixes known and unknown customers, When I query it, Then should only query the known ones")
+        void givenBatchMixesKnownAndUnknownCustomers_whenQueryIt_thenShouldOnlyQueryTheKnownOnes() {
+            final List<WishlistResponse> responses = new ArrayList<>();
+
+            filteredService.getWishlists(Arrays.asList(VALID_CUSTOMER_ID, "customer789"), responses::add);
+
+            then(wishlistRepository)
+                .should()
+                .findByCustomerIds(argThat(customerIds -> customerIds.size() == 1 && customerIds.contains(VALID_CUSTOMER_ID)), any());
+            assertThat(responses)
+                .extracting(WishlistResponse::customerId)
+                .containsExactly(VALID_CUSTOMER_ID, "customer789");
         }
     }
 
@@ -282,9 +622,8 @@ public class WishlistServiceTest {
             @Test
             @DisplayName("Given wishlist contains product, When I check if product exists, Then should confirm product exists with timestamp")
             void givenWishlistContainsProduct_whenCheckIfProductExists_thenShouldConfirmProductExistsWithTimestamp() {
-                final Wishlist existingWishlist = createWishlistWithProducts(VALID_PRODUCT_ID);
-                given(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID))
-                    .willReturn(Optional.of(existingWishlist));
+                given(wishlistRepository.findProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                    .willReturn(Optional.of(new WishlistProduct(VALID_PRODUCT_ID)));
 
                 final ProductExistsResponse response = wishlistService.checkProductExists(
                     VALID_CUSTOMER_ID,
@@ -309,7 +648,7 @@ public class WishlistServiceTest {
                     "Then should return product not found error"
             )
             void givenCustomerHasEmptyWishlist_whenCheckIfProductExists_thenShouldReturnProductNotFoundError() {
-                given(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID))
+                given(wishlistRepository.findProduct(VALID_CUSTOMER_ID, "product999"))
                     .willReturn(Optional.empty());
 
                 assertThatThrownBy(() -> wishlistService.checkProductExists(VALID_CUSTOMER_ID, "product999"))
@@ -319,6 +658,36 @@ public class WishlistServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Feature: Check which products are in wishlist")
+    class CheckContainedProductsFeature {
+
+        @Test
+        @DisplayName("Given wishlist contains some products, When I check a batch, Then should return only those with timestamps")
+        void givenWishlistContainsSomeProducts_whenCheckBatch_thenShouldReturnOnlyThose() {
+            final WishlistProduct product = new WishlistProduct(VALID_PRODUCT_ID, LocalDateTime.of(2024, 8, 29, 10, 30));
+            given(wishlistRepository.findProducts(VALID_CUSTOMER_ID, Set.of(VALID_PRODUCT_ID, "product789")))
+                .willReturn(List.of(product));
+
+            final ContainedProductsResponse response = wishlistService.findContainedProducts(
+                VALID_CUSTOMER_ID,
+                Arrays.asList(VALID_PRODUCT_ID, "product789", VALID_PRODUCT_ID)
+            );
+
+            assertThat(response.customerId()).isEqualTo(VALID_CUSTOMER_ID);
+            assertThat(response.products()).containsExactly(new ProductResponse(VALID_PRODUCT_ID, product.addedAt()));
+        }
+
+        @Test
+        @DisplayName("Given a blank product ID in the batch, When I check it, Then should reject it without querying")
+        void givenBlankProductId_whenCheckBatch_thenShouldRejectWithoutQuerying() {
+            assertThatThrownBy(() -> wishlistService.findContainedProducts(VALID_CUSTOMER_ID, Arrays.asList(VALID_PRODUCT_ID, " ")))
+                .isInstanceOf(InvalidProductIdException.class);
+
+            then(wishlistRepository).should(never()).findProducts(any(), any());
+        }
+    }
+
     @Nested
     @DisplayName("Feature: Clear wishlist")
     class ClearWishlistFeature {
@@ -333,13 +702,16 @@ public class WishlistServiceTest {
                     "Then wishlist should become empty"
             )
             void givenCustomerHasProductsInWishlist_whenClearWishlistCompletely_thenWishlistShouldBecomeEmpty() {
-                given(wishlistRepository.existsByCustomerId(VALID_CUSTOMER_ID))
+                given(wishlistRepository.deleteByCustomerId(VALID_CUSTOMER_ID))
                     .willReturn(true);
 
                 assertThatNoException()
                     .isThrownBy(() -> wishlistService.clearWishlist(VALID_CUSTOMER_ID));
 
                 then(wishlistRepository).should().deleteByCustomerId(VALID_CUSTOMER_ID);
+                then(wishlistRepository)
+                    .should(never())
+                    .existsByCustomerId(any());
             }
 
             @Test
@@ -347,7 +719,7 @@ public class WishlistServiceTest {
                 "Given customer doesn't exist, When I clear wishlist, Then should return customer not found error"
             )
             void givenCustomerDoesntExist_whenClearWishlist_thenShouldReturnCustomerNotFoundError() {
-                given(wishlistRepository.existsByCustomerId(VALID_CUSTOMER_ID))
+                given(wishlistRepository.deleteByCustomerId(VALID_CUSTOMER_ID))
                     .willReturn(false);
 
                 assertThatThrownBy(() -> wishlistService.clearWishlist(VALID_CUSTOMER_ID))
@@ -355,8 +727,8 @@ public class WishlistServiceTest {
                     .hasMessageContaining("Customer not found");
 
                 then(wishlistRepository)
-                    .should(never())
-                    .deleteByCustomerId(any());
+                    .should(times(1))
+                    .deleteByCustomerId(VALID_CUSTOMER_ID);
             }
         }
     }
@@ -437,13 +809,4 @@ public class WishlistServiceTest {
         Arrays.stream(productIds).forEach(wishlist::addProduct);
         return wishlist;
     }
-
-    private Wishlist createFullWishlist() {
-        Wishlist wishlist = new Wishlist(VALID_CUSTOMER_ID);
-        IntStream
-            .rangeClosed(1, 20)
-            .mapToObj(i -> "product" + String.format("%03d", i))
-            .forEach(wishlist::addProduct);
-        return wishlist;
-    }
 }
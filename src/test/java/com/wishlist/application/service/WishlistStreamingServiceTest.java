@@ -0,0 +1,105 @@
+package com.wishlist.application.service;
+
+import com.wishlist.domain.repository.RawWishlist;
+import com.wishlist.domain.repository.RawWishlistJsonWriter;
+import com.wishlist.domain.repository.RawWishlistRepository;
+import com.wishlist.domain.repository.WishlistRevision;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Wishlist Streaming Service - Raw reads of the same customer")
+public class WishlistStreamingServiceTest {
+    private static final String CUSTOMER_ID = "customer123";
+    private static final RawWishlist STORED = new RawWishlist(new WishlistRevision(3L, 1_724_927_400_000L), ByteBuffer.allocate(5));
+    @Mock
+    private RawWishlistRepository rawWishlistRepository;
+    @Mock
+    private RawWishlistJsonWriter jsonWriter;
+    private WishlistStreamingService streamingService;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        streamingService = new WishlistStreamingService(rawWishlistRepository, jsonWriter, null, null);
+        release = new CountDownLatch(1);
+        willAnswer(invocation -> {
+            release.await();
+            return Optional.of(STORED);
+        })
+            .given(rawWishlistRepository)
+            .findRawByCustomerId(CUSTOMER_ID);
+    }
+
+    @Nested
+    @DisplayName("Given a raw read is in flight")
+    class GivenRawReadInFlight {
+
+        @Test
+        @DisplayName("When more callers read the same customer, Then they share its document")
+        void whenMoreCallersRead_thenTheyShareItsDocument() throws Exception {
+            final List<Optional<RawWishlist>> reads = new CopyOnWriteArrayList<>();
+            final List<Thread> callers = new ArrayList<>();
+            for (int caller = 0; caller < 5; caller++) {
+                callers.add(Thread.ofVirtual().start(() -> reads.add(streamingService.findRawWishlist(CUSTOMER_ID))));
+            }
+            await()
+                .atMost(Duration.ofSeconds(10))
+                .until(() -> callers.stream().allMatch(caller -> caller.getState() == Thread.State.WAITING));
+            release.countDown();
+            for (Thread caller : callers) {
+                caller.join();
+            }
+
+            assertThat(reads).hasSize(5).allSatisfy(read -> assertThat(read).containsSame(STORED));
+            then(rawWishlistRepository)
+                .should(times(1))
+                .findRawByCustomerId(CUSTOMER_ID);
+        }
+
+        @Test
+        @DisplayName("When the customer is written, Then a later caller does not join the earlier read")
+        void whenCustomerWritten_thenLaterCallerDoesNotJoinEarlierRead() throws Exception {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                final Future<Optional<RawWishlist>> before = executor.submit(() -> streamingService.findRawWishlist(CUSTOMER_ID));
+                awaitQueries(1);
+
+                streamingService.forget(CUSTOMER_ID);
+                final Future<Optional<RawWishlist>> after = executor.submit(() -> streamingService.findRawWishlist(CUSTOMER_ID));
+                awaitQueries(2);
+                release.countDown();
+
+                assertThat(before.get()).isPresent();
+                assertThat(after.get()).isPresent();
+            }
+        }
+    }
+
+    private void awaitQueries(int count) {
+        await()
+            .atMost(Duration.ofSeconds(10))
+            .until(() -> mockingDetails(rawWishlistRepository).getInvocations().size() == count);
+    }
+}
@@ -0,0 +1,102 @@
+package com.wishlist.infrastructure.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.apache.coyote.ProtocolHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Virtual thread configuration - Executor wiring")
+public class VirtualThreadConfigTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+        .withUserConfiguration(VirtualThreadConfig.class);
+
+    @Nested
+    @DisplayName("Given virtual threads are not enabled")
+    class GivenVirtualThreadsNotEnabled {
+
+        @Test
+        @DisplayName("When the context starts, Then no executor is replaced and pinning is not monitored")
+        void whenContextStarts_thenNothingIsReplaced() {
+            contextRunner.run(context -> {
+                assertThat(context).doesNotHaveBean(TomcatProtocolHandlerCustomizer.class);
+                assertThat(context).doesNotHaveBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME);
+                assertThat(context).doesNotHaveBean(VirtualThreadPinningMonitor.class);
+            });
+        }
+    }
+
+    @Nested
+    @DisplayName("Given virtual threads are enabled")
+    class GivenVirtualThreadsEnabled {
+
+        @Test
+        @DisplayName("When Tomcat is customized, Then requests run on virtual threads")
+        @SuppressWarnings("unchecked")
+        void whenTomcatCustomized_thenRequestsRunOnVirtualThreads() {
+            contextRunner
+                .withPropertyValues("wishlist.virtual-threads.enabled=true")
+                .run(context -> {
+                    final ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+                    final ArgumentCaptor<Executor> executor = ArgumentCaptor.forClass(Executor.class);
+
+                    ((TomcatProtocolHandlerCustomizer<ProtocolHandler>) context
+                        .getBean(TomcatProtocolHandlerCustomizer.class))
+                        .customize(protocolHandler);
+
+                    then(protocolHandler).should().setExecutor(executor.capture());
+                    assertThat(runsOnVirtualThread(executor.getValue())).isTrue();
+                });
+        }
+
+        @Test
+        @DisplayName("When an application task is submitted, Then it runs on a virtual thread")
+        void whenApplicationTaskSubmitted_thenItRunsOnAVirtualThread() {
+            contextRunner
+                .withPropertyValues("wishlist.virtual-threads.enabled=true")
+                .run(context -> {
+                    final AsyncTaskExecutor executor = context.getBean(
+                        TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+                        AsyncTaskExecutor.class
+                    );
+
+                    assertThat(runsOnVirtualThread(executor)).isTrue();
+                });
+        }
+
+        @Test
+        @DisplayName("When the context starts, Then pinning is monitored at the configured threshold")
+        void whenContextStarts_thenPinningIsMonitored() {
+            contextRunner
+                .withPropertyValues(
+                    "wishlist.virtual-threads.enabled=true",
+                    "wishlist.virtual-threads.pinning-threshold=50ms"
+                )
+                .run(context -> {
+                    assertThat(context).hasSingleBean(VirtualThreadPinningMonitor.class);
+                    assertThat(context.getBean(VirtualThreadProperties.class).pinningThreshold()).hasMillis(50);
+                    assertThat(context.getBean(VirtualThreadPinningMonitor.class).isRunning()).isTrue();
+                });
+        }
+    }
+
+    private static boolean runsOnVirtualThread(Executor executor) throws Exception {
+        final CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        executor.execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+        return virtual.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,78 @@
+package com.wishlist.infrastructure.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+// Sleeping inside synchronized pins the carrier on the Java 21 toolchain, which is what the monitor watches for
+@DisplayName("Virtual thread pinning monitor - JFR pinned events above the threshold")
+public class VirtualThreadPinningMonitorTest {
+    private static final Duration THRESHOLD = Duration.ofMillis(200);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new VirtualThreadPinningMonitor(THRESHOLD, meterRegistry);
+        monitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    @DisplayName("Given a short and a long pin, When they are recorded, Then only the one above the threshold counts")
+    void givenShortAndLongPin_whenRecorded_thenOnlyTheOneAboveThresholdCounts() throws InterruptedException {
+        pin(Duration.ofMillis(5));
+        pin(Duration.ofMillis(500));
+
+        await()
+            .atMost(Duration.ofSeconds(15))
+            .until(() -> pinnedCount() >= 1);
+        Thread.sleep(1_500);
+
+        assertThat(pinnedCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("wishlist.virtual.threads.pinned.duration").timer().max(TimeUnit.MILLISECONDS))
+            .isGreaterThanOrEqualTo(THRESHOLD.toMillis());
+    }
+
+    @Test
+    @DisplayName("Given the monitor was stopped, When a virtual thread pins, Then nothing is recorded")
+    void givenMonitorStopped_whenVirtualThreadPins_thenNothingIsRecorded() throws InterruptedException {
+        monitor.stop();
+
+        pin(Duration.ofMillis(500));
+
+        assertThat(monitor.isRunning()).isFalse();
+        assertThat(pinnedCount()).isZero();
+    }
+
+    private double pinnedCount() {
+        return meterRegistry.get("wishlist.virtual.threads.pinned").counter().count();
+    }
+
+    private static void pin(Duration duration) throws InterruptedException {
+        final Object monitor = new Object();
+        Thread
+            .ofVirtual()
+            .start(() -> {
+                synchronized (monitor) {
+                    try {
+                        Thread.sleep(duration.toMillis());
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            })
+            .join();
+    }
+}
@@ -0,0 +1,198 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.repository.WishlistRepository;
+import com.wishlist.infrastructure.config.WishlistLoaderProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Batching Wishlist Repository - Coalesced lookups")
+public class BatchingWishlistRepositoryTest {
+    @Mock
+    private WishlistRepository delegate;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Nested
+    @DisplayName("Given concurrent lookups within one window")
+    class GivenConcurrentLookupsWithinOneWindow {
+
+        @Test
+        @DisplayName("When customers repeat, Then should load each distinct customer once in a single query")
+        void whenCustomersRepeat_thenShouldLoadEachDistinctCustomerOnce() throws Exception {
+            final BatchingWishlistRepository repository = repository(Duration.ofMillis(200), 100);
+            answerWithWishlistsFor("customer1", "customer2");
+            final List<String> lookups = List.of("customer1", "customer2", "customer1", "customer3", "customer2");
+
+            final List<Optional<Wishlist>> results = lookUpConcurrently(repository, lookups);
+
+            assertThat(results.get(0)).hasValueSatisfying(wishlist -> assertThat(wishlist.getCustomerId()).isEqualTo("customer1"));
+            assertThat(results.get(1)).hasValueSatisfying(wishlist -> assertThat(wishlist.getCustomerId()).isEqualTo("customer2"));
+            assertThat(results.get(2)).hasValueSatisfying(wishlist -> assertThat(wishlist)
+                .isNotSameAs(results.get(0).orElseThrow())
+                .extracting(Wishlist::getCustomerId)
+                .isEqualTo("customer1"));
+            assertThat(results.get(3)).isEmpty();
+            @SuppressWarnings("unchecked")
+            final ArgumentCaptor<Collection<String>> customerIds = ArgumentCaptor.forClass(Collection.class);
+            then(delegate).should(times(1)).findByCustomerIds(customerIds.capture(), any());
+            assertThat(customerIds.getValue()).containsExactlyInAnyOrder("customer1", "customer2", "customer3");
+            then(delegate).should(never()).findByCustomerId(any());
+            assertThat(meterRegistry.get("wishlist.loader.batch.size").summary().max()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("When one caller changes its wishlist, Then another caller of the same customer should not see it")
+        void whenOneCallerChangesItsWishlist_thenAnotherCallerShouldNotSeeIt() throws Exception {
+            final BatchingWishlistRepository repository = repository(Duration.ofMillis(200), 100);
+            answerWithWishlistsFor("customer1");
+
+            final List<Optional<Wishlist>> results = lookUpConcurrently(repository, List.of("customer1", "customer1"));
+            results.get(0).orElseThrow().addProduct("product1");
+
+            assertThat(results.get(1)).hasValueSatisfying(wishlist -> assertThat(wishlist.hasProduct("product1")).isFalse());
+        }
+
+        @Test
+        @DisplayName("When the batch fills up, Then should load it without waiting for the window")
+        void whenBatchFillsUp_thenShouldLoadWithoutWaitingForTheWindow() throws Exception {
+            final BatchingWishlistRepository repository = repository(Duration.ofSeconds(30), 2);
+            answerWithWishlistsFor("customer1", "customer2");
+
+            final long started = System.nanoTime();
+            final List<Optional<Wishlist>> results = lookUpConcurrently(repository, List.of("customer1", "customer2"));
+
+            assertThat(results).allSatisfy(result -> assertThat(result).isPresent());
+            assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(10));
+        }
+
+        @Test
+        @DisplayName("When the batch query fails, Then every caller should see the failure")
+        void whenBatchQueryFails_thenEveryCallerShouldSeeTheFailure() {
+            final BatchingWishlistRepository repository = repository(Duration.ofMillis(1), 100);
+            willThrow(new QueryTimeoutException("timed out"))
+                .given(delegate)
+                .findByCustomerIds(any(), any());
+
+            assertThatThrownBy(() -> repository.findByCustomerId("customer1"))
+                .isInstanceOf(QueryTimeoutException.class);
+        }
+
+        @Test
+        @DisplayName("When the batch query throws an Error, Then every caller should see it instead of waiting")
+        void whenBatchQueryThrowsError_thenEveryCallerShouldSeeIt() {
+            final BatchingWishlistRepository repository = repository(Duration.ofMillis(200), 100);
+            willThrow(new LinkageError("Codec class could not be loaded"))
+                .given(delegate)
+                .findByCustomerIds(any(), any());
+
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                assertThatThrownBy(() -> lookUpConcurrently(repository, List.of("customer1", "customer2")))
+                    .hasCauseInstanceOf(LinkageError.class)
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Given the caller that opened the window is interrupted")
+    class GivenWindowOpenerInterrupted {
+
+        @Test
+        @DisplayName("When the window is cut short, Then should load without the interrupt and restore it afterwards")
+        void whenWindowCutShort_thenShouldLoadWithoutInterruptAndRestoreIt() {
+            final BatchingWishlistRepository repository = repository(Duration.ofSeconds(30), 100);
+            final List<Boolean> interruptedWhileLoading = new ArrayList<>();
+            willAnswer(invocation -> {
+                interruptedWhileLoading.add(Thread.currentThread().isInterrupted());
+                final Consumer<Wishlist> consumer = invocation.getArgument(1);
+                consumer.accept(new Wishlist("customer1"));
+                return null;
+            })
+                .given(delegate)
+                .findByCustomerIds(any(), any());
+
+            Thread.currentThread().interrupt();
+            final Optional<Wishlist> result;
+            try {
+                result = repository.findByCustomerId("customer1");
+            } finally {
+                assertThat(Thread.interrupted()).isTrue();
+            }
+
+            assertThat(result).isPresent();
+            assertThat(interruptedWhileLoading).containsExactly(false);
+        }
+    }
+
+    private BatchingWishlistRepository repository(Duration window, int maxBatchSize) {
+        return new BatchingWishlistRepository(
+            delegate,
+            new WishlistLoaderProperties(true, window, maxBatchSize),
+            meterRegistry
+        );
+    }
+
+    private void answerWithWishlistsFor(String... customerIds) {
+        willAnswer(invocation -> {
+            final Collection<String> requested = invocation.getArgument(0);
+            final Consumer<Wishlist> consumer = invocation.getArgument(1);
+            for (String customerId : customerIds) {
+                if (requested.contains(customerId)) {
+                    consumer.accept(new Wishlist(customerId));
+                }
+            }
+            return null;
+        })
+            .given(delegate)
+            .findByCustomerIds(any(), any());
+    }
+
+    private List<Optional<Wishlist>> lookUpConcurrently(
+        BatchingWishlistRepository repository,
+        List<String> customerIds
+    ) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Optional<Wishlist>>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String customerId : customerIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return repository.findByCustomerId(customerId);
+                }));
+            }
+            start.countDown();
+            final List<Optional<Wishlist>> results = new ArrayList<>();
+            for (Future<Optional<Wishlist>> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+}
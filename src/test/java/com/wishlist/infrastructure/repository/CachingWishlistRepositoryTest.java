@@ -0,0 +1,185 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.WishlistRepository;
+import com.wishlist.infrastructure.config.WishlistCacheProperties;
+import java.time.Duration;
+import java.util.Optional;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Caching Wishlist Repository - Near cache behavior")
+public class CachingWishlistRepositoryTest {
+    @Mock
+    private WishlistRepository delegate;
+    private CachingWishlistRepository cachingRepository;
+    private final String VALID_CUSTOMER_ID = "customer123";
+
+    @BeforeEach
+    void setUp() {
+        cachingRepository = new CachingWishlistRepository(
+            delegate,
+            new WishlistCacheProperties(
+                true,
+                100,
+                Duration.ofMinutes(5),
+                Duration.ofMinutes(1),
+                true,
+                Duration.ofSeconds(10)
+            )
+        );
+    }
+
+    @Nested
+    @DisplayName("Given a wishlist was already read")
+    class GivenWishlistWasAlreadyRead {
+
+        @Test
+        @DisplayName("When read again, Then should not hit the delegate")
+        void whenReadAgain_thenShouldNotHitTheDelegate() {
+            final Wishlist wishlist = new Wishlist(VALID_CUSTOMER_ID);
+            wishlist.addProduct("product1");
+            given(delegate.findByCustomerId(VALID_CUSTOMER_ID)).willReturn(Optional.of(wishlist));
+
+            cachingRepository.findByCustomerId(VALID_CUSTOMER_ID);
+            final Optional<Wishlist> result = cachingRepository.findByCustomerId(VALID_CUSTOMER_ID);
+            final Optional<WishlistProduct> product = cachingRepository.findProduct(VALID_CUSTOMER_ID, "product1");
+
+            assertThat(result).hasValueSatisfying(cached -> assertThat(cached.hasProduct("product1")).isTrue());
+            assertThat(product).isPresent();
+            assertThat(cachingRepository.existsByCustomerId(VALID_CUSTOMER_ID)).isTrue();
+            then(delegate).should(times(1)).findByCustomerId(VALID_CUSTOMER_ID);
+            then(delegate).should(never()).findProduct(any(), any());
+            then(delegate).should(never()).existsByCustomerId(any());
+        }
+
+        @Test
+        @DisplayName("When one caller changes its copy, Then other callers should not see the change")
+        void whenOneCallerChangesItsCopy_thenOtherCallersShouldNotSeeTheChange() {
+            final Wishlist wishlist = new Wishlist(VALID_CUSTOMER_ID);
+            wishlist.addProduct("product1");
+            given(delegate.findByCustomerId(VALID_CUSTOMER_ID)).willReturn(Optional.of(wishlist));
+
+            final Wishlist first = cachingRepository.findByCustomerId(VALID_CUSTOMER_ID).orElseThrow();
+            first.removeProduct("product1");
+            first.addProduct("product2");
+            final Wishlist second = cachingRepository.findByCustomerId(VALID_CUSTOMER_ID).orElseThrow();
+
+            assertThat(second).isNotSameAs(first);
+            assertThat(second.getProducts())
+                .extracting(WishlistProduct::productId)
+                .containsExactly("product1");
+            then(delegate).should(times(1)).findByCustomerId(VALID_CUSTOMER_ID);
+        }
+
+        @Test
+        @DisplayName("When customer has no wishlist, Then should cache the negative result")
+        void whenCustomerHasNoWishlist_thenShouldCacheTheNegativeResult() {
+            given(delegate.findByCustomerId(VALID_CUSTOMER_ID)).willReturn(Optional.empty());
+
+            cachingRepository.findByCustomerId(VALID_CUSTOMER_ID);
+            final Optional<Wishlist> result = cachingRepository.findByCustomerId(VALID_CUSTOMER_ID);
+
+            assertThat(result).isEmpty();
+            assertThat(cachingRepository.existsByCustomerId(VALID_CUSTOMER_ID)).isFalse();
+            then(delegate).should(times(1)).findByCustomerId(VALID_CUSTOMER_ID);
+        }
+    }
+
+    @Nested
+    @DisplayName("Given a wishlist is modified")
+    class GivenWishlistIsModified {
+
+        @Test
+        @DisplayName("When a product is added, Then next read should go to the delegate")
+        void whenProductIsAdded_thenNextReadShouldGoToTheDelegate() {
+            given(delegate.findByCustomerId(VALID_CUSTOMER_ID)).willReturn(Optional.empty());
+            given(delegate.addProduct(VALID_CUSTOMER_ID, "product1", Wishlist.MAX_PRODUCTS))
+                .willReturn(AddProductResult.ADDED);
+
+            cachingRepository.findByCustomerId(VALID_CUSTOMER_ID);
+            cachingRepository.addProduct(VALID_CUSTOMER_ID, "product1", Wishlist.MAX_PRODUCTS);
+            cachingRepository.findByCustomerId(VALID_CUSTOMER_ID);
+
+            then(delegate).should(times(2)).findByCustomerId(VALID_CUSTOMER_ID);
+        }
+
+        @Test
+        @DisplayName("When wishlist is deleted, Then next read should go to the delegate")
+        void whenWishlistIsDeleted_thenNextReadShouldGoToTheDelegate() {
+            given(delegate.findByCustomerId(VALID_CUSTOMER_ID)).willReturn(Optional.of(new Wishlist(VALID_CUSTOMER_ID)));
+            given(delegate.deleteByCustomerId(VALID_CUSTOMER_ID)).willReturn(true);
+
+            cachingRepository.findByCustomerId(VALID_CUSTOMER_ID);
+            cachingRepository.deleteByCustomerId(VALID_CUSTOMER_ID);
+            cachingRepository.findByCustomerId(VALID_CUSTOMER_ID);
+
+            then(delegate).should(times(2)).findByCustomerId(VALID_CUSTOMER_ID);
+        }
+    }
+
+    @Nested
+    @DisplayName("Given another node changed a wishlist")
+    class GivenAnotherNodeChangedWishlist {
+
+        @Test
+        @DisplayName("When invalidated by wishlist id, Then next read should go to the delegate")
+        void whenInvalidatedByWishlistId_thenNextReadShouldGoToTheDelegate() {
+            final Wishlist wishlist = new Wishlist(VALID_CUSTOMER_ID);
+            ReflectionTestUtils.setField(wishlist, "id", "64a7b8c9d1e2f34567890123");
+            given(delegate.findByCustomerId(VALID_CUSTOMER_ID)).willReturn(Optional.of(wishlist));
+
+            cachingRepository.findByCustomerId(VALID_CUSTOMER_ID);
+            cachingRepository.invalidateByWishlistId("64a7b8c9d1e2f34567890123");
+            cachingRepository.findByCustomerId(VALID_CUSTOMER_ID);
+
+            then(delegate).should(times(2)).findByCustomerId(VALID_CUSTOMER_ID);
+        }
+
+        @Test
+        @DisplayName("When another wishlist is invalidated, Then this one should stay cached")
+        void whenAnotherWishlistIsInvalidated_thenThisOneShouldStayCached() {
+            final Wishlist wishlist = new Wishlist(VALID_CUSTOMER_ID);
+            ReflectionTestUtils.setField(wishlist, "id", "64a7b8c9d1e2f34567890123");
+            given(delegate.findByCustomerId(VALID_CUSTOMER_ID)).willReturn(Optional.of(wishlist));
+
+            cachingRepository.findByCustomerId(VALID_CUSTOMER_ID);
+            cachingRepository.invalidateByWishlistId("64a7b8c9d1e2f34567890999");
+            cachingRepository.findByCustomerId(VALID_CUSTOMER_ID);
+
+            then(delegate).should(times(1)).findByCustomerId(VALID_CUSTOMER_ID);
+        }
+
+        @Test
+        @DisplayName("When the wishlist was already invalidated, Then its id should no longer be tracked")
+        void whenAlreadyInvalidated_thenItsIdShouldNoLongerBeTracked() {
+            final Wishlist wishlist = new Wishlist(VALID_CUSTOMER_ID);
+            ReflectionTestUtils.setField(wishlist, "id", "64a7b8c9d1e2f34567890123");
+            given(delegate.findByCustomerId(VALID_CUSTOMER_ID)).willReturn(Optional.of(wishlist));
+
+            cachingRepository.findByCustomerId(VALID_CUSTOMER_ID);
+            cachingRepository.invalidate(VALID_CUSTOMER_ID);
+
+            assertThat(ReflectionTestUtils.getField(cachingRepository, "customerIdsByWishlistId"))
+                .asInstanceOf(InstanceOfAssertFactories.MAP)
+                .isEmpty();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.WishlistRevision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Repositório embarcado - Comportamentos")
+public class EmbeddedWishlistRepositoryTest extends WishlistRepositoryContractTest {
+    private static final int SEGMENT_BYTES = 4096;
+    @TempDir
+    private Path directory;
+    private EmbeddedWishlistRepository embeddedRepository;
+
+    @BeforeEach
+    void setUp() {
+        embeddedRepository = open();
+        wishlistRepository = embeddedRepository;
+    }
+
+    @AfterEach
+    void tearDown() {
+        embeddedRepository.stop();
+    }
+
+    @Nested
+    @DisplayName("Given I need the wishlists of many customers")
+    class GivenINeedWishlistsOfManyCustomers {
+
+        @Test
+        @DisplayName("Then should return every stored wishlist and skip missing customers")
+        void thenShouldReturnEveryStoredWishlistAndSkipMissingCustomers() {
+            givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+            givenCustomerHasWishlistWithProducts(ANOTHER_CUSTOMER_ID, "product2");
+            final List<Wishlist> found = new ArrayList<>();
+
+            embeddedRepository.findByCustomerIds(
+                List.of(VALID_CUSTOMER_ID, ANOTHER_CUSTOMER_ID, NON_EXISTENT_CUSTOMER_ID),
+                found::add
+            );
+
+            assertThat(found)
+                .extracting(Wishlist::getCustomerId)
+                .containsExactlyInAnyOrder(VALID_CUSTOMER_ID, ANOTHER_CUSTOMER_ID);
+        }
+    }
+
+    @Nested
+    @DisplayName("Given the store is restarted")
+    class GivenTheStoreIsRestarted {
+
+        @Test
+        @DisplayName("Then should rebuild the index from the log alone")
+        void thenShouldRebuildIndexFromLogAlone() {
+            givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1", "product2");
+            embeddedRepository.removeProduct(VALID_CUSTOMER_ID, "product1");
+            givenCustomerHasWishlistWithProducts(ANOTHER_CUSTOMER_ID, "product3");
+            embeddedRepository.deleteByCustomerId(ANOTHER_CUSTOMER_ID);
+            final WishlistRevision revision = embeddedRepository.findRevisionByCustomerId(VALID_CUSTOMER_ID).orElseThrow();
+
+            restart();
+
+            assertThat(embeddedRepository.findByCustomerId(VALID_CUSTOMER_ID).orElseThrow().getProducts())
+                .extracting(WishlistProduct::productId)
+                .containsExactly("product2");
+            assertThat(embeddedRepository.findRevisionByCustomerId(VALID_CUSTOMER_ID)).contains(revision);
+            assertThat(embeddedRepository.existsByCustomerId(ANOTHER_CUSTOMER_ID)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Then should load the snapshot and replay only the records written after it")
+        void thenShouldLoadSnapshotAndReplayLaterRecords() {
+            givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+            embeddedRepository.maintain();
+            embeddedRepository.addProduct(VALID_CUSTOMER_ID, "product2", Wishlist.MAX_PRODUCTS);
+            embeddedRepository.addProduct(ANOTHER_CUSTOMER_ID, "product3", Wishlist.MAX_PRODUCTS);
+
+            restart();
+
+            assertThat(directory.resolve("index.snapshot")).exists();
+            assertThat(embeddedRepository.findByCustomerId(VALID_CUSTOMER_ID).orElseThrow().getProducts())
+                .extracting(WishlistProduct::productId)
+                .containsExactly("product1", "product2");
+            assertThat(embeddedRepository.findProduct(ANOTHER_CUSTOMER_ID, "product3")).isPresent();
+        }
+    }
+
+    @Nested
+    @DisplayName("Given most records in full segments were overwritten")
+    class GivenMostRecordsWereOverwritten {
+
+        @Test
+        @DisplayName("Then compaction should keep every wishlist and delete the dead segments")
+        void thenCompactionShouldKeepEveryWishlistAndDeleteDeadSegments() throws IOException {
+            IntStream
+                .range(0, 10)
+                .forEach(customer -> embeddedRepository.addProduct("customer" + customer, "kept", Wishlist.MAX_PRODUCTS));
+            IntStream
+                .range(0, 300)
+                .forEach(round -> {
+                    embeddedRepository.addProduct(VALID_CUSTOMER_ID, "product" + round, Wishlist.MAX_PRODUCTS);
+                    embeddedRepository.removeProduct(VALID_CUSTOMER_ID, "product" + round);
+                });
+            final long segmentsBefore = segmentFiles();
+
+            embeddedRepository.maintain();
+            restart();
+
+            assertThat(segmentFiles()).isLessThan(segmentsBefore);
+            assertThat(embeddedRepository.findByCustomerId(VALID_CUSTOMER_ID).orElseThrow().getProductCount()).isZero();
+            IntStream
+                .range(0, 10)
+                .forEach(customer -> assertThat(embeddedRepository.findProduct("customer" + customer, "kept")).isPresent());
+        }
+    }
+
+    private EmbeddedWishlistRepository open() {
+        final EmbeddedWishlistRepository repository = new EmbeddedWishlistRepository(
+            new EmbeddedWishlistLog(directory, SEGMENT_BYTES, false),
+            Duration.ofHours(1),
+            0.5,
+            new SimpleMeterRegistry()
+        );
+        repository.start();
+        return repository;
+    }
+
+    private void restart() {
+        embeddedRepository.stop();
+        embeddedRepository = open();
+        wishlistRepository = embeddedRepository;
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> path.getFileName().toString().endsWith(".log"))
+                .count();
+        }
+    }
+}
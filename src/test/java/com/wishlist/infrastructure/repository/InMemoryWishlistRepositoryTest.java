@@ -0,0 +1,228 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.RemoveProductResult;
+import com.wishlist.domain.repository.WishlistWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Repositório em memória - Comportamentos")
+public class InMemoryWishlistRepositoryTest extends WishlistRepositoryContractTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 3_000;
+    private static final int CUSTOMERS = 4;
+    private static final int PRODUCTS = 8;
+    private static final int MAX_PRODUCTS = 5;
+
+    @BeforeEach
+    void setUp() {
+        wishlistRepository = new InMemoryWishlistRepository(new SimpleMeterRegistry());
+    }
+
+    @Nested
+    @DisplayName("Given many threads add different products to one wishlist at once")
+    class GivenManyThreadsAddDifferentProductsAtOnce {
+
+        @Test
+        @DisplayName("Then should keep every product and give each write its own version")
+        void thenShouldKeepEveryProductAndGiveEachWriteItsOwnVersion() throws Exception {
+            final List<Future<WishlistWriteResult<AddProductResult>>> results = concurrently(
+                Wishlist.MAX_PRODUCTS,
+                thread -> () -> wishlistRepository.addProductAndGet(VALID_CUSTOMER_ID, "product" + thread, Wishlist.MAX_PRODUCTS)
+            );
+
+            final List<Long> versions = new ArrayList<>();
+            for (Future<WishlistWriteResult<AddProductResult>> result : results) {
+                assertThat(result.get().outcome()).isEqualTo(AddProductResult.ADDED);
+                versions.add(result.get().wishlist().getVersion());
+            }
+            assertThat(versions).containsExactlyInAnyOrderElementsOf(
+                IntStream.rangeClosed(1, Wishlist.MAX_PRODUCTS).mapToObj(Long::valueOf).toList()
+            );
+            assertThat(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID).orElseThrow().getProductCount())
+                .isEqualTo(Wishlist.MAX_PRODUCTS);
+        }
+    }
+
+    @Nested
+    @DisplayName("Given threads add, remove and read the same few wishlists under contention")
+    class GivenThreadsShareFewWishlistsUnderContention {
+
+        // Successful writes are ordered by the version they stored. That order must respect real time, and
+        // replaying the writes in it must reproduce every stored wishlist; every other call must have seen
+        // one of the states that existed while it ran.
+        @Test
+        @DisplayName("Then the history should be explained by one sequential order of the writes")
+        void thenHistoryShouldBeExplainedByOneSequentialOrderOfWrites() throws Exception {
+            final Map<String, List<Call>> history = new ConcurrentHashMap<>();
+            final List<Future<Void>> threads = concurrently(THREADS, thread -> () -> {
+                for (int operation = 0; operation < OPERATIONS_PER_THREAD; operation++) {
+                    final Call call = randomCall();
+                    history
+                        .computeIfAbsent(call.customerId(), customer -> Collections.synchronizedList(new ArrayList<>()))
+                        .add(call);
+                }
+                return null;
+            });
+            for (Future<Void> thread : threads) {
+                thread.get();
+            }
+
+            history.forEach(InMemoryWishlistRepositoryTest::assertLinearizable);
+        }
+    }
+
+    private Call randomCall() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final String customerId = "customer" + random.nextInt(CUSTOMERS);
+        final String productId = "product" + random.nextInt(PRODUCTS);
+        final long start = System.nanoTime();
+        switch (random.nextInt(3)) {
+            case 0 -> {
+                final WishlistWriteResult<AddProductResult> result = wishlistRepository.addProductAndGet(customerId, productId, MAX_PRODUCTS);
+                final long end = System.nanoTime();
+                return switch (result.outcome()) {
+                    case ADDED -> Call.write(customerId, start, end, result.wishlist(), products -> added(products, productId));
+                    case ALREADY_EXISTS -> Call.observation(customerId, start, end, products -> products != null && products.contains(productId));
+                    default -> Call.observation(customerId, start, end, products -> products != null && products.size() >= MAX_PRODUCTS && !products.contains(productId));
+                };
+            }
+            case 1 -> {
+                final WishlistWriteResult<RemoveProductResult> result = wishlistRepository.removeProductAndGet(customerId, productId);
+                final long end = System.nanoTime();
+                return switch (result.outcome()) {
+                    case REMOVED -> Call.write(customerId, start, end, result.wishlist(), products -> removed(products, productId));
+                    case PRODUCT_NOT_FOUND -> Call.observation(customerId, start, end, products -> products != null && !products.contains(productId));
+                    default -> Call.observation(customerId, start, end, products -> products == null);
+                };
+            }
+            default -> {
+                final Optional<Wishlist> found = wishlistRepository.findByCustomerId(customerId);
+                final long end = System.nanoTime();
+                final List<String> seen = found.map(InMemoryWishlistRepositoryTest::productIds).orElse(null);
+                return Call.observation(customerId, start, end, products -> Objects.equals(products, seen));
+            }
+        }
+    }
+
+    private static void assertLinearizable(String customerId, List<Call> calls) {
+        final List<Call> writes = calls
+            .stream()
+            .filter(call -> call.stored() != null)
+            .sorted(Comparator.comparing(call -> call.stored().getVersion()))
+            .toList();
+        final List<List<String>> states = new ArrayList<>();
+        states.add(null);
+        for (int index = 0; index < writes.size(); index++) {
+            final Call write = writes.get(index);
+            assertThat(write.stored().getVersion())
+                .as("version of write %d on %s", index + 1, customerId)
+                .isEqualTo(index + 1L);
+            states.add(write.change().apply(states.get(index)));
+            assertThat(productIds(write.stored()))
+                .as("wishlist stored by version %d of %s", index + 1, customerId)
+                .isEqualTo(states.get(index + 1));
+        }
+        long earliestLaterEnd = Long.MAX_VALUE;
+        for (int index = writes.size() - 1; index >= 0; index--) {
+            assertThat(writes.get(index).start())
+                .as("version %d of %s started after a later version had finished", index + 1, customerId)
+                .isLessThan(earliestLaterEnd);
+            earliestLaterEnd = Math.min(earliestLaterEnd, writes.get(index).end());
+        }
+        calls
+            .stream()
+            .filter(call -> call.stored() == null)
+            .forEach(call -> assertThat(IntStream
+                .rangeClosed(0, writes.size())
+                .anyMatch(version -> (version == 0 || writes.get(version - 1).start() < call.end())
+                    && (version == writes.size() || writes.get(version).end() > call.start())
+                    && call.saw().test(states.get(version))))
+                .as("no state of %s visible between %d and %d explains the call", customerId, call.start(), call.end())
+                .isTrue());
+    }
+
+    private static List<String> added(List<String> products, String productId) {
+        final List<String> next = products == null ? new ArrayList<>() : new ArrayList<>(products);
+        next.add(productId);
+        return next;
+    }
+
+    private static List<String> removed(List<String> products, String productId) {
+        final List<String> next = new ArrayList<>(products);
+        next.remove(productId);
+        return next;
+    }
+
+    private static List<String> productIds(Wishlist wishlist) {
+        return wishlist
+            .getProducts()
+            .stream()
+            .map(WishlistProduct::productId)
+            .toList();
+    }
+
+    private static <T> List<Future<T>> concurrently(
+        int threads,
+        IntFunction<Callable<T>> task
+    ) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<T>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            final Callable<T> body = task.apply(thread);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return body.call();
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        return futures;
+    }
+
+    // A write carries the wishlist it stored and how it changed the products; any other call only what it saw
+    private record Call(
+        String customerId,
+        long start,
+        long end,
+        Wishlist stored,
+        UnaryOperator<List<String>> change,
+        Predicate<List<String>> saw
+    ) {
+        static Call write(String customerId, long start, long end, Wishlist stored, UnaryOperator<List<String>> change) {
+            return new Call(customerId, start, end, stored, change, null);
+        }
+
+        static Call observation(String customerId, long start, long end, Predicate<List<String>> saw) {
+            return new Call(customerId, start, end, null, null, saw);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.application.service.KnownCustomerFilter;
+import java.time.Duration;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@DataMongoTest
+@Testcontainers
+@DisplayName("Known customer filter rebuilder - Wishlists created by other instances")
+public class KnownCustomerFilterRebuilderTest {
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0")
+        .withExposedPorts(27017);
+    private static final String COLLECTION = WishlistStorageLayout.OBJECT_ID.collectionName();
+    private static final String HEX_CUSTOMER_ID = "64f1a2b3c4d5e6f7a8b9c0d1";
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    private final KnownCustomerFilter filter = new KnownCustomerFilter(0.01);
+    private KnownCustomerFilterRebuilder rebuilder;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+        registry.add("spring.data.mongodb.database", () -> "wishlist_test_db");
+    }
+
+    @AfterEach
+    void tearDown() {
+        rebuilder.stop();
+    }
+
+    @Nested
+    @DisplayName("Given the filter was built after the insert feed opened")
+    class GivenFilterBuilt {
+
+        @BeforeEach
+        void setUp() {
+            mongoTemplate.dropCollection(COLLECTION);
+            mongoTemplate.getCollection(COLLECTION).insertOne(new Document("customerId", "stored"));
+            startRebuilder(WishlistStorageLayout.OBJECT_ID);
+        }
+
+        @Test
+        @DisplayName("When another instance stores a first wishlist, Then the customer might exist before the next rebuild")
+        void whenAnotherInstanceStoresWishlist_thenCustomerMightExist() {
+            assertThat(filter.mightExist("stored")).isTrue();
+            assertThat(filter.mightExist("newcomer")).isFalse();
+
+            mongoTemplate.getCollection(COLLECTION).insertOne(new Document("customerId", "newcomer"));
+
+            await()
+                .atMost(Duration.ofSeconds(10))
+                .until(() -> filter.mightExist("newcomer"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Given customers keyed by a 24-hex id")
+    class GivenHexCustomerKeys {
+        private final String collection = WishlistStorageLayout.CUSTOMER_KEY.collectionName();
+
+        @BeforeEach
+        void setUp() {
+            mongoTemplate.dropCollection(collection);
+            mongoTemplate.getCollection(collection).insertOne(storedByCustomerKey(HEX_CUSTOMER_ID));
+            startRebuilder(WishlistStorageLayout.CUSTOMER_KEY);
+        }
+
+        @Test
+        @DisplayName("When the filter is rebuilt, Then the stored customer might exist")
+        void whenFilterRebuilt_thenStoredCustomerMightExist() {
+            assertThat(filter.mightExist(HEX_CUSTOMER_ID)).isTrue();
+        }
+
+        @Test
+        @DisplayName("When another instance stores a first wishlist, Then the customer might exist before the next rebuild")
+        void whenAnotherInstanceStoresWishlist_thenCustomerMightExist() {
+            final String newcomer = "64f1a2b3c4d5e6f7a8b9c0d2";
+            assertThat(filter.mightExist(newcomer)).isFalse();
+
+            mongoTemplate.getCollection(collection).insertOne(storedByCustomerKey(newcomer));
+
+            await()
+                .atMost(Duration.ofSeconds(10))
+                .until(() -> filter.mightExist(newcomer));
+        }
+
+        // Shaped as WishlistCodec stores it: a 24-hex customer key becomes an ObjectId _id
+        private Document storedByCustomerKey(String customerId) {
+            return new Document("_id", new ObjectId(customerId)).append("customerId", customerId);
+        }
+    }
+
+    private void startRebuilder(WishlistStorageLayout layout) {
+        rebuilder = new KnownCustomerFilterRebuilder(
+            mongoTemplate,
+            layout,
+            filter,
+            100,
+            Duration.ofHours(1)
+        );
+        rebuilder.start();
+        await()
+            .atMost(Duration.ofSeconds(30))
+            .until(filter::isReady);
+    }
+}
@@ -0,0 +1,114 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.infrastructure.config.MongoConfig;
+import com.wishlist.infrastructure.config.WishlistBulkWriterProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@Testcontainers
+@DisplayName("Bulk Writer - Micro-batched upserts")
+public class WishlistBulkWriterTest {
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0")
+        .withExposedPorts(27017);
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private WishlistBulkWriter bulkWriter;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+        registry.add("spring.data.mongodb.database", () -> "wishlist_test_db");
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection("wishlists");
+        MongoConfig.ensureWishlistIndexes(mongoTemplate);
+        meterRegistry = new SimpleMeterRegistry();
+        bulkWriter = new WishlistBulkWriter(
+            mongoTemplate,
+            "wishlists",
+            new WishlistBulkWriterProperties(true, 50, Duration.ofMillis(20), 2, Duration.ofSeconds(5)),
+            false,
+            meterRegistry
+        );
+        bulkWriter.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkWriter.stop();
+    }
+
+    @Test
+    @DisplayName("Given concurrent upserts, When they are flushed, Then each caller gets its own outcome")
+    void givenConcurrentUpserts_whenFlushed_thenEachCallerGetsItsOwnOutcome() {
+        mongoTemplate.save(new Wishlist("existing-customer"), "wishlists");
+
+        final List<CompletableFuture<Boolean>> created = IntStream
+            .range(0, 20)
+            .mapToObj(i -> bulkWriter.upsert(customerQuery("customer" + i), Update.update("updatedAt", "now")))
+            .toList();
+        final CompletableFuture<Boolean> rejected = bulkWriter.upsert(
+            customerQuery("existing-customer").addCriteria(Criteria.where("products.0").exists(true)),
+            Update.update("updatedAt", "now")
+        );
+
+        assertThat(created).allMatch(CompletableFuture::join);
+        assertThat(rejected.join()).isFalse();
+        final DistributionSummary batchSizes = meterRegistry.get("wishlist.bulk.batch.size").summary();
+        assertThat(batchSizes.count()).isLessThan(21);
+        assertThat(batchSizes.totalAmount()).isEqualTo(21);
+    }
+
+    @Test
+    @DisplayName("Given upserts race with stop, When the writer has stopped, Then every caller already has an outcome")
+    void givenUpsertsRaceWithStop_whenWriterHasStopped_thenEveryCallerHasAnOutcome() throws InterruptedException {
+        final List<CompletableFuture<Boolean>> results = new CopyOnWriteArrayList<>();
+        final Thread caller = Thread.ofVirtual().start(() -> IntStream
+            .range(0, 500)
+            .forEach(i -> results.add(bulkWriter.upsert(customerQuery("customer" + i), Update.update("updatedAt", "now"))))
+        );
+
+        bulkWriter.stop();
+        caller.join();
+
+        assertThat(results)
+            .hasSize(500)
+            .allMatch(CompletableFuture::isDone);
+    }
+
+    private Query customerQuery(String customerId) {
+        return new Query(
+            Criteria
+                .where("customerId")
+                .is(customerId)
+        );
+    }
+}
@@ -0,0 +1,93 @@
+package com.wishlist.infrastructure.repository;
+
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.atLeastOnce;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Wishlist change stream listener - Resilience")
+public class WishlistChangeStreamListenerTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private MongoCollection<Document> collection;
+    @Mock
+    private ChangeStreamIterable<Document> stream;
+    @Mock
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+    @Mock
+    private ChangeStreamDocument<Document> event;
+    @Mock
+    private CachingWishlistRepository cachingRepository;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WishlistChangeStreamListener listener;
+
+    @BeforeEach
+    void setUp() {
+        given(mongoTemplate.getCollection(WishlistStorageLayout.OBJECT_ID.collectionName())).willReturn(collection);
+        given(collection.watch()).willReturn(stream);
+        given(stream.fullDocument(any())).willReturn(stream);
+        given(stream.maxAwaitTime(anyLong(), any())).willReturn(stream);
+        given(stream.cursor()).willReturn(cursor);
+        listener = new WishlistChangeStreamListener(
+            mongoTemplate,
+            WishlistStorageLayout.OBJECT_ID,
+            cachingRepository,
+            meterRegistry,
+            Duration.ofMillis(10)
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    @Nested
+    @DisplayName("Given an event the listener cannot handle")
+    class GivenEventListenerCannotHandle {
+
+        @Test
+        @DisplayName("Then should fall back, reopen the stream and keep invalidating the cache")
+        void thenShouldFallBackReopenStreamAndKeepInvalidating() {
+            given(event.getOperationType()).willReturn(OperationType.UPDATE);
+            given(event.getFullDocument()).willReturn(new Document("customerId", "customer123"));
+            given(cursor.tryNext())
+                .willThrow(new IllegalStateException("Unexpected change event shape"))
+                .willReturn(event)
+                .willReturn(null);
+
+            listener.start();
+
+            await()
+                .atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> then(cachingRepository).should().invalidate("customer123"));
+            then(cachingRepository).should(atLeastOnce()).useFallbackExpiry();
+            then(cachingRepository).should(atLeastOnce()).invalidateAll();
+            assertThat(listener.isListening()).isTrue();
+            assertThat(meterRegistry.get("wishlist.cache.change.stream.listening").gauge().value()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("BSON codec - Wire compatibility with the mapping converter")
+public class WishlistCodecTest {
+    private final WishlistCodec codec = new WishlistCodec();
+    private MappingMongoConverter converter;
+    private Wishlist wishlist;
+
+    @BeforeEach
+    void setUp() {
+        final MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        final MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        wishlist = Wishlist.restore(
+            new ObjectId().toHexString(),
+            "customer123",
+            new ArrayList<>(List.of(new WishlistProduct("product1", now), new WishlistProduct("product2", now))),
+            now,
+            now,
+            3L
+        );
+    }
+
+    @Nested
+    @DisplayName("Given a document written by the mapping converter")
+    class GivenConverterDocument {
+
+        @Test
+        @DisplayName("When decoded with the codec, Then every field matches")
+        void whenDecoded_thenEveryFieldMatches() {
+            final Document document = new Document();
+            converter.write(wishlist, document);
+
+            final Wishlist decoded = codec.decode(
+                new BsonDocumentReader(document.toBsonDocument()),
+                DecoderContext.builder().build()
+            );
+
+            assertSameWishlist(decoded, wishlist);
+        }
+
+        @Test
+        @DisplayName("When the version was created by $inc, Then the int32 is decoded")
+        void whenVersionIsInt32_thenDecoded() {
+            final Document document = new Document();
+            converter.write(wishlist, document);
+            document.put("version", 1);
+
+            final Wishlist decoded = codec.decode(
+                new BsonDocumentReader(document.toBsonDocument()),
+                DecoderContext.builder().build()
+            );
+
+            assertThat(decoded.getVersion()).isEqualTo(1L);
+        }
+    }
+
+    @Nested
+    @DisplayName("Given a wishlist encoded with the codec")
+    class GivenCodecDocument {
+
+        @Test
+        @DisplayName("When compared to the converter output, Then the documents are identical")
+        void whenComparedToConverter_thenIdentical() {
+            final Document expected = new Document();
+            converter.write(wishlist, expected);
+
+            assertThat(encode(wishlist)).isEqualTo(expected.toBsonDocument());
+        }
+
+        @Test
+        @DisplayName("When the id is not an ObjectId, Then it is stored as a string")
+        void whenIdIsCustomerKey_thenStoredAsString() {
+            wishlist.setId("customer123");
+
+            assertThat(encode(wishlist).get("_id").isString()).isTrue();
+            assertThat(codec.decode(new BsonDocumentReader(encode(wishlist)), DecoderContext.builder().build()).getId())
+                .isEqualTo("customer123");
+        }
+    }
+
+    private BsonDocument encode(Wishlist source) {
+        final BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), source, EncoderContext.builder().build());
+        return document;
+    }
+
+    private void assertSameWishlist(Wishlist actual, Wishlist expected) {
+        assertThat(actual.getId()).isEqualTo(expected.getId());
+        assertThat(actual.getCustomerId()).isEqualTo(expected.getCustomerId());
+        assertThat(actual.getProducts())
+            .extracting(WishlistProduct::productId, WishlistProduct::addedAt)
+            .containsExactlyElementsOf(
+                expected
+                    .getProducts()
+                    .stream()
+                    .map(product -> tuple(product.productId(), product.addedAt()))
+                    .toList()
+            );
+        assertThat(actual.getCreatedAt()).isEqualTo(expected.getCreatedAt());
+        assertThat(actual.getUpdatedAt()).isEqualTo(expected.getUpdatedAt());
+        assertThat(actual.getVersion()).isEqualTo(expected.getVersion());
+    }
+}
@@ -0,0 +1,105 @@
+package com.wishlist.infrastructure.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.wishlist.application.dto.ProductResponse;
+import com.wishlist.application.dto.WishlistResponse;
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Raw JSON writer - WishlistResponse shape")
+public class WishlistJsonWriterTest {
+    private static final String CUSTOMER_ID = "customer123";
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Nested
+    @DisplayName("Given a stored wishlist document")
+    class GivenStoredWishlist {
+
+        @Test
+        @DisplayName("When transcoded, Then the JSON equals the Jackson serialization of WishlistResponse")
+        void whenTranscoded_thenEqualsJacksonOutput() throws IOException {
+            final LocalDateTime addedAt = LocalDateTime.of(2024, 2, 29, 23, 59, 58);
+            final Wishlist wishlist = storedWishlist(List.of(
+                new WishlistProduct("product1", addedAt),
+                new WishlistProduct("product-2_b", addedAt.minusYears(30))
+            ));
+
+            assertThat(transcode(wishlist, ZoneId.systemDefault())).isEqualTo(jackson(wishlist));
+        }
+
+        @Test
+        @DisplayName("When a product has special characters or no date, Then they are escaped and null")
+        void whenSpecialCharacters_thenEscaped() throws IOException {
+            final Wishlist wishlist = storedWishlist(List.of(
+                new WishlistProduct("quote\"back\\slash\ttab\u0001é", null)
+            ));
+
+            assertThat(transcode(wishlist, ZoneId.systemDefault())).isEqualTo(jackson(wishlist));
+        }
+
+        @Test
+        @DisplayName("When the zone observes daylight saving, Then local times match Jackson")
+        void whenZoneHasDaylightSaving_thenLocalTimesMatch() throws IOException {
+            final ZoneId zone = ZoneId.of("America/New_York");
+            final LocalDateTime summer = LocalDateTime.of(2023, 7, 1, 12, 30, 15);
+            final Wishlist wishlist = storedWishlist(List.of(new WishlistProduct("product1", summer)));
+
+            assertThat(transcode(wishlist, zone))
+                .contains("\"addedAt\":\"2023-07-01T12:30:15Z\"");
+        }
+    }
+
+    @Nested
+    @DisplayName("Given the customer has no wishlist")
+    class GivenNoWishlist {
+
+        @Test
+        @DisplayName("When written, Then an empty WishlistResponse is produced")
+        void whenWritten_thenEmptyResponse() throws IOException {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            new WishlistJsonWriter().writeEmpty(CUSTOMER_ID, output);
+
+            assertThat(output.toString(StandardCharsets.UTF_8))
+                .isEqualTo(objectMapper.writeValueAsString(new WishlistResponse(CUSTOMER_ID, List.of(), 0, 20)));
+        }
+    }
+
+    private Wishlist storedWishlist(List<WishlistProduct> products) {
+        final LocalDateTime now = LocalDateTime.now();
+        return Wishlist.restore(new ObjectId().toHexString(), CUSTOMER_ID, new ArrayList<>(products), now, now, 2L);
+    }
+
+    private String transcode(Wishlist wishlist, ZoneId zone) throws IOException {
+        final RawBsonDocument document = new RawBsonDocument(wishlist, new WishlistCodec(zone));
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new WishlistJsonWriter(zone).write(CUSTOMER_ID, document.getByteBuffer().asNIO(), output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private String jackson(Wishlist wishlist) throws IOException {
+        final List<ProductResponse> products = wishlist
+            .getProducts()
+            .stream()
+            .map(product -> new ProductResponse(product.productId(), product.addedAt()))
+            .toList();
+        return objectMapper.writeValueAsString(
+            new WishlistResponse(CUSTOMER_ID, products, products.size(), Wishlist.MAX_PRODUCTS)
+        );
+    }
+}
@@ -0,0 +1,192 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.infrastructure.config.MongoConfig;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@Testcontainers
+@DisplayName("Customer-keyed layout - Migration and access")
+public class WishlistLayoutMigrationTest {
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0")
+        .withExposedPorts(27017);
+    private static final String LEGACY = WishlistStorageLayout.OBJECT_ID.collectionName();
+    private static final String KEYED = WishlistStorageLayout.CUSTOMER_KEY.collectionName();
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    private WishlistRepositoryImpl keyedRepository;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+        registry.add("spring.data.mongodb.database", () -> "wishlist_test_db");
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(LEGACY);
+        mongoTemplate.dropCollection(KEYED);
+        mongoTemplate.dropCollection("wishlists_before_customer_key");
+        mongoTemplate.dropCollection(WishlistMigrations.COLLECTION_NAME);
+        MongoConfig.ensureWishlistIndexes(mongoTemplate);
+        MongoConfig.ensureCustomerKeyedCollection(mongoTemplate, true);
+        keyedRepository = new WishlistRepositoryImpl(
+            mongoTemplate,
+            new StaticListableBeanFactory().getBeanProvider(WishlistBulkWriter.class),
+            WishlistStorageLayout.CUSTOMER_KEY,
+            100,
+            Duration.ofSeconds(2)
+        );
+    }
+
+    @Nested
+    @DisplayName("Given wishlists stored in the ObjectId layout")
+    class GivenLegacyWishlists {
+
+        @Test
+        @DisplayName("When migrated, Then each wishlist is keyed by its customerId")
+        void whenMigrated_thenKeyedByCustomerId() {
+            final Wishlist legacy = new Wishlist("customer123");
+            legacy.addProduct("product1");
+            mongoTemplate.save(legacy, LEGACY);
+
+            new WishlistLayoutMigration(mongoTemplate).migrate();
+
+            final Document migrated = mongoTemplate
+                .getCollection(KEYED)
+                .find(new Document("_id", "customer123"))
+                .first();
+            assertThat(migrated).isNotNull();
+            assertThat(keyedRepository.findByCustomerId("customer123"))
+                .hasValueSatisfying(wishlist -> assertThat(wishlist.hasProduct("product1")).isTrue());
+        }
+
+        @Test
+        @DisplayName("When a migrated wishlist is deleted and the migration runs again, Then it stays deleted")
+        void whenDeletedAndMigratedAgain_thenStaysDeleted() {
+            final Wishlist legacy = new Wishlist("customer123");
+            legacy.setUpdatedAt(LocalDateTime.now().minusHours(1));
+            mongoTemplate.save(legacy, LEGACY);
+            new WishlistLayoutMigration(mongoTemplate).migrate();
+            assertThat(keyedRepository.deleteByCustomerId("customer123")).isTrue();
+
+            new WishlistLayoutMigration(mongoTemplate).migrate();
+
+            assertThat(keyedRepository.existsByCustomerId("customer123")).isFalse();
+            assertThat(mongoTemplate.collectionExists(LEGACY)).isTrue();
+        }
+
+        @Test
+        @DisplayName("When an ObjectId-layout instance writes after the migration, Then the next migration copies it")
+        void whenLegacyWrittenAfterMigration_thenNextMigrationCopiesIt() {
+            mongoTemplate.save(new Wishlist("customer123"), LEGACY);
+            new WishlistLayoutMigration(mongoTemplate).migrate();
+
+            assertThat(legacyRepository().addProduct("customer123", "product1", Wishlist.MAX_PRODUCTS))
+                .isEqualTo(AddProductResult.ADDED);
+            new WishlistLayoutMigration(mongoTemplate).migrate();
+
+            assertThat(keyedRepository.findByCustomerId("customer123"))
+                .hasValueSatisfying(wishlist -> assertThat(wishlist.hasProduct("product1")).isTrue());
+        }
+
+        @Test
+        @DisplayName("When cut over, Then the last legacy writes are copied and the legacy collection is kept aside")
+        void whenCutOver_thenLegacyCopiedAndKeptAside() {
+            mongoTemplate.save(new Wishlist("customer123"), LEGACY);
+            new WishlistLayoutMigration(mongoTemplate).migrate();
+            legacyRepository().addProduct("customer123", "product1", Wishlist.MAX_PRODUCTS);
+
+            new WishlistLayoutMigration(mongoTemplate).cutover();
+
+            assertThat(keyedRepository.findByCustomerId("customer123"))
+                .hasValueSatisfying(wishlist -> assertThat(wishlist.hasProduct("product1")).isTrue());
+            assertThat(mongoTemplate.collectionExists(LEGACY)).isFalse();
+            assertThat(mongoTemplate.collectionExists("wishlists_before_customer_key")).isTrue();
+            assertThat(new WishlistLayoutMigration(mongoTemplate).migrate()).isZero();
+        }
+
+        @Test
+        @DisplayName("When a customerId looks like an ObjectId, Then the migrated wishlist is still found by it")
+        void whenCustomerIdLooksLikeObjectId_thenStillFound() {
+            final String customerId = new ObjectId().toHexString();
+            final Wishlist legacy = new Wishlist(customerId);
+            legacy.addProduct("product1");
+            mongoTemplate.save(legacy, LEGACY);
+
+            new WishlistLayoutMigration(mongoTemplate).migrate();
+
+            assertThat(keyedRepository.findByCustomerId(customerId))
+                .hasValueSatisfying(wishlist -> assertThat(wishlist.hasProduct("product1")).isTrue());
+            assertThat(keyedRepository.addProduct(customerId, "product2", Wishlist.MAX_PRODUCTS))
+                .isEqualTo(AddProductResult.ADDED);
+            assertThat(mongoTemplate.getCollection(KEYED).countDocuments()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Given the customer-keyed layout is active")
+    class GivenCustomerKeyedLayout {
+
+        @Test
+        @DisplayName("When a product is added, Then the wishlist is created with _id equal to the customerId")
+        void whenProductAdded_thenIdIsCustomerId() {
+            assertThat(keyedRepository.addProduct("customer123", "product1", Wishlist.MAX_PRODUCTS))
+                .isEqualTo(AddProductResult.ADDED);
+            assertThat(keyedRepository.addProduct("customer123", "product1", Wishlist.MAX_PRODUCTS))
+                .isEqualTo(AddProductResult.ALREADY_EXISTS);
+
+            assertThat(keyedRepository.findByCustomerId("customer123"))
+                .hasValueSatisfying(wishlist -> {
+                    assertThat(wishlist.getId()).isEqualTo("customer123");
+                    assertThat(wishlist.getCustomerId()).isEqualTo("customer123");
+                });
+        }
+
+        @Test
+        @DisplayName("When the collection is created, Then no index besides _id is needed")
+        void whenCreated_thenNoSecondaryIndex() {
+            assertThat(mongoTemplate.getCollection(KEYED).listIndexes())
+                .allSatisfy(index -> assertThat(index.get("key", Document.class)).isEqualTo(new Document("_id", 1)));
+        }
+
+        @Test
+        @DisplayName("When a new wishlist is saved, Then it is keyed by its customerId")
+        void whenSaved_thenKeyedByCustomerId() {
+            final Wishlist saved = keyedRepository.save(new Wishlist("customer456"));
+
+            assertThat(saved.getId()).isEqualTo("customer456");
+            assertThat(keyedRepository.deleteByCustomerId("customer456")).isTrue();
+        }
+    }
+
+    private WishlistRepositoryImpl legacyRepository() {
+        return new WishlistRepositoryImpl(
+            mongoTemplate,
+            new StaticListableBeanFactory().getBeanProvider(WishlistBulkWriter.class),
+            WishlistStorageLayout.OBJECT_ID,
+            100,
+            Duration.ofSeconds(2)
+        );
+    }
+}
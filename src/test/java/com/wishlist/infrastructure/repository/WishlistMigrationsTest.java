@@ -0,0 +1,94 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.infrastructure.config.MongoConfig;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataMongoTest
+@Testcontainers
+@DisplayName("Wishlist migrations - Run once per database")
+public class WishlistMigrationsTest {
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0")
+        .withExposedPorts(27017);
+    private static final String BACKFILL = "backfill-wishlist-versions:wishlists";
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    private WishlistMigrations migrations;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+        registry.add("spring.data.mongodb.database", () -> "wishlist_test_db");
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(WishlistMigrations.COLLECTION_NAME);
+        mongoTemplate.dropCollection("wishlists");
+        migrations = new WishlistMigrations(mongoTemplate);
+    }
+
+    @Nested
+    @DisplayName("Given the version backfill already completed")
+    class GivenBackfillCompleted {
+
+        @Test
+        @DisplayName("When the application starts again, Then the collection is not scanned again")
+        void whenStartedAgain_thenNotRunAgain() {
+            mongoTemplate.getCollection("wishlists").insertOne(new Document("customerId", "customer1"));
+            final Runnable backfill = () -> MongoConfig.backfillWishlistVersions(mongoTemplate, "wishlists");
+
+            assertThat(migrations.runOnce(BACKFILL, backfill)).isTrue();
+            mongoTemplate.getCollection("wishlists").insertOne(new Document("customerId", "customer2"));
+
+            assertThat(migrations.runOnce(BACKFILL, backfill)).isFalse();
+            assertThat(versionOf("customer1")).isEqualTo(0L);
+            assertThat(versionOf("customer2")).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Given a migration that fails")
+    class GivenFailingMigration {
+
+        @Test
+        @DisplayName("When the application starts again, Then the migration is retried")
+        void whenStartedAgain_thenRetried() {
+            final AtomicInteger attempts = new AtomicInteger();
+
+            assertThatThrownBy(() -> migrations.runOnce("failing", () -> {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("Interrupted halfway");
+            })).isInstanceOf(IllegalStateException.class);
+
+            assertThat(migrations.isCompleted("failing")).isFalse();
+            assertThat(migrations.runOnce("failing", attempts::incrementAndGet)).isTrue();
+            assertThat(attempts).hasValue(2);
+            assertThat(migrations.isCompleted("failing")).isTrue();
+        }
+    }
+
+    private Object versionOf(String customerId) {
+        return mongoTemplate
+            .getCollection("wishlists")
+            .find(new Document("customerId", customerId))
+            .first()
+            .get("version");
+    }
+}
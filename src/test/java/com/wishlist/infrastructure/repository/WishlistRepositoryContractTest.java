@@ -0,0 +1,701 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.ConditionalWriteResult;
+import com.wishlist.domain.repository.RemoveProductResult;
+import com.wishlist.domain.repository.WishlistRepository;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.repository.WishlistWriteResult;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Behaviour every WishlistRepository must have; subclasses point wishlistRepository at an empty store
+public abstract class WishlistRepositoryContractTest {
+    protected WishlistRepository wishlistRepository;
+    protected final String VALID_CUSTOMER_ID = "customer123";
+    protected final String ANOTHER_CUSTOMER_ID = "customer456";
+    protected final String NON_EXISTENT_CUSTOMER_ID = "nonExistentCustomer";
+
+    @Nested
+    @DisplayName("Given I need to find a wishlist by customer ID")
+    class GivenINeedToFindWishlistByCustomerId {
+
+        @Nested
+        @DisplayName("When customer has no wishlist")
+        class WhenCustomerHasNoWishlist {
+
+            @Test
+            @DisplayName("Then should return empty Optional")
+            void thenShouldReturnEmptyOptional() {
+                final Optional<Wishlist> result = wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID);
+
+                assertThat(result).isEmpty();
+            }
+
+            @Test
+            @DisplayName("Then should not throw any exception")
+            void thenShouldNotThrowAnyException() {
+                assertThatNoException()
+                    .isThrownBy(() -> wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID));
+            }
+        }
+
+        @Nested
+        @DisplayName("When customer has an existing wishlist")
+        class WhenCustomerHasExistingWishlist {
+
+            @Test
+            @DisplayName("Then should return wishlist with correct customer ID")
+            void thenShouldReturnWishlistWithCorrectCustomerId() {
+                final Wishlist savedWishlist = givenCustomerHasWishlistWithProducts(
+                    VALID_CUSTOMER_ID,
+                    "product1",
+                    "product2"
+                );
+
+                final Optional<Wishlist> result = wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID);
+
+                assertThat(result).isPresent();
+                assertThat(result.get().getCustomerId()).isEqualTo(VALID_CUSTOMER_ID);
+                assertThat(result.get().getId()).isEqualTo(savedWishlist.getId());
+            }
+
+            @Test
+            @DisplayName("Then should return wishlist with all products intact")
+            void thenShouldReturnWishlistWithAllProductsIntact() {
+                givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1", "product2", "product3");
+
+                final Optional<Wishlist> result = wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID);
+
+                assertThat(result).isPresent();
+                assertThat(result.get().getProducts()).hasSize(3);
+                assertThat(result.get().hasProduct("product1")).isTrue();
+                assertThat(result.get().hasProduct("product2")).isTrue();
+                assertThat(result.get().hasProduct("product3")).isTrue();
+            }
+
+            @Test
+            @DisplayName("Then should return wishlist with timestamps preserved")
+            void thenShouldReturnWishlistWithTimestampsPreserved() {
+                final Wishlist originalWishlist = givenCustomerHasWishlistWithProducts(
+                    VALID_CUSTOMER_ID,
+                    "product1"
+                );
+                final Optional<Wishlist> result = wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID);
+                final LocalDateTime expectedCreatedAt = originalWishlist.getCreatedAt().truncatedTo(ChronoUnit.MILLIS);
+                final LocalDateTime expectedUpdatedAt = originalWishlist.getUpdatedAt().truncatedTo(ChronoUnit.MILLIS);
+                final LocalDateTime actualCreatedAt = result.get().getCreatedAt().truncatedTo(ChronoUnit.MILLIS);
+                final LocalDateTime actualUpdatedAt = result.get().getUpdatedAt().truncatedTo(ChronoUnit.MILLIS);
+
+                assertThat(result).isPresent();
+                assertThat(actualCreatedAt).isEqualTo(expectedCreatedAt);
+                assertThat(actualUpdatedAt).isEqualTo(expectedUpdatedAt);
+            }
+        }
+
+        @Nested
+        @DisplayName("When searching for different customers")
+        class WhenSearchingForDifferentCustomers {
+
+            @Test
+            @DisplayName("Then should return correct wishlist for each customer")
+            void thenShouldReturnCorrectWishlistForEachCustomer() {
+                givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1", "product2");
+                givenCustomerHasWishlistWithProducts(ANOTHER_CUSTOMER_ID, "product3", "product4");
+
+                final Optional<Wishlist> result1 = wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID);
+                final Optional<Wishlist> result2 = wishlistRepository.findByCustomerId(ANOTHER_CUSTOMER_ID);
+
+                assertThat(result1).isPresent();
+                assertThat(result1.get().getCustomerId()).isEqualTo(VALID_CUSTOMER_ID);
+                assertThat(result1.get().hasProduct("product1")).isTrue();
+                assertThat(result1.get().hasProduct("product3")).isFalse();
+
+                assertThat(result2).isPresent();
+                assertThat(result2.get().getCustomerId()).isEqualTo(ANOTHER_CUSTOMER_ID);
+                assertThat(result2.get().hasProduct("product3")).isTrue();
+                assertThat(result2.get().hasProduct("product1")).isFalse();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Given I need to save a wishlist")
+    class GivenINeedToSaveWishlist {
+
+        @Nested
+        @DisplayName("When saving a new wishlist")
+        class WhenSavingNewWishlist {
+
+            @Test
+            @DisplayName("Then should persist wishlist and return it with generated ID")
+            void thenShouldPersistWishlistAndReturnItWithGeneratedId() {
+                Wishlist newWishlist = new Wishlist(VALID_CUSTOMER_ID);
+                newWishlist.addProduct("product1");
+                final Wishlist savedWishlist = wishlistRepository.save(newWishlist);
+
+                assertThat(savedWishlist).isNotNull();
+                assertThat(savedWishlist.getId()).isNotNull();
+                assertThat(savedWishlist.getCustomerId()).isEqualTo(VALID_CUSTOMER_ID);
+                assertThat(savedWishlist.hasProduct("product1")).isTrue();
+            }
+
+            @Test
+            @DisplayName("Then should set updatedAt timestamp automatically")
+            void thenShouldSetUpdatedAtTimestampAutomatically() {
+                LocalDateTime beforeSave = LocalDateTime.now();
+                Wishlist savedWishlist = wishlistRepository.save(new Wishlist(VALID_CUSTOMER_ID));
+
+                assertThat(savedWishlist.getUpdatedAt()).isAfterOrEqualTo(beforeSave);
+                assertThat(savedWishlist.getUpdatedAt()).isBeforeOrEqualTo(LocalDateTime.now());
+            }
+
+            @Test
+            @DisplayName("Then should be retrievable by customer ID after saving")
+            void thenShouldBeRetrievableByCustomerIdAfterSaving() {
+                Wishlist newWishlist = new Wishlist(VALID_CUSTOMER_ID);
+                newWishlist.addProduct("product1");
+                wishlistRepository.save(newWishlist);
+
+                Optional<Wishlist> retrievedWishlist = wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID);
+                assertThat(retrievedWishlist).isPresent();
+                assertThat(retrievedWishlist.get().getCustomerId()).isEqualTo(VALID_CUSTOMER_ID);
+                assertThat(retrievedWishlist.get().hasProduct("product1")).isTrue();
+            }
+        }
+
+        @Nested
+        @DisplayName("When updating an existing wishlist")
+        class WhenUpdatingExistingWishlist {
+
+            @Test
+            @DisplayName("Then should update wishlist and preserve ID")
+            void thenShouldUpdateWishlistAndPreserveId() {
+                Wishlist existingWishlist = givenCustomerHasWishlistWithProducts(
+                    VALID_CUSTOMER_ID,
+                    "product1"
+                );
+                String originalId = existingWishlist.getId();
+                existingWishlist.addProduct("product2");
+                final Wishlist updatedWishlist = wishlistRepository.save(existingWishlist);
+
+                assertThat(updatedWishlist.getId()).isEqualTo(originalId);
+                assertThat(updatedWishlist.hasProduct("product1")).isTrue();
+                assertThat(updatedWishlist.hasProduct("product2")).isTrue();
+            }
+
+            @Test
+            @DisplayName("Then should reject a save based on a stale version")
+            void thenShouldRejectSaveBasedOnStaleVersion() {
+                givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+                final Wishlist staleWishlist = wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID).orElseThrow();
+                wishlistRepository.addProduct(VALID_CUSTOMER_ID, "product2", Wishlist.MAX_PRODUCTS);
+                staleWishlist.addProduct("product3");
+
+                assertThatThrownBy(() -> wishlistRepository.save(staleWishlist))
+                    .isInstanceOf(OptimisticLockingFailureException.class);
+            }
+
+            @Test
+            @DisplayName("Then should update the updatedAt timestamp")
+            void thenShouldUpdateTheUpdatedAtTimestamp() {
+                final Wishlist existingWishlist = givenCustomerHasWishlistWithProducts(
+                    VALID_CUSTOMER_ID,
+                    "product1"
+                );
+                final LocalDateTime originalUpdatedAt = existingWishlist.getUpdatedAt();
+
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ignored) {
+                }
+
+                existingWishlist.addProduct("product2");
+                Wishlist updatedWishlist = wishlistRepository.save(existingWishlist);
+
+                assertThat(updatedWishlist.getUpdatedAt()).isAfter(originalUpdatedAt);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Given I need to delete a wishlist by customer ID")
+    class GivenINeedToDeleteWishlistByCustomerId {
+
+        @Nested
+        @DisplayName("When customer has an existing wishlist")
+        class WhenCustomerHasExistingWishlist {
+
+            @Test
+            @DisplayName("Then should remove wishlist from database")
+            void thenShouldRemoveWishlistFromDatabase() {
+                givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1", "product2");
+
+                assertThat(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID)).isPresent();
+
+                final boolean deleted = wishlistRepository.deleteByCustomerId(VALID_CUSTOMER_ID);
+
+                final Optional<Wishlist> result = wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID);
+                assertThat(deleted).isTrue();
+                assertThat(result).isEmpty();
+            }
+
+            @Test
+            @DisplayName("Then should not affect other customers' wishlists")
+            void thenShouldNotAffectOtherCustomersWishlists() {
+                givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+                givenCustomerHasWishlistWithProducts(ANOTHER_CUSTOMER_ID, "product2");
+
+                wishlistRepository.deleteByCustomerId(VALID_CUSTOMER_ID);
+
+                assertThat(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID)).isEmpty();
+                assertThat(wishlistRepository.findByCustomerId(ANOTHER_CUSTOMER_ID)).isPresent();
+            }
+        }
+
+        @Nested
+        @DisplayName("When customer has no wishlist")
+        class WhenCustomerHasNoWishlist {
+
+            @Test
+            @DisplayName("Then should complete without error")
+            void thenShouldCompleteWithoutError() {
+                assertThatNoException()
+                    .isThrownBy(() -> wishlistRepository.deleteByCustomerId(NON_EXISTENT_CUSTOMER_ID));
+            }
+
+            @Test
+            @DisplayName("Then should report that nothing was deleted")
+            void thenShouldReportThatNothingWasDeleted() {
+                final boolean deleted = wishlistRepository.deleteByCustomerId(NON_EXISTENT_CUSTOMER_ID);
+
+                assertThat(deleted).isFalse();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Given I need to check if a wishlist exists by customer ID")
+    class GivenINeedToCheckIfWishlistExistsByCustomerId {
+
+        @Nested
+        @DisplayName("When customer has an existing wishlist")
+        class WhenCustomerHasExistingWishlist {
+
+            @Test
+            @DisplayName("Then should return true")
+            void thenShouldReturnTrue() {
+                givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+                final boolean exists = wishlistRepository.existsByCustomerId(VALID_CUSTOMER_ID);
+
+                assertThat(exists).isTrue();
+            }
+
+            @Test
+            @DisplayName("Then should return true even for empty wishlist")
+            void thenShouldReturnTrueEvenForEmptyWishlist() {
+                wishlistRepository.save(new Wishlist(VALID_CUSTOMER_ID));
+                final boolean exists = wishlistRepository.existsByCustomerId(VALID_CUSTOMER_ID);
+
+                assertThat(exists).isTrue();
+            }
+        }
+
+        @Nested
+        @DisplayName("When customer has no wishlist")
+        class WhenCustomerHasNoWishlist {
+
+            @Test
+            @DisplayName("Then should return false")
+            void thenShouldReturnFalse() {
+                final boolean exists = wishlistRepository.existsByCustomerId(NON_EXISTENT_CUSTOMER_ID);
+
+                assertThat(exists).isFalse();
+            }
+        }
+
+        @Nested
+        @DisplayName("When checking existence for different customers")
+        class WhenCheckingExistenceForDifferentCustomers {
+
+            @Test
+            @DisplayName("Then should return correct existence status for each customer")
+            void thenShouldReturnCorrectExistenceStatusForEachCustomer() {
+                givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+
+                final boolean customer1Exists = wishlistRepository.existsByCustomerId(VALID_CUSTOMER_ID);
+                final boolean customer2Exists = wishlistRepository.existsByCustomerId(ANOTHER_CUSTOMER_ID);
+
+                assertThat(customer1Exists).isTrue();
+                assertThat(customer2Exists).isFalse();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Given I need to add a product atomically")
+    class GivenINeedToAddProductAtomically {
+
+        @Nested
+        @DisplayName("When customer has no wishlist")
+        class WhenCustomerHasNoWishlist {
+
+            @Test
+            @DisplayName("Then should create wishlist with the product")
+            void thenShouldCreateWishlistWithTheProduct() {
+                final AddProductResult result = wishlistRepository.addProduct(
+                    VALID_CUSTOMER_ID,
+                    "product1",
+                    Wishlist.MAX_PRODUCTS
+                );
+                final Optional<Wishlist> wishlist = wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID);
+
+                assertThat(result).isEqualTo(AddProductResult.ADDED);
+                assertThat(wishlist).isPresent();
+                assertThat(wishlist.get().hasProduct("product1")).isTrue();
+                assertThat(wishlist.get().getCreatedAt()).isNotNull();
+                assertThat(wishlist.get().getUpdatedAt()).isNotNull();
+            }
+        }
+
+        @Nested
+        @DisplayName("When customer has an existing wishlist")
+        class WhenCustomerHasExistingWishlist {
+
+            @Test
+            @DisplayName("Then should append product and keep existing ones")
+            void thenShouldAppendProductAndKeepExistingOnes() {
+                final Wishlist existingWishlist = givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+
+                final AddProductResult result = wishlistRepository.addProduct(
+                    VALID_CUSTOMER_ID,
+                    "product2",
+                    Wishlist.MAX_PRODUCTS
+                );
+                final Wishlist wishlist = wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID).orElseThrow();
+
+                assertThat(result).isEqualTo(AddProductResult.ADDED);
+                assertThat(wishlist.getId()).isEqualTo(existingWishlist.getId());
+                assertThat(wishlist.getProductCount()).isEqualTo(2);
+                assertThat(wishlist.hasProduct("product1")).isTrue();
+                assertThat(wishlist.hasProduct("product2")).isTrue();
+            }
+
+            @Test
+            @DisplayName("Then should report duplicate product without changing wishlist")
+            void thenShouldReportDuplicateProductWithoutChangingWishlist() {
+                givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+
+                final AddProductResult result = wishlistRepository.addProduct(
+                    VALID_CUSTOMER_ID,
+                    "product1",
+                    Wishlist.MAX_PRODUCTS
+                );
+
+                assertThat(result).isEqualTo(AddProductResult.ALREADY_EXISTS);
+                assertThat(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID).orElseThrow().getProductCount())
+                    .isEqualTo(1);
+            }
+
+            @Test
+            @DisplayName("Then should report limit exceeded when wishlist is full")
+            void thenShouldReportLimitExceededWhenWishlistIsFull() {
+                givenCustomerHasWishlistWithProducts(
+                    VALID_CUSTOMER_ID,
+                    IntStream.rangeClosed(1, 20)
+                        .mapToObj(i -> "product" + String.format("%03d", i))
+                        .toArray(String[]::new)
+                );
+
+                final AddProductResult result = wishlistRepository.addProduct(
+                    VALID_CUSTOMER_ID,
+                    "product999",
+                    Wishlist.MAX_PRODUCTS
+                );
+
+                assertThat(result).isEqualTo(AddProductResult.LIMIT_EXCEEDED);
+                assertThat(wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID).orElseThrow().getProductCount())
+                    .isEqualTo(20);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Given I need to remove a product atomically")
+    class GivenINeedToRemoveProductAtomically {
+
+        @Test
+        @DisplayName("Then should pull only the requested product")
+        void thenShouldPullOnlyTheRequestedProduct() {
+            givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1", "product2");
+
+            final RemoveProductResult result = wishlistRepository.removeProduct(VALID_CUSTOMER_ID, "product1");
+            final Wishlist wishlist = wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID).orElseThrow();
+
+            assertThat(result).isEqualTo(RemoveProductResult.REMOVED);
+            assertThat(wishlist.hasProduct("product1")).isFalse();
+            assertThat(wishlist.hasProduct("product2")).isTrue();
+        }
+
+        @Test
+        @DisplayName("Then should report product not found when wishlist lacks the product")
+        void thenShouldReportProductNotFoundWhenWishlistLacksTheProduct() {
+            givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+
+            final RemoveProductResult result = wishlistRepository.removeProduct(VALID_CUSTOMER_ID, "product999");
+
+            assertThat(result).isEqualTo(RemoveProductResult.PRODUCT_NOT_FOUND);
+        }
+
+        @Test
+        @DisplayName("Then should report customer not found when there is no wishlist")
+        void thenShouldReportCustomerNotFoundWhenThereIsNoWishlist() {
+            final RemoveProductResult result = wishlistRepository.removeProduct(NON_EXISTENT_CUSTOMER_ID, "product1");
+
+            assertThat(result).isEqualTo(RemoveProductResult.CUSTOMER_NOT_FOUND);
+        }
+    }
+
+    @Nested
+    @DisplayName("Given I need the wishlist as stored by a write")
+    class GivenINeedWishlistAsStoredByWrite {
+
+        @Test
+        @DisplayName("Then should create the wishlist and return it with the product")
+        void thenShouldCreateWishlistAndReturnIt() {
+            final WishlistWriteResult<AddProductResult> result = wishlistRepository.addProductAndGet(
+                VALID_CUSTOMER_ID,
+                "product1",
+                Wishlist.MAX_PRODUCTS
+            );
+
+            assertThat(result.outcome()).isEqualTo(AddProductResult.ADDED);
+            assertThat(result.wishlist().getCustomerId()).isEqualTo(VALID_CUSTOMER_ID);
+            assertThat(result.wishlist().hasProduct("product1")).isTrue();
+            assertThat(WishlistRevision.of(result.wishlist()))
+                .isEqualTo(wishlistRepository.findRevisionByCustomerId(VALID_CUSTOMER_ID).orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Then should return the wishlist without the removed product")
+        void thenShouldReturnWishlistWithoutRemovedProduct() {
+            givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1", "product2");
+
+            final WishlistWriteResult<RemoveProductResult> result = wishlistRepository.removeProductAndGet(
+                VALID_CUSTOMER_ID,
+                "product1"
+            );
+
+            assertThat(result.outcome()).isEqualTo(RemoveProductResult.REMOVED);
+            assertThat(result.wishlist().getProducts())
+                .extracting(WishlistProduct::productId)
+                .containsExactly("product2");
+        }
+
+        @Test
+        @DisplayName("Then should report duplicate product without returning a wishlist")
+        void thenShouldReportDuplicateWithoutReturningWishlist() {
+            givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+
+            final WishlistWriteResult<AddProductResult> result = wishlistRepository.addProductAndGet(
+                VALID_CUSTOMER_ID,
+                "product1",
+                Wishlist.MAX_PRODUCTS
+            );
+
+            assertThat(result.outcome()).isEqualTo(AddProductResult.ALREADY_EXISTS);
+            assertThat(result.wishlist()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Given I need to write against a known revision")
+    class GivenINeedToWriteAgainstKnownRevision {
+
+        @Test
+        @DisplayName("Then should apply the write and report the revision it stored")
+        void thenShouldApplyWriteAndReportStoredRevision() {
+            givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+            final WishlistRevision revision = wishlistRepository.findRevisionByCustomerId(VALID_CUSTOMER_ID).orElseThrow();
+
+            final ConditionalWriteResult<AddProductResult> result = wishlistRepository.addProduct(
+                VALID_CUSTOMER_ID,
+                "product2",
+                Wishlist.MAX_PRODUCTS,
+                revision
+            );
+
+            assertThat(result.outcome()).isEqualTo(AddProductResult.ADDED);
+            assertThat(result.revision()).isEqualTo(wishlistRepository.findRevisionByCustomerId(VALID_CUSTOMER_ID).orElseThrow());
+            assertThat(result.revision().version()).isEqualTo(revision.version() + 1);
+        }
+
+        @Test
+        @DisplayName("Then should report a revision mismatch when the wishlist changed")
+        void thenShouldReportRevisionMismatchWhenWishlistChanged() {
+            givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1", "product2");
+            final WishlistRevision revision = wishlistRepository.findRevisionByCustomerId(VALID_CUSTOMER_ID).orElseThrow();
+            wishlistRepository.addProduct(VALID_CUSTOMER_ID, "product3", Wishlist.MAX_PRODUCTS);
+
+            final ConditionalWriteResult<RemoveProductResult> result = wishlistRepository.removeProduct(
+                VALID_CUSTOMER_ID,
+                "product1",
+                revision
+            );
+
+            assertThat(result.outcome()).isEqualTo(RemoveProductResult.REVISION_MISMATCH);
+            assertThat(wishlistRepository.findProduct(VALID_CUSTOMER_ID, "product1")).isPresent();
+        }
+
+        @Test
+        @DisplayName("Then should report the rejected mutation when the revision is current")
+        void thenShouldReportRejectedMutationWhenRevisionIsCurrent() {
+            givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+            final WishlistRevision revision = wishlistRepository.findRevisionByCustomerId(VALID_CUSTOMER_ID).orElseThrow();
+
+            final ConditionalWriteResult<AddProductResult> result = wishlistRepository.addProduct(
+                VALID_CUSTOMER_ID,
+                "product1",
+                Wishlist.MAX_PRODUCTS,
+                revision
+            );
+
+            assertThat(result.outcome()).isEqualTo(AddProductResult.ALREADY_EXISTS);
+            assertThat(result.revision()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Given I need to find a single product in a wishlist")
+    class GivenINeedToFindSingleProductInWishlist {
+
+        @Test
+        @DisplayName("Then should return only the matched product with its timestamp")
+        void thenShouldReturnOnlyTheMatchedProductWithItsTimestamp() {
+            final Wishlist savedWishlist = givenCustomerHasWishlistWithProducts(
+                VALID_CUSTOMER_ID,
+                "product1",
+                "product2"
+            );
+            final LocalDateTime expectedAddedAt = savedWishlist
+                .getProducts()
+                .get(1)
+                .addedAt()
+                .truncatedTo(ChronoUnit.MILLIS);
+
+            final Optional<WishlistProduct> result = wishlistRepository.findProduct(VALID_CUSTOMER_ID, "product2");
+
+            assertThat(result).isPresent();
+            assertThat(result.get().productId()).isEqualTo("product2");
+            assertThat(result.get().addedAt().truncatedTo(ChronoUnit.MILLIS)).isEqualTo(expectedAddedAt);
+        }
+
+        @Test
+        @DisplayName("Then should return empty when product or customer is missing")
+        void thenShouldReturnEmptyWhenProductOrCustomerIsMissing() {
+            givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+
+            assertThat(wishlistRepository.findProduct(VALID_CUSTOMER_ID, "product999")).isEmpty();
+            assertThat(wishlistRepository.findProduct(NON_EXISTENT_CUSTOMER_ID, "product1")).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Given I need to check a batch of products in a wishlist")
+    class GivenINeedToCheckBatchOfProducts {
+
+        @Test
+        @DisplayName("Then should return only the requested products that are in the wishlist")
+        void thenShouldReturnOnlyRequestedProductsInWishlist() {
+            givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1", "product2", "product3");
+
+            final List<WishlistProduct> products = wishlistRepository.findProducts(
+                VALID_CUSTOMER_ID,
+                Set.of("product1", "product3", "product9")
+            );
+
+            assertThat(products)
+                .extracting(WishlistProduct::productId)
+                .containsExactly("product1", "product3");
+            assertThat(products).allSatisfy(product -> assertThat(product.addedAt()).isNotNull());
+        }
+
+        @Test
+        @DisplayName("Then should return empty when no requested product or no wishlist matches")
+        void thenShouldReturnEmptyWhenNothingMatches() {
+            givenCustomerHasWishlistWithProducts(VALID_CUSTOMER_ID, "product1");
+
+            assertThat(wishlistRepository.findProducts(VALID_CUSTOMER_ID, Set.of("product9"))).isEmpty();
+            assertThat(wishlistRepository.findProducts(NON_EXISTENT_CUSTOMER_ID, Set.of("product1"))).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Given I need to handle edge cases and validation")
+    class GivenINeedToHandleEdgeCasesAndValidation {
+
+        @Nested
+        @DisplayName("When dealing with null or empty customer IDs")
+        class WhenDealingWithNullOrEmptyCustomerIds {
+
+            @Test
+            @DisplayName("Then findByCustomerId should handle null gracefully")
+            void thenFindByCustomerIdShouldHandleNullGracefully() {
+                assertThatNoException()
+                    .isThrownBy(() -> {
+                        Optional<Wishlist> result = wishlistRepository.findByCustomerId(null);
+                        assertThat(result).isEmpty();
+                    });
+            }
+
+            @Test
+            @DisplayName("Then existsByCustomerId should handle empty string gracefully")
+            void thenExistsByCustomerIdShouldHandleEmptyStringGracefully() {
+                final boolean exists = wishlistRepository.existsByCustomerId("");
+
+                assertThat(exists).isFalse();
+            }
+        }
+
+        @Nested
+        @DisplayName("When dealing with large wishlists")
+        class WhenDealingWithLargeWishlists {
+
+            @Test
+            @DisplayName("Then should handle wishlist at maximum capacity")
+            void thenShouldHandleWishlistAtMaximumCapacity() {
+                Wishlist maxCapacityWishlist = new Wishlist(VALID_CUSTOMER_ID);
+                IntStream.rangeClosed(1, 20)
+                    .mapToObj(i -> "product" + String.format("%03d", i))
+                    .forEach(maxCapacityWishlist::addProduct);
+                wishlistRepository.save(maxCapacityWishlist);
+                final Optional<Wishlist> retrievedWishlist = wishlistRepository.findByCustomerId(VALID_CUSTOMER_ID);
+
+                assertThat(retrievedWishlist).isPresent();
+                assertThat(retrievedWishlist.get().getProductCount()).isEqualTo(20);
+                assertThat(retrievedWishlist.get().cannotAddProduct()).isTrue();
+            }
+        }
+    }
+
+    protected Wishlist givenCustomerHasWishlistWithProducts(String customerId, String... productIds) {
+        final Wishlist wishlist = new Wishlist(customerId);
+        Stream.of(productIds).forEach(wishlist::addProduct);
+        return wishlistRepository.save(wishlist);
+    }
+}
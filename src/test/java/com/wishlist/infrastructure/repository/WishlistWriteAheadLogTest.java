@@ -0,0 +1,131 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.infrastructure.repository.WishlistWriteAheadLog.Kind;
+import com.wishlist.infrastructure.repository.WishlistWriteAheadLog.Mutation;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Write-ahead log - Checksummed mutations on local disk")
+public class WishlistWriteAheadLogTest {
+    private static final int SEGMENT_BYTES = 256;
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    @TempDir
+    private Path directory;
+
+    @Nested
+    @DisplayName("Given mutations were appended")
+    class GivenMutationsWereAppended {
+
+        @Test
+        @DisplayName("When the log is reopened, Then should replay them in sequence across segments")
+        void whenReopened_thenShouldReplayInSequence() throws IOException {
+            final WishlistWriteAheadLog log = openLog(new ArrayList<>());
+            for (int index = 0; index < 10; index++) {
+                appendAdd(log, "customer" + index, "product" + index);
+            }
+            log.append(Kind.REMOVE, "customer1", List.of(new WishlistProduct("product1", null)), now, now, 2);
+
+            final List<Mutation> replayed = new ArrayList<>();
+            final WishlistWriteAheadLog reopened = openLog(replayed);
+
+            assertThat(segments()).hasSizeGreaterThan(2);
+            assertThat(replayed)
+                .extracting(Mutation::sequence)
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L);
+            assertThat(replayed.get(0).products()).containsExactly(new WishlistProduct("product0", now));
+            assertThat(replayed.get(0).products().get(0).addedAt()).isEqualTo(now);
+            assertThat(replayed.get(10).kind()).isEqualTo(Kind.REMOVE);
+            assertThat(replayed.get(10).products().get(0).addedAt()).isNull();
+            assertThat(reopened.nextSequence()).isEqualTo(12);
+        }
+
+        @Test
+        @DisplayName("When the last record was torn by a crash, Then should replay only the intact ones")
+        void whenLastRecordTorn_thenShouldReplayOnlyIntactOnes() throws IOException {
+            final WishlistWriteAheadLog log = openLog(new ArrayList<>());
+            appendAdd(log, "customer1", "product1");
+            appendAdd(log, "customer1", "product2");
+            final Path segment = segments().get(0);
+            try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+                final int firstRecord = file.readInt() + 8;
+                file.seek(firstRecord + 20);
+                final int original = file.readByte();
+                file.seek(firstRecord + 20);
+                file.writeByte(original ^ 0x7F);
+            }
+
+            final List<Mutation> replayed = new ArrayList<>();
+            openLog(replayed);
+
+            assertThat(replayed)
+                .extracting(Mutation::sequence)
+                .containsExactly(1L);
+        }
+
+        @Test
+        @DisplayName("When everything up to a sequence is in Mongo, Then should delete only the segments before it")
+        void whenTruncated_thenShouldDeleteOnlySegmentsBeforeIt() throws IOException {
+            final WishlistWriteAheadLog log = openLog(new ArrayList<>());
+            for (int index = 0; index < 10; index++) {
+                appendAdd(log, "customer" + index, "product" + index);
+            }
+
+            log.truncateBefore(8);
+            log.close();
+
+            final List<Mutation> replayed = new ArrayList<>();
+            openLog(replayed);
+            assertThat(replayed)
+                .extracting(Mutation::sequence)
+                .contains(8L, 9L, 10L)
+                .doesNotContain(1L);
+        }
+
+        @Test
+        @DisplayName("When the log is closed after everything was truncated, Then nothing is left to replay")
+        void whenClosedAfterDrain_thenNothingLeftToReplay() throws IOException {
+            final WishlistWriteAheadLog log = openLog(new ArrayList<>());
+            for (int index = 0; index < 10; index++) {
+                appendAdd(log, "customer" + index, "product" + index);
+            }
+
+            log.truncateBefore(log.nextSequence());
+            log.close();
+
+            assertThat(segments()).isEmpty();
+        }
+    }
+
+    private WishlistWriteAheadLog openLog(List<Mutation> replayed) {
+        final WishlistWriteAheadLog log = new WishlistWriteAheadLog(directory, SEGMENT_BYTES, false);
+        log.open(replayed::add);
+        return log;
+    }
+
+    private void appendAdd(WishlistWriteAheadLog log, String customerId, String productId) {
+        log.append(Kind.ADD, customerId, List.of(new WishlistProduct(productId, now)), now, now, 1);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> Files.isRegularFile(path))
+                .sorted()
+                .toList();
+        }
+    }
+}
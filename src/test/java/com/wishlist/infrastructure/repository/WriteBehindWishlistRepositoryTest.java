@@ -0,0 +1,256 @@
+package com.wishlist.infrastructure.repository;
+
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.AddProductResult;
+import com.wishlist.domain.repository.RemoveProductResult;
+import com.wishlist.infrastructure.repository.WishlistRepositoryImpl.SnapshotWrite;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Write-behind Wishlist Repository - In-memory writes flushed to Mongo")
+public class WriteBehindWishlistRepositoryTest {
+    private static final String CUSTOMER_ID = "customer123";
+    @Mock
+    private WishlistRepositoryImpl delegate;
+    @TempDir
+    private Path directory;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WriteBehindWishlistRepository running;
+
+    @AfterEach
+    void tearDown() {
+        if (running != null && running.isRunning()) {
+            running.stop();
+        }
+    }
+
+    @Nested
+    @DisplayName("Given products are written")
+    class GivenProductsAreWritten {
+
+        @Test
+        @DisplayName("When they are acknowledged, Then reads should see them before Mongo does")
+        void whenAcknowledged_thenReadsShouldSeeThemBeforeMongo() {
+            final WriteBehindWishlistRepository repository = start();
+
+            assertThat(repository.addProduct(CUSTOMER_ID, "product1", Wishlist.MAX_PRODUCTS)).isEqualTo(AddProductResult.ADDED);
+            assertThat(repository.addProduct(CUSTOMER_ID, "product1", Wishlist.MAX_PRODUCTS)).isEqualTo(AddProductResult.ALREADY_EXISTS);
+
+            assertThat(repository.findByCustomerId(CUSTOMER_ID))
+                .hasValueSatisfying(wishlist -> assertThat(wishlist.getVersion()).isEqualTo(1L));
+            assertThat(repository.findProduct(CUSTOMER_ID, "product1")).isPresent();
+            assertThat(meterRegistry.get("wishlist.write.behind.backlog").gauge().value()).isEqualTo(1);
+            then(delegate).should(never()).writeSnapshots(any());
+        }
+
+        @Test
+        @DisplayName("When they are flushed, Then should write the wishlist to Mongo once for all of them")
+        void whenFlushed_thenShouldWriteTheWishlistOnce() {
+            final WriteBehindWishlistRepository repository = start();
+            repository.addProduct(CUSTOMER_ID, "product1", Wishlist.MAX_PRODUCTS);
+            repository.addProduct(CUSTOMER_ID, "product2", Wishlist.MAX_PRODUCTS);
+            repository.removeProduct(CUSTOMER_ID, "product1");
+
+            repository.flushPending();
+
+            final Collection<SnapshotWrite> written = writtenSnapshots(1);
+            assertThat(written)
+                .singleElement()
+                .satisfies(snapshot -> {
+                    assertThat(snapshot.basedOnVersion()).isNull();
+                    assertThat(snapshot.wishlist().getProducts()).extracting(WishlistProduct::productId).containsExactly("product2");
+                    assertThat(snapshot.wishlist().getVersion()).isEqualTo(3L);
+                });
+            assertThat(meterRegistry.get("wishlist.write.behind.backlog").gauge().value()).isZero();
+        }
+
+        @Test
+        @DisplayName("When Mongo is unavailable, Then should keep them and retry on the next flush")
+        void whenMongoUnavailable_thenShouldRetryOnTheNextFlush() {
+            final WriteBehindWishlistRepository repository = start();
+            repository.addProduct(CUSTOMER_ID, "product1", Wishlist.MAX_PRODUCTS);
+            willThrow(new DataAccessResourceFailureException("down"))
+                .willReturn(Set.of())
+                .given(delegate)
+                .writeSnapshots(any());
+
+            repository.flushPending();
+            repository.flushPending();
+
+            writtenSnapshots(2);
+            assertThat(meterRegistry.get("wishlist.write.behind.backlog").gauge().value()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Given a wishlist was flushed")
+    class GivenWishlistWasFlushed {
+
+        @Test
+        @DisplayName("When it is written again, Then should not read Mongo again and base the snapshot on the flushed version")
+        void whenWrittenAgain_thenShouldNotReadMongoAgain() {
+            final WriteBehindWishlistRepository repository = start();
+            repository.addProduct(CUSTOMER_ID, "product1", Wishlist.MAX_PRODUCTS);
+            repository.flushPending();
+
+            repository.addProduct(CUSTOMER_ID, "product2", Wishlist.MAX_PRODUCTS);
+            repository.flushPending();
+
+            then(delegate).should(times(1)).findByCustomerId(CUSTOMER_ID);
+            assertThat(writtenSnapshots(2))
+                .singleElement()
+                .satisfies(snapshot -> {
+                    assertThat(snapshot.basedOnVersion()).isEqualTo(1L);
+                    assertThat(snapshot.wishlist().getVersion()).isEqualTo(2L);
+                });
+        }
+
+        @Test
+        @DisplayName("When another writer changed it first, Then should rebase its mutations onto the stored wishlist and flush again")
+        void whenAnotherWriterChangedItFirst_thenShouldRebaseMutationsAndFlushAgain() {
+            final Wishlist changedElsewhere = Wishlist.restore(
+                "wishlist1",
+                CUSTOMER_ID,
+                new ArrayList<>(List.of(new WishlistProduct("product9"))),
+                LocalDateTime.now(),
+                LocalDateTime.now(),
+                4L
+            );
+            given(delegate.findByCustomerId(CUSTOMER_ID))
+                .willReturn(Optional.empty())
+                .willReturn(Optional.of(changedElsewhere));
+            given(delegate.writeSnapshots(any()))
+                .willReturn(Set.of(CUSTOMER_ID))
+                .willReturn(Set.of());
+            final WriteBehindWishlistRepository repository = start();
+            repository.addProduct(CUSTOMER_ID, "product1", Wishlist.MAX_PRODUCTS);
+
+            repository.flushPending();
+
+            assertThat(repository.findByCustomerId(CUSTOMER_ID))
+                .hasValueSatisfying(wishlist -> assertThat(wishlist.getProducts())
+                    .extracting(WishlistProduct::productId)
+                    .containsExactly("product9", "product1"));
+            assertThat(meterRegistry.get("wishlist.write.behind.conflicts").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("wishlist.write.behind.backlog").gauge().value()).isEqualTo(1);
+
+            repository.flushPending();
+
+            assertThat(writtenSnapshots(2))
+                .singleElement()
+                .satisfies(snapshot -> {
+                    assertThat(snapshot.basedOnVersion()).isEqualTo(4L);
+                    assertThat(snapshot.wishlist().getId()).isEqualTo("wishlist1");
+                    assertThat(snapshot.wishlist().getVersion()).isEqualTo(5L);
+                });
+            assertThat(meterRegistry.get("wishlist.write.behind.backlog").gauge().value()).isZero();
+        }
+
+        @Test
+        @DisplayName("When more wishlists are resident than allowed, Then the least recently used one is dropped")
+        void whenMoreResidentThanAllowed_thenLeastRecentlyUsedIsDropped() {
+            final WriteBehindWishlistRepository repository = start(1, Duration.ofHours(1));
+            repository.addProduct("customer1", "product1", Wishlist.MAX_PRODUCTS);
+            repository.addProduct("customer2", "product1", Wishlist.MAX_PRODUCTS);
+
+            repository.flushPending();
+            repository.addProduct("customer1", "product2", Wishlist.MAX_PRODUCTS);
+            repository.addProduct("customer2", "product2", Wishlist.MAX_PRODUCTS);
+
+            then(delegate).should(times(2)).findByCustomerId("customer1");
+            then(delegate).should(times(1)).findByCustomerId("customer2");
+        }
+    }
+
+    @Nested
+    @DisplayName("Given the service stops")
+    class GivenTheServiceStops {
+
+        @Test
+        @DisplayName("When it crashed before flushing, Then a restart should replay the log")
+        void whenCrashedBeforeFlushing_thenRestartShouldReplayTheLog() {
+            final WriteBehindWishlistRepository crashed = start();
+            crashed.addProduct(CUSTOMER_ID, "product1", Wishlist.MAX_PRODUCTS);
+            crashed.addProduct(CUSTOMER_ID, "product2", Wishlist.MAX_PRODUCTS);
+            assertThat(crashed.removeProduct(CUSTOMER_ID, "product1")).isEqualTo(RemoveProductResult.REMOVED);
+
+            final WriteBehindWishlistRepository restarted = start();
+
+            assertThat(restarted.findByCustomerId(CUSTOMER_ID))
+                .hasValueSatisfying(wishlist -> {
+                    assertThat(wishlist.getProducts()).extracting(WishlistProduct::productId).containsExactly("product2");
+                    assertThat(wishlist.getVersion()).isEqualTo(3L);
+                });
+        }
+
+        @Test
+        @DisplayName("When it shuts down gracefully, Then should drain the log into Mongo")
+        void whenShutsDownGracefully_thenShouldDrainTheLog() throws IOException {
+            final WriteBehindWishlistRepository repository = start();
+            repository.addProduct(CUSTOMER_ID, "product1", Wishlist.MAX_PRODUCTS);
+
+            repository.stop();
+
+            writtenSnapshots(1);
+            try (Stream<Path> files = Files.list(directory)) {
+                assertThat(files).isEmpty();
+            }
+        }
+    }
+
+    private WriteBehindWishlistRepository start() {
+        return start(1_000, Duration.ofHours(1));
+    }
+
+    private WriteBehindWishlistRepository start(int residentMaxSize, Duration residentTtl) {
+        final WriteBehindWishlistRepository repository = new WriteBehindWishlistRepository(
+            delegate,
+            new WishlistWriteAheadLog(directory, 64 * 1024, false),
+            Duration.ofHours(1),
+            100,
+            residentMaxSize,
+            residentTtl,
+            meterRegistry
+        );
+        repository.start();
+        running = repository;
+        return repository;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<SnapshotWrite> writtenSnapshots(int flushes) {
+        final ArgumentCaptor<Collection<SnapshotWrite>> written = ArgumentCaptor.forClass(Collection.class);
+        then(delegate).should(times(flushes)).writeSnapshots(written.capture());
+        return written.getValue();
+    }
+}
@@ -0,0 +1,148 @@
+package com.wishlist.presentation.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wishlist.application.dto.BatchGetWishlistsRequest;
+import com.wishlist.application.dto.WishlistResponse;
+import com.wishlist.domain.usecase.WishlistUseCase;
+import com.wishlist.presentation.InternalWishlistController;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(InternalWishlistController.class)
+@DisplayName("Internal Wishlist Controller - Batch API Behavior")
+public class InternalWishlistControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private WishlistUseCase wishlistUseCase;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Nested
+    @DisplayName("Given an internal consumer fetches many wishlists")
+    class GivenInternalConsumerFetchesManyWishlists {
+
+        @Test
+        @DisplayName("Should stream one wishlist per line")
+        void shouldStreamOneWishlistPerLine() throws Exception {
+            final List<String> customerIds = Arrays.asList("customer1", "customer2");
+            willAnswer(invocation -> {
+                final Consumer<WishlistResponse> consumer = invocation.getArgument(1);
+                customerIds.forEach(customerId ->
+                    consumer.accept(new WishlistResponse(customerId, Collections.emptyList(), 0, 20))
+                );
+                return null;
+            })
+                .given(wishlistUseCase)
+                .getWishlists(any(), any());
+
+            mockMvc
+                .perform(
+                    post("/internal/v1/wishlists:batchGet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchGetWishlistsRequest(customerIds)))
+                )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                    "{\"customerId\":\"customer1\",\"products\":[],\"totalItems\":0,\"maxItems\":20}\n"
+                        + "{\"customerId\":\"customer2\",\"products\":[],\"totalItems\":0,\"maxItems\":20}"
+                ));
+        }
+
+        @Test
+        @DisplayName("Should return 400 Bad Request for an invalid customer ID without reading wishlists")
+        void shouldReturn400ForInvalidCustomerId() throws Exception {
+            mockMvc
+                .perform(
+                    post("/internal/v1/wishlists:batchGet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                            new BatchGetWishlistsRequest(Arrays.asList("customer1", "customer@#$"))
+                        ))
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code", is("VALIDATION_ERROR")));
+            then(wishlistUseCase).should(never()).getWishlists(anyList(), any());
+        }
+
+        @Test
+        @DisplayName("Should return 504 Gateway Timeout when the deadline passes before any wishlist is read")
+        void shouldReturn504WhenDeadlinePasses() throws Exception {
+            willThrow(new QueryTimeoutException("Reading 2 wishlists exceeded the 2000ms deadline"))
+                .given(wishlistUseCase)
+                .getWishlists(any(), any());
+
+            mockMvc
+                .perform(
+                    post("/internal/v1/wishlists:batchGet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                            new BatchGetWishlistsRequest(Arrays.asList("customer1", "customer2"))
+                        ))
+                )
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.code", is("DEADLINE_EXCEEDED")));
+        }
+
+        @Test
+        @DisplayName("Should end the stream with an error line when the deadline passes after streaming started")
+        void shouldEndStreamWithErrorLineWhenDeadlinePassesMidStream() throws Exception {
+            willAnswer(invocation -> {
+                final Consumer<WishlistResponse> consumer = invocation.getArgument(1);
+                consumer.accept(new WishlistResponse("customer1", Collections.emptyList(), 0, 20));
+                throw new QueryTimeoutException("Reading 2 wishlists exceeded the 2000ms deadline");
+            })
+                .given(wishlistUseCase)
+                .getWishlists(any(), any());
+
+            final String[] lines = mockMvc
+                .perform(
+                    post("/internal/v1/wishlists:batchGet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                            new BatchGetWishlistsRequest(Arrays.asList("customer1", "customer2"))
+                        ))
+                )
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+
+            assertThat(lines).hasSize(2);
+            assertThat(objectMapper.readTree(lines[0]).get("customerId").asText()).isEqualTo("customer1");
+            final JsonNode error = objectMapper.readTree(lines[1]);
+            assertThat(error.get("code").asText()).isEqualTo("DEADLINE_EXCEEDED");
+            assertThat(error.get("message").asText()).contains("deadline");
+            assertThat(error.get("path").asText()).isEqualTo("/internal/v1/wishlists:batchGet");
+            assertThat(error.hasNonNull("timestamp")).isTrue();
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.wishlist.presentation.controller;
+
+import com.wishlist.application.dto.AddProductResponse;
+import com.wishlist.application.dto.ContainedProductsResponse;
+import com.wishlist.application.dto.ProductResponse;
+import com.wishlist.application.dto.Revisioned;
+import com.wishlist.application.dto.WishlistResponse;
+import com.wishlist.application.exception.CustomerNotFoundException;
+import com.wishlist.application.exception.ProductAlreadyExistsException;
+import com.wishlist.application.exception.ProductNotFoundException;
+import com.wishlist.application.exception.WishlistLimitExceededException;
+import com.wishlist.application.exception.WishlistPreconditionFailedException;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.usecase.ReactiveWishlistUseCase;
+import com.wishlist.presentation.ReactiveWishlistController;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+// Every error body is asserted field by field as WishlistControllerTest does for the MVC API
+@WebFluxTest(ReactiveWishlistController.class)
+@ActiveProfiles("reactive")
+@DisplayName("Reactive Wishlist Controller - REST API Behavior")
+public class ReactiveWishlistControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+    @MockBean
+    private ReactiveWishlistUseCase wishlistUseCase;
+    private final String VALID_CUSTOMER_ID = "customer123";
+    private final String VALID_PRODUCT_ID = "product456";
+    private final String WISHLIST_PATH = "/api/v1/customers/{customerId}/wishlist";
+    private final String PRODUCT_PATH = "/api/v1/customers/{customerId}/wishlist/products/{productId}";
+    private static final WishlistRevision REVISION = new WishlistRevision(3L, 1_724_927_400_000L);
+    private static final String ETAG = "\"" + REVISION.tag() + "\"";
+    private static final WishlistResponse WISHLIST = new WishlistResponse(
+        "customer123",
+        List.of(new ProductResponse("product1", LocalDateTime.of(2024, 8, 29, 10, 30))),
+        1,
+        20
+    );
+
+    @Nested
+    @DisplayName("Given a customer wants to get their wishlist")
+    class GivenCustomerWantsToGetWishlist {
+
+        @Test
+        @DisplayName("Should return 200 OK with the wishlist")
+        void shouldReturn200OkWithTheWishlist() {
+            given(wishlistUseCase.getRevisionedWishlist(VALID_CUSTOMER_ID))
+                .willReturn(Mono.just(new Revisioned<>(WISHLIST, REVISION)));
+
+            webTestClient
+                .get()
+                .uri(WISHLIST_PATH, VALID_CUSTOMER_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, ETAG)
+                .expectBody()
+                .jsonPath("$.customerId").isEqualTo(VALID_CUSTOMER_ID)
+                .jsonPath("$.totalItems").isEqualTo(1)
+                .jsonPath("$.maxItems").isEqualTo(20)
+                .jsonPath("$.products[0].productId").isEqualTo("product1");
+        }
+
+        @Test
+        @DisplayName("Should return 304 Not Modified when If-None-Match carries the current ETag")
+        void shouldReturn304NotModifiedWhenIfNoneMatchIsCurrent() {
+            given(wishlistUseCase.getWishlistRevision(VALID_CUSTOMER_ID)).willReturn(Mono.just(REVISION));
+
+            webTestClient
+                .get()
+                .uri(WISHLIST_PATH, VALID_CUSTOMER_ID)
+                .header(HttpHeaders.IF_NONE_MATCH, ETAG)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, ETAG)
+                .expectBody().isEmpty();
+
+            then(wishlistUseCase).should(never()).getWishlist(VALID_CUSTOMER_ID);
+        }
+
+        @Test
+        @DisplayName("Should return 400 Bad Request with the MVC validation message for an invalid customer ID")
+        void shouldReturn400BadRequestForInvalidCustomerIdFormat() {
+            webTestClient
+                .get()
+                .uri(WISHLIST_PATH, "customer@invalid")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("VALIDATION_ERROR")
+                .jsonPath("$.message").value(containsString(
+                    "Invalid input parameters: getWishlist.customerId: Invalid product ID format"
+                ))
+                .jsonPath("$.timestamp").isNotEmpty()
+                .jsonPath("$.path").isEqualTo("/api/v1/customers/customer@invalid/wishlist");
+
+            then(wishlistUseCase).should(never()).getRevisionedWishlist("customer@invalid");
+        }
+
+        @Test
+        @DisplayName("Should return 500 Internal Server Error without leaking the cause")
+        void shouldReturn500WithoutLeakingTheCause() {
+            given(wishlistUseCase.getRevisionedWishlist(VALID_CUSTOMER_ID))
+                .willReturn(Mono.error(new RuntimeException("Database connection failed")));
+
+            webTestClient
+                .get()
+                .uri(WISHLIST_PATH, VALID_CUSTOMER_ID)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("INTERNAL_SERVER_ERROR")
+                .jsonPath("$.message").value(containsString("unexpected error occurred"));
+        }
+
+        @Test
+        @DisplayName("Should return 504 Gateway Timeout when the read exceeds its deadline")
+        void shouldReturn504WhenTheReadExceedsItsDeadline() {
+            given(wishlistUseCase.getRevisionedWishlist(VALID_CUSTOMER_ID))
+                .willReturn(Mono.error(new QueryTimeoutException("Reading the wishlist exceeded its deadline")));
+
+            webTestClient
+                .get()
+                .uri(WISHLIST_PATH, VALID_CUSTOMER_ID)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("DEADLINE_EXCEEDED");
+        }
+    }
+
+    @Nested
+    @DisplayName("Given a customer wants to add a product to wishlist")
+    class GivenCustomerWantsToAddProduct {
+
+        @Test
+        @DisplayName("Should return 201 Created when product is added successfully")
+        void shouldReturn201CreatedWhenProductIsAdded() {
+            given(wishlistUseCase.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID)).willReturn(Mono.just(
+                new AddProductResponse(
+                    "Product added to wishlist successfully",
+                    VALID_CUSTOMER_ID,
+                    VALID_PRODUCT_ID,
+                    LocalDateTime.of(2024, 8, 29, 10, 30)
+                )
+            ));
+
+            webTestClient
+                .post()
+                .uri(PRODUCT_PATH, VALID_CUSTOMER_ID, VALID_PRODUCT_ID)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.productId").isEqualTo(VALID_PRODUCT_ID);
+        }
+
+        @Test
+        @DisplayName("Should return 201 Created with the updated wishlist when Prefer asks for the representation")
+        void shouldReturn201CreatedWithTheWishlistWhenPreferred() {
+            given(wishlistUseCase.addProductAndGet(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .willReturn(Mono.just(new Revisioned<>(WISHLIST, REVISION)));
+
+            webTestClient
+                .post()
+                .uri(PRODUCT_PATH, VALID_CUSTOMER_ID, VALID_PRODUCT_ID)
+                .header("Prefer", "return=representation")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals("Preference-Applied", "return=representation")
+                .expectHeader().valueEquals(HttpHeaders.ETAG, ETAG)
+                .expectBody()
+                .jsonPath("$.products[0].productId").isEqualTo("product1");
+        }
+
+        @Test
+        @DisplayName("Should return 412 Precondition Failed when If-Match is stale")
+        void shouldReturn412PreconditionFailedWhenIfMatchIsStale() {
+            given(wishlistUseCase.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, REVISION))
+                .willReturn(Mono.error(new WishlistPreconditionFailedException("Wishlist was modified since the given revision")));
+
+            webTestClient
+                .post()
+                .uri(PRODUCT_PATH, VALID_CUSTOMER_ID, VALID_PRODUCT_ID)
+                .header(HttpHeaders.IF_MATCH, ETAG)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("PRECONDITION_FAILED");
+        }
+
+        @Test
+        @DisplayName("Should return 409 Conflict with code, message, timestamp and path when product already exists")
+        void shouldReturn409ConflictWhenProductAlreadyExists() {
+            given(wishlistUseCase.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .willReturn(Mono.error(new ProductAlreadyExistsException("Product already exists in wishlist")));
+
+            webTestClient
+                .post()
+                .uri(PRODUCT_PATH, VALID_CUSTOMER_ID, VALID_PRODUCT_ID)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("PRODUCT_ALREADY_EXISTS")
+                .jsonPath("$.message").value(containsString("already exists"))
+                .jsonPath("$.timestamp").isNotEmpty()
+                .jsonPath("$.path").isEqualTo("/api/v1/customers/customer123/wishlist/products/product456");
+        }
+
+        @Test
+        @DisplayName("Should return 400 Bad Request when wishlist limit is exceeded")
+        void shouldReturn400BadRequestWhenWishlistLimitIsExceeded() {
+            given(wishlistUseCase.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .willReturn(Mono.error(new WishlistLimitExceededException("Wishlist cannot exceed 20 products")));
+
+            webTestClient
+                .post()
+                .uri(PRODUCT_PATH, VALID_CUSTOMER_ID, VALID_PRODUCT_ID)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("WISHLIST_LIMIT_EXCEEDED")
+                .jsonPath("$.message").value(containsString("cannot exceed 20 products"))
+                .jsonPath("$.timestamp").isNotEmpty();
+        }
+
+        @Test
+        @DisplayName("Should return 409 Conflict when the wishlist was modified concurrently")
+        void shouldReturn409ConflictWhenModifiedConcurrently() {
+            given(wishlistUseCase.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .willReturn(Mono.error(new OptimisticLockingFailureException("Concurrent modification")));
+
+            webTestClient
+                .post()
+                .uri(PRODUCT_PATH, VALID_CUSTOMER_ID, VALID_PRODUCT_ID)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("CONCURRENT_MODIFICATION")
+                .jsonPath("$.message").isEqualTo("Wishlist was modified concurrently. Please try again.");
+        }
+
+        @Test
+        @DisplayName("Should return 400 Bad Request for invalid product ID format")
+        void shouldReturn400BadRequestForInvalidProductIdFormat() {
+            webTestClient
+                .post()
+                .uri(PRODUCT_PATH, VALID_CUSTOMER_ID, "product@invalid")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("VALIDATION_ERROR");
+        }
+    }
+
+    @Nested
+    @DisplayName("Given a customer wants to remove a product from wishlist")
+    class GivenCustomerWantsToRemoveProduct {
+
+        @Test
+        @DisplayName("Should return 204 No Content when product is removed successfully")
+        void shouldReturn204NoContentWhenProductIsRemoved() {
+            given(wishlistUseCase.removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID)).willReturn(Mono.empty());
+
+            webTestClient
+                .delete()
+                .uri(PRODUCT_PATH, VALID_CUSTOMER_ID, VALID_PRODUCT_ID)
+                .exchange()
+                .expectStatus().isNoContent()
+                .expectBody().isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should return 404 Not Found when product doesn't exist")
+        void shouldReturn404NotFoundWhenProductDoesntExist() {
+            given(wishlistUseCase.removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .willReturn(Mono.error(new ProductNotFoundException("Product not found in wishlist")));
+
+            webTestClient
+                .delete()
+                .uri(PRODUCT_PATH, VALID_CUSTOMER_ID, VALID_PRODUCT_ID)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("PRODUCT_NOT_FOUND");
+        }
+
+        @Test
+        @DisplayName("Should return 404 Not Found when customer doesn't exist")
+        void shouldReturn404NotFoundWhenCustomerDoesntExist() {
+            given(wishlistUseCase.removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .willReturn(Mono.error(new CustomerNotFoundException("Customer not found")));
+
+            webTestClient
+                .delete()
+                .uri(PRODUCT_PATH, VALID_CUSTOMER_ID, VALID_PRODUCT_ID)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("CUSTOMER_NOT_FOUND");
+        }
+    }
+
+    @Nested
+    @DisplayName("Given a client checks which products are in a wishlist")
+    class GivenClientChecksContainedProducts {
+
+        @Test
+        @DisplayName("Should return 200 OK with the products found")
+        void shouldReturn200OkWithTheProductsFound() {
+            given(wishlistUseCase.findContainedProducts(VALID_CUSTOMER_ID, List.of("product1", "product2")))
+                .willReturn(Mono.just(new ContainedProductsResponse(
+                    VALID_CUSTOMER_ID,
+                    List.of(new ProductResponse("product1", LocalDateTime.of(2024, 8, 29, 10, 30)))
+                )));
+
+            webTestClient
+                .post()
+                .uri(WISHLIST_PATH + "/products:contains", VALID_CUSTOMER_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"productIds\":[\"product1\",\"product2\"]}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.products.length()").isEqualTo(1)
+                .jsonPath("$.products[0].productId").isEqualTo("product1");
+        }
+    }
+
+    @Nested
+    @DisplayName("Given a customer wants to clear their entire wishlist")
+    class GivenCustomerWantsToClearWishlist {
+
+        @Test
+        @DisplayName("Should return 404 Not Found when customer doesn't exist")
+        void shouldReturn404NotFoundWhenCustomerDoesntExist() {
+            given(wishlistUseCase.clearWishlist(VALID_CUSTOMER_ID))
+                .willReturn(Mono.error(new CustomerNotFoundException("Customer not found")));
+
+            webTestClient
+                .delete()
+                .uri(WISHLIST_PATH, VALID_CUSTOMER_ID)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("CUSTOMER_NOT_FOUND");
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.wishlist.presentation.controller;
+
+import com.wishlist.application.service.WishlistStreamingService;
+import com.wishlist.domain.entity.Wishlist;
+import com.wishlist.domain.entity.WishlistProduct;
+import com.wishlist.domain.repository.RawWishlist;
+import com.wishlist.domain.repository.RawWishlistRepository;
+import com.wishlist.domain.repository.WishlistRevision;
+import com.wishlist.domain.usecase.WishlistUseCase;
+import com.wishlist.infrastructure.repository.WishlistCodec;
+import com.wishlist.infrastructure.repository.WishlistJsonWriter;
+import com.wishlist.presentation.WishlistController;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = WishlistController.class, properties = "wishlist.read.raw-json-enabled=true")
+@Import({WishlistStreamingService.class, WishlistJsonWriter.class})
+@DisplayName("Wishlist Controller - Raw JSON read path")
+public class WishlistControllerRawJsonTest {
+    private static final String CUSTOMER_ID = "customer123";
+    private static final String WISHLIST_PATH = "/api/v1/customers/{customerId}/wishlist";
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private WishlistUseCase wishlistUseCase;
+    @MockBean
+    private RawWishlistRepository rawWishlistRepository;
+
+    @Nested
+    @DisplayName("Given a stored wishlist")
+    class GivenStoredWishlist {
+        private final RawWishlist stored = rawWishlist(3L, "product1", "product2");
+
+        @Test
+        @DisplayName("Should write the stored document as a WishlistResponse with the ETag of its revision")
+        void shouldWriteStoredDocumentWithEtag() throws Exception {
+            given(rawWishlistRepository.findRawByCustomerId(CUSTOMER_ID)).willReturn(Optional.of(stored));
+
+            mockMvc
+                .perform(get(WISHLIST_PATH, CUSTOMER_ID))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, etag(stored.revision())))
+                .andExpect(jsonPath("$.customerId", is(CUSTOMER_ID)))
+                .andExpect(jsonPath("$.totalItems", is(2)))
+                .andExpect(jsonPath("$.maxItems", is(Wishlist.MAX_PRODUCTS)))
+                .andExpect(jsonPath("$.products[0].productId", is("product1")))
+                .andExpect(jsonPath("$.products[1].productId", is("product2")));
+            then(rawWishlistRepository).should(never()).findRevisionByCustomerId(anyString());
+            verifyNoInteractions(wishlistUseCase);
+        }
+
+        @Test
+        @DisplayName("Should return 304 Not Modified without reading the document when the ETag matches")
+        void shouldReturn304WhenEtagMatches() throws Exception {
+            given(rawWishlistRepository.findRevisionByCustomerId(CUSTOMER_ID))
+                .willReturn(Optional.of(stored.revision()));
+
+            mockMvc
+                .perform(get(WISHLIST_PATH, CUSTOMER_ID).header(HttpHeaders.IF_NONE_MATCH, etag(stored.revision())))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+            then(rawWishlistRepository).should(never()).findRawByCustomerId(anyString());
+        }
+
+        @Test
+        @DisplayName("Should return 200 OK with the current ETag when the wishlist changed since the ETag")
+        void shouldReturn200WhenEtagIsStale() throws Exception {
+            given(rawWishlistRepository.findRevisionByCustomerId(CUSTOMER_ID))
+                .willReturn(Optional.of(stored.revision()));
+            given(rawWishlistRepository.findRawByCustomerId(CUSTOMER_ID)).willReturn(Optional.of(stored));
+
+            mockMvc
+                .perform(get(WISHLIST_PATH, CUSTOMER_ID).header(HttpHeaders.IF_NONE_MATCH, "\"2-18bcfe56800\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag(stored.revision())))
+                .andExpect(jsonPath("$.totalItems", is(2)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Given a customer without a wishlist")
+    class GivenCustomerWithoutWishlist {
+
+        @Test
+        @DisplayName("Should return an empty wishlist without an ETag")
+        void shouldReturnEmptyWishlistWithoutEtag() throws Exception {
+            given(rawWishlistRepository.findRawByCustomerId(CUSTOMER_ID)).willReturn(Optional.empty());
+
+            mockMvc
+                .perform(get(WISHLIST_PATH, CUSTOMER_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.customerId", is(CUSTOMER_ID)))
+                .andExpect(jsonPath("$.totalItems", is(0)));
+        }
+
+        @Test
+        @DisplayName("Should return an empty wishlist, not 304, for a conditional request")
+        void shouldReturnEmptyWishlistForConditionalRequest() throws Exception {
+            given(rawWishlistRepository.findRevisionByCustomerId(CUSTOMER_ID)).willReturn(Optional.empty());
+
+            mockMvc
+                .perform(get(WISHLIST_PATH, CUSTOMER_ID).header(HttpHeaders.IF_NONE_MATCH, "\"2-18bcfe56800\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems", is(0)));
+        }
+    }
+
+    private static RawWishlist rawWishlist(long version, String... productIds) {
+        final LocalDateTime now = LocalDateTime.of(2024, 8, 29, 10, 30);
+        final List<WishlistProduct> products = new ArrayList<>();
+        for (String productId : productIds) {
+            products.add(new WishlistProduct(productId, now));
+        }
+        final Wishlist wishlist = Wishlist.restore(new ObjectId().toHexString(), CUSTOMER_ID, products, now, now, version);
+        final RawBsonDocument document = new RawBsonDocument(wishlist, new WishlistCodec());
+        return new RawWishlist(WishlistRevision.of(wishlist), document.getByteBuffer().asNIO());
+    }
+
+    private static String etag(WishlistRevision revision) {
+        return "\"" + revision.tag() + "\"";
+    }
+}
@@ -2,14 +2,19 @@ package com.wishlist.presentation.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wishlist.application.dto.AddProductResponse;
+import com.wishlist.application.dto.ContainedProductsResponse;
+import com.wishlist.application.dto.ContainsProductsRequest;
 import com.wishlist.application.dto.ProductExistsResponse;
 import com.wishlist.application.dto.ProductResponse;
+import com.wishlist.application.dto.Revisioned;
 import com.wishlist.application.dto.WishlistResponse;
 import com.wishlist.application.exception.CustomerNotFoundException;
 import com.wishlist.application.exception.InvalidCustomerIdException;
 import com.wishlist.application.exception.ProductAlreadyExistsException;
 import com.wishlist.application.exception.ProductNotFoundException;
 import com.wishlist.application.exception.WishlistLimitExceededException;
+import com.wishlist.application.exception.WishlistPreconditionFailedException;
+import com.wishlist.domain.repository.WishlistRevision;
 import com.wishlist.domain.usecase.WishlistUseCase;
 import com.wishlist.presentation.WishlistController;
 import org.junit.jupiter.api.DisplayName;
@@ -18,12 +23,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.containsString;
@@ -35,11 +44,13 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
 @WebMvcTest(WishlistController.class)
@@ -68,7 +79,8 @@ public class WishlistControllerTest {
                 20
             );
 
-            given(wishlistUseCase.getWishlist(VALID_CUSTOMER_ID)).willReturn(emptyResponse);
+            given(wishlistUseCase.getRevisionedWishlist(VALID_CUSTOMER_ID))
+                .willReturn(new Revisioned<>(emptyResponse, null));
 
             mockMvc
                 .perform(get("/api/v1/customers/{customerId}/wishlist", VALID_CUSTOMER_ID))
@@ -98,7 +110,8 @@ public class WishlistControllerTest {
                 20
             );
 
-            given(wishlistUseCase.getWishlist(VALID_CUSTOMER_ID)).willReturn(wishlistWithProducts);
+            given(wishlistUseCase.getRevisionedWishlist(VALID_CUSTOMER_ID))
+                .willReturn(new Revisioned<>(wishlistWithProducts, null));
 
             mockMvc
                 .perform(get("/api/v1/customers/{customerId}/wishlist", VALID_CUSTOMER_ID))
@@ -131,7 +144,7 @@ public class WishlistControllerTest {
         @Test
         @DisplayName("Should return 400 Bad Request for empty customer ID")
         void shouldReturn400BadRequestForEmptyCustomerId() throws Exception {
-            given(wishlistUseCase.getWishlist(""))
+            given(wishlistUseCase.getRevisionedWishlist(""))
                 .willThrow(new InvalidCustomerIdException("Customer ID cannot be null or empty"));
 
             mockMvc
@@ -140,6 +153,252 @@ public class WishlistControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Given a client revalidates its cached wishlist")
+    class GivenClientRevalidatesWishlist {
+        private final WishlistRevision revision = new WishlistRevision(3, 1_700_000_000_000L);
+
+        @Test
+        @DisplayName("Should return the wishlist with a strong ETag of the loaded revision without a revision lookup")
+        void shouldReturnWishlistWithStrongEtag() throws Exception {
+            given(wishlistUseCase.getRevisionedWishlist(VALID_CUSTOMER_ID)).willReturn(new Revisioned<>(
+                new WishlistResponse(VALID_CUSTOMER_ID, Collections.emptyList(), 0, 20),
+                revision
+            ));
+
+            mockMvc
+                .perform(get("/api/v1/customers/{customerId}/wishlist", VALID_CUSTOMER_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + revision.tag() + "\""));
+            then(wishlistUseCase).should(never()).getWishlistRevision(VALID_CUSTOMER_ID);
+        }
+
+        @Test
+        @DisplayName("Should return no ETag for a customer without a stored wishlist")
+        void shouldReturnNoEtagWithoutStoredWishlist() throws Exception {
+            given(wishlistUseCase.getRevisionedWishlist(VALID_CUSTOMER_ID)).willReturn(new Revisioned<>(
+                new WishlistResponse(VALID_CUSTOMER_ID, Collections.emptyList(), 0, 20),
+                null
+            ));
+
+            mockMvc
+                .perform(get("/api/v1/customers/{customerId}/wishlist", VALID_CUSTOMER_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        }
+
+        @Test
+        @DisplayName("Should return 304 Not Modified without reading the wishlist when the ETag matches")
+        void shouldReturn304WhenEtagMatches() throws Exception {
+            given(wishlistUseCase.getWishlistRevision(VALID_CUSTOMER_ID)).willReturn(Optional.of(revision));
+
+            mockMvc
+                .perform(
+                    get("/api/v1/customers/{customerId}/wishlist", VALID_CUSTOMER_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + revision.tag() + "\"")
+                )
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+            then(wishlistUseCase).should(never()).getWishlist(VALID_CUSTOMER_ID);
+        }
+
+        @Test
+        @DisplayName("Should return 200 OK when the wishlist changed since the ETag")
+        void shouldReturn200WhenEtagIsStale() throws Exception {
+            given(wishlistUseCase.getWishlistRevision(VALID_CUSTOMER_ID)).willReturn(Optional.of(revision));
+            given(wishlistUseCase.getWishlist(VALID_CUSTOMER_ID))
+                .willReturn(new WishlistResponse(VALID_CUSTOMER_ID, Collections.emptyList(), 0, 20));
+
+            mockMvc
+                .perform(
+                    get("/api/v1/customers/{customerId}/wishlist", VALID_CUSTOMER_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2-18bcfe56800\"")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerId", is(VALID_CUSTOMER_ID)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Given a client writes against a known wishlist revision")
+    class GivenClientWritesConditionally {
+        private final WishlistRevision revision = new WishlistRevision(3, 1_700_000_000_000L);
+        private final WishlistRevision nextRevision = new WishlistRevision(4, 1_700_000_000_500L);
+
+        @Test
+        @DisplayName("Should add the product and return the ETag of the new revision")
+        void shouldAddProductAndReturnNewEtag() throws Exception {
+            final AddProductResponse response = new AddProductResponse(
+                "Product added to wishlist successfully",
+                VALID_CUSTOMER_ID,
+                VALID_PRODUCT_ID,
+                LocalDateTime.of(2024, 8, 29, 10, 30)
+            );
+            given(wishlistUseCase.addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, revision))
+                .willReturn(new Revisioned<>(response, nextRevision));
+
+            mockMvc
+                .perform(
+                    post(
+                        "/api/v1/customers/{customerId}/wishlist/products/{productId}",
+                        VALID_CUSTOMER_ID,
+                        VALID_PRODUCT_ID
+                    )
+                        .header(HttpHeaders.IF_MATCH, "\"" + revision.tag() + "\"")
+                )
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + nextRevision.tag() + "\""))
+                .andExpect(jsonPath("$.productId", is(VALID_PRODUCT_ID)));
+            then(wishlistUseCase).should(never()).addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID);
+        }
+
+        @Test
+        @DisplayName("Should return 412 Precondition Failed when the wishlist changed since the ETag")
+        void shouldReturn412WhenRevisionIsStale() throws Exception {
+            willThrow(new WishlistPreconditionFailedException("Wishlist was modified since the given revision"))
+                .given(wishlistUseCase)
+                .removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, revision);
+
+            mockMvc
+                .perform(
+                    delete("/api/v1/customers/{customerId}/wishlist/products/{productId}",
+                        VALID_CUSTOMER_ID,
+                        VALID_PRODUCT_ID
+                    )
+                        .header(HttpHeaders.IF_MATCH, "\"" + revision.tag() + "\"")
+                )
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.code", is("PRECONDITION_FAILED")));
+        }
+
+        @Test
+        @DisplayName("Should return 412 Precondition Failed for a weak or malformed ETag")
+        void shouldReturn412ForWeakEtag() throws Exception {
+            mockMvc
+                .perform(
+                    delete("/api/v1/customers/{customerId}/wishlist/products/{productId}",
+                        VALID_CUSTOMER_ID,
+                        VALID_PRODUCT_ID
+                    )
+                        .header(HttpHeaders.IF_MATCH, "W/\"" + revision.tag() + "\"")
+                )
+                .andExpect(status().isPreconditionFailed());
+            then(wishlistUseCase).should(never()).removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID);
+        }
+
+        @Test
+        @DisplayName("Should write against the listed ETag that matches the current revision")
+        void shouldWriteAgainstAnyMatchingEtag() throws Exception {
+            given(wishlistUseCase.getWishlistRevision(VALID_CUSTOMER_ID)).willReturn(Optional.of(revision));
+            given(wishlistUseCase.removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, revision)).willReturn(nextRevision);
+
+            mockMvc
+                .perform(
+                    delete("/api/v1/customers/{customerId}/wishlist/products/{productId}",
+                        VALID_CUSTOMER_ID,
+                        VALID_PRODUCT_ID
+                    )
+                        .header(
+                            HttpHeaders.IF_MATCH,
+                            "W/\"" + nextRevision.tag() + "\", \"2-18bcfe56800\", \"" + revision.tag() + "\""
+                        )
+                )
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + nextRevision.tag() + "\""));
+        }
+
+        @Test
+        @DisplayName("Should return 412 Precondition Failed when none of the listed ETags matches")
+        void shouldReturn412WhenNoListedEtagMatches() throws Exception {
+            given(wishlistUseCase.getWishlistRevision(VALID_CUSTOMER_ID)).willReturn(Optional.of(nextRevision));
+
+            mockMvc
+                .perform(
+                    delete("/api/v1/customers/{customerId}/wishlist/products/{productId}",
+                        VALID_CUSTOMER_ID,
+                        VALID_PRODUCT_ID
+                    )
+                        .header(HttpHeaders.IF_MATCH, "\"2-18bcfe56800\", \"" + revision.tag() + "\"")
+                )
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.code", is("PRECONDITION_FAILED")));
+            then(wishlistUseCase).should(never()).removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID, revision);
+        }
+
+        @Test
+        @DisplayName("Should write unconditionally when If-Match is a wildcard")
+        void shouldWriteUnconditionallyForWildcard() throws Exception {
+            mockMvc
+                .perform(
+                    delete("/api/v1/customers/{customerId}/wishlist/products/{productId}",
+                        VALID_CUSTOMER_ID,
+                        VALID_PRODUCT_ID
+                    )
+                        .header(HttpHeaders.IF_MATCH, "*")
+                )
+                .andExpect(status().isNoContent());
+            then(wishlistUseCase).should().removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID);
+        }
+    }
+
+    @Nested
+    @DisplayName("Given a client asks for the updated wishlist in the write response")
+    class GivenClientAsksForUpdatedWishlist {
+        private final WishlistRevision revision = new WishlistRevision(4, 1_700_000_000_500L);
+        private final WishlistResponse updated = new WishlistResponse(
+            VALID_CUSTOMER_ID,
+            Collections.singletonList(new ProductResponse(VALID_PRODUCT_ID, LocalDateTime.of(2024, 8, 29, 10, 30))),
+            1,
+            20
+        );
+
+        @Test
+        @DisplayName("Should return 201 Created with the updated wishlist when Prefer asks for the representation")
+        void shouldReturnUpdatedWishlistWhenPreferAsksForRepresentation() throws Exception {
+            given(wishlistUseCase.addProductAndGet(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .willReturn(new Revisioned<>(updated, revision));
+
+            mockMvc
+                .perform(
+                    post(
+                        "/api/v1/customers/{customerId}/wishlist/products/{productId}",
+                        VALID_CUSTOMER_ID,
+                        VALID_PRODUCT_ID
+                    )
+                        .header("Prefer", "return=representation")
+                )
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Preference-Applied", "return=representation"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + revision.tag() + "\""))
+                .andExpect(jsonPath("$.totalItems", is(1)))
+                .andExpect(jsonPath("$.products[0].productId", is(VALID_PRODUCT_ID)));
+            then(wishlistUseCase).should(never()).addProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID);
+        }
+
+        @Test
+        @DisplayName("Should return 200 OK with the updated wishlist when the query parameter asks for the representation")
+        void shouldReturnUpdatedWishlistWhenQueryParameterAsksForRepresentation() throws Exception {
+            given(wishlistUseCase.removeProductAndGet(VALID_CUSTOMER_ID, VALID_PRODUCT_ID))
+                .willReturn(new Revisioned<>(
+                    new WishlistResponse(VALID_CUSTOMER_ID, Collections.emptyList(), 0, 20),
+                    revision
+                ));
+
+            mockMvc
+                .perform(
+                    delete("/api/v1/customers/{customerId}/wishlist/products/{productId}",
+                        VALID_CUSTOMER_ID,
+                        VALID_PRODUCT_ID
+                    )
+                        .param("return", "representation")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerId", is(VALID_CUSTOMER_ID)))
+                .andExpect(jsonPath("$.totalItems", is(0)));
+            then(wishlistUseCase).should(never()).removeProduct(VALID_CUSTOMER_ID, VALID_PRODUCT_ID);
+        }
+    }
+
     @Nested
     @DisplayName("Given a customer wants to add a product to wishlist")
     class GivenCustomerWantsToAddProduct {
@@ -363,6 +622,66 @@ public class WishlistControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Given a product listing checks which products are wishlisted")
+    class GivenProductListingChecksWishlistedProducts {
+
+        @Test
+        @DisplayName("Should return 200 OK with only the products in the wishlist")
+        void shouldReturn200OkWithOnlyWishlistedProducts() throws Exception {
+            final List<String> productIds = Arrays.asList(VALID_PRODUCT_ID, "product789");
+            given(wishlistUseCase.findContainedProducts(VALID_CUSTOMER_ID, productIds))
+                .willReturn(new ContainedProductsResponse(
+                    VALID_CUSTOMER_ID,
+                    Collections.singletonList(new ProductResponse(VALID_PRODUCT_ID, LocalDateTime.of(2024, 8, 29, 10, 30)))
+                ));
+
+            mockMvc
+                .perform(
+                    post("/api/v1/customers/{customerId}/wishlist/products:contains", VALID_CUSTOMER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ContainsProductsRequest(productIds)))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerId", is(VALID_CUSTOMER_ID)))
+                .andExpect(jsonPath("$.products", hasSize(1)))
+                .andExpect(jsonPath("$.products[0].productId", is(VALID_PRODUCT_ID)))
+                .andExpect(jsonPath("$.products[0].addedAt", is("2024-08-29T10:30:00Z")));
+        }
+
+        @Test
+        @DisplayName("Should return 400 Bad Request when a product ID is invalid")
+        void shouldReturn400BadRequestWhenProductIdIsInvalid() throws Exception {
+            mockMvc
+                .perform(
+                    post("/api/v1/customers/{customerId}/wishlist/products:contains", VALID_CUSTOMER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                            new ContainsProductsRequest(Arrays.asList(VALID_PRODUCT_ID, "product@invalid"))
+                        ))
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code", is("VALIDATION_ERROR")));
+        }
+
+        @Test
+        @DisplayName("Should return 400 Bad Request when more than 100 products are asked about")
+        void shouldReturn400BadRequestWhenTooManyProducts() throws Exception {
+            final List<String> productIds = IntStream
+                .rangeClosed(1, 101)
+                .mapToObj(index -> "product" + index)
+                .toList();
+
+            mockMvc
+                .perform(
+                    post("/api/v1/customers/{customerId}/wishlist/products:contains", VALID_CUSTOMER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ContainsProductsRequest(productIds)))
+                )
+                .andExpect(status().isBadRequest());
+        }
+    }
+
     @Nested
     @DisplayName("Given a customer wants to clear their entire wishlist")
     class GivenCustomerWantsToClearWishlist {
@@ -401,7 +720,7 @@ public class WishlistControllerTest {
         @Test
         @DisplayName("Should handle unexpected server errors gracefully")
         void shouldHandleUnexpectedServerErrorsGracefully() throws Exception {
-            given(wishlistUseCase.getWishlist(VALID_CUSTOMER_ID))
+            given(wishlistUseCase.getRevisionedWishlist(VALID_CUSTOMER_ID))
                 .willThrow(new RuntimeException("Database connection failed"));
 
             mockMvc
@@ -496,7 +815,8 @@ public class WishlistControllerTest {
                 20
             );
 
-            given(wishlistUseCase.getWishlist(VALID_CUSTOMER_ID)).willReturn(emptyResponse);
+            given(wishlistUseCase.getRevisionedWishlist(VALID_CUSTOMER_ID))
+                .willReturn(new Revisioned<>(emptyResponse, null));
 
             mockMvc
                 .perform(
@@ -516,7 +836,8 @@ public class WishlistControllerTest {
                 20
             );
 
-            given(wishlistUseCase.getWishlist(VALID_CUSTOMER_ID)).willReturn(response);
+            given(wishlistUseCase.getRevisionedWishlist(VALID_CUSTOMER_ID))
+                .willReturn(new Revisioned<>(response, null));
 
             mockMvc
                 .perform(get("/api/v1/customers/{customerId}/wishlist", VALID_CUSTOMER_ID))